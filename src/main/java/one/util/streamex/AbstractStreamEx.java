@@ -62,12 +62,35 @@ public abstract class AbstractStreamEx<T, S extends AbstractStreamEx<T, S>> exte
         }
     }
 
+    /**
+     * Groups the elements of this parallel stream by the hash partitions using
+     * the supplied grouping (within the custom pool if it's specified).
+     */
+    final <K, V, R> R partitioned(Function<? super T, ? extends K> keyMapper,
+            Function<? super T, ? extends V> valMapper, PartitionedGrouping<K, V, ?, R> grouping) {
+        if (context.fjp != null)
+            return context.terminate(() -> grouping.collect(stream(), keyMapper, valMapper));
+        return grouping.collect(stream(), keyMapper, valMapper);
+    }
+
     <R, A> R rawCollect(Collector<? super T, A, R> collector) {
         if (context.fjp != null)
             return context.terminate(collector, stream()::collect);
         return stream().collect(collector);
     }
 
+    /**
+     * Returns the random access source of this stream consuming the stream or
+     * null if this stream is not backed by the intact random access source
+     * (in this case the stream is left intact).
+     */
+    @SuppressWarnings("unchecked")
+    final RandomAccessSpliterator<T> randomAccessSource() {
+        if (spliterator instanceof RandomAccessSpliterator && ((RandomAccessSpliterator<T>) spliterator).isIntact())
+            return (RandomAccessSpliterator<T>) spliterator();
+        return null;
+    }
+
     @SuppressWarnings("unchecked")
     S appendSpliterator(Stream<? extends T> other, Spliterator<? extends T> right) {
         if (right.getExactSizeIfKnown() == 0)
@@ -76,8 +99,15 @@ public abstract class AbstractStreamEx<T, S extends AbstractStreamEx<T, S>> exte
         Spliterator<T> result;
         if (left.getExactSizeIfKnown() == 0)
             result = (Spliterator<T>) right;
-        else
-            result = new TailConcatSpliterator<>(left, right);
+        else if (left instanceof ConcatSpliterator.OfRef && ((ConcatSpliterator<?, ?>) left).isFresh()) {
+            // flatten repeated append() calls into single node
+            ((ConcatSpliterator.OfRef<T>) left).append((Spliterator<T>) right);
+            result = left;
+        } else if (right instanceof ConcatSpliterator.OfRef && ((ConcatSpliterator<?, ?>) right).isFresh()) {
+            ((ConcatSpliterator.OfRef<T>) right).prepend(left);
+            result = (Spliterator<T>) right;
+        } else
+            result = new ConcatSpliterator.OfRef<>(new Spliterator<?>[] { left, right });
         context = context.combine(other);
         return supply(result);
     }
@@ -90,8 +120,15 @@ public abstract class AbstractStreamEx<T, S extends AbstractStreamEx<T, S>> exte
         Spliterator<T> result;
         if (right.getExactSizeIfKnown() == 0)
             result = (Spliterator<T>) left;
-        else
-            result = new TailConcatSpliterator<>(left, right);
+        else if (right instanceof ConcatSpliterator.OfRef && ((ConcatSpliterator<?, ?>) right).isFresh()) {
+            // flatten repeated prepend() calls into single node
+            ((ConcatSpliterator.OfRef<T>) right).prepend((Spliterator<T>) left);
+            result = right;
+        } else if (left instanceof ConcatSpliterator.OfRef && ((ConcatSpliterator<?, ?>) left).isFresh()) {
+            ((ConcatSpliterator.OfRef<T>) left).append(right);
+            result = (Spliterator<T>) left;
+        } else
+            result = new ConcatSpliterator.OfRef<>(new Spliterator<?>[] { left, right });
         context = context.combine(other);
         return supply(result);
     }
@@ -1382,7 +1419,10 @@ public abstract class AbstractStreamEx<T, S extends AbstractStreamEx<T, S>> exte
      * As this method must process elements strictly right to left, it cannot
      * start processing till all the previous stream stages complete. Also it
      * requires intermediate memory to store the whole content of the stream as
-     * the stream natural order is left to right. If your accumulator function
+     * the stream natural order is left to right. The only exception is the
+     * stream created directly from the random access {@code List}, array or
+     * via {@code StreamEx.ofReversed()}: such source is traversed backwards
+     * without buffering. If your accumulator function
      * is associative and you can provide a combiner function, consider using
      * {@link #reduce(Object, BiFunction, BinaryOperator)} method.
      * 
@@ -1403,6 +1443,14 @@ public abstract class AbstractStreamEx<T, S extends AbstractStreamEx<T, S>> exte
      * @since 0.2.2
      */
     public <U> U foldRight(U seed, BiFunction<? super T, U, U> accumulator) {
+        RandomAccessSpliterator<T> source = randomAccessSource();
+        if (source != null) {
+            List<T> list = source.list();
+            U result = seed;
+            for (int i = source.to() - 1, from = source.from(); i >= from; i--)
+                result = accumulator.apply(list.get(i), result);
+            return result;
+        }
         return toListAndThen(list -> {
             U result = seed;
             for (int i = list.size() - 1; i >= 0; i--)
@@ -1422,7 +1470,10 @@ public abstract class AbstractStreamEx<T, S extends AbstractStreamEx<T, S>> exte
      * As this method must process elements strictly right to left, it cannot
      * start processing till all the previous stream stages complete. Also it
      * requires intermediate memory to store the whole content of the stream as
-     * the stream natural order is left to right. If your accumulator function
+     * the stream natural order is left to right. The only exception is the
+     * stream created directly from the random access {@code List}, array or
+     * via {@code StreamEx.ofReversed()}: such source is traversed backwards
+     * without buffering. If your accumulator function
      * is associative, consider using {@link #reduce(BinaryOperator)} method.
      * 
      * <p>
@@ -1440,6 +1491,17 @@ public abstract class AbstractStreamEx<T, S extends AbstractStreamEx<T, S>> exte
      * @since 0.4.0
      */
     public Optional<T> foldRight(BinaryOperator<T> accumulator) {
+        RandomAccessSpliterator<T> source = randomAccessSource();
+        if (source != null) {
+            List<T> list = source.list();
+            int i = source.to() - 1, from = source.from();
+            if (i < from)
+                return Optional.empty();
+            T result = list.get(i--);
+            for (; i >= from; i--)
+                result = accumulator.apply(list.get(i), result);
+            return Optional.of(result);
+        }
         return toListAndThen(list -> {
             if (list.isEmpty())
                 return Optional.empty();
@@ -1550,7 +1612,10 @@ public abstract class AbstractStreamEx<T, S extends AbstractStreamEx<T, S>> exte
      * 
      * <p>
      * This method cannot take all the advantages of parallel streams as it must
-     * process elements strictly right to left.
+     * process elements strictly right to left. If the stream is created
+     * directly from the random access {@code List}, array or via
+     * {@code StreamEx.ofReversed()}, it's traversed backwards without
+     * buffering, only the resulting list is allocated.
      *
      * @param <U> The type of the result
      * @param seed the starting value
@@ -1569,6 +1634,17 @@ public abstract class AbstractStreamEx<T, S extends AbstractStreamEx<T, S>> exte
      */
     @SuppressWarnings("unchecked")
     public <U> List<U> scanRight(U seed, BiFunction<? super T, U, U> accumulator) {
+        RandomAccessSpliterator<T> source = randomAccessSource();
+        if (source != null) {
+            List<T> list = source.list();
+            int from = source.from(), size = source.to() - from;
+            List<U> result = new ArrayList<>(Collections.nCopies(size + 1, null));
+            result.set(size, seed);
+            for (int i = size - 1; i >= 0; i--) {
+                result.set(i, accumulator.apply(list.get(i + from), result.get(i + 1)));
+            }
+            return result;
+        }
         return toListAndThen(list -> {
             // Reusing the list for different object type as it will save memory
             List<U> result = (List<U>) list;
@@ -1596,7 +1672,10 @@ public abstract class AbstractStreamEx<T, S extends AbstractStreamEx<T, S>> exte
      * 
      * <p>
      * This method cannot take all the advantages of parallel streams as it must
-     * process elements strictly right to left.
+     * process elements strictly right to left. If the stream is created
+     * directly from the random access {@code List}, array or via
+     * {@code StreamEx.ofReversed()}, it's traversed backwards without
+     * buffering, only the resulting list is allocated.
      *
      * @param accumulator a <a
      *        href="package-summary.html#NonInterference">non-interfering </a>,
@@ -1612,6 +1691,18 @@ public abstract class AbstractStreamEx<T, S extends AbstractStreamEx<T, S>> exte
      * @since 0.4.0
      */
     public List<T> scanRight(BinaryOperator<T> accumulator) {
+        RandomAccessSpliterator<T> source = randomAccessSource();
+        if (source != null) {
+            List<T> list = source.list();
+            int from = source.from(), size = source.to() - from;
+            List<T> result = new ArrayList<>(Collections.nCopies(size, null));
+            if (size > 0)
+                result.set(size - 1, list.get(from + size - 1));
+            for (int i = size - 2; i >= 0; i--) {
+                result.set(i, accumulator.apply(list.get(i + from), result.get(i + 1)));
+            }
+            return result;
+        }
         return toListAndThen(list -> {
             for (int i = list.size() - 2; i >= 0; i--) {
                 list.set(i, accumulator.apply(list.get(i), list.get(i + 1)));
@@ -1620,6 +1711,51 @@ public abstract class AbstractStreamEx<T, S extends AbstractStreamEx<T, S>> exte
         });
     }
 
+    /**
+     * Produces a list containing cumulative results of applying the
+     * associative accumulation function going right to left.
+     * 
+     * <p>
+     * This is a terminal operation.
+     * 
+     * <p>
+     * This operation resembles {@link #scanRight(BinaryOperator)}, but unlike
+     * {@code scanRight} the accumulation function must be associative. This
+     * allows to compute the result for parallel stream in parallel: the
+     * elements are split into chunks, the suffix results are computed
+     * independently for every chunk right into the resulting list, then they
+     * are adjusted using the results of the subsequent chunks.
+     * 
+     * <p>
+     * The resulting {@link List} is guaranteed to be mutable.
+     *
+     * @param op an <a
+     *        href="package-summary.html#Associativity">associative</a>, <a
+     *        href="package-summary.html#NonInterference">non-interfering </a>,
+     *        <a href="package-summary.html#Statelessness">stateless</a>
+     *        function for incorporating an additional element into a result
+     * @return the {@code List} where the last element is the last element of
+     *         this stream and every predecessor element is the result of
+     *         applying accumulator function to the corresponding stream element
+     *         and the next list element. The resulting list has the same size
+     *         as this stream.
+     * @see #scanRight(BinaryOperator)
+     * @see #prefix(BinaryOperator)
+     * @since 0.6.7
+     */
+    public List<T> toSuffixList(BinaryOperator<T> op) {
+        if (!isParallel())
+            return scanRight(op);
+        RandomAccessSpliterator<T> source = randomAccessSource();
+        if (source == null)
+            return toListAndThen(list -> suffixScan(list, 0, list.size(), list, op));
+        int from = source.from(), size = source.to() - from;
+        List<T> result = new ArrayList<>(Collections.nCopies(size, null));
+        if (context.fjp != null)
+            return context.terminate(() -> suffixScan(source.list(), from, from + size, result, op));
+        return suffixScan(source.list(), from, from + size, result, op);
+    }
+
     /**
      * Returns a stream consisting of the remaining elements of this stream
      * after discarding the first {@code n} elements of the stream even if the
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators.AbstractSpliterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A spliterator which maps the source elements to the asynchronous
+ * computations keeping at most {@code maxInFlight} of them running at once.
+ *
+ * <p>
+ * In ordered mode the pending futures form the bounded reorder buffer: the
+ * results are emitted in the encounter order and the source is not advanced
+ * while the buffer is full. In unordered mode the results are emitted in the
+ * completion order.
+ *
+ * <p>
+ * The source is advanced sequentially; the parallel processing of the results
+ * is still possible via {@link AbstractSpliterator} batch splitting.
+ *
+ * @author Tagir Valeev
+ *
+ * @param <T> type of the source elements
+ * @param <R> type of the results
+ */
+/* package */final class AsyncMapSpliterator<T, R> extends AbstractSpliterator<R> implements Consumer<T> {
+    private final Spliterator<T> source;
+    private final Function<? super T, ? extends CompletableFuture<? extends R>> mapper;
+    private final int maxInFlight;
+    private final boolean ordered;
+    // pending futures: in encounter order if ordered, in any order otherwise
+    private final ArrayDeque<CompletableFuture<? extends R>> pending = new ArrayDeque<>();
+    // completed futures in completion order (unordered mode only)
+    private final BlockingQueue<CompletableFuture<? extends R>> completed;
+    private boolean exhausted, cancelled;
+
+    AsyncMapSpliterator(Spliterator<T> source, Function<? super T, ? extends CompletableFuture<? extends R>> mapper,
+            int maxInFlight, boolean ordered) {
+        super(source.estimateSize(), source.characteristics() & (SIZED | (ordered ? ORDERED : 0)));
+        this.source = source;
+        this.mapper = mapper;
+        this.maxInFlight = maxInFlight;
+        this.ordered = ordered;
+        this.completed = ordered ? null : new LinkedBlockingQueue<>();
+    }
+
+    @Override
+    public void accept(T t) {
+        CompletableFuture<? extends R> future = Objects.requireNonNull(mapper.apply(t),
+            "mapper returned null future");
+        pending.add(future);
+        if (!ordered) {
+            future.whenComplete((r, ex) -> completed.add(future));
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super R> action) {
+        if (cancelled)
+            throw new IllegalStateException("Stream is closed");
+        try {
+            while (!exhausted && pending.size() < maxInFlight) {
+                if (!source.tryAdvance(this))
+                    exhausted = true;
+            }
+        } catch (RuntimeException | Error e) {
+            // the failed mapper or source cancels the computations already started
+            cancel();
+            throw e;
+        }
+        if (pending.isEmpty())
+            return false;
+        CompletableFuture<? extends R> future;
+        if (ordered) {
+            future = pending.poll();
+        } else {
+            try {
+                future = completed.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw new CompletionException(e);
+            }
+            pending.remove(future);
+        }
+        R result;
+        try {
+            result = future.join();
+        } catch (CompletionException e) {
+            cancel();
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw e;
+        } catch (RuntimeException e) {
+            cancel();
+            throw e;
+        }
+        action.accept(result);
+        return true;
+    }
+
+    /**
+     * Cancels all the pending futures. Called on failure and when the stream
+     * is closed.
+     */
+    void cancel() {
+        cancelled = true;
+        for (CompletableFuture<? extends R> future : pending) {
+            future.cancel(true);
+        }
+        pending.clear();
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+/**
+ * A {@link BitSet} accumulator for parallel streams. Every accumulator stores
+ * only the words between the smallest and the largest bit it has seen, so a
+ * leaf task which processes the contiguous part of dense input allocates only
+ * the corresponding part of the words. The bits which would make the words
+ * range too sparse are stored in a plain int array instead. Accumulators are
+ * linked together instead of being merged; the final words array is allocated
+ * once and filled in parallel by word-aligned partitions which are disjoint, so
+ * no atomic operations are necessary.
+ *
+ * @author Tagir Valeev
+ */
+/* package */final class BitSetBuilder {
+    private static final int INITIAL_WORDS = 8;
+    private static final int MIN_PARTITION_WORDS = 1 << 12;
+
+    private int base;
+    private long[] words;
+    private int count;
+    private int[] sparse;
+    private int sparseSize;
+    private BitSetBuilder next, tail = this;
+
+    void accept(int bit) {
+        if (bit < 0)
+            throw new IndexOutOfBoundsException("bitIndex < 0: " + bit);
+        int word = bit >>> 6;
+        long[] words = this.words;
+        count++;
+        if (words == null) {
+            this.words = words = new long[INITIAL_WORDS];
+            base = word;
+        } else if (word < base) {
+            int newBase = Math.max(0, Math.min(word, base - words.length));
+            if (!canGrow(words.length + base - newBase)) {
+                addSparse(bit);
+                return;
+            }
+            long[] newWords = new long[words.length + base - newBase];
+            System.arraycopy(words, 0, newWords, base - newBase, words.length);
+            this.words = words = newWords;
+            base = newBase;
+        } else if (word - base >= words.length) {
+            int newLength = Math.max(word - base + 1, words.length * 2);
+            if (!canGrow(newLength)) {
+                addSparse(bit);
+                return;
+            }
+            this.words = words = Arrays.copyOf(words, newLength);
+        }
+        words[word - base] |= 1L << bit;
+    }
+
+    // words array may occupy at most twice as much memory as the ints
+    private boolean canGrow(int newLength) {
+        return newLength <= Math.max(INITIAL_WORDS, count);
+    }
+
+    private void addSparse(int bit) {
+        if (sparse == null) {
+            sparse = new int[INITIAL_WORDS];
+        } else if (sparseSize == sparse.length) {
+            sparse = Arrays.copyOf(sparse, sparseSize * 2);
+        }
+        sparse[sparseSize++] = bit;
+    }
+
+    BitSetBuilder combine(BitSetBuilder other) {
+        tail.next = other;
+        tail = other.tail;
+        return this;
+    }
+
+    private void orInto(long[] target, int from, int to) {
+        for (BitSetBuilder b = this; b != null; b = b.next) {
+            long[] words = b.words;
+            if (words == null)
+                continue;
+            int start = Math.max(from, b.base), end = Math.min(to, b.base + words.length);
+            for (int i = start; i < end; i++)
+                target[i] |= words[i - b.base];
+        }
+    }
+
+    private int length() {
+        int length = 0;
+        for (BitSetBuilder b = this; b != null; b = b.next) {
+            if (b.words != null)
+                length = Math.max(length, b.base + b.words.length);
+            for (int i = 0; i < b.sparseSize; i++)
+                length = Math.max(length, (b.sparse[i] >>> 6) + 1);
+        }
+        return length;
+    }
+
+    BitSet build() {
+        int length = length();
+        long[] result = new long[length];
+        int parts = next == null ? 1 : Math.max(1, length / MIN_PARTITION_WORDS);
+        if (parts == 1) {
+            orInto(result, 0, length);
+        } else {
+            int chunk = (length - 1) / parts + 1;
+            IntStream.range(0, parts).parallel().forEach(
+                part -> orInto(result, part * chunk, Math.min(length, (part + 1) * chunk)));
+        }
+        for (BitSetBuilder b = this; b != null; b = b.next) {
+            for (int i = 0; i < b.sparseSize; i++)
+                result[b.sparse[i] >>> 6] |= 1L << b.sparse[i];
+        }
+        // JDK provides no way to wrap the words array without copying
+        return BitSet.valueOf(result);
+    }
+}
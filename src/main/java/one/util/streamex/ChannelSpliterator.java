@@ -0,0 +1,342 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * A spliterator which decodes the numbers from the {@link ReadableByteChannel}
+ * reading them via reusable buffer. The numbers are either fixed-width
+ * (bytes, ints or longs in specified byte order) or unsigned LEB128 varints.
+ *
+ * <p>
+ * If the channel is a {@link FileChannel}, it's read by position (starting
+ * from the current channel position up to the file size), so it can be split
+ * by position: fixed-width numbers are split at the element boundary while
+ * varints are split after the closest byte having the most significant bit
+ * clear. Otherwise the numbers are split by batches like the iterator-based
+ * spliterators do.
+ *
+ * @author Tagir Valeev
+ *
+ * @param <T> type of the elements
+ */
+/* package */abstract class ChannelSpliterator<T> implements Spliterator<T> {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MIN_BUFFER_SIZE = 16;
+    private static final int BATCH_UNIT = 1 << 10;
+    private static final int MAX_BATCH = 1 << 25;
+    private static final int MAX_VARINT_SEARCH = 64;
+
+    private final ReadableByteChannel channel;
+    private final FileChannel file;
+    private final ByteOrder order;
+    // width of fixed-width number in bytes, or 0 for varint
+    final int width;
+    private long position, end;
+    private ByteBuffer buf;
+    int batch;
+
+    ChannelSpliterator(ReadableByteChannel channel, ByteOrder order, int width) {
+        this.channel = channel;
+        this.order = order;
+        this.width = width;
+        if (channel instanceof SelectableChannel && !((SelectableChannel) channel).isBlocking())
+            throw new IllegalArgumentException("The channel must be in blocking mode");
+        if (channel instanceof FileChannel) {
+            this.file = (FileChannel) channel;
+            try {
+                this.position = file.position();
+                this.end = file.size();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            this.file = null;
+        }
+    }
+
+    /**
+     * @return an action which closes the supplied resource wrapping the
+     *         {@link IOException} into {@link UncheckedIOException}
+     */
+    static Runnable closer(Closeable closeable) {
+        return () -> {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    /**
+     * Creates the prefix of the parent spliterator ending at given position
+     */
+    ChannelSpliterator(ChannelSpliterator<T> parent, long mid) {
+        this.channel = parent.channel;
+        this.file = parent.file;
+        this.order = parent.order;
+        this.width = parent.width;
+        this.position = parent.position;
+        this.end = mid;
+        parent.position = mid;
+    }
+
+    private boolean fill() {
+        ByteBuffer buf = this.buf;
+        if (buf == null) {
+            int size = file == null ? BUFFER_SIZE : (int) Math.max(MIN_BUFFER_SIZE, Math.min(BUFFER_SIZE, end
+                - position));
+            buf = this.buf = ByteBuffer.allocate(size).order(order);
+        } else {
+            buf.compact();
+        }
+        try {
+            int n;
+            if (file != null) {
+                long remaining = end - position;
+                if (remaining <= 0)
+                    return false;
+                if (remaining < buf.remaining())
+                    buf.limit(buf.position() + (int) remaining);
+                n = file.read(buf, position);
+                if (n > 0)
+                    position += n;
+            } else {
+                // the buffer always has room, so the blocking channel reads
+                // at least one byte
+                n = channel.read(buf);
+                if (n == 0)
+                    throw new IOException("No bytes were read: the channel must be in blocking mode");
+            }
+            return n > 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buf.flip();
+        }
+    }
+
+    /**
+     * @param n number of bytes required
+     * @return true if n bytes are available in the buffer, false if the
+     *         channel is exhausted
+     * @throws UncheckedIOException if the channel ends in the middle of the
+     *         number
+     */
+    final boolean has(int n) {
+        ByteBuffer buf = this.buf;
+        while (buf == null || buf.remaining() < n) {
+            if (!fill()) {
+                if (this.buf.hasRemaining())
+                    throw new UncheckedIOException(new EOFException("Unexpected end of channel"));
+                return false;
+            }
+            buf = this.buf;
+        }
+        return true;
+    }
+
+    final boolean hasNext() {
+        return has(width == 0 ? 1 : width);
+    }
+
+    final int nextByte() {
+        return buf.get() & 0xFF;
+    }
+
+    final int nextInt() {
+        return buf.getInt();
+    }
+
+    final long nextLong() {
+        return buf.getLong();
+    }
+
+    final long nextVarint(int maxBytes) {
+        long result = 0;
+        for (int i = 0; i < maxBytes; i++) {
+            if (i > 0 && !has(1))
+                throw new UncheckedIOException(new EOFException("Unexpected end of channel"));
+            byte b = buf.get();
+            result |= (long) (b & 0x7F) << (7 * i);
+            if (b >= 0)
+                return result;
+        }
+        throw new UncheckedIOException(new StreamCorruptedException("Malformed varint"));
+    }
+
+    /**
+     * @return the split position or -1 if this spliterator should not be
+     *         split by position
+     */
+    final long splitPosition() {
+        if (file == null || buf != null && buf.hasRemaining())
+            return -1;
+        long size = end - position;
+        if (width > 0) {
+            long count = size / width;
+            return count < 2 ? -1 : position + count / 2 * width;
+        }
+        if (size < 2)
+            return -1;
+        long mid = varintBoundary(position + size / 2);
+        return mid <= position || mid >= end ? -1 : mid;
+    }
+
+    private long varintBoundary(long from) {
+        ByteBuffer tmp = ByteBuffer.allocate((int) Math.min(MAX_VARINT_SEARCH, end - from + 1));
+        try {
+            while (tmp.hasRemaining() && file.read(tmp, from - 1 + tmp.position()) > 0) {
+                // read more
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (int i = 0; i < tmp.position(); i++) {
+            if (tmp.get(i) >= 0)
+                return from + i;
+        }
+        return -1;
+    }
+
+    final boolean positional() {
+        return file != null;
+    }
+
+    final int nextBatchSize() {
+        return batch = Math.min(batch + BATCH_UNIT, MAX_BATCH);
+    }
+
+    @Override
+    public long estimateSize() {
+        if (file == null)
+            return Long.MAX_VALUE;
+        long bytes = end - position + (buf == null ? 0 : buf.remaining());
+        return width == 0 ? bytes : bytes / width;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL | (file != null && width > 0 ? SIZED | SUBSIZED : 0);
+    }
+
+    static final class Ints extends ChannelSpliterator<Integer> implements Spliterator.OfInt {
+        /**
+         * @param width 1 for unsigned bytes, 4 for ints, 0 for varints
+         */
+        Ints(ReadableByteChannel channel, ByteOrder order, int width) {
+            super(channel, order, width);
+        }
+
+        private Ints(Ints parent, long mid) {
+            super(parent, mid);
+        }
+
+        private int next() {
+            return width == 1 ? nextByte() : width == 4 ? nextInt() : (int) nextVarint(5);
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (!hasNext())
+                return false;
+            action.accept(next());
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            while (hasNext())
+                action.accept(next());
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            long mid = splitPosition();
+            if (mid >= 0)
+                return new Ints(this, mid);
+            if (positional())
+                return null;
+            int n = nextBatchSize();
+            int[] array = new int[n];
+            int i = 0;
+            while (i < n && hasNext())
+                array[i++] = next();
+            return i == 0 ? null : Spliterators.spliterator(array, 0, i, characteristics());
+        }
+    }
+
+    static final class Longs extends ChannelSpliterator<Long> implements Spliterator.OfLong {
+        /**
+         * @param width 8 for longs, 0 for varints
+         */
+        Longs(ReadableByteChannel channel, ByteOrder order, int width) {
+            super(channel, order, width);
+        }
+
+        private Longs(Longs parent, long mid) {
+            super(parent, mid);
+        }
+
+        private long next() {
+            return width == 8 ? nextLong() : nextVarint(10);
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if (!hasNext())
+                return false;
+            action.accept(next());
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            while (hasNext())
+                action.accept(next());
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit() {
+            long mid = splitPosition();
+            if (mid >= 0)
+                return new Longs(this, mid);
+            if (positional())
+                return null;
+            int n = nextBatchSize();
+            long[] array = new long[n];
+            int i = 0;
+            while (i < n && hasNext())
+                array[i++] = next();
+            return i == 0 ? null : Spliterators.spliterator(array, 0, i, characteristics());
+        }
+    }
+}
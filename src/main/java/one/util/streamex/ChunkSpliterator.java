@@ -0,0 +1,341 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+import static one.util.streamex.StreamExInternals.*;
+
+/**
+ * A spliterator which groups the source elements into the consecutive chunks
+ * of given size (the last chunk may be shorter).
+ *
+ * <p>
+ * Every part starts at the chunk boundary. If the source is {@code SUBSIZED},
+ * it's split directly and the prefix reads the elements necessary to complete
+ * its last chunk from the suffix. Otherwise the number of elements preceding
+ * the suffix is unknown, so the prefix is created from the batch of the
+ * source elements (like in {@link UnknownSizeSpliterator}) which length is
+ * divisible by the chunk size.
+ *
+ * @author Tagir Valeev
+ *
+ * @param <C> type of the chunks
+ * @param <S> type of the source spliterator
+ * @param <A> type of the array to store the elements
+ * @param <SS> type of the spliterator itself
+ */
+/* package */abstract class ChunkSpliterator<C, S extends Spliterator<?>, A, SS extends ChunkSpliterator<C, S, A, SS>>
+        extends CloneableSpliterator<C, SS> {
+    private static final int BATCH_UNIT = UnknownSizeSpliterator.BATCH_UNIT;
+    private static final int MAX_BATCH = UnknownSizeSpliterator.MAX_BATCH;
+
+    final int size;
+    S source;
+    // elements following the source which complete the last chunk
+    A tail;
+    int tailLength;
+    int batch;
+    // the array being filled by read
+    A buf;
+    int length, limit;
+
+    ChunkSpliterator(S source, int size) {
+        this.source = source;
+        this.size = size;
+    }
+
+    abstract A allocate(int capacity);
+
+    /**
+     * Reads the next source element into {@code buf} (growing it up to the
+     * {@code limit} if necessary).
+     *
+     * @return false if the source is exhausted
+     */
+    abstract boolean readNext();
+
+    abstract S spliterator(A array, int characteristics);
+
+    abstract C toChunk(A array);
+
+    /**
+     * Reads up to the given number of source elements.
+     *
+     * @param limit maximal number of elements to read
+     * @return the array of exact length containing the read elements
+     */
+    final A read(int limit) {
+        long known = source.getExactSizeIfKnown();
+        int capacity = known >= 0 && known < limit ? (int) known : Math.min(limit, BATCH_UNIT);
+        buf = allocate(capacity);
+        length = 0;
+        this.limit = limit;
+        while (length < limit && readNext()) {
+            // empty
+        }
+        A result = buf;
+        buf = null;
+        if (length == capacity)
+            return result;
+        A trimmed = allocate(length);
+        System.arraycopy(result, 0, trimmed, 0, length);
+        return trimmed;
+    }
+
+    /**
+     * Appends the tail to the array read from the exhausted source.
+     */
+    private A appendTail(A array, int arrayLength) {
+        A result = allocate(arrayLength + tailLength);
+        System.arraycopy(array, 0, result, 0, arrayLength);
+        System.arraycopy(tail, 0, result, arrayLength, tailLength);
+        tail = null;
+        tailLength = 0;
+        return result;
+    }
+
+    final C nextChunk() {
+        A chunk = read(size);
+        int chunkLength = length;
+        if (chunkLength < size && tailLength > 0) {
+            chunkLength += tailLength;
+            chunk = appendTail(chunk, length);
+        }
+        return chunkLength == 0 ? null : toChunk(chunk);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super C> action) {
+        C chunk = nextChunk();
+        if (chunk == null)
+            return false;
+        action.accept(chunk);
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super C> action) {
+        for (C chunk = nextChunk(); chunk != null; chunk = nextChunk()) {
+            action.accept(chunk);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public SS trySplit() {
+        if (!source.hasCharacteristics(SUBSIZED)) {
+            int n = batch + BATCH_UNIT;
+            if (n > MAX_BATCH)
+                n = MAX_BATCH;
+            n = n <= size ? size : n / size * size;
+            batch = n;
+            A array = read(n);
+            int arrayLength = length;
+            if (arrayLength < n) {
+                // the source is exhausted: split what was read instead
+                if (tailLength > 0) {
+                    array = appendTail(array, arrayLength);
+                }
+                source = spliterator(array, characteristics() & ORDERED);
+                return trySplit();
+            }
+            SS prefix = doClone();
+            prefix.source = spliterator(array, characteristics() & ORDERED);
+            prefix.tail = null;
+            prefix.tailLength = 0;
+            return prefix;
+        }
+        if (source.estimateSize() <= size)
+            return null;
+        S prefixSource = (S) source.trySplit();
+        if (prefixSource == null)
+            return null;
+        SS prefix = doClone();
+        prefix.source = prefixSource;
+        prefix.tail = null;
+        prefix.tailLength = 0;
+        int rest = (int) (prefixSource.getExactSizeIfKnown() % size);
+        if (rest > 0) {
+            A array = read(size - rest);
+            int arrayLength = length;
+            if (arrayLength < size - rest && tailLength > 0) {
+                // the source is exhausted, so our tail completes the same chunk
+                arrayLength += tailLength;
+                array = appendTail(array, length);
+            }
+            prefix.tail = array;
+            prefix.tailLength = arrayLength;
+        }
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        long sourceSize = source.estimateSize();
+        if (sourceSize == Long.MAX_VALUE)
+            return sourceSize;
+        return (sourceSize + tailLength + size - 1) / size;
+    }
+
+    @Override
+    public int characteristics() {
+        return source.characteristics() & (SIZED | SUBSIZED | ORDERED | IMMUTABLE) | NONNULL;
+    }
+
+    static final class OfRef<T> extends ChunkSpliterator<List<T>, Spliterator<T>, Object[], OfRef<T>> implements
+            Consumer<T> {
+        OfRef(Spliterator<T> source, int size) {
+            super(source, size);
+        }
+
+        @Override
+        Object[] allocate(int capacity) {
+            return new Object[capacity];
+        }
+
+        @Override
+        boolean readNext() {
+            return source.tryAdvance(this);
+        }
+
+        @Override
+        public void accept(T t) {
+            if (length == buf.length)
+                buf = Arrays.copyOf(buf, (int) Math.min(buf.length * 2L + 1, limit));
+            buf[length++] = t;
+        }
+
+        @Override
+        Spliterator<T> spliterator(Object[] array, int characteristics) {
+            return Spliterators.spliterator(array, characteristics);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        List<T> toChunk(Object[] array) {
+            return Arrays.asList((T[]) array);
+        }
+    }
+
+    static final class Ints extends ChunkSpliterator<int[], Spliterator.OfInt, int[], Ints> implements IntConsumer {
+        Ints(Spliterator.OfInt source, int size) {
+            super(source, size);
+        }
+
+        @Override
+        int[] allocate(int capacity) {
+            return new int[capacity];
+        }
+
+        @Override
+        boolean readNext() {
+            return source.tryAdvance(this);
+        }
+
+        @Override
+        public void accept(int t) {
+            if (length == buf.length)
+                buf = Arrays.copyOf(buf, (int) Math.min(buf.length * 2L + 1, limit));
+            buf[length++] = t;
+        }
+
+        @Override
+        Spliterator.OfInt spliterator(int[] array, int characteristics) {
+            return Spliterators.spliterator(array, characteristics);
+        }
+
+        @Override
+        int[] toChunk(int[] array) {
+            return array;
+        }
+    }
+
+    static final class Longs extends ChunkSpliterator<long[], Spliterator.OfLong, long[], Longs> implements
+            LongConsumer {
+        Longs(Spliterator.OfLong source, int size) {
+            super(source, size);
+        }
+
+        @Override
+        long[] allocate(int capacity) {
+            return new long[capacity];
+        }
+
+        @Override
+        boolean readNext() {
+            return source.tryAdvance(this);
+        }
+
+        @Override
+        public void accept(long t) {
+            if (length == buf.length)
+                buf = Arrays.copyOf(buf, (int) Math.min(buf.length * 2L + 1, limit));
+            buf[length++] = t;
+        }
+
+        @Override
+        Spliterator.OfLong spliterator(long[] array, int characteristics) {
+            return Spliterators.spliterator(array, characteristics);
+        }
+
+        @Override
+        long[] toChunk(long[] array) {
+            return array;
+        }
+    }
+
+    static final class Doubles extends ChunkSpliterator<double[], Spliterator.OfDouble, double[], Doubles> implements
+            DoubleConsumer {
+        Doubles(Spliterator.OfDouble source, int size) {
+            super(source, size);
+        }
+
+        @Override
+        double[] allocate(int capacity) {
+            return new double[capacity];
+        }
+
+        @Override
+        boolean readNext() {
+            return source.tryAdvance(this);
+        }
+
+        @Override
+        public void accept(double t) {
+            if (length == buf.length)
+                buf = Arrays.copyOf(buf, (int) Math.min(buf.length * 2L + 1, limit));
+            buf[length++] = t;
+        }
+
+        @Override
+        Spliterator.OfDouble spliterator(double[] array, int characteristics) {
+            return Spliterators.spliterator(array, characteristics);
+        }
+
+        @Override
+        double[] toChunk(double[] array) {
+            return array;
+        }
+    }
+}
@@ -0,0 +1,371 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+import one.util.streamex.StreamExInternals.TailSpliterator;
+
+/**
+ * A spliterator which concatenates any number of spliterators stored in the
+ * flat array. It's split by the part boundary closest to the middle of the
+ * total size (or to the middle of the parts if some sizes are unknown), so
+ * concatenation of many parts produces the balanced split tree.
+ *
+ * <p>
+ * Until the traversal or splitting is started, new parts can be added to
+ * either side of the existing spliterator in amortized constant time, so
+ * repeated {@code append()} or {@code prepend()} calls do not create the
+ * nested spliterators.
+ *
+ * @author Tagir Valeev
+ *
+ * @param <T> type of the elements
+ * @param <S> type of the parts
+ */
+/* package */abstract class ConcatSpliterator<T, S extends Spliterator<T>> implements Spliterator<T> {
+    private static final int INITIAL_CAPACITY = 8;
+
+    Object[] parts;
+    int from, to;
+    private int characteristics = ORDERED | SIZED | SUBSIZED;
+    private long size;
+    private boolean started;
+
+    ConcatSpliterator(Object[] parts, int from, int to) {
+        this.parts = parts;
+        this.from = from;
+        this.to = to;
+        for (int i = from; i < to; i++) {
+            update((Spliterator<?>) parts[i]);
+        }
+    }
+
+    ConcatSpliterator(ConcatSpliterator<T, S> parent, int from, int to) {
+        this.parts = parent.parts;
+        this.from = from;
+        this.to = to;
+        this.characteristics = parent.characteristics;
+        this.started = true;
+    }
+
+    abstract S prefix(int from, int to);
+
+    @SuppressWarnings("unchecked")
+    final S part(int i) {
+        return (S) parts[i];
+    }
+
+    private void update(Spliterator<?> part) {
+        characteristics &= part.characteristics();
+        size += part.estimateSize();
+        if (size < 0) {
+            size = Long.MAX_VALUE;
+            characteristics &= (~SIZED) & (~SUBSIZED);
+        }
+    }
+
+    /**
+     * @return true if new parts can be added to this spliterator
+     */
+    final boolean isFresh() {
+        return !started;
+    }
+
+    final void markStarted() {
+        started = true;
+    }
+
+    /**
+     * Adds new part at the end. Must be called only if this spliterator is
+     * fresh.
+     */
+    final void append(S part) {
+        if (part instanceof ConcatSpliterator && part.getClass() == getClass()
+            && ((ConcatSpliterator<?, ?>) part).isFresh()) {
+            @SuppressWarnings("unchecked")
+            ConcatSpliterator<T, S> other = (ConcatSpliterator<T, S>) part;
+            for (int i = other.from; i < other.to; i++)
+                append(other.part(i));
+            return;
+        }
+        if (to == parts.length) {
+            parts = Arrays.copyOf(parts, Math.max(INITIAL_CAPACITY, parts.length * 2));
+        }
+        parts[to++] = part;
+        update(part);
+    }
+
+    /**
+     * Adds new part at the beginning. Must be called only if this spliterator
+     * is fresh.
+     */
+    final void prepend(S part) {
+        if (part instanceof ConcatSpliterator && part.getClass() == getClass()
+            && ((ConcatSpliterator<?, ?>) part).isFresh()) {
+            @SuppressWarnings("unchecked")
+            ConcatSpliterator<T, S> other = (ConcatSpliterator<T, S>) part;
+            for (int i = other.to - 1; i >= other.from; i--)
+                prepend(other.part(i));
+            return;
+        }
+        if (from == 0) {
+            int n = to - from;
+            int shift = Math.max(INITIAL_CAPACITY, n);
+            Object[] newParts = new Object[shift + Math.max(n, parts.length - from)];
+            System.arraycopy(parts, from, newParts, shift, n);
+            parts = newParts;
+            from = shift;
+            to = shift + n;
+        }
+        parts[--from] = part;
+        update(part);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public S trySplit() {
+        markStarted();
+        int n = to - from;
+        if (n == 0)
+            return null;
+        if (n == 1)
+            return (S) part(from).trySplit();
+        long total = 0;
+        for (int i = from; i < to; i++) {
+            total += part(i).estimateSize();
+            if (total < 0)
+                break;
+        }
+        int mid;
+        if (total < 0 || total == Long.MAX_VALUE) {
+            mid = from + n / 2;
+        } else {
+            // the part boundary closest to the half of total size
+            long half = total / 2;
+            long prefix = part(from).estimateSize();
+            mid = from + 1;
+            while (mid < to - 1) {
+                long next = prefix + part(mid).estimateSize();
+                if (next > half && next - half > half - prefix)
+                    break;
+                prefix = next;
+                mid++;
+            }
+        }
+        S prefix;
+        if (mid - from == 1) {
+            prefix = part(from);
+            parts[from] = null;
+        } else {
+            // the prefix shares the array, but uses only [from, mid) range
+            prefix = prefix(from, mid);
+        }
+        from = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        long total = 0;
+        for (int i = from; i < to; i++) {
+            total += part(i).estimateSize();
+            if (total < 0)
+                return Long.MAX_VALUE;
+        }
+        return total;
+    }
+
+    @Override
+    public int characteristics() {
+        return characteristics;
+    }
+
+    static final class OfRef<T> extends ConcatSpliterator<T, Spliterator<T>> implements TailSpliterator<T> {
+        OfRef(Spliterator<?>[] parts) {
+            super(parts, 0, parts.length);
+        }
+
+        private OfRef(OfRef<T> parent, int from, int to) {
+            super(parent, from, to);
+        }
+
+        @Override
+        Spliterator<T> prefix(int from, int to) {
+            return new OfRef<>(this, from, to);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            Spliterator<T> tail = tryAdvanceOrTail(action);
+            if (tail == this)
+                return true;
+            if (tail == null)
+                return false;
+            tail = TailSpliterator.tryAdvanceWithTail(tail, action);
+            if (tail == null)
+                return false;
+            // keep the tail as the only part
+            parts[from = to - 1] = tail;
+            return true;
+        }
+
+        @Override
+        public Spliterator<T> tryAdvanceOrTail(Consumer<? super T> action) {
+            markStarted();
+            while (from < to - 1) {
+                if (part(from).tryAdvance(action))
+                    return this;
+                parts[from++] = null;
+            }
+            if (from == to)
+                return null;
+            Spliterator<T> tail = part(from);
+            parts[from++] = null;
+            return tail;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            TailSpliterator.forEachWithTail(this, action);
+        }
+
+        @Override
+        public Spliterator<T> forEachOrTail(Consumer<? super T> action) {
+            markStarted();
+            while (from < to - 1) {
+                part(from).forEachRemaining(action);
+                parts[from++] = null;
+            }
+            if (from == to)
+                return null;
+            Spliterator<T> tail = part(from);
+            parts[from++] = null;
+            return tail;
+        }
+    }
+
+    static final class Ints extends ConcatSpliterator<Integer, Spliterator.OfInt> implements Spliterator.OfInt {
+        Ints(Spliterator.OfInt[] parts) {
+            super(parts, 0, parts.length);
+        }
+
+        private Ints(Ints parent, int from, int to) {
+            super(parent, from, to);
+        }
+
+        @Override
+        Spliterator.OfInt prefix(int from, int to) {
+            return new Ints(this, from, to);
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            markStarted();
+            while (from < to) {
+                if (part(from).tryAdvance(action))
+                    return true;
+                parts[from++] = null;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            markStarted();
+            while (from < to) {
+                part(from).forEachRemaining(action);
+                parts[from++] = null;
+            }
+        }
+    }
+
+    static final class Longs extends ConcatSpliterator<Long, Spliterator.OfLong> implements Spliterator.OfLong {
+        Longs(Spliterator.OfLong[] parts) {
+            super(parts, 0, parts.length);
+        }
+
+        private Longs(Longs parent, int from, int to) {
+            super(parent, from, to);
+        }
+
+        @Override
+        Spliterator.OfLong prefix(int from, int to) {
+            return new Longs(this, from, to);
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            markStarted();
+            while (from < to) {
+                if (part(from).tryAdvance(action))
+                    return true;
+                parts[from++] = null;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            markStarted();
+            while (from < to) {
+                part(from).forEachRemaining(action);
+                parts[from++] = null;
+            }
+        }
+    }
+
+    static final class Doubles extends ConcatSpliterator<Double, Spliterator.OfDouble> implements
+            Spliterator.OfDouble {
+        Doubles(Spliterator.OfDouble[] parts) {
+            super(parts, 0, parts.length);
+        }
+
+        private Doubles(Doubles parent, int from, int to) {
+            super(parent, from, to);
+        }
+
+        @Override
+        Spliterator.OfDouble prefix(int from, int to) {
+            return new Doubles(this, from, to);
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            markStarted();
+            while (from < to) {
+                if (part(from).tryAdvance(action))
+                    return true;
+                parts[from++] = null;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            markStarted();
+            while (from < to) {
+                part(from).forEachRemaining(action);
+                parts[from++] = null;
+            }
+        }
+    }
+}
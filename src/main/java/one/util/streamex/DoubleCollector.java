@@ -16,7 +16,9 @@
 package one.util.streamex;
 
 import java.util.DoubleSummaryStatistics;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.OptionalDouble;
@@ -276,6 +278,51 @@ public interface DoubleCollector<A, R> extends MergingCollector<Double, A, R> {
         return Box.partialCollector(downstream).asDouble((box, i) -> accumulator.accept(box.a, mapper.apply(i)));
     }
 
+    /**
+     * Returns {@code DoubleCollector} which passes every input number to all the
+     * supplied collectors in a single pass and produces the list of their
+     * results in the same order as collectors are supplied. The numbers are
+     * passed to the downstream collectors without boxing.
+     *
+     * <p>
+     * The returned list is fixed-size.
+     *
+     * @param <R> the common supertype of the results of the collectors
+     * @param collectors the collectors to combine
+     * @return {@code DoubleCollector} which aggregates the results of all the supplied
+     *         collectors into the list.
+     * @see MoreCollectors#tupling(List)
+     * @since 0.6.7
+     */
+    static <R> DoubleCollector<?, List<R>> tupling(List<? extends DoubleCollector<?, ? extends R>> collectors) {
+        CollectorTuple tuple = new CollectorTuple(collectors);
+        @SuppressWarnings("unchecked")
+        ObjDoubleConsumer<Object>[] accumulators = collectors.stream().map(DoubleCollector::doubleAccumulator).toArray(
+            ObjDoubleConsumer[]::new);
+        return new DoubleCollectorImpl<>(tuple::supply, (acc, v) -> {
+            for (int i = 0; i < accumulators.length; i++) {
+                accumulators[i].accept(acc[i], v);
+            }
+        }, tuple::merge, tuple::<R>finish, tuple.characteristics);
+    }
+
+    /**
+     * Returns {@code DoubleCollector} which passes every input number to all the
+     * supplied collectors in a single pass and produces the list of their
+     * results in the same order as collectors are supplied.
+     *
+     * @param <R> the common supertype of the results of the collectors
+     * @param collectors the collectors to combine
+     * @return {@code DoubleCollector} which aggregates the results of all the supplied
+     *         collectors into the list.
+     * @see #tupling(List)
+     * @since 0.6.7
+     */
+    @SafeVarargs
+    static <R> DoubleCollector<?, List<R>> tupling(DoubleCollector<?, ? extends R>... collectors) {
+        return DoubleCollector.<R> tupling(Arrays.asList(collectors));
+    }
+
     /**
      * Returns a {@code DoubleCollector} which performs a reduction of its input
      * numbers under a specified {@link DoubleBinaryOperator}. The result is
@@ -331,6 +378,23 @@ public interface DoubleCollector<A, R> extends MergingCollector<Double, A, R> {
         return of(DoubleSummaryStatistics::new, DoubleSummaryStatistics::accept, DoubleSummaryStatistics::combine);
     }
 
+    /**
+     * Returns a {@code DoubleCollector} which returns the central moments
+     * (mean, variance, skewness and kurtosis) of the input elements.
+     *
+     * <p>
+     * The moments are calculated in single pass using the numerically stable
+     * algorithm, thus this collector is preferred to the naive sum of squares
+     * approach.
+     *
+     * @return a {@code DoubleCollector} implementing the moments reduction
+     * @see DoubleMoments
+     * @since 0.6.7
+     */
+    static DoubleCollector<?, DoubleMoments> moments() {
+        return of(DoubleMoments::new, DoubleMoments::accept, DoubleMoments::combine);
+    }
+
     /**
      * Returns a {@code DoubleCollector} which partitions the input elements
      * according to a {@code DoublePredicate}, and organizes them into a
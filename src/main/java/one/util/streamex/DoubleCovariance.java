@@ -0,0 +1,172 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+/**
+ * A state object for collecting the covariance and the Pearson correlation
+ * coefficient of pairs of {@code double} numbers. The statistics are updated
+ * in single pass using the numerically stable Welford-like algorithm and
+ * merged using the pairwise formulas by Chan et al.
+ *
+ * <p>
+ * This class is designed to work with streams and can be created via
+ * {@link MoreCollectors#covariance(java.util.function.ToDoubleFunction, java.util.function.ToDoubleFunction)}
+ * collector:
+ *
+ * <pre>{@code
+ * DoubleCovariance cov = EntryStream.of(map).collect(
+ *     MoreCollectors.covariance(Entry::getKey, Entry::getValue));
+ * }</pre>
+ *
+ * <p>
+ * This implementation is not thread safe. However, it is safe to use the
+ * collector on a parallel stream, because the parallel implementation provides
+ * the necessary partitioning, isolation, and merging of results.
+ *
+ * @author Tagir Valeev
+ * @see MoreCollectors#covariance(java.util.function.ToDoubleFunction,
+ *      java.util.function.ToDoubleFunction)
+ * @since 0.6.7
+ */
+public final class DoubleCovariance {
+    private long count;
+    private double meanX, meanY;
+    // sums of the squared deviations and of the deviation products
+    private double m2x, m2y, cxy;
+
+    /**
+     * Records another pair of values.
+     *
+     * @param x the first value
+     * @param y the second value
+     */
+    public void accept(double x, double y) {
+        double n = ++count;
+        double dx = x - meanX;
+        meanX += dx / n;
+        double dy = y - meanY;
+        meanY += dy / n;
+        m2x += dx * (x - meanX);
+        m2y += dy * (y - meanY);
+        cxy += dx * (y - meanY);
+    }
+
+    /**
+     * Combines the state of another {@code DoubleCovariance} into this one.
+     *
+     * @param other another {@code DoubleCovariance}
+     * @throws NullPointerException if {@code other} is null
+     */
+    public void combine(DoubleCovariance other) {
+        if (other.count == 0)
+            return;
+        double na = count, nb = other.count;
+        count += other.count;
+        double n = count;
+        double dx = other.meanX - meanX, dy = other.meanY - meanY;
+        double nab = na * nb / n;
+        m2x += other.m2x + dx * dx * nab;
+        m2y += other.m2y + dy * dy * nab;
+        cxy += other.cxy + dx * dy * nab;
+        meanX += dx * nb / n;
+        meanY += dy * nb / n;
+    }
+
+    /**
+     * Returns the count of pairs recorded.
+     *
+     * @return the count of pairs
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the arithmetic mean of the first values, or zero if no pairs
+     * have been recorded.
+     *
+     * @return the mean of the first values, or zero if none
+     */
+    public double getMeanX() {
+        return meanX;
+    }
+
+    /**
+     * Returns the arithmetic mean of the second values, or zero if no pairs
+     * have been recorded.
+     *
+     * @return the mean of the second values, or zero if none
+     */
+    public double getMeanY() {
+        return meanY;
+    }
+
+    /**
+     * Returns the population variance of the first values, or zero if no
+     * pairs have been recorded.
+     *
+     * @return the variance of the first values, or zero if none
+     */
+    public double getVarianceX() {
+        return count == 0 ? 0.0 : m2x / count;
+    }
+
+    /**
+     * Returns the population variance of the second values, or zero if no
+     * pairs have been recorded.
+     *
+     * @return the variance of the second values, or zero if none
+     */
+    public double getVarianceY() {
+        return count == 0 ? 0.0 : m2y / count;
+    }
+
+    /**
+     * Returns the population covariance, or zero if no pairs have been
+     * recorded.
+     *
+     * @return the population covariance, or zero if none
+     */
+    public double getCovariance() {
+        return count == 0 ? 0.0 : cxy / count;
+    }
+
+    /**
+     * Returns the unbiased sample covariance, or {@code NaN} if less than two
+     * pairs have been recorded.
+     *
+     * @return the sample covariance
+     */
+    public double getSampleCovariance() {
+        return count < 2 ? Double.NaN : cxy / (count - 1);
+    }
+
+    /**
+     * Returns the Pearson correlation coefficient, or {@code NaN} if it's
+     * undefined (no pairs were recorded or either of values is constant).
+     *
+     * @return the correlation coefficient
+     */
+    public double getCorrelation() {
+        return m2x == 0 || m2y == 0 ? Double.NaN : Math.max(-1.0, Math.min(1.0, cxy / Math.sqrt(m2x * m2y)));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{count=%d, meanX=%f, meanY=%f, covariance=%f, correlation=%f}", getClass()
+                .getSimpleName(), getCount(), getMeanX(), getMeanY(), getCovariance(), getCorrelation());
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.util.function.DoubleConsumer;
+
+/**
+ * A state object for collecting the central moments of {@code double}
+ * numbers: mean, variance, standard deviation, skewness and kurtosis. The
+ * moments are updated in single pass using the numerically stable Welford
+ * algorithm; the partial results are merged using the pairwise formulas by
+ * Chan et al. (generalized to the higher moments by Pébay), so the result does
+ * not depend on the parallel splitting much and does not suffer from the
+ * catastrophic cancellation of the naive sum of squares approach.
+ *
+ * <p>
+ * This class is designed to work with streams and can be created via
+ * {@link DoubleCollector#moments()} collector:
+ *
+ * <pre>{@code
+ * DoubleMoments moments = DoubleStreamEx.of(values).collect(DoubleCollector.moments());
+ * }</pre>
+ *
+ * <p>
+ * This implementation is not thread safe. However, it is safe to use
+ * {@code DoubleCollector.moments()} on a parallel stream, because the parallel
+ * implementation provides the necessary partitioning, isolation, and merging
+ * of results.
+ *
+ * @author Tagir Valeev
+ * @see DoubleCollector#moments()
+ * @since 0.6.7
+ */
+public final class DoubleMoments implements DoubleConsumer {
+    private long count;
+    // mean and sums of the powers of the deviations from the mean
+    private double mean, m2, m3, m4;
+
+    /**
+     * Records another value into the moments information.
+     *
+     * @param value the input value
+     */
+    @Override
+    public void accept(double value) {
+        long n1 = count++;
+        double n = count;
+        double delta = value - mean;
+        double deltaN = delta / n;
+        double deltaN2 = deltaN * deltaN;
+        double term = delta * deltaN * n1;
+        mean += deltaN;
+        m4 += term * deltaN2 * (n * n - 3 * n + 3) + 6 * deltaN2 * m2 - 4 * deltaN * m3;
+        m3 += term * deltaN * (n - 2) - 3 * deltaN * m2;
+        m2 += term;
+    }
+
+    /**
+     * Combines the state of another {@code DoubleMoments} into this one.
+     *
+     * @param other another {@code DoubleMoments}
+     * @throws NullPointerException if {@code other} is null
+     */
+    public void combine(DoubleMoments other) {
+        if (other.count == 0)
+            return;
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            m3 = other.m3;
+            m4 = other.m4;
+            return;
+        }
+        double na = count, nb = other.count;
+        count += other.count;
+        double n = count;
+        double delta = other.mean - mean;
+        double delta2 = delta * delta;
+        double nab = na * nb / n;
+        m4 += other.m4 + delta2 * delta2 * nab * (na * na - na * nb + nb * nb) / (n * n) + 6 * delta2
+            * (na * na * other.m2 + nb * nb * m2) / (n * n) + 4 * delta * (na * other.m3 - nb * m3) / n;
+        m3 += other.m3 + delta2 * delta * nab * (na - nb) / n + 3 * delta * (na * other.m2 - nb * m2) / n;
+        m2 += other.m2 + delta2 * nab;
+        mean += delta * nb / n;
+    }
+
+    /**
+     * Returns the count of values recorded.
+     *
+     * @return the count of values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the arithmetic mean of values recorded, or zero if no values
+     * have been recorded.
+     *
+     * @return the arithmetic mean of values, or zero if none
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Returns the population variance of values recorded, or zero if no values
+     * have been recorded.
+     *
+     * @return the population variance of values, or zero if none
+     */
+    public double getVariance() {
+        return count == 0 ? 0.0 : m2 / count;
+    }
+
+    /**
+     * Returns the unbiased sample variance of values recorded, or
+     * {@code NaN} if less than two values have been recorded.
+     *
+     * @return the sample variance of values
+     */
+    public double getSampleVariance() {
+        return count < 2 ? Double.NaN : m2 / (count - 1);
+    }
+
+    /**
+     * Returns the population standard deviation of values recorded, or zero if
+     * no values have been recorded.
+     *
+     * @return the population standard deviation of values, or zero if none
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Returns the population skewness of values recorded, or {@code NaN} if
+     * it's undefined (no values were recorded or all of them are equal).
+     *
+     * @return the skewness of values
+     */
+    public double getSkewness() {
+        return m2 == 0 ? Double.NaN : Math.sqrt(count) * m3 / Math.pow(m2, 1.5);
+    }
+
+    /**
+     * Returns the population excess kurtosis of values recorded (zero for the
+     * normal distribution), or {@code NaN} if it's undefined (no values were
+     * recorded or all of them are equal).
+     *
+     * @return the excess kurtosis of values
+     */
+    public double getKurtosis() {
+        return m2 == 0 ? Double.NaN : count * m4 / (m2 * m2) - 3;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{count=%d, mean=%f, variance=%f, skewness=%f, kurtosis=%f}", getClass()
+                .getSimpleName(), getCount(), getMean(), getVariance(), getSkewness(), getKurtosis());
+    }
+}
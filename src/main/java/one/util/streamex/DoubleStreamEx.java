@@ -1360,6 +1360,120 @@ public class DoubleStreamEx extends BaseStreamEx<Double, DoubleStream, Spliterat
         return delegate(new PairSpliterator.PSOfDouble(mapper, null, spliterator(), PairSpliterator.MODE_PAIRS));
     }
 
+    /**
+     * Returns a stream consisting of the sums of every sliding window of
+     * {@code size} consecutive elements of this stream. Only full windows are
+     * considered: the output stream contains {@code size - 1} elements less
+     * than this stream or nothing if this stream is shorter than the window.
+     *
+     * <p>
+     * Every window sum is computed from at most two partial sums, so the
+     * rounding errors are not accumulated over the stream.
+     *
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate
+     * operation</a>. The parallel stream is split with overlapping boundaries.
+     *
+     * @param size the number of elements in every window (must be positive)
+     * @return the new stream
+     * @throws IllegalArgumentException if size is not positive
+     * @since 0.6.7
+     */
+    public DoubleStreamEx windowedSum(int size) {
+        checkPositive("size", size);
+        return delegate(new WindowSpliterator.Doubles(spliterator(), size, WindowSpliterator.SUM));
+    }
+
+    /**
+     * Returns a stream consisting of the minimal elements of every sliding window of
+     * {@code size} consecutive elements of this stream. Only full windows are
+     * considered: the output stream contains {@code size - 1} elements less
+     * than this stream or nothing if this stream is shorter than the window.
+     *
+     * <p>
+     * The minimum is maintained using the monotonic deque, so every element
+     * is processed in amortized constant time regardless of the window size.
+     *
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate
+     * operation</a>. The parallel stream is split with overlapping boundaries.
+     *
+     * @param size the number of elements in every window (must be positive)
+     * @return the new stream
+     * @throws IllegalArgumentException if size is not positive
+     * @since 0.6.7
+     */
+    public DoubleStreamEx windowedMin(int size) {
+        checkPositive("size", size);
+        return delegate(new WindowSpliterator.Doubles(spliterator(), size, WindowSpliterator.MIN));
+    }
+
+    /**
+     * Returns a stream consisting of the maximal elements of every sliding window of
+     * {@code size} consecutive elements of this stream. Only full windows are
+     * considered: the output stream contains {@code size - 1} elements less
+     * than this stream or nothing if this stream is shorter than the window.
+     *
+     * <p>
+     * The maximum is maintained using the monotonic deque, so every element
+     * is processed in amortized constant time regardless of the window size.
+     *
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate
+     * operation</a>. The parallel stream is split with overlapping boundaries.
+     *
+     * @param size the number of elements in every window (must be positive)
+     * @return the new stream
+     * @throws IllegalArgumentException if size is not positive
+     * @since 0.6.7
+     */
+    public DoubleStreamEx windowedMax(int size) {
+        checkPositive("size", size);
+        return delegate(new WindowSpliterator.Doubles(spliterator(), size, WindowSpliterator.MAX));
+    }
+
+    /**
+     * Returns a {@link DoubleStreamEx} consisting of the arithmetic means of
+     * every sliding window of {@code size} consecutive elements of this
+     * stream. Only full windows are considered.
+     *
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate
+     * operation</a>. The parallel stream is split with overlapping boundaries.
+     *
+     * @param size the number of elements in every window (must be positive)
+     * @return the new stream
+     * @throws IllegalArgumentException if size is not positive
+     * @since 0.6.7
+     */
+    public DoubleStreamEx windowedAverage(int size) {
+        checkPositive("size", size);
+        return delegate(new WindowSpliterator.Doubles(spliterator(), size, WindowSpliterator.Doubles.AVERAGE));
+    }
+
+    /**
+     * Returns a stream consisting of the arrays of the consecutive elements of
+     * this stream. Every array contains {@code size} elements, except possibly
+     * the last one which contains the remaining elements.
+     *
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * operation. If this stream is {@code SUBSIZED}, the parallel stream is
+     * split at the chunk boundaries without buffering. Otherwise the parallel
+     * processing of the chunks is possible, but the source elements are read
+     * sequentially in batches.
+     *
+     * @param size the number of elements in every chunk except possibly the
+     *        last one (must be positive)
+     * @return the new stream of arrays
+     * @throws IllegalArgumentException if size is not positive
+     * @since 0.6.7
+     */
+    public StreamEx<double[]> chunked(int size) {
+        checkPositive("size", size);
+        return new StreamEx<>(new ChunkSpliterator.Doubles(spliterator(), size), context);
+    }
+
     /**
      * Returns a {@link String} which is the concatenation of the results of
      * calling {@link String#valueOf(double)} on each element of this stream,
@@ -1506,6 +1620,113 @@ public class DoubleStreamEx extends BaseStreamEx<Double, DoubleStream, Spliterat
         return delegate(new PrefixOps.OfDouble(spliterator(), op));
     }
 
+    private StreamEx<RunSpliterator.DoubleRun> runs(DoubleBiPredicate mergeable, DoubleBinaryOperator merger) {
+        return new StreamEx<>(RunSpliterator.collapse(new RunSpliterator.OfDouble(spliterator(), mergeable, merger)),
+                context);
+    }
+
+    /**
+     * Merge series of adjacent elements which satisfy the given predicate using
+     * the merger function and return a new stream.
+     * 
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * partial reduction operation.
+     * 
+     * <p>
+     * This operation is the primitive counterpart of
+     * {@link StreamEx#collapse(BiPredicate, BinaryOperator)}. The stream
+     * elements are not boxed.
+     * 
+     * @param collapsible a non-interfering, stateless predicate to apply to the
+     *        pair of adjacent elements of the input stream which returns true
+     *        for elements which are collapsible.
+     * @param merger a non-interfering, stateless, associative function to merge
+     *        two adjacent elements for which collapsible predicate returned
+     *        true. Note that it can be applied to the results if previous
+     *        merges.
+     * @return the new stream
+     * @since 0.6.7
+     */
+    public DoubleStreamEx collapse(DoubleBiPredicate collapsible, DoubleBinaryOperator merger) {
+        return runs(collapsible, merger).mapToDouble(run -> run.acc);
+    }
+
+    /**
+     * Returns a stream consisting of elements of this stream where every series
+     * of elements matched the predicate is replaced with first element from the
+     * series.
+     * 
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * partial reduction operation.
+     * 
+     * <p>
+     * This operation is the primitive counterpart of
+     * {@link StreamEx#collapse(BiPredicate)}. The stream elements are not
+     * boxed.
+     * 
+     * @param collapsible a non-interfering, stateless predicate to apply to the
+     *        pair of adjacent input elements which returns true for elements
+     *        which are collapsible.
+     * @return the new stream
+     * @since 0.6.7
+     */
+    public DoubleStreamEx collapse(DoubleBiPredicate collapsible) {
+        return collapse(collapsible, (a, b) -> a);
+    }
+
+    /**
+     * Collapses adjacent equal elements and returns an {@link EntryStream}
+     * where keys are input elements and values specify how many elements were
+     * collapsed.
+     * 
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * partial reduction operation.
+     * 
+     * <p>
+     * This operation is the primitive counterpart of
+     * {@link StreamEx#runLengths()}. The input elements are not boxed: only
+     * one entry is created per run. The elements are compared like
+     * {@link Double#equals(Object)} does.
+     * 
+     * @return the new stream
+     * @since 0.6.7
+     */
+    public EntryStream<Double, Long> runLengths() {
+        return new EntryStream<>(runs((a, b) -> Double.compare(a, b) == 0, (a, b) -> a).map(
+            run -> new ObjLongBox<>(run.first, run.count)), context);
+    }
+
+    /**
+     * Returns a stream consisting of results of applying the given function to
+     * the intervals created from the source elements.
+     * 
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * partial reduction operation.
+     * 
+     * <p>
+     * This operation is the primitive counterpart of
+     * {@link StreamEx#intervalMap(BiPredicate, BiFunction)}. Only the first and
+     * the last elements of each interval are tracked and no boxing occurs.
+     * 
+     * @param sameInterval a non-interfering, stateless predicate to apply to
+     *        the pair of adjacent elements which returns true for elements
+     *        which belong to the same interval.
+     * @param mapper a non-interfering, stateless function to apply to the
+     *        interval borders and produce the resulting element. If value was
+     *        not merged to the interval, then mapper will receive the same
+     *        value twice, otherwise it will receive the leftmost and the
+     *        rightmost values which were merged to the interval.
+     * @return the new stream
+     * @since 0.6.7
+     */
+    public DoubleStreamEx intervalMap(DoubleBiPredicate sameInterval, DoubleBinaryOperator mapper) {
+        return runs(sameInterval, (a, b) -> a).mapToDouble(run -> mapper.applyAsDouble(run.first, run.last));
+    }
+
     // Necessary to generate proper JavaDoc
     // does not add overhead as it appears in bytecode anyways as bridge method
     @Override
@@ -1775,6 +1996,100 @@ public class DoubleStreamEx extends BaseStreamEx<Double, DoubleStream, Spliterat
         return seq(random.doubles(streamSize, randomNumberOrigin, randomNumberBound));
     }
 
+    /**
+     * Returns a lazily concatenated stream whose elements are all the elements
+     * of the supplied streams in their order. The resulting stream is parallel
+     * if any of the input streams is parallel. When the resulting stream is
+     * closed, the close handlers for all input streams are invoked.
+     *
+     * <p>
+     * Unlike the chain of {@link DoubleStream#concat(DoubleStream, DoubleStream)} calls, the
+     * streams are concatenated by single node which splits them for parallel
+     * processing by the boundary closest to the middle of the total size.
+     *
+     * @param streams the streams to concatenate
+     * @return the concatenated stream
+     * @see #concat(Collection)
+     * @since 0.6.7
+     */
+    public static DoubleStreamEx concat(DoubleStream... streams) {
+        return concat(Arrays.asList(streams));
+    }
+
+    /**
+     * Returns a lazily concatenated stream whose elements are all the elements
+     * of the streams from the supplied collection in the collection iteration
+     * order. The resulting stream is parallel if any of the input streams is
+     * parallel. When the resulting stream is closed, the close handlers for all
+     * input streams are invoked.
+     *
+     * <p>
+     * Unlike the chain of {@link DoubleStream#concat(DoubleStream, DoubleStream)} calls, the
+     * streams are concatenated by single node which splits them for parallel
+     * processing by the boundary closest to the middle of the total size.
+     *
+     * @param streams the collection of streams to concatenate
+     * @return the concatenated stream
+     * @see #concat(DoubleStream...)
+     * @since 0.6.7
+     */
+    public static DoubleStreamEx concat(Collection<? extends DoubleStream> streams) {
+        Spliterator.OfDouble[] parts = new Spliterator.OfDouble[streams.size()];
+        StreamContext context = StreamContext.SEQUENTIAL;
+        int i = 0;
+        for (DoubleStream stream : streams) {
+            parts[i++] = stream.spliterator();
+            context = context.combine(stream);
+        }
+        return new DoubleStreamEx(new ConcatSpliterator.Doubles(parts), context);
+    }
+
+    /**
+     * Returns a stream which merges the supplied streams sorted in the natural
+     * order into the single sorted stream. If some of the input streams is not
+     * sorted, the result is unspecified. The resulting stream is parallel if
+     * any of the input streams is parallel. When the resulting stream is
+     * closed, the close handlers for all input streams are invoked.
+     *
+     * <p>
+     * Unlike the concatenation followed by {@link #sorted()}, the input streams
+     * are not buffered: they are pulled lazily keeping only one element per
+     * stream in memory. The parallel stream is split by batches of the merged
+     * elements.
+     *
+     * @param streams the sorted streams to merge
+     * @return the merged stream
+     * @see #mergeSorted(Collection)
+     * @since 0.6.7
+     */
+    public static DoubleStreamEx mergeSorted(DoubleStream... streams) {
+        return mergeSorted(Arrays.asList(streams));
+    }
+
+    /**
+     * Returns a stream which merges the streams from the supplied collection
+     * sorted in the natural order into the single sorted stream. If some of
+     * the input streams is not sorted, the result is unspecified. The
+     * resulting stream is parallel if any of the input streams is parallel.
+     * When the resulting stream is closed, the close handlers for all input
+     * streams are invoked.
+     *
+     * @param streams the collection of sorted streams to merge
+     * @return the merged stream
+     * @see #mergeSorted(DoubleStream...)
+     * @since 0.6.7
+     */
+    public static DoubleStreamEx mergeSorted(Collection<? extends DoubleStream> streams) {
+        Spliterator.OfDouble[] parts = new Spliterator.OfDouble[streams.size()];
+        StreamContext context = StreamContext.SEQUENTIAL;
+        int i = 0;
+        for (DoubleStream stream : streams) {
+            parts[i++] = stream.spliterator();
+            context = context.combine(stream);
+        }
+        return new DoubleStreamEx(new MergeSortedSpliterator.Doubles(parts), context);
+    }
+
     /**
      * Returns an infinite sequential ordered {@code DoubleStreamEx} produced by
      * iterative application of a function {@code f} to an initial element
@@ -1944,6 +2259,29 @@ public class DoubleStreamEx extends BaseStreamEx<Double, DoubleStream, Spliterat
                 second));
     }
 
+    /**
+     * Represents a predicate (boolean-valued function) of two
+     * {@code double}-valued arguments. This is the {@code double}-consuming
+     * primitive type specialization of {@link BiPredicate}.
+     * 
+     * @author Tagir Valeev
+     *
+     * @since 0.6.7
+     * @see DoubleStreamEx#collapse(DoubleBiPredicate, DoubleBinaryOperator)
+     */
+    @FunctionalInterface
+    public interface DoubleBiPredicate {
+        /**
+         * Evaluates this predicate on the given arguments.
+         * 
+         * @param first the first input argument
+         * @param second the second input argument
+         * @return {@code true} if the input arguments match the predicate,
+         *         otherwise {@code false}
+         */
+        boolean test(double first, double second);
+    }
+
     /**
      * A helper interface to build a new stream by emitting elements and
      * creating new emitters in a chain.
@@ -2001,4 +2339,80 @@ public class DoubleStreamEx extends BaseStreamEx<Double, DoubleStream, Spliterat
             return of(spliterator());
         }
     }
+
+    /**
+     * A helper interface to build a new stream by emitting elements from the
+     * mutable state. Unlike {@link DoubleEmitter} which creates a new emitter for every
+     * step, the same object is advanced repeatedly keeping the state in its
+     * fields.
+     * 
+     * <p>
+     * This emitter is advanced until it's exhausted, so no per-element
+     * allocation is necessary.
+     * 
+     * <p>
+     * The stream created from this emitter is traversed via
+     * {@code forEachRemaining} without intermediate buffering. The emitter
+     * which maintains the pending work (like the stack of nodes not visited yet
+     * when traversing a tree) may override the {@link #trySplit()} method to
+     * hand off part of this work, so the stream can be processed in parallel.
+     * 
+     * @author Tagir Valeev
+     *
+     * @since 0.6.7
+     */
+    public interface DoubleStatefulEmitter {
+        /**
+         * Calls the supplied consumer zero or more times to emit some elements
+         * if this emitter is not exhausted.
+         * 
+         * <p>
+         * Normally one element is emitted during the {@code advance()} call.
+         * However, it's not restricted: you may emit as many elements as you
+         * want, though in some cases if many elements were emitted they might
+         * be buffered consuming additional memory.
+         * 
+         * @param action consumer to be called to emit elements
+         * @return false if this emitter is exhausted (in this case no elements
+         *         must be emitted), true otherwise
+         */
+        boolean advance(DoubleConsumer action);
+
+        /**
+         * Removes some of the pending elements from this emitter and returns
+         * them as a new emitter. The new emitter must emit only the elements
+         * which would be emitted by this emitter after all the elements which
+         * remain in this emitter.
+         * 
+         * <p>
+         * The default implementation returns null, so the stream is split by
+         * buffering the emitted elements.
+         * 
+         * @return the emitter covering the suffix of the elements, or null if
+         *         this emitter cannot be split
+         */
+        default DoubleStatefulEmitter trySplit() {
+            return null;
+        }
+
+        /**
+         * Returns the spliterator which covers all the elements emitted by this
+         * emitter.
+         * 
+         * @return the new spliterator
+         */
+        default Spliterator.OfDouble spliterator() {
+            return new EmitterSpliterator.StatefulDouble(this);
+        }
+
+        /**
+         * Returns the stream which covers all the elements emitted by this
+         * emitter.
+         * 
+         * @return the new stream
+         */
+        default DoubleStreamEx stream() {
+            return of(spliterator());
+        }
+    }
 }
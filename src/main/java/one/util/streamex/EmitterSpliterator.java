@@ -229,4 +229,275 @@ import java.util.stream.Stream;
             cons.accept(t);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Drives the {@link StreamEx.StatefulEmitter}: {@code forEachRemaining}
+     * passes the action to the emitter directly, while {@code trySplit} hands
+     * off the pending elements if the emitter supports this, falling back to
+     * the buffering split otherwise.
+     */
+    static final class Stateful<T> extends Spliterators.AbstractSpliterator<T> implements Consumer<T> {
+        StreamEx.StatefulEmitter<T> e;
+        Spliterator<T> buf;
+        int vals;
+        Consumer<? super T> cons;
+
+        Stateful(StreamEx.StatefulEmitter<T> e) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.IMMUTABLE);
+            this.e = e;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (buf != null) {
+                if (buf.tryAdvance(action))
+                    return true;
+                buf = null;
+            }
+            cons = action;
+            for (vals = 0; vals == 0 && e != null;) {
+                if (!e.advance(this))
+                    e = null;
+            }
+            if (vals > 1) {
+                buf = ((Stream.Builder<T>) cons).build().spliterator();
+            }
+            cons = null;
+            return vals > 0;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            if (buf != null) {
+                buf.forEachRemaining(action);
+                buf = null;
+            }
+            StreamEx.StatefulEmitter<T> e = this.e;
+            this.e = null;
+            if (e != null) {
+                while (e.advance(action)) {
+                    // emitted by advance
+                }
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            StreamEx.StatefulEmitter<T> suffix = e == null ? null : e.trySplit();
+            if (suffix == null)
+                return super.trySplit();
+            Stateful<T> prefix = new Stateful<>(e);
+            prefix.buf = buf;
+            buf = null;
+            e = suffix;
+            return prefix;
+        }
+
+        @Override
+        public void accept(T t) {
+            if ((vals += vals < 3 ? 1 : 0) == 2) {
+                cons = Stream.builder();
+            }
+            cons.accept(t);
+        }
+    }
+
+    static final class StatefulInt extends Spliterators.AbstractIntSpliterator implements IntConsumer {
+        IntStreamEx.IntStatefulEmitter e;
+        Spliterator.OfInt buf;
+        int vals;
+        IntConsumer cons;
+
+        StatefulInt(IntStreamEx.IntStatefulEmitter e) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL);
+            this.e = e;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (buf != null) {
+                if (buf.tryAdvance(action))
+                    return true;
+                buf = null;
+            }
+            cons = action;
+            for (vals = 0; vals == 0 && e != null;) {
+                if (!e.advance(this))
+                    e = null;
+            }
+            if (vals > 1) {
+                buf = ((IntStream.Builder) cons).build().spliterator();
+            }
+            cons = null;
+            return vals > 0;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            if (buf != null) {
+                buf.forEachRemaining(action);
+                buf = null;
+            }
+            IntStreamEx.IntStatefulEmitter e = this.e;
+            this.e = null;
+            if (e != null) {
+                while (e.advance(action)) {
+                    // emitted by advance
+                }
+            }
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            IntStreamEx.IntStatefulEmitter suffix = e == null ? null : e.trySplit();
+            if (suffix == null)
+                return super.trySplit();
+            StatefulInt prefix = new StatefulInt(e);
+            prefix.buf = buf;
+            buf = null;
+            e = suffix;
+            return prefix;
+        }
+
+        @Override
+        public void accept(int t) {
+            if ((vals += vals < 3 ? 1 : 0) == 2) {
+                cons = IntStream.builder();
+            }
+            cons.accept(t);
+        }
+    }
+
+    static final class StatefulLong extends Spliterators.AbstractLongSpliterator implements LongConsumer {
+        LongStreamEx.LongStatefulEmitter e;
+        Spliterator.OfLong buf;
+        int vals;
+        LongConsumer cons;
+
+        StatefulLong(LongStreamEx.LongStatefulEmitter e) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL);
+            this.e = e;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if (buf != null) {
+                if (buf.tryAdvance(action))
+                    return true;
+                buf = null;
+            }
+            cons = action;
+            for (vals = 0; vals == 0 && e != null;) {
+                if (!e.advance(this))
+                    e = null;
+            }
+            if (vals > 1) {
+                buf = ((LongStream.Builder) cons).build().spliterator();
+            }
+            cons = null;
+            return vals > 0;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            if (buf != null) {
+                buf.forEachRemaining(action);
+                buf = null;
+            }
+            LongStreamEx.LongStatefulEmitter e = this.e;
+            this.e = null;
+            if (e != null) {
+                while (e.advance(action)) {
+                    // emitted by advance
+                }
+            }
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit() {
+            LongStreamEx.LongStatefulEmitter suffix = e == null ? null : e.trySplit();
+            if (suffix == null)
+                return super.trySplit();
+            StatefulLong prefix = new StatefulLong(e);
+            prefix.buf = buf;
+            buf = null;
+            e = suffix;
+            return prefix;
+        }
+
+        @Override
+        public void accept(long t) {
+            if ((vals += vals < 3 ? 1 : 0) == 2) {
+                cons = LongStream.builder();
+            }
+            cons.accept(t);
+        }
+    }
+
+    static final class StatefulDouble extends Spliterators.AbstractDoubleSpliterator implements DoubleConsumer {
+        DoubleStreamEx.DoubleStatefulEmitter e;
+        Spliterator.OfDouble buf;
+        int vals;
+        DoubleConsumer cons;
+
+        StatefulDouble(DoubleStreamEx.DoubleStatefulEmitter e) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL);
+            this.e = e;
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            if (buf != null) {
+                if (buf.tryAdvance(action))
+                    return true;
+                buf = null;
+            }
+            cons = action;
+            for (vals = 0; vals == 0 && e != null;) {
+                if (!e.advance(this))
+                    e = null;
+            }
+            if (vals > 1) {
+                buf = ((DoubleStream.Builder) cons).build().spliterator();
+            }
+            cons = null;
+            return vals > 0;
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            if (buf != null) {
+                buf.forEachRemaining(action);
+                buf = null;
+            }
+            DoubleStreamEx.DoubleStatefulEmitter e = this.e;
+            this.e = null;
+            if (e != null) {
+                while (e.advance(action)) {
+                    // emitted by advance
+                }
+            }
+        }
+
+        @Override
+        public Spliterator.OfDouble trySplit() {
+            DoubleStreamEx.DoubleStatefulEmitter suffix = e == null ? null : e.trySplit();
+            if (suffix == null)
+                return super.trySplit();
+            StatefulDouble prefix = new StatefulDouble(e);
+            prefix.buf = buf;
+            buf = null;
+            e = suffix;
+            return prefix;
+        }
+
+        @Override
+        public void accept(double t) {
+            if ((vals += vals < 3 ? 1 : 0) == 2) {
+                cons = DoubleStream.builder();
+            }
+            cons.accept(t);
+        }
+    }
+}
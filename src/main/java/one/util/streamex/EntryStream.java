@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -31,7 +32,6 @@ import java.util.NavigableMap;
 import java.util.SortedMap;
 import java.util.Spliterators;
 import java.util.TreeMap;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.function.BiConsumer;
@@ -84,6 +84,10 @@ public class EntryStream<K, V> extends AbstractStreamEx<Entry<K, V>, EntryStream
         return new EntryStream<>(spliterator, context);
     }
 
+    private <KK, VV> EntryStream<KK, VV> fuse(KeyValueSpliterator.Step step, boolean filtering) {
+        return new EntryStream<>(KeyValueSpliterator.<KK, VV> withStep(spliterator(), step, filtering), context);
+    }
+
     static <K, V> Consumer<? super Entry<K, V>> toConsumer(BiConsumer<? super K, ? super V> action) {
         return entry -> action.accept(entry.getKey(), entry.getValue());
     }
@@ -491,6 +495,8 @@ public class EntryStream<K, V> extends AbstractStreamEx<Entry<K, V>, EntryStream
      * @return the new stream
      */
     public <KK> EntryStream<KK, V> mapKeys(Function<? super K, ? extends KK> keyMapper) {
+        if (spliterator != null)
+            return fuse(KeyValueSpliterator.mapKeys(keyMapper), false);
         return new EntryStream<>(stream().map(
             e -> new SimpleImmutableEntry<>(keyMapper.apply(e.getKey()), e.getValue())), context);
     }
@@ -509,6 +515,8 @@ public class EntryStream<K, V> extends AbstractStreamEx<Entry<K, V>, EntryStream
      * @return the new stream
      */
     public <VV> EntryStream<K, VV> mapValues(Function<? super V, ? extends VV> valueMapper) {
+        if (spliterator != null)
+            return fuse(KeyValueSpliterator.mapValues(valueMapper), false);
         return new EntryStream<>(stream().map(
             e -> new SimpleImmutableEntry<>(e.getKey(), valueMapper.apply(e.getValue()))), context);
     }
@@ -527,6 +535,8 @@ public class EntryStream<K, V> extends AbstractStreamEx<Entry<K, V>, EntryStream
      * @return the new stream
      */
     public <R> StreamEx<R> mapKeyValue(BiFunction<? super K, ? super V, ? extends R> mapper) {
+        if (spliterator instanceof KeyValueSpliterator)
+            return new StreamEx<>(KeyValueSpliterator.finish(spliterator(), mapper), context);
         return this.<R> map(toFunction(mapper));
     }
 
@@ -545,6 +555,8 @@ public class EntryStream<K, V> extends AbstractStreamEx<Entry<K, V>, EntryStream
      * @since 0.3.0
      */
     public <KK> EntryStream<KK, V> mapToKey(BiFunction<? super K, ? super V, ? extends KK> keyMapper) {
+        if (spliterator != null)
+            return fuse(KeyValueSpliterator.mapToKey(keyMapper), false);
         return new EntryStream<>(stream().map(
             e -> new SimpleImmutableEntry<>(keyMapper.apply(e.getKey(), e.getValue()), e.getValue())), context);
     }
@@ -564,6 +576,8 @@ public class EntryStream<K, V> extends AbstractStreamEx<Entry<K, V>, EntryStream
      * @since 0.3.0
      */
     public <VV> EntryStream<K, VV> mapToValue(BiFunction<? super K, ? super V, ? extends VV> valueMapper) {
+        if (spliterator != null)
+            return fuse(KeyValueSpliterator.mapToValue(valueMapper), false);
         return new EntryStream<>(stream().map(
             e -> new SimpleImmutableEntry<>(e.getKey(), valueMapper.apply(e.getKey(), e.getValue()))), context);
     }
@@ -579,6 +593,8 @@ public class EntryStream<K, V> extends AbstractStreamEx<Entry<K, V>, EntryStream
      * @return the new stream
      */
     public EntryStream<V, K> invert() {
+        if (spliterator != null)
+            return fuse(KeyValueSpliterator.invert(), false);
         return new EntryStream<>(stream().map(e -> new SimpleImmutableEntry<>(e.getValue(), e.getKey())), context);
     }
 
@@ -595,6 +611,8 @@ public class EntryStream<K, V> extends AbstractStreamEx<Entry<K, V>, EntryStream
      * @return the new stream
      */
     public EntryStream<K, V> filterKeys(Predicate<? super K> keyPredicate) {
+        if (spliterator != null)
+            return fuse(KeyValueSpliterator.filterKeys(keyPredicate), true);
         return filter(e -> keyPredicate.test(e.getKey()));
     }
 
@@ -611,6 +629,8 @@ public class EntryStream<K, V> extends AbstractStreamEx<Entry<K, V>, EntryStream
      * @return the new stream
      */
     public EntryStream<K, V> filterValues(Predicate<? super V> valuePredicate) {
+        if (spliterator != null)
+            return fuse(KeyValueSpliterator.filterValues(valuePredicate), true);
         return filter(e -> valuePredicate.test(e.getValue()));
     }
 
@@ -629,6 +649,8 @@ public class EntryStream<K, V> extends AbstractStreamEx<Entry<K, V>, EntryStream
      * @since 0.3.0
      */
     public EntryStream<K, V> filterKeyValue(BiPredicate<? super K, ? super V> predicate) {
+        if (spliterator != null)
+            return fuse(KeyValueSpliterator.filterKeyValue(predicate), true);
         return filter(e -> predicate.test(e.getKey(), e.getValue()));
     }
 
@@ -693,6 +715,8 @@ public class EntryStream<K, V> extends AbstractStreamEx<Entry<K, V>, EntryStream
      * @return the new stream
      */
     public EntryStream<K, V> nonNullKeys() {
+        if (spliterator != null)
+            return fuse(KeyValueSpliterator.filterKeys(Objects::nonNull), true);
         return filter(e -> e.getKey() != null);
     }
 
@@ -707,6 +731,8 @@ public class EntryStream<K, V> extends AbstractStreamEx<Entry<K, V>, EntryStream
      * @return the new stream
      */
     public EntryStream<K, V> nonNullValues() {
+        if (spliterator != null)
+            return fuse(KeyValueSpliterator.filterValues(Objects::nonNull), true);
         return filter(e -> e.getValue() != null);
     }
 
@@ -724,6 +750,8 @@ public class EntryStream<K, V> extends AbstractStreamEx<Entry<K, V>, EntryStream
      */
     @SuppressWarnings({ "unchecked" })
     public <KK> EntryStream<KK, V> selectKeys(Class<KK> clazz) {
+        if (spliterator != null)
+            return fuse(KeyValueSpliterator.filterKeys(clazz::isInstance), true);
         return (EntryStream<KK, V>) filter(e -> clazz.isInstance(e.getKey()));
     }
 
@@ -741,6 +769,8 @@ public class EntryStream<K, V> extends AbstractStreamEx<Entry<K, V>, EntryStream
      */
     @SuppressWarnings({ "unchecked" })
     public <VV> EntryStream<K, VV> selectValues(Class<VV> clazz) {
+        if (spliterator != null)
+            return fuse(KeyValueSpliterator.filterValues(clazz::isInstance), true);
         return (EntryStream<K, VV>) filter(e -> clazz.isInstance(e.getValue()));
     }
 
@@ -765,6 +795,8 @@ public class EntryStream<K, V> extends AbstractStreamEx<Entry<K, V>, EntryStream
      * @since 0.2.3
      */
     public EntryStream<K, V> peekKeys(Consumer<? super K> keyAction) {
+        if (spliterator != null)
+            return fuse(KeyValueSpliterator.peekKeys(keyAction), false);
         return peek(e -> keyAction.accept(e.getKey()));
     }
 
@@ -789,6 +821,8 @@ public class EntryStream<K, V> extends AbstractStreamEx<Entry<K, V>, EntryStream
      * @since 0.2.3
      */
     public EntryStream<K, V> peekValues(Consumer<? super V> valueAction) {
+        if (spliterator != null)
+            return fuse(KeyValueSpliterator.peekValues(valueAction), false);
         return peek(e -> valueAction.accept(e.getValue()));
     }
 
@@ -813,6 +847,8 @@ public class EntryStream<K, V> extends AbstractStreamEx<Entry<K, V>, EntryStream
      * @since 0.2.3
      */
     public EntryStream<K, V> peekKeyValue(BiConsumer<? super K, ? super V> action) {
+        if (spliterator != null)
+            return fuse(KeyValueSpliterator.peekKeyValue(action), false);
         return peek(toConsumer(action));
     }
 
@@ -949,6 +985,320 @@ public class EntryStream<K, V> extends AbstractStreamEx<Entry<K, V>, EntryStream
             return pb1;
         }, spliterator()), context).mapToEntry(pb -> pb.a, pb -> finisher.apply(pb.b));
     }
+
+    /**
+     * Returns a new {@code EntryStream} which contains the entries of this
+     * stream which keys are present in the supplied map. The values are
+     * produced by applying the merger function to this stream value and the
+     * corresponding map value.
+     * 
+     * <p>
+     * This is an <a href="package-summary.html#StreamOps">intermediate</a>
+     * operation.
+     *
+     * @param <VV> the type of the map values
+     * @param <R> the type of the resulting values
+     * @param other the map to join with; it must not be modified during the
+     *        stream operation
+     * @param merger a <a
+     *        href="package-summary.html#NonInterference">non-interfering </a>,
+     *        <a href="package-summary.html#Statelessness">stateless</a>
+     *        function which combines this stream value and the map value
+     * @return the new stream
+     * @see #leftJoin(Map, BiFunction)
+     * @see #innerJoin(EntryStream, BiFunction)
+     * @since 0.6.7
+     */
+    public <VV, R> EntryStream<K, R> innerJoin(Map<K, ? extends VV> other,
+            BiFunction<? super V, ? super VV, ? extends R> merger) {
+        return filterKeys(other::containsKey).mapToValue((k, v) -> merger.apply(v, other.get(k)));
+    }
+
+    /**
+     * Returns a new {@code EntryStream} which keys are the same as this stream
+     * keys and values are produced by applying the merger function to this
+     * stream value and the corresponding value of the supplied map (or
+     * {@code null} if the map has no such key).
+     * 
+     * <p>
+     * This is an <a href="package-summary.html#StreamOps">intermediate</a>
+     * operation.
+     *
+     * @param <VV> the type of the map values
+     * @param <R> the type of the resulting values
+     * @param other the map to join with; it must not be modified during the
+     *        stream operation
+     * @param merger a <a
+     *        href="package-summary.html#NonInterference">non-interfering </a>,
+     *        <a href="package-summary.html#Statelessness">stateless</a>
+     *        function which combines this stream value and the map value
+     * @return the new stream
+     * @see #innerJoin(Map, BiFunction)
+     * @see #leftJoin(EntryStream, BiFunction)
+     * @since 0.6.7
+     */
+    public <VV, R> EntryStream<K, R> leftJoin(Map<K, ? extends VV> other,
+            BiFunction<? super V, ? super VV, ? extends R> merger) {
+        return mapToValue((k, v) -> merger.apply(v, other.get(k)));
+    }
+
+    /**
+     * Returns a new {@code EntryStream} which is the inner join of this stream
+     * and the supplied stream by key. For every pair of entries with equal
+     * keys the resulting stream contains an entry with this key and the value
+     * produced by the merger function.
+     * 
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * operation.
+     * 
+     * <p>
+     * The other stream is collected into the hash table on the first access
+     * and the entries of this stream are processed lazily preserving their
+     * order, so it's better to supply the smaller stream as an argument. Only
+     * if this stream is unordered and the sizes of both streams are known in
+     * advance, the smaller one is collected. If the collected stream is
+     * parallel, the hash table is built in parallel.
+     *
+     * @param <VV> the type of the other stream values
+     * @param <R> the type of the resulting values
+     * @param other the stream to join with
+     * @param merger a <a
+     *        href="package-summary.html#NonInterference">non-interfering </a>,
+     *        <a href="package-summary.html#Statelessness">stateless</a>
+     *        function which combines this stream value and the other stream
+     *        value
+     * @return the new stream
+     * @see #innerJoin(EntryStream, Comparator, BiFunction)
+     * @since 0.6.7
+     */
+    public <VV, R> EntryStream<K, R> innerJoin(EntryStream<K, VV> other,
+            BiFunction<? super V, ? super VV, ? extends R> merger) {
+        return hashJoin(other, merger, false, false);
+    }
+
+    /**
+     * Returns a new {@code EntryStream} which is the left outer join of this
+     * stream and the supplied stream by key. For every pair of entries with
+     * equal keys the resulting stream contains an entry with this key and the
+     * value produced by the merger function. For every entry of this stream
+     * which key is absent in the other stream the merger function is called
+     * with {@code null} as the second argument.
+     * 
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * operation.
+     * 
+     * <p>
+     * The other stream is collected into the hash table on the first access
+     * and the entries of this stream are processed lazily preserving their
+     * order, so it's better to supply the smaller stream as an argument. Only
+     * if this stream is unordered and sequential and the sizes of both streams
+     * are known in advance, the smaller one is collected (in this case the
+     * unmatched entries of this stream go last). If the collected stream is
+     * parallel, the hash table is built in parallel.
+     *
+     * @param <VV> the type of the other stream values
+     * @param <R> the type of the resulting values
+     * @param other the stream to join with
+     * @param merger a <a
+     *        href="package-summary.html#NonInterference">non-interfering </a>,
+     *        <a href="package-summary.html#Statelessness">stateless</a>
+     *        function which combines this stream value and the other stream
+     *        value
+     * @return the new stream
+     * @see #leftJoin(EntryStream, Comparator, BiFunction)
+     * @since 0.6.7
+     */
+    public <VV, R> EntryStream<K, R> leftJoin(EntryStream<K, VV> other,
+            BiFunction<? super V, ? super VV, ? extends R> merger) {
+        return hashJoin(other, merger, true, false);
+    }
+
+    /**
+     * Returns a new {@code EntryStream} which is the full outer join of this
+     * stream and the supplied stream by key. For every pair of entries with
+     * equal keys the resulting stream contains an entry with this key and the
+     * value produced by the merger function. For every entry which key is
+     * absent in another stream the merger function is called with
+     * {@code null} instead of the missing value. The unmatched entries of the
+     * other stream follow all the entries produced from this stream.
+     * 
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * operation.
+     * 
+     * <p>
+     * The other stream is collected into the hash table on the first access
+     * and the entries of this stream are processed lazily preserving their
+     * order, but not in parallel, so it's better to supply the smaller stream
+     * as an argument. Only if this stream is unordered and the sizes of both
+     * streams are known in advance, the smaller one is collected. If the
+     * collected stream is parallel, the hash table is built in parallel.
+     *
+     * @param <VV> the type of the other stream values
+     * @param <R> the type of the resulting values
+     * @param other the stream to join with
+     * @param merger a <a
+     *        href="package-summary.html#NonInterference">non-interfering </a>,
+     *        <a href="package-summary.html#Statelessness">stateless</a>
+     *        function which combines this stream value and the other stream
+     *        value
+     * @return the new stream
+     * @see #fullJoin(EntryStream, Comparator, BiFunction)
+     * @since 0.6.7
+     */
+    public <VV, R> EntryStream<K, R> fullJoin(EntryStream<K, VV> other,
+            BiFunction<? super V, ? super VV, ? extends R> merger) {
+        return hashJoin(other, merger, true, true);
+    }
+
+    /**
+     * Returns a new {@code EntryStream} which is the inner join of this stream
+     * and the supplied stream by key. Both streams must be sorted by key
+     * according to the supplied comparator. For every pair of entries with
+     * equal keys the resulting stream contains an entry with this key and the
+     * value produced by the merger function.
+     * 
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * operation.
+     * 
+     * <p>
+     * Both streams are traversed simultaneously, buffering only the adjacent
+     * entries with equal keys (see {@link #collapseKeys()}), so the memory
+     * usage does not depend on the stream size. The keys which are equal
+     * according to the comparator must be also equal according to
+     * {@link Object#equals(Object)}. An {@link IllegalStateException} is
+     * thrown during the traversal if unsorted keys are detected.
+     *
+     * @param <VV> the type of the other stream values
+     * @param <R> the type of the resulting values
+     * @param other the stream to join with
+     * @param comparator a comparator both streams are sorted with
+     * @param merger a <a
+     *        href="package-summary.html#NonInterference">non-interfering </a>,
+     *        <a href="package-summary.html#Statelessness">stateless</a>
+     *        function which combines this stream value and the other stream
+     *        value
+     * @return the new stream
+     * @see #innerJoin(EntryStream, BiFunction)
+     * @since 0.6.7
+     */
+    public <VV, R> EntryStream<K, R> innerJoin(EntryStream<K, VV> other, Comparator<? super K> comparator,
+            BiFunction<? super V, ? super VV, ? extends R> merger) {
+        return mergeJoin(other, comparator, merger, false, false);
+    }
+
+    /**
+     * Returns a new {@code EntryStream} which is the left outer join of this
+     * stream and the supplied stream by key. Both streams must be sorted by key
+     * according to the supplied comparator. For every pair of entries with
+     * equal keys the resulting stream contains an entry with this key and the
+     * value produced by the merger function. For every entry of this stream
+     * which key is absent in the other stream the merger function is called
+     * with {@code null} as the second argument.
+     * 
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * operation.
+     * 
+     * <p>
+     * Both streams are traversed simultaneously, buffering only the adjacent
+     * entries with equal keys (see {@link #collapseKeys()}), so the memory
+     * usage does not depend on the stream size. The keys which are equal
+     * according to the comparator must be also equal according to
+     * {@link Object#equals(Object)}. An {@link IllegalStateException} is
+     * thrown during the traversal if unsorted keys are detected.
+     *
+     * @param <VV> the type of the other stream values
+     * @param <R> the type of the resulting values
+     * @param other the stream to join with
+     * @param comparator a comparator both streams are sorted with
+     * @param merger a <a
+     *        href="package-summary.html#NonInterference">non-interfering </a>,
+     *        <a href="package-summary.html#Statelessness">stateless</a>
+     *        function which combines this stream value and the other stream
+     *        value
+     * @return the new stream
+     * @see #leftJoin(EntryStream, BiFunction)
+     * @since 0.6.7
+     */
+    public <VV, R> EntryStream<K, R> leftJoin(EntryStream<K, VV> other, Comparator<? super K> comparator,
+            BiFunction<? super V, ? super VV, ? extends R> merger) {
+        return mergeJoin(other, comparator, merger, true, false);
+    }
+
+    /**
+     * Returns a new {@code EntryStream} which is the full outer join of this
+     * stream and the supplied stream by key. Both streams must be sorted by key
+     * according to the supplied comparator. For every pair of entries with
+     * equal keys the resulting stream contains an entry with this key and the
+     * value produced by the merger function. For every entry which key is
+     * absent in another stream the merger function is called with
+     * {@code null} instead of the missing value. The resulting stream is
+     * sorted by key as well.
+     * 
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * operation.
+     * 
+     * <p>
+     * Both streams are traversed simultaneously, buffering only the adjacent
+     * entries with equal keys (see {@link #collapseKeys()}), so the memory
+     * usage does not depend on the stream size. The keys which are equal
+     * according to the comparator must be also equal according to
+     * {@link Object#equals(Object)}. An {@link IllegalStateException} is
+     * thrown during the traversal if unsorted keys are detected.
+     *
+     * @param <VV> the type of the other stream values
+     * @param <R> the type of the resulting values
+     * @param other the stream to join with
+     * @param comparator a comparator both streams are sorted with
+     * @param merger a <a
+     *        href="package-summary.html#NonInterference">non-interfering </a>,
+     *        <a href="package-summary.html#Statelessness">stateless</a>
+     *        function which combines this stream value and the other stream
+     *        value
+     * @return the new stream
+     * @see #fullJoin(EntryStream, BiFunction)
+     * @since 0.6.7
+     */
+    public <VV, R> EntryStream<K, R> fullJoin(EntryStream<K, VV> other, Comparator<? super K> comparator,
+            BiFunction<? super V, ? super VV, ? extends R> merger) {
+        return mergeJoin(other, comparator, merger, true, true);
+    }
+
+    private StreamContext joinContext(EntryStream<?, ?> other) {
+        Runnable closeHandler = other.context.closeHandler;
+        return closeHandler == null ? context : context.onClose(closeHandler);
+    }
+
+    private <VV, R> EntryStream<K, R> hashJoin(EntryStream<K, VV> other,
+            BiFunction<? super V, ? super VV, ? extends R> merger, boolean keepLeft, boolean keepRight) {
+        StreamContext ctx = joinContext(other);
+        Spliterator<Entry<K, V>> left = spliterator();
+        Spliterator<Entry<K, VV>> right = other.spliterator();
+        long leftSize = left.getExactSizeIfKnown();
+        // the swapped roles change the order and the swapped left join cannot
+        // be split, so only the unordered stream may be collected instead
+        if (!left.hasCharacteristics(Spliterator.ORDERED) && (keepLeft == keepRight || !isParallel())
+            && leftSize >= 0 && right.getExactSizeIfKnown() > leftSize) {
+            StreamContext leftContext = context;
+            return new EntryStream<>(new JoinSpliterator.Hash<K, VV, V, R>(right, () -> new EntryStream<>(left,
+                    leftContext).grouping(), (VV vv, V v) -> merger.apply(v, vv), keepRight, keepLeft), ctx);
+        }
+        StreamContext rightContext = other.context;
+        return new EntryStream<>(new JoinSpliterator.Hash<>(left, () -> new EntryStream<>(right, rightContext)
+                .grouping(), merger, keepLeft, keepRight), ctx);
+    }
+
+    private <VV, R> EntryStream<K, R> mergeJoin(EntryStream<K, VV> other, Comparator<? super K> comparator,
+            BiFunction<? super V, ? super VV, ? extends R> merger, boolean keepLeft, boolean keepRight) {
+        StreamContext ctx = joinContext(other);
+        return new EntryStream<>(new JoinSpliterator.Merge<>(collapseKeys().spliterator(), other.collapseKeys()
+                .spliterator(), comparator, merger, keepLeft, keepRight), ctx);
+    }
     
     /**
      * Returns a new {@code EntryStream} which values are the same as this
@@ -1032,8 +1382,10 @@ public class EntryStream<K, V> extends AbstractStreamEx<Entry<K, V>, EntryStream
      * @see #toImmutableMap()
      */
     public Map<K, V> toMap() {
-        Map<K, V> map = isParallel() ? new ConcurrentHashMap<>() : new HashMap<>();
-        forEach(toMapConsumer(map));
+        if (isParallel())
+            return partitioned(Entry::getKey, Entry::getValue, PartitionedGrouping.<K, V> toConcurrentMap());
+        Map<K, V> map = new HashMap<>();
+        forKeyValue((k, v) -> addToMap(map, k, Objects.requireNonNull(v)));
         return map;
     }
 
@@ -1116,6 +1468,8 @@ public class EntryStream<K, V> extends AbstractStreamEx<Entry<K, V>, EntryStream
      * @since 0.1.0
      */
     public Map<K, V> toMap(BinaryOperator<V> mergeFunction) {
+        if (isParallel())
+            return partitioned(Entry::getKey, Entry::getValue, PartitionedGrouping.<K, V> toMap(mergeFunction));
         Function<Entry<K, V>, K> keyMapper = Entry::getKey;
         Function<Entry<K, V>, V> valueMapper = Entry::getValue;
         return collect(Collectors.toMap(keyMapper, valueMapper, mergeFunction, HashMap::new));
@@ -1400,6 +1754,8 @@ public class EntryStream<K, V> extends AbstractStreamEx<Entry<K, V>, EntryStream
         if (isParallel() && downstream.characteristics().contains(Characteristics.UNORDERED)) {
             return collect(Collectors.groupingByConcurrent(keyMapper, mapping));
         }
+        if (isParallel())
+            return partitioned(keyMapper, Entry::getValue, PartitionedGrouping.<K, V, A, D> grouping(downstream));
         return collect(Collectors.groupingBy(keyMapper, mapping));
     }
 
@@ -1506,6 +1862,10 @@ public class EntryStream<K, V> extends AbstractStreamEx<Entry<K, V>, EntryStream
      * @see #forEach(java.util.function.Consumer)
      */
     public void forKeyValue(BiConsumer<? super K, ? super V> action) {
+        if (spliterator instanceof KeyValueSpliterator && !isParallel()) {
+            ((KeyValueSpliterator<?>) spliterator()).forEachPair(action);
+            return;
+        }
         forEach(toConsumer(action));
     }
 
@@ -1588,7 +1948,7 @@ public class EntryStream<K, V> extends AbstractStreamEx<Entry<K, V>, EntryStream
      * @return a new {@code EntryStream}
      */
     public static <K, V> EntryStream<K, V> of(Map<K, V> map) {
-        return of(map.entrySet().stream());
+        return new EntryStream<>(map.entrySet().spliterator(), StreamContext.SEQUENTIAL);
     }
 
     /**
@@ -2052,4 +2412,69 @@ public class EntryStream<K, V> extends AbstractStreamEx<Entry<K, V>, EntryStream
                 Stream.generate(() -> new SimpleImmutableEntry<>(keySupplier.get(), valueSupplier.get())),
                 StreamContext.SEQUENTIAL);
     }
+
+    /**
+     * Returns an {@code EntryStream} which merges the supplied entry streams
+     * sorted by keys into the single stream sorted by keys, combining the
+     * values for the equal keys using the supplied merger function. Every
+     * input stream must be sorted by keys according to the supplied
+     * comparator, otherwise the result is unspecified. The values for the
+     * equal keys are merged in the order of the streams. The resulting stream
+     * is parallel if any of the input streams is parallel. When the resulting
+     * stream is closed, the close handlers for all input streams are invoked.
+     *
+     * <p>
+     * The input streams are pulled lazily and the values are merged on the
+     * fly, so only one entry per input stream and the currently merged entry
+     * are kept in memory.
+     *
+     * @param <K> the type of stream element keys
+     * @param <V> the type of stream element values
+     * @param keyComparator the comparator the input streams are sorted by
+     * @param merger a non-interfering, stateless, associative function to
+     *        merge the values of the entries with the equal keys
+     * @param streams the sorted streams to merge
+     * @return the merged stream
+     * @see StreamEx#mergeSorted(Comparator, Stream...)
+     * @see #collapseKeys(BinaryOperator)
+     * @since 0.6.7
+     */
+    @SafeVarargs
+    public static <K, V> EntryStream<K, V> mergeSorted(Comparator<? super K> keyComparator,
+            BinaryOperator<V> merger, Stream<? extends Entry<K, V>>... streams) {
+        return mergeSorted(keyComparator, merger, Arrays.asList(streams));
+    }
+
+    /**
+     * Returns an {@code EntryStream} which merges the entry streams from the
+     * supplied collection sorted by keys into the single stream sorted by
+     * keys, combining the values for the equal keys using the supplied merger
+     * function. Every input stream must be sorted by keys according to the
+     * supplied comparator, otherwise the result is unspecified. The values for
+     * the equal keys are merged in the collection iteration order. The
+     * resulting stream is parallel if any of the input streams is parallel.
+     * When the resulting stream is closed, the close handlers for all input
+     * streams are invoked.
+     *
+     * @param <K> the type of stream element keys
+     * @param <V> the type of stream element values
+     * @param keyComparator the comparator the input streams are sorted by
+     * @param merger a non-interfering, stateless, associative function to
+     *        merge the values of the entries with the equal keys
+     * @param streams the collection of sorted streams to merge
+     * @return the merged stream
+     * @see StreamEx#mergeSorted(Comparator, Collection)
+     * @since 0.6.7
+     */
+    public static <K, V> EntryStream<K, V> mergeSorted(Comparator<? super K> keyComparator,
+            BinaryOperator<V> merger, Collection<? extends Stream<? extends Entry<K, V>>> streams) {
+        Objects.requireNonNull(keyComparator);
+        Objects.requireNonNull(merger);
+        StreamEx<Entry<K, V>> merged = StreamEx.mergeSorted(Entry.comparingByKey(keyComparator), streams);
+        BinaryOperator<Entry<K, V>> entryMerger = (e1, e2) -> new SimpleImmutableEntry<>(e1.getKey(), merger.apply(e1
+                .getValue(), e2.getValue()));
+        return new EntryStream<>(new CollapseSpliterator<>((Entry<K, V> e1, Entry<K, V> e2) -> keyComparator.compare(
+            e1.getKey(), e2.getKey()) == 0, Function.identity(), entryMerger, entryMerger, merged.spliterator()),
+                merged.context);
+    }
 }
@@ -0,0 +1,355 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Spliterators.AbstractSpliterator;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import one.util.streamex.StreamEx.RecordCodec;
+
+/**
+ * A grouping container which keeps at most {@code maxInMemory} keys in memory.
+ * When the limit is reached, all the accumulated states are written to the
+ * temporary files partitioned by the key hash, so every key appears in the
+ * single partition. The partitions are processed one at a time when the
+ * result is traversed: the partial states of the same key are combined in
+ * memory. If the partition still has too many keys, it's partitioned again
+ * using the next bits of the hash.
+ *
+ * @author Tagir Valeev
+ *
+ * @param <T> type of the input elements
+ * @param <K> type of the keys
+ * @param <A> type of the downstream accumulation state
+ */
+/* package */final class ExternalGrouping<T, K, A> {
+    private static final int BITS = 4;
+    private static final int PARTITIONS = 1 << BITS;
+    // at this level all the hash bits are used, so no more spilling
+    private static final int MAX_LEVEL = Integer.SIZE / BITS;
+
+    private final Params<T, K, A> params;
+    private final int level;
+    private Map<K, A> map = new HashMap<>();
+    private Partition[] partitions;
+
+    /**
+     * The parameters shared by all the containers of the single collection.
+     */
+    static final class Params<T, K, A> {
+        final Function<? super T, ? extends K> classifier;
+        final Supplier<A> supplier;
+        final BiConsumer<A, ? super T> accumulator;
+        final BinaryOperator<A> combiner;
+        final RecordCodec<K> keyCodec;
+        final RecordCodec<A> stateCodec;
+        final int maxInMemory;
+        final Path tempDir;
+
+        Params(Function<? super T, ? extends K> classifier, Supplier<A> supplier,
+                BiConsumer<A, ? super T> accumulator, BinaryOperator<A> combiner, RecordCodec<K> keyCodec,
+                RecordCodec<A> stateCodec, int maxInMemory, Path tempDir) {
+            this.classifier = classifier;
+            this.supplier = supplier;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+            this.keyCodec = keyCodec;
+            this.stateCodec = stateCodec;
+            this.maxInMemory = maxInMemory;
+            this.tempDir = tempDir;
+        }
+    }
+
+    /**
+     * The files of the single partition, one per spill. Every file contains
+     * the records prefixed by {@code true} and terminated by {@code false}.
+     */
+    static final class Partition {
+        final List<Path> files = new ArrayList<>();
+
+        void delete() {
+            IOException ex = null;
+            for (Path file : files) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    if (ex == null)
+                        ex = e;
+                    else
+                        ex.addSuppressed(e);
+                }
+            }
+            files.clear();
+            if (ex != null)
+                throw new UncheckedIOException(ex);
+        }
+    }
+
+    ExternalGrouping(Params<T, K, A> params, int level) {
+        this.params = params;
+        this.level = level;
+    }
+
+    private int partition(Object key) {
+        // the same mixing as in HashMap is not enough to use the high bits
+        int h = key.hashCode() * 0x9E3779B9;
+        h ^= h >>> 16;
+        return (h >>> (level * BITS)) & (PARTITIONS - 1);
+    }
+
+    void accumulate(T t) {
+        try {
+            K key = params.classifier.apply(t);
+            if (key == null)
+                throw new NullPointerException("element cannot be mapped to a null key");
+            A container = map.computeIfAbsent(key, k -> params.supplier.get());
+            params.accumulator.accept(container, t);
+            checkSize();
+        } catch (RuntimeException | Error e) {
+            // the container is abandoned, so nobody else would delete its files
+            deleteOnFailure(e);
+            throw e;
+        }
+    }
+
+    void merge(K key, A state) {
+        A container = map.get(key);
+        map.put(key, container == null ? state : params.combiner.apply(container, state));
+        checkSize();
+    }
+
+    ExternalGrouping<T, K, A> combine(ExternalGrouping<T, K, A> other) {
+        try {
+            if (other.partitions != null) {
+                Partition[] p = partitions();
+                for (int i = 0; i < PARTITIONS; i++) {
+                    p[i].files.addAll(other.partitions[i].files);
+                    other.partitions[i].files.clear();
+                }
+            }
+            Map<K, A> otherMap = other.map;
+            other.map = new HashMap<>();
+            otherMap.forEach(this::merge);
+        } catch (RuntimeException | Error e) {
+            deleteOnFailure(e);
+            other.deleteOnFailure(e);
+            throw e;
+        }
+        return this;
+    }
+
+    private void checkSize() {
+        if (map.size() >= params.maxInMemory && level < MAX_LEVEL) {
+            try {
+                spill();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private Partition[] partitions() {
+        if (partitions == null) {
+            partitions = new Partition[PARTITIONS];
+            for (int i = 0; i < PARTITIONS; i++) {
+                partitions[i] = new Partition();
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * Writes every non-empty partition of the in-memory map to the new file.
+     * The files are closed right away, so no file handles are kept between
+     * the spills.
+     */
+    @SuppressWarnings("unchecked")
+    private void spill() throws IOException {
+        Partition[] p = partitions();
+        List<Entry<K, A>>[] buckets = new List[PARTITIONS];
+        for (Entry<K, A> entry : map.entrySet()) {
+            int i = partition(entry.getKey());
+            if (buckets[i] == null)
+                buckets[i] = new ArrayList<>();
+            buckets[i].add(entry);
+        }
+        for (int i = 0; i < PARTITIONS; i++) {
+            if (buckets[i] == null)
+                continue;
+            Path file = Files.createTempFile(params.tempDir, "streamex-group-", ".tmp");
+            p[i].files.add(file);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+                for (Entry<K, A> entry : buckets[i]) {
+                    out.writeBoolean(true);
+                    params.keyCodec.write(entry.getKey(), out);
+                    params.stateCodec.write(entry.getValue(), out);
+                }
+                out.writeBoolean(false);
+            }
+        }
+        map = new HashMap<>();
+    }
+
+    /**
+     * Reads the partition into the new container of the next level, deleting
+     * its files.
+     */
+    private static <T, K, A> ExternalGrouping<T, K, A> load(Params<T, K, A> params, int level, Partition partition)
+            throws IOException {
+        ExternalGrouping<T, K, A> grouping = new ExternalGrouping<>(params, level);
+        try {
+            for (Path file : partition.files) {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                    while (in.readBoolean()) {
+                        K key = params.keyCodec.read(in);
+                        grouping.merge(key, params.stateCodec.read(in));
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException | Error e) {
+            grouping.delete();
+            throw e;
+        } finally {
+            partition.delete();
+        }
+        return grouping;
+    }
+
+    private void delete() {
+        if (partitions != null) {
+            for (Partition partition : partitions) {
+                partition.delete();
+            }
+        }
+    }
+
+    private void deleteOnFailure(Throwable ex) {
+        map = new HashMap<>();
+        try {
+            delete();
+        } catch (UncheckedIOException e) {
+            ex.addSuppressed(e.getCause());
+        }
+    }
+
+    /**
+     * Creates the spliterator over the final states. Must be called once after
+     * the accumulation is finished.
+     */
+    Output<K, A> output() {
+        return new Output<>(this);
+    }
+
+    static final class Output<K, A> extends AbstractSpliterator<Entry<K, A>> {
+        private final Deque<Partition> pending = new ArrayDeque<>();
+        private final Deque<Integer> levels = new ArrayDeque<>();
+        private final Params<?, K, A> params;
+        private Iterator<Entry<K, A>> current;
+
+        Output(ExternalGrouping<?, K, A> grouping) {
+            super(Long.MAX_VALUE, DISTINCT | NONNULL);
+            this.params = grouping.params;
+            enqueue(grouping);
+        }
+
+        private void enqueue(ExternalGrouping<?, K, A> grouping) {
+            if (grouping.partitions == null) {
+                current = grouping.map.entrySet().iterator();
+                return;
+            }
+            try {
+                if (!grouping.map.isEmpty())
+                    grouping.spill();
+                for (Partition partition : grouping.partitions) {
+                    if (!partition.files.isEmpty()) {
+                        pending.push(partition);
+                        levels.push(grouping.level + 1);
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                UncheckedIOException ex = new UncheckedIOException(e);
+                grouping.deleteOnFailure(ex);
+                throw ex;
+            } catch (RuntimeException | Error e) {
+                close();
+                grouping.deleteOnFailure(e);
+                throw e;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public boolean tryAdvance(Consumer<? super Entry<K, A>> action) {
+            while (current == null || !current.hasNext()) {
+                current = null;
+                if (pending.isEmpty())
+                    return false;
+                ExternalGrouping<?, K, A> grouping;
+                try {
+                    grouping = load((Params<Object, K, A>) params, levels.pop(), pending.pop());
+                } catch (IOException e) {
+                    close();
+                    throw new UncheckedIOException(e);
+                } catch (RuntimeException | Error e) {
+                    close();
+                    throw e;
+                }
+                enqueue(grouping);
+            }
+            action.accept(current.next());
+            return true;
+        }
+
+        void close() {
+            current = null;
+            RuntimeException ex = null;
+            while (!pending.isEmpty()) {
+                try {
+                    pending.pop().delete();
+                } catch (RuntimeException e) {
+                    if (ex == null)
+                        ex = e;
+                    else
+                        ex.addSuppressed(e);
+                }
+            }
+            levels.clear();
+            if (ex != null)
+                throw ex;
+        }
+    }
+}
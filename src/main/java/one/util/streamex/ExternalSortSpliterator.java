@@ -0,0 +1,639 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+import one.util.streamex.StreamEx.RecordCodec;
+
+import static one.util.streamex.StreamExInternals.*;
+
+/**
+ * A spliterator which sorts the source elements using the external memory.
+ *
+ * <p>
+ * When the traversal starts, the source is consumed and cut into the runs of
+ * at most {@code maxInMemory} elements. Every run is sorted in parallel and
+ * appended to the single temporary file, except the last one which is kept in
+ * memory. Then the runs are merged lazily using the binary heap of the run
+ * indices; every run is read from its own region of the file by the positional
+ * reads, so only one file is open regardless of the number of runs. Ties are
+ * resolved in favor of the earlier run, so the sort is stable. The temporary
+ * file is deleted when the merge is finished or the spliterator is closed.
+ *
+ * @author Tagir Valeev
+ *
+ * @param <T> type of the elements
+ */
+/* package */abstract class ExternalSortSpliterator<T> implements Spliterator<T>, Closeable {
+    static final int BUFFER_SIZE = 1 << 16;
+
+    final int maxInMemory;
+    private final Path tempDir;
+    private Path file;
+    private FileChannel channel;
+    // the start offsets of the spilled runs and the number of their elements
+    final List<Long> offsets = new ArrayList<>();
+    final List<Integer> lengths = new ArrayList<>();
+    // run indices ordered as binary heap by the current run head
+    private int[] heap;
+    private int heapSize;
+    private boolean started;
+
+    ExternalSortSpliterator(int maxInMemory, Path tempDir) {
+        this.maxInMemory = maxInMemory;
+        this.tempDir = tempDir;
+    }
+
+    /**
+     * Consumes the source, spilling all the full runs.
+     *
+     * @return the total number of runs
+     */
+    abstract int createRuns() throws IOException;
+
+    /**
+     * Makes the next element of the run its head.
+     *
+     * @return false if the run is exhausted
+     */
+    abstract boolean loadNext(int run) throws IOException;
+
+    abstract int compareHeads(int run1, int run2);
+
+    /**
+     * Returns the channel of the temporary file creating it if necessary. The
+     * runs are appended at the current channel position.
+     */
+    final FileChannel channel() throws IOException {
+        if (channel == null) {
+            file = Files.createTempFile(tempDir, "streamex-sort-", ".tmp");
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        return channel;
+    }
+
+    /**
+     * Registers the run which was just appended to the temporary file.
+     */
+    final void addRun(long offset, int length) {
+        offsets.add(offset);
+        lengths.add(length);
+    }
+
+    private boolean less(int run1, int run2) {
+        int cmp = compareHeads(run1, run2);
+        return cmp < 0 || cmp == 0 && run1 < run2;
+    }
+
+    private void siftDown(int i) {
+        int[] h = heap;
+        int run = h[i];
+        int half = heapSize >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < heapSize && less(h[child + 1], h[child]))
+                child++;
+            if (!less(h[child], run))
+                break;
+            h[i] = h[child];
+            i = child;
+        }
+        h[i] = run;
+    }
+
+    /**
+     * Returns the run which head is the next element, starting the merge if
+     * necessary.
+     *
+     * @return the run index or -1 if all the runs are exhausted
+     */
+    final int top() {
+        try {
+            if (!started) {
+                started = true;
+                int runs = createRuns();
+                heap = new int[runs];
+                for (int run = 0; run < runs; run++) {
+                    if (loadNext(run))
+                        heap[heapSize++] = run;
+                }
+                for (int i = (heapSize >>> 1) - 1; i >= 0; i--) {
+                    siftDown(i);
+                }
+            }
+            if (heapSize == 0) {
+                close();
+                return -1;
+            }
+            return heap[0];
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Moves to the next element after the head of the top run is consumed.
+     */
+    final void next() {
+        try {
+            if (!loadNext(heap[0]))
+                heap[0] = heap[--heapSize];
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (heapSize > 1)
+            siftDown(0);
+    }
+
+    @Override
+    public void close() {
+        heapSize = 0;
+        if (file == null)
+            return;
+        IOException ex = null;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            ex = e;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            if (ex == null)
+                ex = e;
+            else
+                ex.addSuppressed(e);
+        }
+        file = null;
+        channel = null;
+        if (ex != null)
+            throw new UncheckedIOException(ex);
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SORTED;
+    }
+
+    static ByteBuffer newBuffer() {
+        return ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.nativeOrder());
+    }
+
+    static void write(FileChannel channel, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+        buf.clear();
+    }
+
+    /**
+     * Reads the given number of bytes (not exceeding the buffer capacity)
+     * starting from the given file position and flips the buffer.
+     */
+    static void read(FileChannel channel, ByteBuffer buf, long position, int bytes) throws IOException {
+        buf.clear();
+        buf.limit(bytes);
+        while (buf.hasRemaining()) {
+            int n = channel.read(buf, position);
+            if (n < 0)
+                throw new EOFException();
+            position += n;
+        }
+        buf.flip();
+    }
+
+    /**
+     * An input stream which reads the channel from the given position without
+     * changing the channel position.
+     */
+    static final class RunInputStream extends InputStream {
+        private final FileChannel channel;
+        private long position;
+
+        RunInputStream(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0)
+                return 0;
+            int n = channel.read(ByteBuffer.wrap(b, off, len), position);
+            if (n > 0)
+                position += n;
+            return n;
+        }
+    }
+
+    static final class OfRef<T> extends ExternalSortSpliterator<T> implements Consumer<T> {
+        private final Comparator<? super T> comparator;
+        private final RecordCodec<T> codec;
+        private Spliterator<T> source;
+        private Object[] buf;
+        private int size;
+        // per run: the head, the input (null for the in-memory run) and the
+        // number of unread elements
+        private Object[] heads;
+        private DataInputStream[] in;
+        private int[] remaining;
+        private int memoryPos;
+
+        OfRef(Spliterator<T> source, Comparator<? super T> comparator, RecordCodec<T> codec, int maxInMemory,
+                Path tempDir) {
+            super(maxInMemory, tempDir);
+            this.source = source;
+            this.comparator = comparator;
+            this.codec = codec;
+        }
+
+        @Override
+        public void accept(T t) {
+            if (size == buf.length) {
+                if (size == maxInMemory) {
+                    try {
+                        spill();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                } else {
+                    buf = Arrays.copyOf(buf, (int) Math.min(maxInMemory, buf.length * 2L));
+                }
+            }
+            buf[size++] = t;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void sort() {
+            Arrays.parallelSort((T[]) buf, 0, size, comparator);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void spill() throws IOException {
+            sort();
+            FileChannel channel = channel();
+            long offset = channel.position();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel),
+                    BUFFER_SIZE));
+            for (int i = 0; i < size; i++) {
+                codec.write((T) buf[i], out);
+                buf[i] = null;
+            }
+            out.flush();
+            addRun(offset, size);
+            size = 0;
+        }
+
+        @Override
+        int createRuns() throws IOException {
+            buf = new Object[Math.min(maxInMemory, INITIAL_SIZE)];
+            source.forEachRemaining(this);
+            source = null;
+            sort();
+            int runs = offsets.size() + 1;
+            heads = new Object[runs];
+            in = new DataInputStream[runs];
+            remaining = new int[runs];
+            for (int i = 0; i < runs - 1; i++) {
+                in[i] = new DataInputStream(new BufferedInputStream(new RunInputStream(channel(), offsets.get(i))));
+                remaining[i] = lengths.get(i);
+            }
+            remaining[runs - 1] = size;
+            return runs;
+        }
+
+        @Override
+        boolean loadNext(int run) throws IOException {
+            if (remaining[run] == 0) {
+                heads[run] = null;
+                in[run] = null;
+                return false;
+            }
+            remaining[run]--;
+            if (in[run] == null) {
+                heads[run] = buf[memoryPos];
+                buf[memoryPos++] = null;
+            } else {
+                heads[run] = codec.read(in[run]);
+            }
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        int compareHeads(int run1, int run2) {
+            return comparator.compare((T) heads[run1], (T) heads[run2]);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            int run = top();
+            if (run < 0)
+                return false;
+            T t = (T) heads[run];
+            next();
+            action.accept(t);
+            return true;
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            return comparator;
+        }
+    }
+
+    static final class Ints extends ExternalSortSpliterator<Integer> implements Spliterator.OfInt, IntConsumer {
+        private static final int BLOCK = BUFFER_SIZE / Integer.BYTES;
+        private Spliterator.OfInt source;
+        private int[] buf;
+        private int size;
+        private ByteBuffer byteBuf;
+        // per run: the block of elements, the position and the number of
+        // elements in the block, the file position and the number of
+        // elements left in the file
+        private int[][] blocks;
+        private int[] pos, limit;
+        private long[] position;
+        private int[] remaining;
+
+        Ints(Spliterator.OfInt source, int maxInMemory, Path tempDir) {
+            super(maxInMemory, tempDir);
+            this.source = source;
+        }
+
+        @Override
+        public void accept(int t) {
+            if (size == buf.length) {
+                if (size == maxInMemory) {
+                    try {
+                        spill();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                } else {
+                    buf = Arrays.copyOf(buf, (int) Math.min(maxInMemory, buf.length * 2L));
+                }
+            }
+            buf[size++] = t;
+        }
+
+        private void spill() throws IOException {
+            Arrays.parallelSort(buf, 0, size);
+            if (byteBuf == null)
+                byteBuf = newBuffer();
+            FileChannel channel = channel();
+            long offset = channel.position();
+            for (int i = 0; i < size; i += BLOCK) {
+                int n = Math.min(BLOCK, size - i);
+                byteBuf.asIntBuffer().put(buf, i, n);
+                byteBuf.position(n * Integer.BYTES);
+                write(channel, byteBuf);
+            }
+            addRun(offset, size);
+            size = 0;
+        }
+
+        @Override
+        int createRuns() throws IOException {
+            buf = new int[Math.min(maxInMemory, INITIAL_SIZE)];
+            source.forEachRemaining(this);
+            source = null;
+            Arrays.parallelSort(buf, 0, size);
+            int runs = offsets.size() + 1;
+            blocks = new int[runs][];
+            pos = new int[runs];
+            limit = new int[runs];
+            position = new long[runs];
+            remaining = new int[runs];
+            for (int i = 0; i < runs - 1; i++) {
+                remaining[i] = lengths.get(i);
+                blocks[i] = new int[Math.min(BLOCK, remaining[i])];
+                position[i] = offsets.get(i);
+            }
+            blocks[runs - 1] = buf;
+            limit[runs - 1] = size;
+            pos[runs - 1] = -1;
+            return runs;
+        }
+
+        @Override
+        boolean loadNext(int run) throws IOException {
+            if (++pos[run] < limit[run])
+                return true;
+            if (remaining[run] == 0) {
+                blocks[run] = null;
+                return false;
+            }
+            int n = Math.min(BLOCK, remaining[run]);
+            int bytes = n * Integer.BYTES;
+            read(channel(), byteBuf, position[run], bytes);
+            byteBuf.asIntBuffer().get(blocks[run], 0, n);
+            position[run] += bytes;
+            remaining[run] -= n;
+            pos[run] = 0;
+            limit[run] = n;
+            return true;
+        }
+
+        @Override
+        int compareHeads(int run1, int run2) {
+            return Integer.compare(blocks[run1][pos[run1]], blocks[run2][pos[run2]]);
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            int run = top();
+            if (run < 0)
+                return false;
+            int t = blocks[run][pos[run]];
+            next();
+            action.accept(t);
+            return true;
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            return null;
+        }
+
+        @Override
+        public Comparator<? super Integer> getComparator() {
+            return null;
+        }
+    }
+
+    static final class Longs extends ExternalSortSpliterator<Long> implements Spliterator.OfLong, LongConsumer {
+        private static final int BLOCK = BUFFER_SIZE / Long.BYTES;
+        private Spliterator.OfLong source;
+        private long[] buf;
+        private int size;
+        private ByteBuffer byteBuf;
+        // per run: the block of elements, the position and the number of
+        // elements in the block, the file position and the number of
+        // elements left in the file
+        private long[][] blocks;
+        private int[] pos, limit;
+        private long[] position;
+        private int[] remaining;
+
+        Longs(Spliterator.OfLong source, int maxInMemory, Path tempDir) {
+            super(maxInMemory, tempDir);
+            this.source = source;
+        }
+
+        @Override
+        public void accept(long t) {
+            if (size == buf.length) {
+                if (size == maxInMemory) {
+                    try {
+                        spill();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                } else {
+                    buf = Arrays.copyOf(buf, (int) Math.min(maxInMemory, buf.length * 2L));
+                }
+            }
+            buf[size++] = t;
+        }
+
+        private void spill() throws IOException {
+            Arrays.parallelSort(buf, 0, size);
+            if (byteBuf == null)
+                byteBuf = newBuffer();
+            FileChannel channel = channel();
+            long offset = channel.position();
+            for (int i = 0; i < size; i += BLOCK) {
+                int n = Math.min(BLOCK, size - i);
+                byteBuf.asLongBuffer().put(buf, i, n);
+                byteBuf.position(n * Long.BYTES);
+                write(channel, byteBuf);
+            }
+            addRun(offset, size);
+            size = 0;
+        }
+
+        @Override
+        int createRuns() throws IOException {
+            buf = new long[Math.min(maxInMemory, INITIAL_SIZE)];
+            source.forEachRemaining(this);
+            source = null;
+            Arrays.parallelSort(buf, 0, size);
+            int runs = offsets.size() + 1;
+            blocks = new long[runs][];
+            pos = new int[runs];
+            limit = new int[runs];
+            position = new long[runs];
+            remaining = new int[runs];
+            for (int i = 0; i < runs - 1; i++) {
+                remaining[i] = lengths.get(i);
+                blocks[i] = new long[Math.min(BLOCK, remaining[i])];
+                position[i] = offsets.get(i);
+            }
+            blocks[runs - 1] = buf;
+            limit[runs - 1] = size;
+            pos[runs - 1] = -1;
+            return runs;
+        }
+
+        @Override
+        boolean loadNext(int run) throws IOException {
+            if (++pos[run] < limit[run])
+                return true;
+            if (remaining[run] == 0) {
+                blocks[run] = null;
+                return false;
+            }
+            int n = Math.min(BLOCK, remaining[run]);
+            int bytes = n * Long.BYTES;
+            read(channel(), byteBuf, position[run], bytes);
+            byteBuf.asLongBuffer().get(blocks[run], 0, n);
+            position[run] += bytes;
+            remaining[run] -= n;
+            pos[run] = 0;
+            limit[run] = n;
+            return true;
+        }
+
+        @Override
+        int compareHeads(int run1, int run2) {
+            return Long.compare(blocks[run1][pos[run1]], blocks[run2][pos[run2]]);
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            int run = top();
+            if (run < 0)
+                return false;
+            long t = blocks[run][pos[run]];
+            next();
+            action.accept(t);
+            return true;
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit() {
+            return null;
+        }
+
+        @Override
+        public Comparator<? super Long> getComparator() {
+            return null;
+        }
+    }
+}
@@ -26,6 +26,18 @@ import java.util.stream.Stream;
 import static one.util.streamex.StreamExInternals.*;
 
 /**
+ * The spliterator created by {@link StreamEx#headTail(BiFunction, Supplier)}.
+ * The recursion levels are trampolined via {@link TailSpliterator}: once the
+ * head is consumed, the mapper result is returned to the caller as the tail,
+ * so the traversal continues with it and neither the stack nor the
+ * spliterator chain grows with the recursion depth.
+ *
+ * <p>
+ * Every level needs its own detached context: the close handlers of the
+ * mapper result become known only during the traversal, and the only place
+ * to register them is the context of the stream created by
+ * {@code headTail()}, which is already visible to the user.
+ *
  * @author Tagir Valeev
  */
 /*package*/ final class HeadTailSpliterator<T, U> extends AbstractSpliterator<U> implements TailSpliterator<U> {
@@ -79,6 +91,24 @@ import static one.util.streamex.StreamExInternals.*;
         return tryAdvanceOrTail(action);
     }
 
+    /**
+     * Once the head is consumed, the mapper result is split natively unless
+     * it's a tail spliterator (splitting it may recursively initialize the
+     * nested headTail operations, so the traversal-based batching is used
+     * instead).
+     */
+    @Override
+    public Spliterator<U> trySplit() {
+        if (!init())
+            return null;
+        if (!(target instanceof TailSpliterator)) {
+            Spliterator<U> prefix = target.trySplit();
+            if (prefix != null)
+                return prefix;
+        }
+        return super.trySplit();
+    }
+
     private boolean init() {
         if(context == null)
             return false;
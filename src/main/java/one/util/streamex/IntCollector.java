@@ -15,13 +15,16 @@
  */
 package one.util.streamex;
 
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.HashMap;
 import java.util.IntSummaryStatistics;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.OptionalDouble;
 import java.util.OptionalInt;
+import java.util.SplittableRandom;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.function.IntBinaryOperator;
@@ -281,6 +284,51 @@ public interface IntCollector<A, R> extends MergingCollector<Integer, A, R> {
         return Box.partialCollector(downstream).asInt((box, i) -> accumulator.accept(box.a, mapper.apply(i)));
     }
 
+    /**
+     * Returns {@code IntCollector} which passes every input number to all the
+     * supplied collectors in a single pass and produces the list of their
+     * results in the same order as collectors are supplied. The numbers are
+     * passed to the downstream collectors without boxing.
+     *
+     * <p>
+     * The returned list is fixed-size.
+     *
+     * @param <R> the common supertype of the results of the collectors
+     * @param collectors the collectors to combine
+     * @return {@code IntCollector} which aggregates the results of all the supplied
+     *         collectors into the list.
+     * @see MoreCollectors#tupling(List)
+     * @since 0.6.7
+     */
+    static <R> IntCollector<?, List<R>> tupling(List<? extends IntCollector<?, ? extends R>> collectors) {
+        CollectorTuple tuple = new CollectorTuple(collectors);
+        @SuppressWarnings("unchecked")
+        ObjIntConsumer<Object>[] accumulators = collectors.stream().map(IntCollector::intAccumulator).toArray(
+            ObjIntConsumer[]::new);
+        return new IntCollectorImpl<>(tuple::supply, (acc, v) -> {
+            for (int i = 0; i < accumulators.length; i++) {
+                accumulators[i].accept(acc[i], v);
+            }
+        }, tuple::merge, tuple::<R>finish, tuple.characteristics);
+    }
+
+    /**
+     * Returns {@code IntCollector} which passes every input number to all the
+     * supplied collectors in a single pass and produces the list of their
+     * results in the same order as collectors are supplied.
+     *
+     * @param <R> the common supertype of the results of the collectors
+     * @param collectors the collectors to combine
+     * @return {@code IntCollector} which aggregates the results of all the supplied
+     *         collectors into the list.
+     * @see #tupling(List)
+     * @since 0.6.7
+     */
+    @SafeVarargs
+    static <R> IntCollector<?, List<R>> tupling(IntCollector<?, ? extends R>... collectors) {
+        return IntCollector.<R> tupling(Arrays.asList(collectors));
+    }
+
     /**
      * Returns an {@code IntCollector} which performs a reduction of its input
      * numbers under a specified {@link IntBinaryOperator}. The result is
@@ -471,11 +519,16 @@ public interface IntCollector<A, R> extends MergingCollector<Integer, A, R> {
      * Returns an {@code IntCollector} that produces the {@link BitSet} of the
      * input elements.
      *
+     * <p>
+     * In parallel the partial results cover only the range of the elements
+     * they have seen and are never merged pairwise, so for dense input no
+     * large intermediate bit sets are created.
+     *
      * @return an {@code IntCollector} that produces the {@link BitSet} of the
      *         input elements
      */
     static IntCollector<?, BitSet> toBitSet() {
-        return of(BitSet::new, BitSet::set, BitSet::or);
+        return of(BitSetBuilder::new, BitSetBuilder::accept, BitSetBuilder::combine, BitSetBuilder::build);
     }
 
     /**
@@ -544,4 +597,30 @@ public interface IntCollector<A, R> extends MergingCollector<Integer, A, R> {
             box.b = StrictMath.addExact(box.b, 1);
         });
     }
+
+    /**
+     * Returns an {@code IntCollector} which produces a uniform random sample
+     * of at most {@code k} input numbers. Every subset of {@code k} input
+     * elements is equally likely to be selected. If less than {@code k}
+     * numbers are present, all of them are returned.
+     *
+     * <p>
+     * The sample is kept in the primitive array, see
+     * {@link MoreCollectors#sample(int, SplittableRandom)} for the details of
+     * the algorithm. The order of numbers in the resulting array is
+     * unspecified.
+     *
+     * @param k maximum number of elements to select, must be positive
+     * @param random the source of randomness
+     * @return an {@code IntCollector} which produces a random sample of the
+     *         input numbers
+     * @throws IllegalArgumentException if {@code k} is not positive
+     * @since 0.6.7
+     */
+    static IntCollector<?, int[]> sample(int k, SplittableRandom random) {
+        checkPositive("k", k);
+        Objects.requireNonNull(random);
+        return new IntCollectorImpl<>(() -> new Reservoir.Ints(Reservoir.split(random), k), Reservoir.Ints::accept,
+                Reservoir.Ints::merge, Reservoir.Ints::toArray, UNORDERED_CHARACTERISTICS);
+    }
 }
@@ -19,6 +19,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.nio.Buffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.PrimitiveIterator.OfInt;
@@ -715,6 +720,8 @@ public class IntStreamEx extends BaseStreamEx<Integer, IntStream, Spliterator.Of
      * @since 0.2.0
      */
     public BitSet toBitSet() {
+        if (isParallel())
+            return collect(IntCollector.toBitSet());
         return collect(BitSet::new, BitSet::set, BitSet::or);
     }
 
@@ -1572,7 +1579,8 @@ public class IntStreamEx extends BaseStreamEx<Integer, IntStream, Spliterator.Of
      * @since 0.2.1
      */
     public String charsToString() {
-        return collect(StringBuilder::new, (sb, c) -> sb.append((char) c), StringBuilder::append).toString();
+        return collectSized(CharBuffer::new, CharBuffer::add, CharBuffer::addAll, CharBuffer::new,
+            CharBuffer::addUnsafe).toString();
     }
 
     /**
@@ -1585,7 +1593,8 @@ public class IntStreamEx extends BaseStreamEx<Integer, IntStream, Spliterator.Of
      * @since 0.2.1
      */
     public String codePointsToString() {
-        return collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append).toString();
+        return collectSized(CharBuffer::new, CharBuffer::addCodePoint, CharBuffer::addAll, CharBuffer::new,
+            CharBuffer::addCodePoint).toString();
     }
 
     /**
@@ -1609,6 +1618,161 @@ public class IntStreamEx extends BaseStreamEx<Integer, IntStream, Spliterator.Of
         return delegate(new PairSpliterator.PSOfInt(mapper, null, spliterator(), PairSpliterator.MODE_PAIRS));
     }
 
+    /**
+     * Returns a stream consisting of the sums of every sliding window of
+     * {@code size} consecutive elements of this stream. Only full windows are
+     * considered: the output stream contains {@code size - 1} elements less
+     * than this stream or nothing if this stream is shorter than the window.
+     *
+     * <p>
+     * The sum is updated incrementally. Like {@link #sum()}, it silently
+     * overflows.
+     *
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate
+     * operation</a>. The parallel stream is split with overlapping boundaries.
+     *
+     * @param size the number of elements in every window (must be positive)
+     * @return the new stream
+     * @throws IllegalArgumentException if size is not positive
+     * @since 0.6.7
+     */
+    public IntStreamEx windowedSum(int size) {
+        checkPositive("size", size);
+        return delegate(new WindowSpliterator.Ints(spliterator(), size, WindowSpliterator.SUM));
+    }
+
+    /**
+     * Returns a stream consisting of the minimal elements of every sliding window of
+     * {@code size} consecutive elements of this stream. Only full windows are
+     * considered: the output stream contains {@code size - 1} elements less
+     * than this stream or nothing if this stream is shorter than the window.
+     *
+     * <p>
+     * The minimum is maintained using the monotonic deque, so every element
+     * is processed in amortized constant time regardless of the window size.
+     *
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate
+     * operation</a>. The parallel stream is split with overlapping boundaries.
+     *
+     * @param size the number of elements in every window (must be positive)
+     * @return the new stream
+     * @throws IllegalArgumentException if size is not positive
+     * @since 0.6.7
+     */
+    public IntStreamEx windowedMin(int size) {
+        checkPositive("size", size);
+        return delegate(new WindowSpliterator.Ints(spliterator(), size, WindowSpliterator.MIN));
+    }
+
+    /**
+     * Returns a stream consisting of the maximal elements of every sliding window of
+     * {@code size} consecutive elements of this stream. Only full windows are
+     * considered: the output stream contains {@code size - 1} elements less
+     * than this stream or nothing if this stream is shorter than the window.
+     *
+     * <p>
+     * The maximum is maintained using the monotonic deque, so every element
+     * is processed in amortized constant time regardless of the window size.
+     *
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate
+     * operation</a>. The parallel stream is split with overlapping boundaries.
+     *
+     * @param size the number of elements in every window (must be positive)
+     * @return the new stream
+     * @throws IllegalArgumentException if size is not positive
+     * @since 0.6.7
+     */
+    public IntStreamEx windowedMax(int size) {
+        checkPositive("size", size);
+        return delegate(new WindowSpliterator.Ints(spliterator(), size, WindowSpliterator.MAX));
+    }
+
+    /**
+     * Returns a {@link DoubleStreamEx} consisting of the arithmetic means of
+     * every sliding window of {@code size} consecutive elements of this
+     * stream. Only full windows are considered.
+     *
+     * <p>
+     * The sums are maintained as {@code long} values, so the result is exact
+     * up to the double rounding.
+     *
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate
+     * operation</a>. The parallel stream is split with overlapping boundaries.
+     *
+     * @param size the number of elements in every window (must be positive)
+     * @return the new stream
+     * @throws IllegalArgumentException if size is not positive
+     * @since 0.6.7
+     */
+    public DoubleStreamEx windowedAverage(int size) {
+        checkPositive("size", size);
+        return new DoubleStreamEx(new WindowSpliterator.LongAverages(asLongStream().spliterator(), size), context);
+    }
+
+    /**
+     * Returns a stream consisting of the arrays of the consecutive elements of
+     * this stream. Every array contains {@code size} elements, except possibly
+     * the last one which contains the remaining elements.
+     *
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * operation. If this stream is {@code SUBSIZED}, the parallel stream is
+     * split at the chunk boundaries without buffering. Otherwise the parallel
+     * processing of the chunks is possible, but the source elements are read
+     * sequentially in batches.
+     *
+     * @param size the number of elements in every chunk except possibly the
+     *        last one (must be positive)
+     * @return the new stream of arrays
+     * @throws IllegalArgumentException if size is not positive
+     * @since 0.6.7
+     */
+    public StreamEx<int[]> chunked(int size) {
+        checkPositive("size", size);
+        return new StreamEx<>(new ChunkSpliterator.Ints(spliterator(), size), context);
+    }
+
+    /**
+     * Returns a stream consisting of the elements of this stream in sorted
+     * order using the temporary file to store the intermediate results.
+     *
+     * <p>
+     * The elements of this stream are cut into the runs of at most
+     * {@code maxInMemory} elements. Every run is sorted in parallel and
+     * appended to the single temporary file in the {@code tempDir} directory,
+     * except the last run which is kept in memory. Then the runs are merged
+     * lazily reading every run from its own position of the file. The
+     * temporary file is deleted when all the elements are consumed or when
+     * the resulting stream is closed.
+     *
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * operation. This stream is fully consumed when the first element of the
+     * resulting stream is requested. The resulting stream is sequential in
+     * nature: the merge cannot be split for parallel processing.
+     *
+     * @param maxInMemory the maximal number of elements sorted in memory at
+     *        once (must be positive)
+     * @param tempDir the directory to create the temporary file in
+     * @return the new stream
+     * @throws IllegalArgumentException if maxInMemory is not positive
+     * @throws UncheckedIOException if an I/O error occurs when the resulting
+     *         stream is traversed
+     * @see #sorted()
+     * @since 0.6.7
+     */
+    public IntStreamEx externalSorted(int maxInMemory, Path tempDir) {
+        Objects.requireNonNull(tempDir);
+        checkPositive("maxInMemory", maxInMemory);
+        ExternalSortSpliterator.Ints spliterator = new ExternalSortSpliterator.Ints(spliterator(), maxInMemory,
+                tempDir);
+        return new IntStreamEx(spliterator, context.onClose(spliterator::close));
+    }
+
     /**
      * Returns a {@link String} which is the concatenation of the results of
      * calling {@link String#valueOf(int)} on each element of this stream,
@@ -1798,6 +1962,112 @@ public class IntStreamEx extends BaseStreamEx<Integer, IntStream, Spliterator.Of
         return delegate(new PrefixOps.OfInt(spliterator(), op));
     }
 
+    private StreamEx<RunSpliterator.IntRun> runs(IntBiPredicate mergeable, IntBinaryOperator merger) {
+        return new StreamEx<>(RunSpliterator.collapse(new RunSpliterator.OfInt(spliterator(), mergeable, merger)),
+                context);
+    }
+
+    /**
+     * Merge series of adjacent elements which satisfy the given predicate using
+     * the merger function and return a new stream.
+     * 
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * partial reduction operation.
+     * 
+     * <p>
+     * This operation is the primitive counterpart of
+     * {@link StreamEx#collapse(BiPredicate, BinaryOperator)}. The stream
+     * elements are not boxed.
+     * 
+     * @param collapsible a non-interfering, stateless predicate to apply to the
+     *        pair of adjacent elements of the input stream which returns true
+     *        for elements which are collapsible.
+     * @param merger a non-interfering, stateless, associative function to merge
+     *        two adjacent elements for which collapsible predicate returned
+     *        true. Note that it can be applied to the results if previous
+     *        merges.
+     * @return the new stream
+     * @since 0.6.7
+     */
+    public IntStreamEx collapse(IntBiPredicate collapsible, IntBinaryOperator merger) {
+        return runs(collapsible, merger).mapToInt(run -> run.acc);
+    }
+
+    /**
+     * Returns a stream consisting of elements of this stream where every series
+     * of elements matched the predicate is replaced with first element from the
+     * series.
+     * 
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * partial reduction operation.
+     * 
+     * <p>
+     * This operation is the primitive counterpart of
+     * {@link StreamEx#collapse(BiPredicate)}. The stream elements are not
+     * boxed.
+     * 
+     * @param collapsible a non-interfering, stateless predicate to apply to the
+     *        pair of adjacent input elements which returns true for elements
+     *        which are collapsible.
+     * @return the new stream
+     * @since 0.6.7
+     */
+    public IntStreamEx collapse(IntBiPredicate collapsible) {
+        return collapse(collapsible, (a, b) -> a);
+    }
+
+    /**
+     * Collapses adjacent equal elements and returns an {@link EntryStream}
+     * where keys are input elements and values specify how many elements were
+     * collapsed.
+     * 
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * partial reduction operation.
+     * 
+     * <p>
+     * This operation is the primitive counterpart of
+     * {@link StreamEx#runLengths()}. The input elements are not boxed: only
+     * one entry is created per run.
+     * 
+     * @return the new stream
+     * @since 0.6.7
+     */
+    public EntryStream<Integer, Long> runLengths() {
+        return new EntryStream<>(runs((a, b) -> a == b, (a, b) -> a).map(run -> new ObjLongBox<>(run.first,
+            run.count)), context);
+    }
+
+    /**
+     * Returns a stream consisting of results of applying the given function to
+     * the intervals created from the source elements.
+     * 
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * partial reduction operation.
+     * 
+     * <p>
+     * This operation is the primitive counterpart of
+     * {@link StreamEx#intervalMap(BiPredicate, BiFunction)}. Only the first and
+     * the last elements of each interval are tracked and no boxing occurs.
+     * 
+     * @param sameInterval a non-interfering, stateless predicate to apply to
+     *        the pair of adjacent elements which returns true for elements
+     *        which belong to the same interval.
+     * @param mapper a non-interfering, stateless function to apply to the
+     *        interval borders and produce the resulting element. If value was
+     *        not merged to the interval, then mapper will receive the same
+     *        value twice, otherwise it will receive the leftmost and the
+     *        rightmost values which were merged to the interval.
+     * @return the new stream
+     * @since 0.6.7
+     */
+    public IntStreamEx intervalMap(IntBiPredicate sameInterval, IntBinaryOperator mapper) {
+        return runs(sameInterval, (a, b) -> a).mapToInt(run -> mapper.applyAsInt(run.first, run.last));
+    }
+
     // Necessary to generate proper JavaDoc
     // does not add overhead as it appears in bytecode anyways as bridge method
     @Override
@@ -1972,6 +2242,7 @@ public class IntStreamEx extends BaseStreamEx<Integer, IntStream, Spliterator.Of
      * @param is an {@code InputStream} to create an {@code IntStreamEx} on.
      * @return the new stream
      * @see #asByteInputStream()
+     * @see #ofBytes(InputStream)
      * @since 0.6.1
      */
     public static IntStreamEx of(InputStream is) {
@@ -1999,6 +2270,112 @@ public class IntStreamEx extends BaseStreamEx<Integer, IntStream, Spliterator.Of
         });
     }
 
+    /**
+     * Returns a sequential ordered {@code IntStreamEx} backed by the content of
+     * given {@link InputStream} which is read in bulk.
+     * 
+     * <p>
+     * The resulting stream contains the same values as
+     * {@link #of(InputStream)}: int values between 0 and 255 (0xFF) inclusive.
+     * Unlike {@code of(InputStream)} the content is read via the reusable
+     * buffer rather than byte-by-byte, so it's much faster, but the
+     * {@code InputStream} may be read ahead of the elements actually consumed
+     * by the stream. Thus this method is not suitable if the
+     * {@code InputStream} is used after the stream is partially consumed.
+     * 
+     * <p>
+     * If the underlying {@code InputStream} throws an {@link IOException}
+     * during the stream traversal, it will be rethrown as
+     * {@link UncheckedIOException}.
+     * 
+     * <p>
+     * When the returned {@code IntStreamEx} is closed the original
+     * {@code InputStream} is closed as well. If {@link InputStream#close()}
+     * method throws an {@code IOException}, it will be rethrown as
+     * {@link UncheckedIOException}.
+     * 
+     * @param is an {@code InputStream} to create an {@code IntStreamEx} on.
+     * @return the new stream
+     * @see #of(InputStream)
+     * @since 0.6.7
+     */
+    public static IntStreamEx ofBytes(InputStream is) {
+        return of(new ChannelSpliterator.Ints(Channels.newChannel(is), ByteOrder.BIG_ENDIAN, 1)).onClose(
+            ChannelSpliterator.closer(is));
+    }
+
+    /**
+     * Returns a sequential ordered {@code IntStreamEx} of {@code int} values
+     * read from the supplied {@link ReadableByteChannel}. Every value occupies
+     * four bytes in the specified byte order.
+     *
+     * <p>
+     * The channel is read via the reusable buffer. If the channel is a
+     * {@link FileChannel}, it's read by position starting from its current
+     * position up to its current size (the channel position is not changed),
+     * so the resulting stream can be efficiently split in parallel. Otherwise
+     * the channel must be in blocking mode.
+     *
+     * <p>
+     * If the channel throws an {@link IOException} during the stream traversal
+     * or it ends in the middle of the number, an {@link UncheckedIOException}
+     * is thrown.
+     *
+     * <p>
+     * When the returned stream is closed the channel is closed as well. If
+     * {@link ReadableByteChannel#close()} method throws an
+     * {@code IOException}, it will be rethrown as {@code UncheckedIOException}.
+     *
+     * @param channel a channel to read the values from
+     * @param order a byte order of the values
+     * @return the new stream
+     * @throws IllegalArgumentException if the channel is a non-blocking
+     *         {@link java.nio.channels.SelectableChannel}
+     * @see #ofVarInts(ReadableByteChannel)
+     * @since 0.6.7
+     */
+    public static IntStreamEx ofInts(ReadableByteChannel channel, ByteOrder order) {
+        return of(new ChannelSpliterator.Ints(channel, order, Integer.BYTES)).onClose(ChannelSpliterator.closer(
+            channel));
+    }
+
+    /**
+     * Returns a sequential ordered {@code IntStreamEx} of {@code int} values
+     * read from the supplied {@link ReadableByteChannel} in the variable-length
+     * format (unsigned LEB128, as used by Protocol Buffers): every byte holds 7
+     * bits of the value starting from the least significant ones, and the most
+     * significant bit is set in every byte except the last one. The value can
+     * occupy up to five bytes; the bits exceeding 32 are ignored.
+     *
+     * <p>
+     * The channel is read via the reusable buffer. If the channel is a
+     * {@link FileChannel}, it's read by position starting from its current
+     * position up to its current size (the channel position is not changed),
+     * so the resulting stream can be efficiently split in parallel. Otherwise
+     * the channel must be in blocking mode.
+     *
+     * <p>
+     * If reading the channel throws an {@link IOException}, or the input ends
+     * inside a number, or a number is longer than five bytes, an
+     * {@link UncheckedIOException} is thrown.
+     *
+     * <p>
+     * When the returned stream is closed the channel is closed as well. If
+     * {@link ReadableByteChannel#close()} method throws an
+     * {@code IOException}, it will be rethrown as {@code UncheckedIOException}.
+     *
+     * @param channel a channel to read the values from
+     * @return the new stream
+     * @throws IllegalArgumentException if the channel is a non-blocking
+     *         {@link java.nio.channels.SelectableChannel}
+     * @see #ofInts(ReadableByteChannel, ByteOrder)
+     * @since 0.6.7
+     */
+    public static IntStreamEx ofVarInts(ReadableByteChannel channel) {
+        return of(new ChannelSpliterator.Ints(channel, ByteOrder.BIG_ENDIAN, 0)).onClose(ChannelSpliterator.closer(
+            channel));
+    }
+
     /**
      * Returns a sequential ordered {@code IntStreamEx} whose elements are the
      * unboxed elements of supplied array.
@@ -2253,7 +2630,7 @@ public class IntStreamEx extends BaseStreamEx<Integer, IntStream, Spliterator.Of
      * @see BitSet#stream()
      */
     public static IntStreamEx of(BitSet bitSet) {
-        return seq(bitSet.stream());
+        return of(new RangeBasedSpliterator.OfBitSet(bitSet));
     }
 
     /**
@@ -2367,7 +2744,101 @@ public class IntStreamEx extends BaseStreamEx<Integer, IntStream, Spliterator.Of
      * @see CharSequence#codePoints()
      */
     public static IntStreamEx ofCodePoints(CharSequence seq) {
-        return of(seq.codePoints());
+        return of(VER_SPEC.ofCodePoints(seq));
+    }
+
+    /**
+     * Returns a lazily concatenated stream whose elements are all the elements
+     * of the supplied streams in their order. The resulting stream is parallel
+     * if any of the input streams is parallel. When the resulting stream is
+     * closed, the close handlers for all input streams are invoked.
+     *
+     * <p>
+     * Unlike the chain of {@link IntStream#concat(IntStream, IntStream)} calls, the
+     * streams are concatenated by single node which splits them for parallel
+     * processing by the boundary closest to the middle of the total size.
+     *
+     * @param streams the streams to concatenate
+     * @return the concatenated stream
+     * @see #concat(Collection)
+     * @since 0.6.7
+     */
+    public static IntStreamEx concat(IntStream... streams) {
+        return concat(Arrays.asList(streams));
+    }
+
+    /**
+     * Returns a lazily concatenated stream whose elements are all the elements
+     * of the streams from the supplied collection in the collection iteration
+     * order. The resulting stream is parallel if any of the input streams is
+     * parallel. When the resulting stream is closed, the close handlers for all
+     * input streams are invoked.
+     *
+     * <p>
+     * Unlike the chain of {@link IntStream#concat(IntStream, IntStream)} calls, the
+     * streams are concatenated by single node which splits them for parallel
+     * processing by the boundary closest to the middle of the total size.
+     *
+     * @param streams the collection of streams to concatenate
+     * @return the concatenated stream
+     * @see #concat(IntStream...)
+     * @since 0.6.7
+     */
+    public static IntStreamEx concat(Collection<? extends IntStream> streams) {
+        Spliterator.OfInt[] parts = new Spliterator.OfInt[streams.size()];
+        StreamContext context = StreamContext.SEQUENTIAL;
+        int i = 0;
+        for (IntStream stream : streams) {
+            parts[i++] = stream.spliterator();
+            context = context.combine(stream);
+        }
+        return new IntStreamEx(new ConcatSpliterator.Ints(parts), context);
+    }
+
+    /**
+     * Returns a stream which merges the supplied streams sorted in the natural
+     * order into the single sorted stream. If some of the input streams is not
+     * sorted, the result is unspecified. The resulting stream is parallel if
+     * any of the input streams is parallel. When the resulting stream is
+     * closed, the close handlers for all input streams are invoked.
+     *
+     * <p>
+     * Unlike the concatenation followed by {@link #sorted()}, the input streams
+     * are not buffered: they are pulled lazily keeping only one element per
+     * stream in memory. The parallel stream is split by batches of the merged
+     * elements.
+     *
+     * @param streams the sorted streams to merge
+     * @return the merged stream
+     * @see #mergeSorted(Collection)
+     * @since 0.6.7
+     */
+    public static IntStreamEx mergeSorted(IntStream... streams) {
+        return mergeSorted(Arrays.asList(streams));
+    }
+
+    /**
+     * Returns a stream which merges the streams from the supplied collection
+     * sorted in the natural order into the single sorted stream. If some of
+     * the input streams is not sorted, the result is unspecified. The
+     * resulting stream is parallel if any of the input streams is parallel.
+     * When the resulting stream is closed, the close handlers for all input
+     * streams are invoked.
+     *
+     * @param streams the collection of sorted streams to merge
+     * @return the merged stream
+     * @see #mergeSorted(IntStream...)
+     * @since 0.6.7
+     */
+    public static IntStreamEx mergeSorted(Collection<? extends IntStream> streams) {
+        Spliterator.OfInt[] parts = new Spliterator.OfInt[streams.size()];
+        StreamContext context = StreamContext.SEQUENTIAL;
+        int i = 0;
+        for (IntStream stream : streams) {
+            parts[i++] = stream.spliterator();
+            context = context.combine(stream);
+        }
+        return new IntStreamEx(new MergeSortedSpliterator.Ints(parts), context);
     }
 
     /**
@@ -2661,6 +3132,29 @@ public class IntStreamEx extends BaseStreamEx<Integer, IntStream, Spliterator.Of
         return of(new RangeBasedSpliterator.ZipInt(0, checkLength(first.length, second.length), mapper, first, second));
     }
 
+    /**
+     * Represents a predicate (boolean-valued function) of two
+     * {@code int}-valued arguments. This is the {@code int}-consuming
+     * primitive type specialization of {@link BiPredicate}.
+     * 
+     * @author Tagir Valeev
+     *
+     * @since 0.6.7
+     * @see IntStreamEx#collapse(IntBiPredicate, IntBinaryOperator)
+     */
+    @FunctionalInterface
+    public interface IntBiPredicate {
+        /**
+         * Evaluates this predicate on the given arguments.
+         * 
+         * @param first the first input argument
+         * @param second the second input argument
+         * @return {@code true} if the input arguments match the predicate,
+         *         otherwise {@code false}
+         */
+        boolean test(int first, int second);
+    }
+
     /**
      * A helper interface to build a new stream by emitting elements and
      * creating new emitters in a chain.
@@ -2731,4 +3225,96 @@ public class IntStreamEx extends BaseStreamEx<Integer, IntStream, Spliterator.Of
             return of(spliterator());
         }
     }
+
+    /**
+     * A helper interface to build a new stream by emitting elements from the
+     * mutable state. Unlike {@link IntEmitter} which creates a new emitter for every
+     * step, the same object is advanced repeatedly keeping the state in its
+     * fields.
+     * 
+     * <p>
+     * This emitter is advanced until it's exhausted, so no per-element
+     * allocation is necessary. For example, the Collatz sequence can be
+     * generated in the following way:
+     * 
+     * <pre>{@code
+     * public static IntStatefulEmitter collatz(int start) {
+     *    return new IntStatefulEmitter() {
+     *       int cur = start;
+     *
+     *       public boolean advance(IntConsumer action) {
+     *          if (cur == 0)
+     *             return false;
+     *          action.accept(cur);
+     *          cur = cur == 1 ? 0 : cur % 2 == 0 ? cur / 2 : cur * 3 + 1;
+     *          return true;
+     *       }
+     *    };
+     * }}</pre>
+     * 
+     * <p>
+     * The stream created from this emitter is traversed via
+     * {@code forEachRemaining} without intermediate buffering. The emitter
+     * which maintains the pending work (like the stack of nodes not visited yet
+     * when traversing a tree) may override the {@link #trySplit()} method to
+     * hand off part of this work, so the stream can be processed in parallel.
+     * 
+     * @author Tagir Valeev
+     *
+     * @since 0.6.7
+     */
+    public interface IntStatefulEmitter {
+        /**
+         * Calls the supplied consumer zero or more times to emit some elements
+         * if this emitter is not exhausted.
+         * 
+         * <p>
+         * Normally one element is emitted during the {@code advance()} call.
+         * However, it's not restricted: you may emit as many elements as you
+         * want, though in some cases if many elements were emitted they might
+         * be buffered consuming additional memory.
+         * 
+         * @param action consumer to be called to emit elements
+         * @return false if this emitter is exhausted (in this case no elements
+         *         must be emitted), true otherwise
+         */
+        boolean advance(IntConsumer action);
+
+        /**
+         * Removes some of the pending elements from this emitter and returns
+         * them as a new emitter. The new emitter must emit only the elements
+         * which would be emitted by this emitter after all the elements which
+         * remain in this emitter.
+         * 
+         * <p>
+         * The default implementation returns null, so the stream is split by
+         * buffering the emitted elements.
+         * 
+         * @return the emitter covering the suffix of the elements, or null if
+         *         this emitter cannot be split
+         */
+        default IntStatefulEmitter trySplit() {
+            return null;
+        }
+
+        /**
+         * Returns the spliterator which covers all the elements emitted by this
+         * emitter.
+         * 
+         * @return the new spliterator
+         */
+        default Spliterator.OfInt spliterator() {
+            return new EmitterSpliterator.StatefulInt(this);
+        }
+
+        /**
+         * Returns the stream which covers all the elements emitted by this
+         * emitter.
+         * 
+         * @return the new stream
+         */
+        default IntStreamEx stream() {
+            return of(spliterator());
+        }
+    }
 }
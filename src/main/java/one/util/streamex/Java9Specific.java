@@ -18,8 +18,14 @@ package one.util.streamex;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.Spliterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.DoublePredicate;
 import java.util.function.IntPredicate;
+import java.util.function.LongConsumer;
 import java.util.function.LongPredicate;
 import java.util.function.Predicate;
 import java.util.stream.DoubleStream;
@@ -113,4 +119,143 @@ import java.util.stream.Stream;
     IntStream ofChars(CharSequence seq) {
         return seq.chars();
     }
+
+    @Override
+    IntStream ofCodePoints(CharSequence seq) {
+        return seq.codePoints();
+    }
+
+    @Override
+    <T> Object toPublisher(Spliterator<T> spliterator, Executor executor, Runnable closer) {
+        AtomicBoolean subscribed = new AtomicBoolean();
+        return Flow.proxy(Flow.PUBLISHER, (proxy, method, args) -> {
+            if (!method.getName().equals("subscribe"))
+                return Flow.objectMethod(proxy, method.getName(), args);
+            Object subscriber = args[0];
+            if (subscriber == null)
+                throw new NullPointerException();
+            if (!subscribed.compareAndSet(false, true)) {
+                Flow.call(Flow.ON_SUBSCRIBE, subscriber, Flow.subscription(n -> {
+                    // ignore
+                }, () -> {
+                    // ignore
+                }));
+                Flow.call(Flow.ON_ERROR, subscriber, new IllegalStateException(
+                        "The stream publisher allows only one subscriber"));
+                return null;
+            }
+            SpliteratorSubscription<T> subscription = new SpliteratorSubscription<>(spliterator, executor, closer,
+                    t -> Flow.call(Flow.ON_NEXT, subscriber, t), t -> Flow.call(Flow.ON_ERROR, subscriber, t),
+                    () -> Flow.call(Flow.ON_COMPLETE, subscriber));
+            Flow.call(Flow.ON_SUBSCRIBE, subscriber, Flow.subscription(subscription::request,
+                subscription::cancel));
+            return null;
+        });
+    }
+
+    @Override
+    <T> PublisherSpliterator<T> ofPublisher(Object publisher, int bufferSize) {
+        if (!Flow.PUBLISHER.isInstance(publisher))
+            throw new IllegalArgumentException("Not a java.util.concurrent.Flow.Publisher: " + publisher);
+        return new PublisherSpliterator<>(spliterator -> Flow.call(Flow.SUBSCRIBE, publisher, Flow.proxy(
+            Flow.SUBSCRIBER, (proxy, method, args) -> {
+                switch (method.getName()) {
+                case "onSubscribe":
+                    Object subscription = args[0];
+                    spliterator.onSubscribe(n -> Flow.call(Flow.REQUEST, subscription, n), () -> Flow.call(
+                        Flow.CANCEL, subscription));
+                    return null;
+                case "onNext":
+                    @SuppressWarnings("unchecked")
+                    T t = (T) args[0];
+                    spliterator.onNext(t);
+                    return null;
+                case "onError":
+                    spliterator.onError((Throwable) args[0]);
+                    return null;
+                case "onComplete":
+                    spliterator.onComplete();
+                    return null;
+                default:
+                    return Flow.objectMethod(proxy, method.getName(), args);
+                }
+            })), bufferSize);
+    }
+
+    /**
+     * Access to {@code java.util.concurrent.Flow} interfaces which cannot be
+     * referenced directly as the library is compiled for Java 8.
+     */
+    static final class Flow {
+        static final Class<?> PUBLISHER = flowClass("Publisher");
+        static final Class<?> SUBSCRIBER = flowClass("Subscriber");
+        static final Class<?> SUBSCRIPTION = flowClass("Subscription");
+        static final MethodHandle SUBSCRIBE = method(PUBLISHER, "subscribe", SUBSCRIBER);
+        static final MethodHandle ON_SUBSCRIBE = method(SUBSCRIBER, "onSubscribe", SUBSCRIPTION);
+        static final MethodHandle ON_NEXT = method(SUBSCRIBER, "onNext", Object.class);
+        static final MethodHandle ON_ERROR = method(SUBSCRIBER, "onError", Throwable.class);
+        static final MethodHandle ON_COMPLETE = method(SUBSCRIBER, "onComplete");
+        static final MethodHandle REQUEST = method(SUBSCRIPTION, "request", long.class);
+        static final MethodHandle CANCEL = method(SUBSCRIPTION, "cancel");
+
+        private static Class<?> flowClass(String name) {
+            try {
+                return Class.forName("java.util.concurrent.Flow$" + name);
+            } catch (ClassNotFoundException e) {
+                throw new InternalError(e);
+            }
+        }
+
+        private static MethodHandle method(Class<?> owner, String name, Class<?>... params) {
+            try {
+                return MethodHandles.publicLookup().findVirtual(owner, name, MethodType.methodType(void.class,
+                    params));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new InternalError(e);
+            }
+        }
+
+        static void call(MethodHandle method, Object... args) {
+            try {
+                method.invokeWithArguments(args);
+            } catch (Error | RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new InternalError(e);
+            }
+        }
+
+        static Object proxy(Class<?> iface, InvocationHandler handler) {
+            return Proxy.newProxyInstance(Java9Specific.class.getClassLoader(), new Class<?>[] { iface }, handler);
+        }
+
+        static Object subscription(LongConsumer request, Runnable cancel) {
+            return proxy(SUBSCRIPTION, (proxy, method, args) -> {
+                switch (method.getName()) {
+                case "request":
+                    request.accept((Long) args[0]);
+                    return null;
+                case "cancel":
+                    cancel.run();
+                    return null;
+                default:
+                    return objectMethod(proxy, method.getName(), args);
+                }
+            });
+        }
+
+        static Object objectMethod(Object proxy, String name, Object[] args) {
+            switch (name) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return proxy.getClass().getInterfaces()[0].getName() + "@" + Integer.toHexString(System
+                        .identityHashCode(proxy));
+            default:
+                throw new UnsupportedOperationException(name);
+            }
+        }
+    }
 }
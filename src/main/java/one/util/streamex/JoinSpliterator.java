@@ -0,0 +1,254 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators.AbstractSpliterator;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static one.util.streamex.StreamExInternals.*;
+
+/**
+ * Spliterators which join two keyed sources. Every matched pair of the left
+ * and the right value is combined via merger function. Missing values of the
+ * outer joins are represented as nulls.
+ *
+ * @author Tagir Valeev
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the left values
+ * @param <VV> type of the right values
+ * @param <R> type of the resulting values
+ */
+/* package */abstract class JoinSpliterator<K, V, VV, R> extends AbstractSpliterator<Entry<K, R>> {
+    private static final List<Object> NULL_LIST = Collections.singletonList(null);
+
+    final BiFunction<? super V, ? super VV, ? extends R> merger;
+    final boolean keepLeft, keepRight;
+    private K key;
+    private List<? extends V> lefts;
+    private List<? extends VV> rights;
+    private int i, j;
+
+    JoinSpliterator(BiFunction<? super V, ? super VV, ? extends R> merger, boolean keepLeft, boolean keepRight) {
+        super(Long.MAX_VALUE, ORDERED);
+        this.merger = merger;
+        this.keepLeft = keepLeft;
+        this.keepRight = keepRight;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> List<T> nullList() {
+        return (List<T>) NULL_LIST;
+    }
+
+    /**
+     * Schedules the cartesian product of the supplied values for emitting.
+     */
+    final void setGroup(K key, List<? extends V> lefts, List<? extends VV> rights) {
+        this.key = key;
+        this.lefts = lefts;
+        this.rights = rights;
+        this.i = this.j = 0;
+    }
+
+    final boolean hasGroup() {
+        return lefts != null;
+    }
+
+    final boolean emitGroup(Consumer<? super Entry<K, R>> action) {
+        List<? extends V> l = lefts;
+        if (l == null)
+            return false;
+        List<? extends VV> r = rights;
+        K k = key;
+        R result = merger.apply(l.get(i), r.get(j));
+        if (++j == r.size()) {
+            j = 0;
+            if (++i == l.size()) {
+                lefts = null;
+                rights = null;
+                key = null;
+            }
+        }
+        action.accept(new SimpleImmutableEntry<>(k, result));
+        return true;
+    }
+
+    static final class Hash<K, V, VV, R> extends JoinSpliterator<K, V, VV, R> {
+        private Spliterator<Entry<K, V>> left;
+        private Supplier<Map<K, List<VV>>> builder;
+        private Map<K, List<VV>> table;
+        private Set<K> matched;
+        private Iterator<Entry<K, List<VV>>> unmatched;
+        private final Box<Entry<K, V>> box = new Box<>();
+
+        Hash(Spliterator<Entry<K, V>> left, Supplier<Map<K, List<VV>>> builder,
+                BiFunction<? super V, ? super VV, ? extends R> merger, boolean keepLeft, boolean keepRight) {
+            super(merger, keepLeft, keepRight);
+            this.left = left;
+            this.builder = builder;
+        }
+
+        private Hash(Hash<K, V, VV, R> parent, Spliterator<Entry<K, V>> left) {
+            super(parent.merger, parent.keepLeft, false);
+            this.left = left;
+            this.table = parent.table;
+        }
+
+        private Map<K, List<VV>> table() {
+            if (table == null) {
+                table = builder.get();
+                builder = null;
+                if (keepRight)
+                    matched = new HashSet<>();
+            }
+            return table;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Entry<K, R>> action) {
+            Map<K, List<VV>> table = table();
+            while (true) {
+                if (emitGroup(action))
+                    return true;
+                if (left != null) {
+                    if (left.tryAdvance(box)) {
+                        Entry<K, V> entry = box.a;
+                        box.a = null;
+                        K k = entry.getKey();
+                        List<VV> rights = table.get(k);
+                        if (rights != null) {
+                            if (matched != null)
+                                matched.add(k);
+                            setGroup(k, Collections.singletonList(entry.getValue()), rights);
+                        } else if (keepLeft) {
+                            setGroup(k, Collections.singletonList(entry.getValue()), nullList());
+                        }
+                        continue;
+                    }
+                    left = null;
+                    if (matched != null)
+                        unmatched = table.entrySet().iterator();
+                }
+                if (unmatched == null)
+                    return false;
+                while (!hasGroup() && unmatched.hasNext()) {
+                    Entry<K, List<VV>> entry = unmatched.next();
+                    if (!matched.contains(entry.getKey()))
+                        setGroup(entry.getKey(), nullList(), entry.getValue());
+                }
+                if (!hasGroup()) {
+                    unmatched = null;
+                    matched = null;
+                    return false;
+                }
+            }
+        }
+
+        @Override
+        public Spliterator<Entry<K, R>> trySplit() {
+            if (keepRight)
+                // unmatched right entries can be emitted only after all the left
+                // entries are processed
+                return super.trySplit();
+            if (left == null || hasGroup())
+                return null;
+            table();
+            Spliterator<Entry<K, V>> prefix = left.trySplit();
+            return prefix == null ? null : new Hash<>(this, prefix);
+        }
+
+        @Override
+        public long estimateSize() {
+            return left == null || keepRight ? super.estimateSize() : left.estimateSize();
+        }
+    }
+
+    static final class Merge<K, V, VV, R> extends JoinSpliterator<K, V, VV, R> {
+        private final Spliterator<Entry<K, List<V>>> left;
+        private final Spliterator<Entry<K, List<VV>>> right;
+        private final Comparator<? super K> comparator;
+        private final Box<Entry<K, List<V>>> leftBox = new Box<>();
+        private final Box<Entry<K, List<VV>>> rightBox = new Box<>();
+        private Entry<K, List<V>> l;
+        private Entry<K, List<VV>> r;
+        private boolean leftDone, rightDone;
+
+        Merge(Spliterator<Entry<K, List<V>>> left, Spliterator<Entry<K, List<VV>>> right,
+                Comparator<? super K> comparator, BiFunction<? super V, ? super VV, ? extends R> merger,
+                boolean keepLeft, boolean keepRight) {
+            super(merger, keepLeft, keepRight);
+            this.left = left;
+            this.right = right;
+            this.comparator = comparator;
+        }
+
+        private <T> Entry<K, List<T>> next(Spliterator<Entry<K, List<T>>> source, Box<Entry<K, List<T>>> box) {
+            Entry<K, List<T>> prev = box.a;
+            if (!source.tryAdvance(box)) {
+                box.a = null;
+                return null;
+            }
+            if (prev != null && comparator.compare(prev.getKey(), box.a.getKey()) > 0)
+                throw new IllegalStateException("Keys are not sorted: " + prev.getKey() + " > " + box.a.getKey());
+            return box.a;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Entry<K, R>> action) {
+            while (true) {
+                if (emitGroup(action))
+                    return true;
+                if (l == null && !leftDone)
+                    leftDone = (l = next(left, leftBox)) == null;
+                if (r == null && !rightDone)
+                    rightDone = (r = next(right, rightBox)) == null;
+                if (l == null && r == null)
+                    return false;
+                int cmp = l == null ? 1 : r == null ? -1 : comparator.compare(l.getKey(), r.getKey());
+                if (cmp == 0) {
+                    setGroup(l.getKey(), l.getValue(), r.getValue());
+                    l = null;
+                    r = null;
+                } else if (cmp < 0) {
+                    if (keepLeft)
+                        setGroup(l.getKey(), l.getValue(), nullList());
+                    else if (rightDone)
+                        leftDone = true;
+                    l = null;
+                } else {
+                    if (keepRight)
+                        setGroup(r.getKey(), nullList(), r.getValue());
+                    else if (leftDone)
+                        rightDone = true;
+                    r = null;
+                }
+            }
+        }
+    }
+}
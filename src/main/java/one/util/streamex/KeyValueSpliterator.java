@@ -0,0 +1,287 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Arrays;
+import java.util.Map.Entry;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static one.util.streamex.StreamExInternals.*;
+
+/**
+ * A spliterator which fuses the consecutive key-wise and value-wise
+ * {@link EntryStream} operations into single stage. The key and the value are
+ * carried through the steps in the mutable pair, so the intermediate entries
+ * are not created: the resulting object is created once per element which
+ * passed all the steps. If no step replaces the key or the value, the source
+ * entries are passed through as is, so {@link Entry#setValue(Object)} still
+ * writes through and the custom entry types are preserved.
+ *
+ * @author Tagir Valeev
+ *
+ * @param <T> type of the resulting elements
+ */
+/* package */final class KeyValueSpliterator<T> implements Spliterator<T>, Consumer<Entry<?, ?>> {
+    private static final BiFunction<Object, Object, Entry<Object, Object>> TO_ENTRY = SimpleImmutableEntry::new;
+
+    /**
+     * A single fused operation which updates the pair in-place.
+     */
+    @FunctionalInterface
+    interface Step {
+        /**
+         * @param pair the pair to update
+         * @return false if the pair must be dropped
+         */
+        boolean apply(PairBox<Object, Object> pair);
+    }
+
+    /**
+     * A step which replaces the key or the value.
+     */
+    @FunctionalInterface
+    interface Mapping extends Step {
+        // marker interface
+    }
+
+    private final Spliterator<? extends Entry<?, ?>> source;
+    private final Step[] steps;
+    private final boolean filtering;
+    private final boolean mapping;
+    private final BiFunction<Object, Object, ? extends T> finisher;
+    // true if the source entries are emitted as is
+    private final boolean passThrough;
+    private final PairBox<Object, Object> pair = new PairBox<>(null, null);
+    private Entry<?, ?> entry;
+
+    private KeyValueSpliterator(Spliterator<? extends Entry<?, ?>> source, Step[] steps, boolean filtering,
+            boolean mapping, BiFunction<Object, Object, ? extends T> finisher) {
+        this.source = source;
+        this.steps = steps;
+        this.filtering = filtering;
+        this.mapping = mapping;
+        this.finisher = finisher;
+        this.passThrough = !mapping && finisher == TO_ENTRY;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> Spliterator<Entry<K, V>> withStep(Spliterator<? extends Entry<?, ?>> source, Step step,
+            boolean filtering) {
+        if (source instanceof KeyValueSpliterator && ((KeyValueSpliterator<?>) source).finisher == TO_ENTRY) {
+            KeyValueSpliterator<?> kvs = (KeyValueSpliterator<?>) source;
+            Step[] steps = Arrays.copyOf(kvs.steps, kvs.steps.length + 1);
+            steps[kvs.steps.length] = step;
+            return new KeyValueSpliterator<>(kvs.source, steps, kvs.filtering || filtering, kvs.mapping
+                || step instanceof Mapping, (BiFunction<Object, Object, Entry<K, V>>) (BiFunction<?, ?, ?>) TO_ENTRY);
+        }
+        return new KeyValueSpliterator<>(source, new Step[] { step }, filtering, step instanceof Mapping,
+                (BiFunction<Object, Object, Entry<K, V>>) (BiFunction<?, ?, ?>) TO_ENTRY);
+    }
+
+    /**
+     * @return the spliterator which applies the finisher to the pairs or null
+     *         if the source is not the fused key-value spliterator
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V, R> Spliterator<R> finish(Spliterator<? extends Entry<K, V>> source,
+            BiFunction<? super K, ? super V, ? extends R> finisher) {
+        if (source instanceof KeyValueSpliterator && ((KeyValueSpliterator<?>) source).finisher == TO_ENTRY) {
+            KeyValueSpliterator<?> kvs = (KeyValueSpliterator<?>) source;
+            return new KeyValueSpliterator<>(kvs.source, kvs.steps, kvs.filtering, kvs.mapping,
+                    (BiFunction<Object, Object, ? extends R>) (BiFunction<?, ?, ?>) finisher);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    static Mapping mapKeys(Function<?, ?> mapper) {
+        Function<Object, Object> fn = (Function<Object, Object>) mapper;
+        return pair -> {
+            pair.a = fn.apply(pair.a);
+            return true;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    static Mapping mapValues(Function<?, ?> mapper) {
+        Function<Object, Object> fn = (Function<Object, Object>) mapper;
+        return pair -> {
+            pair.b = fn.apply(pair.b);
+            return true;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    static Mapping mapToKey(BiFunction<?, ?, ?> mapper) {
+        BiFunction<Object, Object, Object> fn = (BiFunction<Object, Object, Object>) mapper;
+        return pair -> {
+            pair.a = fn.apply(pair.a, pair.b);
+            return true;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    static Mapping mapToValue(BiFunction<?, ?, ?> mapper) {
+        BiFunction<Object, Object, Object> fn = (BiFunction<Object, Object, Object>) mapper;
+        return pair -> {
+            pair.b = fn.apply(pair.a, pair.b);
+            return true;
+        };
+    }
+
+    static Mapping invert() {
+        return pair -> {
+            Object key = pair.a;
+            pair.a = pair.b;
+            pair.b = key;
+            return true;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    static Step filterKeys(Predicate<?> predicate) {
+        Predicate<Object> p = (Predicate<Object>) predicate;
+        return pair -> p.test(pair.a);
+    }
+
+    @SuppressWarnings("unchecked")
+    static Step filterValues(Predicate<?> predicate) {
+        Predicate<Object> p = (Predicate<Object>) predicate;
+        return pair -> p.test(pair.b);
+    }
+
+    @SuppressWarnings("unchecked")
+    static Step filterKeyValue(BiPredicate<?, ?> predicate) {
+        BiPredicate<Object, Object> p = (BiPredicate<Object, Object>) predicate;
+        return pair -> p.test(pair.a, pair.b);
+    }
+
+    @SuppressWarnings("unchecked")
+    static Step peekKeys(Consumer<?> action) {
+        Consumer<Object> c = (Consumer<Object>) action;
+        return pair -> {
+            c.accept(pair.a);
+            return true;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    static Step peekValues(Consumer<?> action) {
+        Consumer<Object> c = (Consumer<Object>) action;
+        return pair -> {
+            c.accept(pair.b);
+            return true;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    static Step peekKeyValue(BiConsumer<?, ?> action) {
+        BiConsumer<Object, Object> c = (BiConsumer<Object, Object>) action;
+        return pair -> {
+            c.accept(pair.a, pair.b);
+            return true;
+        };
+    }
+
+    private boolean applySteps(PairBox<Object, Object> pair) {
+        for (Step step : steps) {
+            if (!step.apply(pair))
+                return false;
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T result(Entry<?, ?> entry, PairBox<Object, Object> pair) {
+        return passThrough ? (T) entry : finisher.apply(pair.a, pair.b);
+    }
+
+    @Override
+    public void accept(Entry<?, ?> entry) {
+        this.entry = entry;
+        pair.a = entry.getKey();
+        pair.b = entry.getValue();
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        PairBox<Object, Object> pair = this.pair;
+        while (source.tryAdvance(this)) {
+            if (applySteps(pair)) {
+                T result = result(entry, pair);
+                entry = null;
+                pair.a = pair.b = null;
+                action.accept(result);
+                return true;
+            }
+        }
+        entry = null;
+        pair.a = pair.b = null;
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        PairBox<Object, Object> pair = new PairBox<>(null, null);
+        source.forEachRemaining(entry -> {
+            pair.a = entry.getKey();
+            pair.b = entry.getValue();
+            if (applySteps(pair))
+                action.accept(result(entry, pair));
+        });
+    }
+
+    /**
+     * Traverses the remaining pairs passing them to the supplied action
+     * without creating the resulting objects.
+     *
+     * @param action action to perform
+     */
+    @SuppressWarnings("unchecked")
+    void forEachPair(BiConsumer<?, ?> action) {
+        BiConsumer<Object, Object> c = (BiConsumer<Object, Object>) action;
+        PairBox<Object, Object> pair = new PairBox<>(null, null);
+        source.forEachRemaining(entry -> {
+            pair.a = entry.getKey();
+            pair.b = entry.getValue();
+            if (applySteps(pair))
+                c.accept(pair.a, pair.b);
+        });
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        Spliterator<? extends Entry<?, ?>> prefix = source.trySplit();
+        return prefix == null ? null : new KeyValueSpliterator<>(prefix, steps, filtering, mapping, finisher);
+    }
+
+    @Override
+    public long estimateSize() {
+        return source.estimateSize();
+    }
+
+    @Override
+    public int characteristics() {
+        return source.characteristics() & (ORDERED | IMMUTABLE | CONCURRENT | (filtering ? 0 : SIZED | SUBSIZED));
+    }
+}
@@ -15,12 +15,15 @@
  */
 package one.util.streamex;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LongSummaryStatistics;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.OptionalDouble;
 import java.util.OptionalLong;
+import java.util.SplittableRandom;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.function.LongBinaryOperator;
@@ -280,6 +283,51 @@ public interface LongCollector<A, R> extends MergingCollector<Long, A, R> {
         return Box.partialCollector(downstream).asLong((box, i) -> accumulator.accept(box.a, mapper.apply(i)));
     }
 
+    /**
+     * Returns {@code LongCollector} which passes every input number to all the
+     * supplied collectors in a single pass and produces the list of their
+     * results in the same order as collectors are supplied. The numbers are
+     * passed to the downstream collectors without boxing.
+     *
+     * <p>
+     * The returned list is fixed-size.
+     *
+     * @param <R> the common supertype of the results of the collectors
+     * @param collectors the collectors to combine
+     * @return {@code LongCollector} which aggregates the results of all the supplied
+     *         collectors into the list.
+     * @see MoreCollectors#tupling(List)
+     * @since 0.6.7
+     */
+    static <R> LongCollector<?, List<R>> tupling(List<? extends LongCollector<?, ? extends R>> collectors) {
+        CollectorTuple tuple = new CollectorTuple(collectors);
+        @SuppressWarnings("unchecked")
+        ObjLongConsumer<Object>[] accumulators = collectors.stream().map(LongCollector::longAccumulator).toArray(
+            ObjLongConsumer[]::new);
+        return new LongCollectorImpl<>(tuple::supply, (acc, v) -> {
+            for (int i = 0; i < accumulators.length; i++) {
+                accumulators[i].accept(acc[i], v);
+            }
+        }, tuple::merge, tuple::<R>finish, tuple.characteristics);
+    }
+
+    /**
+     * Returns {@code LongCollector} which passes every input number to all the
+     * supplied collectors in a single pass and produces the list of their
+     * results in the same order as collectors are supplied.
+     *
+     * @param <R> the common supertype of the results of the collectors
+     * @param collectors the collectors to combine
+     * @return {@code LongCollector} which aggregates the results of all the supplied
+     *         collectors into the list.
+     * @see #tupling(List)
+     * @since 0.6.7
+     */
+    @SafeVarargs
+    static <R> LongCollector<?, List<R>> tupling(LongCollector<?, ? extends R>... collectors) {
+        return LongCollector.<R> tupling(Arrays.asList(collectors));
+    }
+
     /**
      * Returns a {@code LongCollector} which performs a reduction of its input
      * numbers under a specified {@link LongBinaryOperator}. The result is
@@ -333,6 +381,22 @@ public interface LongCollector<A, R> extends MergingCollector<Long, A, R> {
         return of(LongSummaryStatistics::new, LongSummaryStatistics::accept, LongSummaryStatistics::combine);
     }
 
+    /**
+     * Returns a {@code LongCollector} which returns overflow-safe statistics
+     * (including the variance) for the input elements.
+     *
+     * <p>
+     * Unlike {@link #summarizing()} the sum and the average of the resulting
+     * {@link LongStatistics} are exact even if the intermediate sum exceeds
+     * {@code Long.MAX_VALUE}.
+     *
+     * @return a {@code LongCollector} implementing the statistics reduction
+     * @since 0.6.7
+     */
+    static LongCollector<?, LongStatistics> statistics() {
+        return of(LongStatistics::new, LongStatistics::accept, LongStatistics::combine);
+    }
+
     /**
      * Returns a {@code LongCollector} which partitions the input elements
      * according to a {@code LongPredicate}, and organizes them into a
@@ -497,4 +561,30 @@ public interface LongCollector<A, R> extends MergingCollector<Long, A, R> {
             box.b = StrictMath.addExact(box.b, 1);
         });
     }
+
+    /**
+     * Returns a {@code LongCollector} which produces a uniform random sample
+     * of at most {@code k} input numbers. Every subset of {@code k} input
+     * elements is equally likely to be selected. If less than {@code k}
+     * numbers are present, all of them are returned.
+     *
+     * <p>
+     * The sample is kept in the primitive array, see
+     * {@link MoreCollectors#sample(int, SplittableRandom)} for the details of
+     * the algorithm. The order of numbers in the resulting array is
+     * unspecified.
+     *
+     * @param k maximum number of elements to select, must be positive
+     * @param random the source of randomness
+     * @return a {@code LongCollector} which produces a random sample of the
+     *         input numbers
+     * @throws IllegalArgumentException if {@code k} is not positive
+     * @since 0.6.7
+     */
+    static LongCollector<?, long[]> sample(int k, SplittableRandom random) {
+        checkPositive("k", k);
+        Objects.requireNonNull(random);
+        return new LongCollectorImpl<>(() -> new Reservoir.Longs(Reservoir.split(random), k), Reservoir.Longs::accept,
+                Reservoir.Longs::merge, Reservoir.Longs::toArray, UNORDERED_CHARACTERISTICS);
+    }
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.math.BigInteger;
+import java.util.LongSummaryStatistics;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+import static one.util.streamex.StreamExInternals.*;
+
+/**
+ * A state object for collecting statistics such as count, min, max, sum,
+ * average and variance of {@code long} numbers. Unlike
+ * {@link LongSummaryStatistics} the sum is maintained as 128-bit number, so
+ * neither the sum nor the average overflow even if the intermediate sum
+ * exceeds {@code Long.MAX_VALUE}. The average is calculated exactly (up to the
+ * {@code double} rounding).
+ *
+ * <p>
+ * This class has the same API as {@code LongSummaryStatistics} except
+ * {@link #getSum()} which returns {@link BigInteger}. It's designed to work
+ * with streams and can be created via {@link LongCollector#statistics()}
+ * collector:
+ *
+ * <pre>{@code
+ * LongStatistics stats = LongStreamEx.of(values).collect(LongCollector.statistics());
+ * }</pre>
+ *
+ * <p>
+ * This implementation is not thread safe. However, it is safe to use
+ * {@code LongCollector.statistics()} on a parallel stream, because the
+ * parallel implementation provides the necessary partitioning, isolation, and
+ * merging of results.
+ *
+ * @author Tagir Valeev
+ * @see LongCollector#statistics()
+ * @since 0.6.7
+ */
+public final class LongStatistics implements LongConsumer, IntConsumer {
+    private final AverageLong sum = new AverageLong();
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+    // Welford's running mean and sum of squared deviations used for the
+    // variance only: the exact average is calculated from the 128-bit sum
+    private double mean, m2;
+
+    /**
+     * Records a new {@code int} value into the summary information.
+     *
+     * @param value the input value
+     */
+    @Override
+    public void accept(int value) {
+        accept((long) value);
+    }
+
+    /**
+     * Records a new {@code long} value into the summary information.
+     *
+     * @param value the input value
+     */
+    @Override
+    public void accept(long value) {
+        sum.accept(value);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        double delta = value - mean;
+        mean += delta / sum.cnt;
+        m2 += delta * (value - mean);
+    }
+
+    /**
+     * Combines the state of another {@code LongStatistics} into this one.
+     *
+     * @param other another {@code LongStatistics}
+     * @throws NullPointerException if {@code other} is null
+     */
+    public void combine(LongStatistics other) {
+        long n1 = sum.cnt, n2 = other.sum.cnt;
+        if (n2 == 0)
+            return;
+        sum.combine(other.sum);
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        double delta = other.mean - mean;
+        double n = sum.cnt;
+        mean += delta * n2 / n;
+        m2 += other.m2 + delta * delta * n1 / n * n2;
+    }
+
+    /**
+     * Returns the count of values recorded.
+     *
+     * @return the count of values
+     */
+    public long getCount() {
+        return sum.cnt;
+    }
+
+    /**
+     * Returns the exact sum of values recorded, or zero if no values have been
+     * recorded.
+     *
+     * @return the sum of values, or zero if none
+     */
+    public BigInteger getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * Returns the minimum value recorded, or {@code Long.MAX_VALUE} if no
+     * values have been recorded.
+     *
+     * @return the minimum value, or {@code Long.MAX_VALUE} if none
+     */
+    public long getMin() {
+        return min;
+    }
+
+    /**
+     * Returns the maximum value recorded, or {@code Long.MIN_VALUE} if no
+     * values have been recorded
+     *
+     * @return the maximum value, or {@code Long.MIN_VALUE} if none
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the arithmetic mean of values recorded, or zero if no values
+     * have been recorded.
+     *
+     * @return the arithmetic mean of values, or zero if none
+     */
+    public double getAverage() {
+        return sum.cnt == 0 ? 0.0 : sum.average();
+    }
+
+    /**
+     * Returns the population variance of values recorded, or zero if no values
+     * have been recorded.
+     *
+     * @return the population variance of values, or zero if none
+     */
+    public double getVariance() {
+        return sum.cnt == 0 ? 0.0 : Math.max(0.0, m2 / sum.cnt);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{count=%d, sum=%d, min=%d, average=%f, max=%d, variance=%f}", getClass()
+                .getSimpleName(), getCount(), getSum(), getMin(), getAverage(), getMax(), getVariance());
+    }
+}
@@ -15,7 +15,13 @@
  */
 package one.util.streamex;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.Buffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.PrimitiveIterator.OfLong;
@@ -1422,6 +1428,161 @@ public class LongStreamEx extends BaseStreamEx<Long, LongStream, Spliterator.OfL
         return delegate(new PairSpliterator.PSOfLong(mapper, null, spliterator(), PairSpliterator.MODE_PAIRS));
     }
 
+    /**
+     * Returns a stream consisting of the sums of every sliding window of
+     * {@code size} consecutive elements of this stream. Only full windows are
+     * considered: the output stream contains {@code size - 1} elements less
+     * than this stream or nothing if this stream is shorter than the window.
+     *
+     * <p>
+     * The sum is updated incrementally. Like {@link #sum()}, it silently
+     * overflows.
+     *
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate
+     * operation</a>. The parallel stream is split with overlapping boundaries.
+     *
+     * @param size the number of elements in every window (must be positive)
+     * @return the new stream
+     * @throws IllegalArgumentException if size is not positive
+     * @since 0.6.7
+     */
+    public LongStreamEx windowedSum(int size) {
+        checkPositive("size", size);
+        return delegate(new WindowSpliterator.Longs(spliterator(), size, WindowSpliterator.SUM));
+    }
+
+    /**
+     * Returns a stream consisting of the minimal elements of every sliding window of
+     * {@code size} consecutive elements of this stream. Only full windows are
+     * considered: the output stream contains {@code size - 1} elements less
+     * than this stream or nothing if this stream is shorter than the window.
+     *
+     * <p>
+     * The minimum is maintained using the monotonic deque, so every element
+     * is processed in amortized constant time regardless of the window size.
+     *
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate
+     * operation</a>. The parallel stream is split with overlapping boundaries.
+     *
+     * @param size the number of elements in every window (must be positive)
+     * @return the new stream
+     * @throws IllegalArgumentException if size is not positive
+     * @since 0.6.7
+     */
+    public LongStreamEx windowedMin(int size) {
+        checkPositive("size", size);
+        return delegate(new WindowSpliterator.Longs(spliterator(), size, WindowSpliterator.MIN));
+    }
+
+    /**
+     * Returns a stream consisting of the maximal elements of every sliding window of
+     * {@code size} consecutive elements of this stream. Only full windows are
+     * considered: the output stream contains {@code size - 1} elements less
+     * than this stream or nothing if this stream is shorter than the window.
+     *
+     * <p>
+     * The maximum is maintained using the monotonic deque, so every element
+     * is processed in amortized constant time regardless of the window size.
+     *
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate
+     * operation</a>. The parallel stream is split with overlapping boundaries.
+     *
+     * @param size the number of elements in every window (must be positive)
+     * @return the new stream
+     * @throws IllegalArgumentException if size is not positive
+     * @since 0.6.7
+     */
+    public LongStreamEx windowedMax(int size) {
+        checkPositive("size", size);
+        return delegate(new WindowSpliterator.Longs(spliterator(), size, WindowSpliterator.MAX));
+    }
+
+    /**
+     * Returns a {@link DoubleStreamEx} consisting of the arithmetic means of
+     * every sliding window of {@code size} consecutive elements of this
+     * stream. Only full windows are considered.
+     *
+     * <p>
+     * The sums are maintained as 128-bit numbers, so the result is not
+     * affected by the overflow.
+     *
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate
+     * operation</a>. The parallel stream is split with overlapping boundaries.
+     *
+     * @param size the number of elements in every window (must be positive)
+     * @return the new stream
+     * @throws IllegalArgumentException if size is not positive
+     * @since 0.6.7
+     */
+    public DoubleStreamEx windowedAverage(int size) {
+        checkPositive("size", size);
+        return new DoubleStreamEx(new WindowSpliterator.LongAverages(spliterator(), size), context);
+    }
+
+    /**
+     * Returns a stream consisting of the arrays of the consecutive elements of
+     * this stream. Every array contains {@code size} elements, except possibly
+     * the last one which contains the remaining elements.
+     *
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * operation. If this stream is {@code SUBSIZED}, the parallel stream is
+     * split at the chunk boundaries without buffering. Otherwise the parallel
+     * processing of the chunks is possible, but the source elements are read
+     * sequentially in batches.
+     *
+     * @param size the number of elements in every chunk except possibly the
+     *        last one (must be positive)
+     * @return the new stream of arrays
+     * @throws IllegalArgumentException if size is not positive
+     * @since 0.6.7
+     */
+    public StreamEx<long[]> chunked(int size) {
+        checkPositive("size", size);
+        return new StreamEx<>(new ChunkSpliterator.Longs(spliterator(), size), context);
+    }
+
+    /**
+     * Returns a stream consisting of the elements of this stream in sorted
+     * order using the temporary file to store the intermediate results.
+     *
+     * <p>
+     * The elements of this stream are cut into the runs of at most
+     * {@code maxInMemory} elements. Every run is sorted in parallel and
+     * appended to the single temporary file in the {@code tempDir} directory,
+     * except the last run which is kept in memory. Then the runs are merged
+     * lazily reading every run from its own position of the file. The
+     * temporary file is deleted when all the elements are consumed or when
+     * the resulting stream is closed.
+     *
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * operation. This stream is fully consumed when the first element of the
+     * resulting stream is requested. The resulting stream is sequential in
+     * nature: the merge cannot be split for parallel processing.
+     *
+     * @param maxInMemory the maximal number of elements sorted in memory at
+     *        once (must be positive)
+     * @param tempDir the directory to create the temporary file in
+     * @return the new stream
+     * @throws IllegalArgumentException if maxInMemory is not positive
+     * @throws UncheckedIOException if an I/O error occurs when the resulting
+     *         stream is traversed
+     * @see #sorted()
+     * @since 0.6.7
+     */
+    public LongStreamEx externalSorted(int maxInMemory, Path tempDir) {
+        Objects.requireNonNull(tempDir);
+        checkPositive("maxInMemory", maxInMemory);
+        ExternalSortSpliterator.Longs spliterator = new ExternalSortSpliterator.Longs(spliterator(), maxInMemory,
+                tempDir);
+        return new LongStreamEx(spliterator, context.onClose(spliterator::close));
+    }
+
     /**
      * Returns a {@link String} which is the concatenation of the results of
      * calling {@link String#valueOf(long)} on each element of this stream,
@@ -1568,6 +1729,112 @@ public class LongStreamEx extends BaseStreamEx<Long, LongStream, Spliterator.OfL
         return delegate(new PrefixOps.OfLong(spliterator(), op));
     }
 
+    private StreamEx<RunSpliterator.LongRun> runs(LongBiPredicate mergeable, LongBinaryOperator merger) {
+        return new StreamEx<>(RunSpliterator.collapse(new RunSpliterator.OfLong(spliterator(), mergeable, merger)),
+                context);
+    }
+
+    /**
+     * Merge series of adjacent elements which satisfy the given predicate using
+     * the merger function and return a new stream.
+     * 
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * partial reduction operation.
+     * 
+     * <p>
+     * This operation is the primitive counterpart of
+     * {@link StreamEx#collapse(BiPredicate, BinaryOperator)}. The stream
+     * elements are not boxed.
+     * 
+     * @param collapsible a non-interfering, stateless predicate to apply to the
+     *        pair of adjacent elements of the input stream which returns true
+     *        for elements which are collapsible.
+     * @param merger a non-interfering, stateless, associative function to merge
+     *        two adjacent elements for which collapsible predicate returned
+     *        true. Note that it can be applied to the results if previous
+     *        merges.
+     * @return the new stream
+     * @since 0.6.7
+     */
+    public LongStreamEx collapse(LongBiPredicate collapsible, LongBinaryOperator merger) {
+        return runs(collapsible, merger).mapToLong(run -> run.acc);
+    }
+
+    /**
+     * Returns a stream consisting of elements of this stream where every series
+     * of elements matched the predicate is replaced with first element from the
+     * series.
+     * 
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * partial reduction operation.
+     * 
+     * <p>
+     * This operation is the primitive counterpart of
+     * {@link StreamEx#collapse(BiPredicate)}. The stream elements are not
+     * boxed.
+     * 
+     * @param collapsible a non-interfering, stateless predicate to apply to the
+     *        pair of adjacent input elements which returns true for elements
+     *        which are collapsible.
+     * @return the new stream
+     * @since 0.6.7
+     */
+    public LongStreamEx collapse(LongBiPredicate collapsible) {
+        return collapse(collapsible, (a, b) -> a);
+    }
+
+    /**
+     * Collapses adjacent equal elements and returns an {@link EntryStream}
+     * where keys are input elements and values specify how many elements were
+     * collapsed.
+     * 
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * partial reduction operation.
+     * 
+     * <p>
+     * This operation is the primitive counterpart of
+     * {@link StreamEx#runLengths()}. The input elements are not boxed: only
+     * one entry is created per run.
+     * 
+     * @return the new stream
+     * @since 0.6.7
+     */
+    public EntryStream<Long, Long> runLengths() {
+        return new EntryStream<>(runs((a, b) -> a == b, (a, b) -> a).map(run -> new ObjLongBox<>(run.first,
+            run.count)), context);
+    }
+
+    /**
+     * Returns a stream consisting of results of applying the given function to
+     * the intervals created from the source elements.
+     * 
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * partial reduction operation.
+     * 
+     * <p>
+     * This operation is the primitive counterpart of
+     * {@link StreamEx#intervalMap(BiPredicate, BiFunction)}. Only the first and
+     * the last elements of each interval are tracked and no boxing occurs.
+     * 
+     * @param sameInterval a non-interfering, stateless predicate to apply to
+     *        the pair of adjacent elements which returns true for elements
+     *        which belong to the same interval.
+     * @param mapper a non-interfering, stateless function to apply to the
+     *        interval borders and produce the resulting element. If value was
+     *        not merged to the interval, then mapper will receive the same
+     *        value twice, otherwise it will receive the leftmost and the
+     *        rightmost values which were merged to the interval.
+     * @return the new stream
+     * @since 0.6.7
+     */
+    public LongStreamEx intervalMap(LongBiPredicate sameInterval, LongBinaryOperator mapper) {
+        return runs(sameInterval, (a, b) -> a).mapToLong(run -> mapper.applyAsLong(run.first, run.last));
+    }
+
     // Necessary to generate proper JavaDoc
     // does not add overhead as it appears in bytecode anyways as bridge method
     @Override
@@ -1659,6 +1926,78 @@ public class LongStreamEx extends BaseStreamEx<Long, LongStream, Spliterator.OfL
         return IntStreamEx.range(buf.position(), buf.limit()).mapToLong(buf::get);
     }
 
+    /**
+     * Returns a sequential ordered {@code LongStreamEx} of {@code long} values
+     * read from the supplied {@link ReadableByteChannel}. Every value occupies
+     * eight bytes in the specified byte order.
+     *
+     * <p>
+     * The channel is read via the reusable buffer. If the channel is a
+     * {@link FileChannel}, it's read by position starting from its current
+     * position up to its current size (the channel position is not changed),
+     * so the resulting stream can be efficiently split in parallel. Otherwise
+     * the channel must be in blocking mode.
+     *
+     * <p>
+     * If the channel throws an {@link IOException} during the stream traversal
+     * or it ends in the middle of the number, an {@link UncheckedIOException}
+     * is thrown.
+     *
+     * <p>
+     * When the returned stream is closed the channel is closed as well. If
+     * {@link ReadableByteChannel#close()} method throws an
+     * {@code IOException}, it will be rethrown as {@code UncheckedIOException}.
+     *
+     * @param channel a channel to read the values from
+     * @param order a byte order of the values
+     * @return the new stream
+     * @throws IllegalArgumentException if the channel is a non-blocking
+     *         {@link java.nio.channels.SelectableChannel}
+     * @see #ofVarLongs(ReadableByteChannel)
+     * @since 0.6.7
+     */
+    public static LongStreamEx ofLongs(ReadableByteChannel channel, ByteOrder order) {
+        return of(new ChannelSpliterator.Longs(channel, order, Long.BYTES)).onClose(ChannelSpliterator.closer(
+            channel));
+    }
+
+    /**
+     * Returns a sequential ordered {@code LongStreamEx} of {@code long} values
+     * read from the supplied {@link ReadableByteChannel} in the variable-length
+     * format (unsigned LEB128, as used by Protocol Buffers): every byte holds 7
+     * bits of the value starting from the least significant ones, and the most
+     * significant bit is set in every byte except the last one. The value can
+     * occupy up to ten bytes.
+     *
+     * <p>
+     * The channel is read via the reusable buffer. If the channel is a
+     * {@link FileChannel}, it's read by position starting from its current
+     * position up to its current size (the channel position is not changed),
+     * so the resulting stream can be efficiently split in parallel. Otherwise
+     * the channel must be in blocking mode.
+     *
+     * <p>
+     * If reading the channel throws an {@link IOException}, or the input ends
+     * inside a number, or a number is longer than ten bytes, an
+     * {@link UncheckedIOException} is thrown.
+     *
+     * <p>
+     * When the returned stream is closed the channel is closed as well. If
+     * {@link ReadableByteChannel#close()} method throws an
+     * {@code IOException}, it will be rethrown as {@code UncheckedIOException}.
+     *
+     * @param channel a channel to read the values from
+     * @return the new stream
+     * @throws IllegalArgumentException if the channel is a non-blocking
+     *         {@link java.nio.channels.SelectableChannel}
+     * @see #ofLongs(ReadableByteChannel, ByteOrder)
+     * @since 0.6.7
+     */
+    public static LongStreamEx ofVarLongs(ReadableByteChannel channel) {
+        return of(new ChannelSpliterator.Longs(channel, ByteOrder.BIG_ENDIAN, 0)).onClose(ChannelSpliterator
+                .closer(channel));
+    }
+
     /**
      * Returns a {@code LongStreamEx} object which wraps given
      * {@link LongStream}.
@@ -1799,6 +2138,100 @@ public class LongStreamEx extends BaseStreamEx<Long, LongStream, Spliterator.OfL
         return seq(random.longs(streamSize, randomNumberOrigin, randomNumberBound));
     }
 
+    /**
+     * Returns a lazily concatenated stream whose elements are all the elements
+     * of the supplied streams in their order. The resulting stream is parallel
+     * if any of the input streams is parallel. When the resulting stream is
+     * closed, the close handlers for all input streams are invoked.
+     *
+     * <p>
+     * Unlike the chain of {@link LongStream#concat(LongStream, LongStream)} calls, the
+     * streams are concatenated by single node which splits them for parallel
+     * processing by the boundary closest to the middle of the total size.
+     *
+     * @param streams the streams to concatenate
+     * @return the concatenated stream
+     * @see #concat(Collection)
+     * @since 0.6.7
+     */
+    public static LongStreamEx concat(LongStream... streams) {
+        return concat(Arrays.asList(streams));
+    }
+
+    /**
+     * Returns a lazily concatenated stream whose elements are all the elements
+     * of the streams from the supplied collection in the collection iteration
+     * order. The resulting stream is parallel if any of the input streams is
+     * parallel. When the resulting stream is closed, the close handlers for all
+     * input streams are invoked.
+     *
+     * <p>
+     * Unlike the chain of {@link LongStream#concat(LongStream, LongStream)} calls, the
+     * streams are concatenated by single node which splits them for parallel
+     * processing by the boundary closest to the middle of the total size.
+     *
+     * @param streams the collection of streams to concatenate
+     * @return the concatenated stream
+     * @see #concat(LongStream...)
+     * @since 0.6.7
+     */
+    public static LongStreamEx concat(Collection<? extends LongStream> streams) {
+        Spliterator.OfLong[] parts = new Spliterator.OfLong[streams.size()];
+        StreamContext context = StreamContext.SEQUENTIAL;
+        int i = 0;
+        for (LongStream stream : streams) {
+            parts[i++] = stream.spliterator();
+            context = context.combine(stream);
+        }
+        return new LongStreamEx(new ConcatSpliterator.Longs(parts), context);
+    }
+
+    /**
+     * Returns a stream which merges the supplied streams sorted in the natural
+     * order into the single sorted stream. If some of the input streams is not
+     * sorted, the result is unspecified. The resulting stream is parallel if
+     * any of the input streams is parallel. When the resulting stream is
+     * closed, the close handlers for all input streams are invoked.
+     *
+     * <p>
+     * Unlike the concatenation followed by {@link #sorted()}, the input streams
+     * are not buffered: they are pulled lazily keeping only one element per
+     * stream in memory. The parallel stream is split by batches of the merged
+     * elements.
+     *
+     * @param streams the sorted streams to merge
+     * @return the merged stream
+     * @see #mergeSorted(Collection)
+     * @since 0.6.7
+     */
+    public static LongStreamEx mergeSorted(LongStream... streams) {
+        return mergeSorted(Arrays.asList(streams));
+    }
+
+    /**
+     * Returns a stream which merges the streams from the supplied collection
+     * sorted in the natural order into the single sorted stream. If some of
+     * the input streams is not sorted, the result is unspecified. The
+     * resulting stream is parallel if any of the input streams is parallel.
+     * When the resulting stream is closed, the close handlers for all input
+     * streams are invoked.
+     *
+     * @param streams the collection of sorted streams to merge
+     * @return the merged stream
+     * @see #mergeSorted(LongStream...)
+     * @since 0.6.7
+     */
+    public static LongStreamEx mergeSorted(Collection<? extends LongStream> streams) {
+        Spliterator.OfLong[] parts = new Spliterator.OfLong[streams.size()];
+        StreamContext context = StreamContext.SEQUENTIAL;
+        int i = 0;
+        for (LongStream stream : streams) {
+            parts[i++] = stream.spliterator();
+            context = context.combine(stream);
+        }
+        return new LongStreamEx(new MergeSortedSpliterator.Longs(parts), context);
+    }
+
     /**
      * Returns an infinite sequential ordered {@code LongStreamEx} produced by
      * iterative application of a function {@code f} to an initial element
@@ -2090,6 +2523,29 @@ public class LongStreamEx extends BaseStreamEx<Long, LongStream, Spliterator.OfL
                 second));
     }
 
+    /**
+     * Represents a predicate (boolean-valued function) of two
+     * {@code long}-valued arguments. This is the {@code long}-consuming
+     * primitive type specialization of {@link BiPredicate}.
+     * 
+     * @author Tagir Valeev
+     *
+     * @since 0.6.7
+     * @see LongStreamEx#collapse(LongBiPredicate, LongBinaryOperator)
+     */
+    @FunctionalInterface
+    public interface LongBiPredicate {
+        /**
+         * Evaluates this predicate on the given arguments.
+         * 
+         * @param first the first input argument
+         * @param second the second input argument
+         * @return {@code true} if the input arguments match the predicate,
+         *         otherwise {@code false}
+         */
+        boolean test(long first, long second);
+    }
+
     /**
      * A helper interface to build a new stream by emitting elements and
      * creating new emitters in a chain.
@@ -2160,4 +2616,80 @@ public class LongStreamEx extends BaseStreamEx<Long, LongStream, Spliterator.OfL
             return of(spliterator());
         }
     }
+
+    /**
+     * A helper interface to build a new stream by emitting elements from the
+     * mutable state. Unlike {@link LongEmitter} which creates a new emitter for every
+     * step, the same object is advanced repeatedly keeping the state in its
+     * fields.
+     * 
+     * <p>
+     * This emitter is advanced until it's exhausted, so no per-element
+     * allocation is necessary.
+     * 
+     * <p>
+     * The stream created from this emitter is traversed via
+     * {@code forEachRemaining} without intermediate buffering. The emitter
+     * which maintains the pending work (like the stack of nodes not visited yet
+     * when traversing a tree) may override the {@link #trySplit()} method to
+     * hand off part of this work, so the stream can be processed in parallel.
+     * 
+     * @author Tagir Valeev
+     *
+     * @since 0.6.7
+     */
+    public interface LongStatefulEmitter {
+        /**
+         * Calls the supplied consumer zero or more times to emit some elements
+         * if this emitter is not exhausted.
+         * 
+         * <p>
+         * Normally one element is emitted during the {@code advance()} call.
+         * However, it's not restricted: you may emit as many elements as you
+         * want, though in some cases if many elements were emitted they might
+         * be buffered consuming additional memory.
+         * 
+         * @param action consumer to be called to emit elements
+         * @return false if this emitter is exhausted (in this case no elements
+         *         must be emitted), true otherwise
+         */
+        boolean advance(LongConsumer action);
+
+        /**
+         * Removes some of the pending elements from this emitter and returns
+         * them as a new emitter. The new emitter must emit only the elements
+         * which would be emitted by this emitter after all the elements which
+         * remain in this emitter.
+         * 
+         * <p>
+         * The default implementation returns null, so the stream is split by
+         * buffering the emitted elements.
+         * 
+         * @return the emitter covering the suffix of the elements, or null if
+         *         this emitter cannot be split
+         */
+        default LongStatefulEmitter trySplit() {
+            return null;
+        }
+
+        /**
+         * Returns the spliterator which covers all the elements emitted by this
+         * emitter.
+         * 
+         * @return the new spliterator
+         */
+        default Spliterator.OfLong spliterator() {
+            return new EmitterSpliterator.StatefulLong(this);
+        }
+
+        /**
+         * Returns the stream which covers all the elements emitted by this
+         * emitter.
+         * 
+         * @return the new stream
+         */
+        default LongStreamEx stream() {
+            return of(spliterator());
+        }
+    }
 }
@@ -0,0 +1,685 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * A spliterator which merges several sorted sources into the single sorted
+ * sequence. The sources are pulled lazily: only one head element per source
+ * is kept in memory. The sources are ordered as binary heap by their heads;
+ * ties are resolved in favor of the earlier source, so the merge is stable.
+ *
+ * <p>
+ * If all the sources are random access lists or arrays, the output is split
+ * for parallel processing by the key range: the pivot is the median of the
+ * middle elements of the sources and every source is cut at the pivot by
+ * binary search. Otherwise the merged elements are split off in batches.
+ *
+ * @author Tagir Valeev
+ *
+ * @param <T> type of the elements
+ */
+/* package */abstract class MergeSortedSpliterator<T> implements Spliterator<T> {
+    private static final int BATCH_UNIT = UnknownSizeSpliterator.BATCH_UNIT;
+    private static final int MAX_BATCH = UnknownSizeSpliterator.MAX_BATCH;
+
+    // source indices ordered as binary heap by the current source head
+    private int[] heap;
+    private int heapSize;
+    private boolean started;
+    private int batch;
+
+    /**
+     * @return the number of sources
+     */
+    abstract int sources();
+
+    /**
+     * Makes the next element of the source its head.
+     *
+     * @return false if the source is exhausted
+     */
+    abstract boolean advance(int source);
+
+    abstract int compareHeads(int source1, int source2);
+
+    private boolean less(int source1, int source2) {
+        int cmp = compareHeads(source1, source2);
+        return cmp < 0 || cmp == 0 && source1 < source2;
+    }
+
+    private void siftDown(int i) {
+        int[] h = heap;
+        int source = h[i];
+        int half = heapSize >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < heapSize && less(h[child + 1], h[child]))
+                child++;
+            if (!less(h[child], source))
+                break;
+            h[i] = h[child];
+            i = child;
+        }
+        h[i] = source;
+    }
+
+    final boolean isStarted() {
+        return started;
+    }
+
+    /**
+     * @return the number of the head elements which are loaded, but not
+     *         consumed yet
+     */
+    final int loaded() {
+        return heapSize;
+    }
+
+    /**
+     * Returns the source which head is the next element, loading the heads of
+     * all the sources if necessary.
+     *
+     * @return the source index or -1 if all the sources are exhausted
+     */
+    final int top() {
+        if (!started) {
+            started = true;
+            int n = sources();
+            heap = new int[n];
+            for (int i = 0; i < n; i++) {
+                if (advance(i))
+                    heap[heapSize++] = i;
+            }
+            for (int i = (heapSize >>> 1) - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+        return heapSize == 0 ? -1 : heap[0];
+    }
+
+    /**
+     * Moves to the next element after the head of the top source is consumed.
+     */
+    final void next() {
+        if (!advance(heap[0]))
+            heap[0] = heap[--heapSize];
+        if (heapSize > 1)
+            siftDown(0);
+    }
+
+    /**
+     * Removes the top source from the merge, so its remaining elements can be
+     * traversed directly. Must be called only if it's the last source.
+     */
+    final void drop() {
+        heapSize = 0;
+    }
+
+    /**
+     * @return the size of the next batch to split off or 0 if no split should
+     *         be performed
+     */
+    final int nextBatch() {
+        long est = estimateSize();
+        if (est <= 1)
+            return 0;
+        int n = Math.min(batch + BATCH_UNIT, MAX_BATCH);
+        batch = n;
+        return (int) Math.min(n, est);
+    }
+
+    /**
+     * Creates the merging spliterator choosing the random access
+     * implementation if all the sources are intact random access ones.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> MergeSortedSpliterator<T> of(Spliterator<? extends T>[] sources, Comparator<? super T> comparator) {
+        for (Spliterator<? extends T> source : sources) {
+            if (!(source instanceof RandomAccessSpliterator) || !((RandomAccessSpliterator<?>) source).isIntact())
+                return new OfRef<>((Spliterator<T>[]) sources, comparator);
+        }
+        int n = sources.length;
+        List<T>[] lists = new List[n];
+        int[] from = new int[n], to = new int[n];
+        for (int i = 0; i < n; i++) {
+            RandomAccessSpliterator<T> source = (RandomAccessSpliterator<T>) sources[i];
+            lists[i] = source.list();
+            from[i] = source.from();
+            to[i] = source.to();
+        }
+        return new OfList<>(lists, from, to, comparator);
+    }
+
+    static long sum(Spliterator<?>[] sources, long size) {
+        for (Spliterator<?> source : sources) {
+            size += source.estimateSize();
+            if (size < 0)
+                return Long.MAX_VALUE;
+        }
+        return size;
+    }
+
+    static int characteristics(Spliterator<?>[] sources) {
+        int characteristics = ORDERED | SORTED | SIZED;
+        for (Spliterator<?> source : sources) {
+            characteristics &= source.characteristics() | ORDERED | SORTED;
+        }
+        return characteristics;
+    }
+
+    static final class OfRef<T> extends MergeSortedSpliterator<T> implements Consumer<T> {
+        private final Spliterator<T>[] sources;
+        private final Object[] heads;
+        private final Comparator<? super T> comparator;
+        private final int characteristics;
+        private int cur;
+
+        OfRef(Spliterator<T>[] sources, Comparator<? super T> comparator) {
+            this.sources = sources;
+            this.heads = new Object[sources.length];
+            this.comparator = comparator;
+            this.characteristics = characteristics(sources);
+        }
+
+        @Override
+        int sources() {
+            return sources.length;
+        }
+
+        @Override
+        public void accept(T t) {
+            heads[cur] = t;
+        }
+
+        @Override
+        boolean advance(int source) {
+            cur = source;
+            if (sources[source].tryAdvance(this))
+                return true;
+            heads[source] = null;
+            return false;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        int compareHeads(int source1, int source2) {
+            return comparator.compare((T) heads[source1], (T) heads[source2]);
+        }
+
+        @SuppressWarnings("unchecked")
+        private T poll(int source) {
+            T t = (T) heads[source];
+            next();
+            return t;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            int source = top();
+            if (source < 0)
+                return false;
+            action.accept(poll(source));
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            int source;
+            while ((source = top()) >= 0) {
+                if (loaded() == 1) {
+                    T t = (T) heads[source];
+                    heads[source] = null;
+                    drop();
+                    action.accept(t);
+                    sources[source].forEachRemaining(action);
+                    return;
+                }
+                action.accept(poll(source));
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int n = nextBatch();
+            if (n == 0)
+                return null;
+            Object[] array = new Object[n];
+            int i = 0, source;
+            while (i < n && (source = top()) >= 0) {
+                array[i++] = poll(source);
+            }
+            return i == 0 ? null : Spliterators.spliterator(array, 0, i, ORDERED);
+        }
+
+        @Override
+        public long estimateSize() {
+            return sum(sources, loaded());
+        }
+
+        @Override
+        public int characteristics() {
+            return characteristics;
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            return comparator;
+        }
+    }
+
+    /**
+     * The merge of the random access sources: every source is the range of
+     * the list and the head is the element preceding the next index.
+     */
+    static final class OfList<T> extends MergeSortedSpliterator<T> {
+        private final List<T>[] lists;
+        private final int[] next, to;
+        private final Comparator<? super T> comparator;
+
+        OfList(List<T>[] lists, int[] from, int[] to, Comparator<? super T> comparator) {
+            this.lists = lists;
+            this.next = from;
+            this.to = to;
+            this.comparator = comparator;
+        }
+
+        @Override
+        int sources() {
+            return lists.length;
+        }
+
+        @Override
+        boolean advance(int source) {
+            if (next[source] == to[source])
+                return false;
+            next[source]++;
+            return true;
+        }
+
+        private T head(int source) {
+            return lists[source].get(next[source] - 1);
+        }
+
+        @Override
+        int compareHeads(int source1, int source2) {
+            return comparator.compare(head(source1), head(source2));
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            int source = top();
+            if (source < 0)
+                return false;
+            T t = head(source);
+            next();
+            action.accept(t);
+            return true;
+        }
+
+        private int bound(int source, T pivot, boolean upper) {
+            List<T> list = lists[source];
+            int lo = next[source], hi = to[source];
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = comparator.compare(list.get(mid), pivot);
+                if (cmp < 0 || upper && cmp == 0)
+                    lo = mid + 1;
+                else
+                    hi = mid;
+            }
+            return lo;
+        }
+
+        private long cut(int[] cut, T pivot, boolean upper) {
+            long size = 0;
+            for (int i = 0; i < cut.length; i++) {
+                cut[i] = bound(i, pivot, upper);
+                size += cut[i] - next[i];
+            }
+            return size;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public Spliterator<T> trySplit() {
+            long size = estimateSize();
+            if (isStarted() || size < 2)
+                return null;
+            // sampled pivots: the middle elements of the non-empty sources
+            Object[] samples = new Object[lists.length];
+            int n = 0;
+            for (int i = 0; i < lists.length; i++) {
+                if (next[i] < to[i])
+                    samples[n++] = lists[i].get((next[i] + to[i]) >>> 1);
+            }
+            Arrays.sort((T[]) samples, 0, n, comparator);
+            T pivot = (T) samples[n >>> 1];
+            int[] cut = new int[lists.length];
+            long prefixSize = cut(cut, pivot, false);
+            if (prefixSize == 0)
+                prefixSize = cut(cut, pivot, true);
+            if (prefixSize == 0 || prefixSize == size)
+                return null;
+            OfList<T> prefix = new OfList<>(lists, next.clone(), cut, comparator);
+            System.arraycopy(cut, 0, next, 0, cut.length);
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            long size = loaded();
+            for (int i = 0; i < lists.length; i++) {
+                size += to[i] - next[i];
+            }
+            return size;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SORTED | SIZED | SUBSIZED;
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            return comparator;
+        }
+    }
+
+    static final class Ints extends MergeSortedSpliterator<Integer> implements Spliterator.OfInt, IntConsumer {
+        private final Spliterator.OfInt[] sources;
+        private final int[] heads;
+        private final int characteristics;
+        private int cur;
+
+        Ints(Spliterator.OfInt[] sources) {
+            this.sources = sources;
+            this.heads = new int[sources.length];
+            this.characteristics = characteristics(sources);
+        }
+
+        @Override
+        int sources() {
+            return sources.length;
+        }
+
+        @Override
+        public void accept(int t) {
+            heads[cur] = t;
+        }
+
+        @Override
+        boolean advance(int source) {
+            cur = source;
+            return sources[source].tryAdvance(this);
+        }
+
+        @Override
+        int compareHeads(int source1, int source2) {
+            return Integer.compare(heads[source1], heads[source2]);
+        }
+
+        private int poll(int source) {
+            int t = heads[source];
+            next();
+            return t;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            int source = top();
+            if (source < 0)
+                return false;
+            action.accept(poll(source));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            int source;
+            while ((source = top()) >= 0) {
+                if (loaded() == 1) {
+                    drop();
+                    action.accept(heads[source]);
+                    sources[source].forEachRemaining(action);
+                    return;
+                }
+                action.accept(poll(source));
+            }
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            int n = nextBatch();
+            if (n == 0)
+                return null;
+            int[] array = new int[n];
+            int i = 0, source;
+            while (i < n && (source = top()) >= 0) {
+                array[i++] = poll(source);
+            }
+            return i == 0 ? null : Spliterators.spliterator(array, 0, i, ORDERED);
+        }
+
+        @Override
+        public long estimateSize() {
+            return sum(sources, loaded());
+        }
+
+        @Override
+        public int characteristics() {
+            return characteristics;
+        }
+
+        @Override
+        public Comparator<? super Integer> getComparator() {
+            return null;
+        }
+    }
+
+    static final class Longs extends MergeSortedSpliterator<Long> implements Spliterator.OfLong, LongConsumer {
+        private final Spliterator.OfLong[] sources;
+        private final long[] heads;
+        private final int characteristics;
+        private int cur;
+
+        Longs(Spliterator.OfLong[] sources) {
+            this.sources = sources;
+            this.heads = new long[sources.length];
+            this.characteristics = characteristics(sources);
+        }
+
+        @Override
+        int sources() {
+            return sources.length;
+        }
+
+        @Override
+        public void accept(long t) {
+            heads[cur] = t;
+        }
+
+        @Override
+        boolean advance(int source) {
+            cur = source;
+            return sources[source].tryAdvance(this);
+        }
+
+        @Override
+        int compareHeads(int source1, int source2) {
+            return Long.compare(heads[source1], heads[source2]);
+        }
+
+        private long poll(int source) {
+            long t = heads[source];
+            next();
+            return t;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            int source = top();
+            if (source < 0)
+                return false;
+            action.accept(poll(source));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            int source;
+            while ((source = top()) >= 0) {
+                if (loaded() == 1) {
+                    drop();
+                    action.accept(heads[source]);
+                    sources[source].forEachRemaining(action);
+                    return;
+                }
+                action.accept(poll(source));
+            }
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit() {
+            int n = nextBatch();
+            if (n == 0)
+                return null;
+            long[] array = new long[n];
+            int i = 0, source;
+            while (i < n && (source = top()) >= 0) {
+                array[i++] = poll(source);
+            }
+            return i == 0 ? null : Spliterators.spliterator(array, 0, i, ORDERED);
+        }
+
+        @Override
+        public long estimateSize() {
+            return sum(sources, loaded());
+        }
+
+        @Override
+        public int characteristics() {
+            return characteristics;
+        }
+
+        @Override
+        public Comparator<? super Long> getComparator() {
+            return null;
+        }
+    }
+
+    static final class Doubles extends MergeSortedSpliterator<Double> implements Spliterator.OfDouble,
+            DoubleConsumer {
+        private final Spliterator.OfDouble[] sources;
+        private final double[] heads;
+        private final int characteristics;
+        private int cur;
+
+        Doubles(Spliterator.OfDouble[] sources) {
+            this.sources = sources;
+            this.heads = new double[sources.length];
+            this.characteristics = characteristics(sources);
+        }
+
+        @Override
+        int sources() {
+            return sources.length;
+        }
+
+        @Override
+        public void accept(double t) {
+            heads[cur] = t;
+        }
+
+        @Override
+        boolean advance(int source) {
+            cur = source;
+            return sources[source].tryAdvance(this);
+        }
+
+        @Override
+        int compareHeads(int source1, int source2) {
+            return Double.compare(heads[source1], heads[source2]);
+        }
+
+        private double poll(int source) {
+            double t = heads[source];
+            next();
+            return t;
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            int source = top();
+            if (source < 0)
+                return false;
+            action.accept(poll(source));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            int source;
+            while ((source = top()) >= 0) {
+                if (loaded() == 1) {
+                    drop();
+                    action.accept(heads[source]);
+                    sources[source].forEachRemaining(action);
+                    return;
+                }
+                action.accept(poll(source));
+            }
+        }
+
+        @Override
+        public Spliterator.OfDouble trySplit() {
+            int n = nextBatch();
+            if (n == 0)
+                return null;
+            double[] array = new double[n];
+            int i = 0, source;
+            while (i < n && (source = top()) >= 0) {
+                array[i++] = poll(source);
+            }
+            return i == 0 ? null : Spliterators.spliterator(array, 0, i, ORDERED);
+        }
+
+        @Override
+        public long estimateSize() {
+            return sum(sources, loaded());
+        }
+
+        @Override
+        public int characteristics() {
+            return characteristics;
+        }
+
+        @Override
+        public Comparator<? super Double> getComparator() {
+            return null;
+        }
+    }
+}
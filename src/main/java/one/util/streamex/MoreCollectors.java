@@ -15,8 +15,10 @@
  */
 package one.util.streamex;
 
+import java.nio.file.Path;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -34,6 +36,7 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.Set;
+import java.util.SplittableRandom;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.BiPredicate;
@@ -42,6 +45,7 @@ import java.util.function.Function;
 import java.util.function.IntFunction;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
 import java.util.function.ToIntFunction;
 import java.util.function.ToLongFunction;
 import java.util.stream.Collector;
@@ -49,6 +53,8 @@ import java.util.stream.Collector.Characteristics;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import one.util.streamex.StreamEx.RecordCodec;
+
 import static one.util.streamex.StreamExInternals.*;
 
 /**
@@ -273,6 +279,82 @@ public final class MoreCollectors {
         return Collector.of(supplier, accumulator, combiner, resFinisher, c.toArray(new Characteristics[0]));
     }
 
+    /**
+     * Returns a {@code Collector} which passes every input element to all the
+     * supplied collectors in a single pass and produces the list of their
+     * results in the same order as collectors are supplied.
+     *
+     * <p>
+     * This is a generalization of the
+     * {@link #pairing(Collector, Collector, BiFunction)} to any number of
+     * collectors. The returned list is fixed-size.
+     *
+     * <p>
+     * This method returns a
+     * <a href="package-summary.html#ShortCircuitReduction">short-circuiting
+     * collector</a> if all downstream collectors are short-circuiting. The
+     * collection might stop when all downstream collectors report that the
+     * collection is complete.
+     *
+     * @param <T> the type of the input elements
+     * @param <R> the common supertype of the results of the collectors
+     * @param collectors the collectors to combine
+     * @return a {@code Collector} which aggregates the results of all the
+     *         supplied collectors into the list.
+     * @see IntCollector#tupling(List)
+     * @see LongCollector#tupling(List)
+     * @see DoubleCollector#tupling(List)
+     * @since 0.6.7
+     */
+    public static <T, R> Collector<T, ?, List<R>> tupling(
+            List<? extends Collector<? super T, ?, ? extends R>> collectors) {
+        CollectorTuple tuple = new CollectorTuple(collectors);
+        @SuppressWarnings("unchecked")
+        BiConsumer<Object, ? super T>[] accumulators = collectors.stream().map(Collector::accumulator).toArray(
+            BiConsumer[]::new);
+        Supplier<Object[]> supplier = tuple::supply;
+        BiConsumer<Object[], T> accumulator = (acc, t) -> {
+            for (int i = 0; i < accumulators.length; i++) {
+                accumulators[i].accept(acc[i], t);
+            }
+        };
+        BinaryOperator<Object[]> combiner = (acc1, acc2) -> {
+            tuple.merge(acc1, acc2);
+            return acc1;
+        };
+        Function<Object[], List<R>> finisher = tuple::finish;
+        Predicate<Object[]> finished = tuple.finished();
+        if (finished != null) {
+            return new CancellableCollectorImpl<>(supplier, accumulator, combiner, finisher, finished,
+                    tuple.characteristics);
+        }
+        return Collector.of(supplier, accumulator, combiner, finisher, tuple.characteristics.toArray(
+            new Characteristics[0]));
+    }
+
+    /**
+     * Returns a {@code Collector} which passes every input element to all the
+     * supplied collectors in a single pass and produces the list of their
+     * results in the same order as collectors are supplied.
+     *
+     * <p>
+     * This method returns a
+     * <a href="package-summary.html#ShortCircuitReduction">short-circuiting
+     * collector</a> if all downstream collectors are short-circuiting.
+     *
+     * @param <T> the type of the input elements
+     * @param <R> the common supertype of the results of the collectors
+     * @param collectors the collectors to combine
+     * @return a {@code Collector} which aggregates the results of all the
+     *         supplied collectors into the list.
+     * @see #tupling(List)
+     * @since 0.6.7
+     */
+    @SafeVarargs
+    public static <T, R> Collector<T, ?, List<R>> tupling(Collector<? super T, ?, ? extends R>... collectors) {
+        return MoreCollectors.<T, R> tupling(Arrays.asList(collectors));
+    }
+
     /**
      * Returns a {@code Collector} which finds the minimal and maximal element
      * according to the supplied comparator, then applies finisher function to
@@ -1008,6 +1090,84 @@ public final class MoreCollectors {
         });
     }
 
+    /**
+     * Returns a {@code Collector} implementing a cascaded "group by" operation
+     * which keeps at most {@code maxInMemory} keys in memory and stores the
+     * rest of the intermediate results in the temporary files. The result is
+     * the lazily populated {@link EntryStream} of keys and the corresponding
+     * downstream results.
+     *
+     * <p>
+     * When the number of keys in memory reaches {@code maxInMemory}, all the
+     * accumulated downstream states are written to the temporary files in the
+     * {@code tempDir} directory using the supplied codecs. The files are
+     * partitioned by the key hash code. When the resulting stream is traversed,
+     * the partitions are read one at a time and the states for the same key
+     * are combined using the downstream combiner, so neither the input nor the
+     * output must fit into memory. The partition which still has too many keys
+     * is partitioned again. If nothing was written to the temporary files, the
+     * resulting stream is backed by the in-memory map.
+     *
+     * <p>
+     * The downstream state codec must be able to write and read back any
+     * intermediate state of the downstream collector, and the downstream
+     * combiner must be able to combine the states read back. Thus this
+     * collector cannot be used with the downstream collectors which state is
+     * not serializable, or which combiner is not implemented.
+     *
+     * <p>
+     * The temporary files are deleted when the resulting stream is fully
+     * traversed or closed, so it's recommended to use it within
+     * try-with-resources block when the stream may be partially consumed. The
+     * files written by the sequential collection are also deleted if the
+     * downstream accumulator or combiner throws. The order of the entries in
+     * the resulting stream is unspecified.
+     *
+     * @param <T> the type of the input elements
+     * @param <K> the type of the keys
+     * @param <A> the intermediate accumulation type of the downstream collector
+     * @param <D> the result type of the downstream reduction
+     * @param classifier a classifier function mapping input elements to keys
+     * @param downstream a {@code Collector} implementing the downstream
+     *        reduction
+     * @param keyCodec the codec to write the keys to the temporary files and
+     *        read them back
+     * @param stateCodec the codec to write the downstream intermediate states
+     *        to the temporary files and read them back
+     * @param maxInMemory the maximal number of keys kept in memory (must be
+     *        positive)
+     * @param tempDir the directory to create the temporary files in
+     * @return a {@code Collector} implementing the cascaded group-by operation
+     * @throws IllegalArgumentException if maxInMemory is not positive
+     * @see Collectors#groupingBy(Function, Collector)
+     * @see StreamEx#externalSorted(Comparator, RecordCodec, int, Path)
+     * @since 0.6.7
+     */
+    public static <T, K, A, D> Collector<T, ?, EntryStream<K, D>> externalGroupingBy(
+            Function<? super T, ? extends K> classifier, Collector<? super T, A, D> downstream,
+            RecordCodec<K> keyCodec, RecordCodec<A> stateCodec, int maxInMemory, Path tempDir) {
+        Objects.requireNonNull(classifier);
+        Objects.requireNonNull(keyCodec);
+        Objects.requireNonNull(stateCodec);
+        Objects.requireNonNull(tempDir);
+        checkPositive("maxInMemory", maxInMemory);
+        ExternalGrouping.Params<T, K, A> params = new ExternalGrouping.Params<>(classifier, downstream.supplier(),
+                downstream.accumulator(), downstream.combiner(), keyCodec, stateCodec, maxInMemory, tempDir);
+        Function<A, D> finisher = downstream.finisher();
+        boolean identity = downstream.characteristics().contains(Characteristics.IDENTITY_FINISH);
+        Characteristics[] characteristics = downstream.characteristics().contains(Characteristics.UNORDERED)
+                ? new Characteristics[] { Characteristics.UNORDERED } : new Characteristics[0];
+        return Collector.of(() -> new ExternalGrouping<>(params, 0), ExternalGrouping::accumulate,
+            ExternalGrouping::combine, grouping -> {
+                ExternalGrouping.Output<K, A> output = grouping.output();
+                EntryStream<K, A> stream = new EntryStream<>(output, StreamContext.SEQUENTIAL.onClose(
+                    output::close));
+                @SuppressWarnings("unchecked")
+                EntryStream<K, D> result = identity ? (EntryStream<K, D>) stream : stream.mapValues(finisher);
+                return result;
+            }, characteristics);
+    }
+
     /**
      * Returns a {@code Collector} which collects the intersection of the input
      * collections into the newly-created {@link Set}.
@@ -1338,6 +1498,146 @@ public final class MoreCollectors {
         return filtering(predicate, Collectors.toList());
     }
 
+    /**
+     * Returns a {@code Collector} which calculates the covariance and the
+     * correlation of two double-valued functions applied to the input elements.
+     *
+     * <p>
+     * The statistics are calculated in single pass using the numerically stable
+     * algorithm. For example, the correlation of the keys and the values of
+     * {@code EntryStream<Double, Double>} can be calculated like this:
+     *
+     * <pre>{@code
+     * double r = entryStream.collect(MoreCollectors.covariance(Entry::getKey, Entry::getValue))
+     *                       .getCorrelation();
+     * }</pre>
+     *
+     * @param <T> the type of the input elements
+     * @param xMapper a function extracting the first value of the pair
+     * @param yMapper a function extracting the second value of the pair
+     * @return a {@code Collector} which produces the {@link DoubleCovariance}
+     * @since 0.6.7
+     */
+    public static <T> Collector<T, ?, DoubleCovariance> covariance(ToDoubleFunction<? super T> xMapper,
+            ToDoubleFunction<? super T> yMapper) {
+        return Collector.of(DoubleCovariance::new, (acc, t) -> acc.accept(xMapper.applyAsDouble(t), yMapper
+                .applyAsDouble(t)), (acc1, acc2) -> {
+            acc1.combine(acc2);
+            return acc1;
+        });
+    }
+
+    /**
+     * Returns a {@code Collector} which collects a uniform random sample of
+     * at most {@code k} input elements into the {@link List}. Every subset of
+     * {@code k} elements is equally likely to be selected. If the stream has
+     * less than {@code k} elements, all of them are collected.
+     *
+     * <p>
+     * The sample is maintained using the reservoir sampling Algorithm L: once
+     * the reservoir is full, the number of elements to skip before the next
+     * replacement is computed directly, so the random number generator is
+     * called {@code O(k*log(n/k))} times for the stream of {@code n} elements.
+     * The partial samples of the parallel stream are merged with respect to
+     * the number of elements seen by each of them, so the result is still
+     * uniform.
+     *
+     * <p>
+     * The random generators for the partial samples are split from the
+     * supplied {@code random}, thus the result of the sequential stream is
+     * reproducible for the same seed. The order of elements in the resulting
+     * {@code List} is unspecified. There are no guarantees on the type,
+     * mutability, serializability, or thread-safety of the {@code List}
+     * returned.
+     *
+     * @param <T> the type of the input elements
+     * @param k maximum number of elements to select, must be positive
+     * @param random the source of randomness
+     * @return a {@code Collector} which produces a random sample of the input
+     *         elements
+     * @throws IllegalArgumentException if {@code k} is not positive
+     * @see IntCollector#sample(int, SplittableRandom)
+     * @see LongCollector#sample(int, SplittableRandom)
+     * @since 0.6.7
+     */
+    public static <T> Collector<T, ?, List<T>> sample(int k, SplittableRandom random) {
+        checkPositive("k", k);
+        Objects.requireNonNull(random);
+        return Collector.<T, Reservoir.OfRef<T>, List<T>> of(() -> new Reservoir.OfRef<>(Reservoir.split(random), k),
+            Reservoir.OfRef::accept, (acc1, acc2) -> {
+                acc1.merge(acc2);
+                return acc1;
+            }, Reservoir.OfRef::toList, Characteristics.UNORDERED);
+    }
+
+    /**
+     * Returns a {@code Collector} which collects a weighted random sample of at
+     * most {@code k} input elements without replacement into the {@link List}.
+     * The probability for the element to be selected at every step is
+     * proportional to its weight. The elements with zero weight are never
+     * selected.
+     *
+     * <p>
+     * This is the same as {@link #weightedSample(int, ToDoubleFunction, SplittableRandom)}
+     * using a new {@link SplittableRandom} instance.
+     *
+     * @param <T> the type of the input elements
+     * @param k maximum number of elements to select, must be positive
+     * @param weightFunction a function returning the weight of the element;
+     *        the weight must be non-negative and finite
+     * @return a {@code Collector} which produces a weighted random sample of
+     *         the input elements
+     * @throws IllegalArgumentException if {@code k} is not positive
+     * @since 0.6.7
+     */
+    public static <T> Collector<T, ?, List<T>> weightedSample(int k, ToDoubleFunction<? super T> weightFunction) {
+        return weightedSample(k, weightFunction, new SplittableRandom());
+    }
+
+    /**
+     * Returns a {@code Collector} which collects a weighted random sample of at
+     * most {@code k} input elements without replacement into the {@link List}.
+     * The probability for the element to be selected at every step is
+     * proportional to its weight. The elements with zero weight are never
+     * selected.
+     *
+     * <p>
+     * The sample is maintained using the Algorithm A-ExpJ: every element gets
+     * a random key depending on its weight and the elements with {@code k}
+     * largest keys are kept. Once {@code k} elements are collected, the total
+     * weight to skip before the next replacement is computed directly, so the
+     * random number generator is called {@code O(k*log(n/k))} times. The
+     * partial samples of the parallel stream are merged by their keys.
+     *
+     * <p>
+     * The order of elements in the resulting {@code List} is unspecified.
+     * There are no guarantees on the type, mutability, serializability, or
+     * thread-safety of the {@code List} returned. If the weight function
+     * returns a negative, infinite or NaN value, the
+     * {@link IllegalArgumentException} is thrown during the collection.
+     *
+     * @param <T> the type of the input elements
+     * @param k maximum number of elements to select, must be positive
+     * @param weightFunction a function returning the weight of the element;
+     *        the weight must be non-negative and finite
+     * @param random the source of randomness
+     * @return a {@code Collector} which produces a weighted random sample of
+     *         the input elements
+     * @throws IllegalArgumentException if {@code k} is not positive
+     * @since 0.6.7
+     */
+    public static <T> Collector<T, ?, List<T>> weightedSample(int k, ToDoubleFunction<? super T> weightFunction,
+            SplittableRandom random) {
+        checkPositive("k", k);
+        Objects.requireNonNull(weightFunction);
+        Objects.requireNonNull(random);
+        return Collector.<T, Reservoir.Weighted<T>, List<T>> of(() -> new Reservoir.Weighted<>(Reservoir
+                .split(random), k, weightFunction), Reservoir.Weighted::accept, (acc1, acc2) -> {
+            acc1.merge(acc2);
+            return acc1;
+        }, Reservoir.Weighted::toList, Characteristics.UNORDERED);
+    }
+
     /**
      * Returns a {@code Collector} which performs the bitwise-and operation of a
      * integer-valued function applied to the input elements. If no elements are
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Collector.Characteristics;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A radix-partitioned parallel grouping engine. Every leaf task of the parallel
+ * stream accumulates the key-value pairs into the fixed number of partition
+ * maps selected by the key hash code. The partition maps of the leaf tasks are
+ * linked together in the encounter order, so combining is constant-time.
+ * After that the maps of every partition are combined by a single task into
+ * the map which key set is disjoint from the other partitions, so neither
+ * pairwise merging of the whole maps nor the concurrent updates are necessary.
+ * Only the accumulation containers are kept, so the memory is proportional to
+ * the number of distinct keys per leaf rather than to the number of elements.
+ *
+ * @author Tagir Valeev
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ * @param <A> type of the accumulation containers
+ * @param <R> type of the result
+ */
+/* package */abstract class PartitionedGrouping<K, V, A, R> {
+    private static final int MAX_BITS = 10;
+
+    /**
+     * Per-leaf partition maps, created on demand.
+     */
+    private static final class Leaf<K, A> {
+        final Map<K, A>[] parts;
+        Leaf<K, A> next, tail = this;
+
+        @SuppressWarnings("unchecked")
+        Leaf(int count) {
+            parts = new Map[count];
+        }
+
+        Map<K, A> part(int part) {
+            Map<K, A> map = parts[part];
+            if (map == null)
+                map = parts[part] = new HashMap<>();
+            return map;
+        }
+
+        Leaf<K, A> append(Leaf<K, A> other) {
+            tail.next = other;
+            tail = other.tail;
+            return this;
+        }
+    }
+
+    /**
+     * Adds the value to the partition map.
+     */
+    abstract void accumulate(Map<K, A> map, K key, V value);
+
+    /**
+     * Adds the container of the later leaf to the partition map.
+     */
+    abstract void combine(Map<K, A> map, K key, A container);
+
+    /**
+     * Completes the combined partition map.
+     */
+    void finish(Map<K, A> map) {
+        // nothing by default
+    }
+
+    /**
+     * Assembles the result from the completed partition maps.
+     */
+    abstract R gather(List<Map<K, A>> maps);
+
+    final <T> R collect(Stream<T> stream, Function<? super T, ? extends K> keyMapper,
+            Function<? super T, ? extends V> valMapper) {
+        ForkJoinPool pool = ForkJoinTask.inForkJoinPool() ? ForkJoinTask.getPool() : ForkJoinPool.commonPool();
+        int bits = Math.min(MAX_BITS, 32 - Integer.numberOfLeadingZeros(pool.getParallelism() * 4 - 1));
+        int shift = 32 - bits;
+        Leaf<K, A> head = stream.collect(() -> new Leaf<>(1 << bits), (leaf, t) -> {
+            K key = keyMapper.apply(t);
+            // upper bits of the mixed hash: the partition maps use the lower
+            // bits, thus keys sharing the partition are not clustered there
+            int part = key == null ? 0 : (key.hashCode() * 0x9E3779B9) >>> shift;
+            accumulate(leaf.part(part), key, valMapper.apply(t));
+        }, Leaf::append);
+        return gather(IntStream.range(0, 1 << bits).parallel().mapToObj(part -> {
+            Map<K, A> result = null;
+            for (Leaf<K, A> leaf = head; leaf != null; leaf = leaf.next) {
+                Map<K, A> map = leaf.parts[part];
+                if (map == null)
+                    continue;
+                if (result == null) {
+                    result = map;
+                } else {
+                    for (Entry<K, A> entry : map.entrySet())
+                        combine(result, entry.getKey(), entry.getValue());
+                }
+            }
+            if (result == null)
+                return null;
+            finish(result);
+            return result;
+        }).filter(Objects::nonNull).collect(ArrayList::new, List::add, List::addAll));
+    }
+
+    private static <K, D> Map<K, D> toHashMap(List<Map<K, D>> maps) {
+        int size = 0;
+        for (Map<K, D> map : maps)
+            size += map.size();
+        Map<K, D> result = new HashMap<>((int) (size / 0.75f) + 1);
+        for (Map<K, D> map : maps)
+            result.putAll(map);
+        return result;
+    }
+
+    static <K, V, A, D> PartitionedGrouping<K, V, A, Map<K, D>> grouping(Collector<? super V, A, D> downstream) {
+        Supplier<A> supplier = downstream.supplier();
+        BiConsumer<A, ? super V> accumulator = downstream.accumulator();
+        BinaryOperator<A> combiner = downstream.combiner();
+        Function<A, D> finisher = downstream.finisher();
+        boolean identity = downstream.characteristics().contains(Characteristics.IDENTITY_FINISH);
+        Function<K, A> newContainer = k -> supplier.get();
+        return new PartitionedGrouping<K, V, A, Map<K, D>>() {
+            @Override
+            void accumulate(Map<K, A> map, K key, V value) {
+                accumulator.accept(map.computeIfAbsent(Objects.requireNonNull(key,
+                    "element cannot be mapped to a null key"), newContainer), value);
+            }
+
+            @Override
+            void combine(Map<K, A> map, K key, A container) {
+                map.merge(key, container, combiner);
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override
+            void finish(Map<K, A> map) {
+                if (!identity)
+                    ((Map<K, Object>) map).replaceAll((k, a) -> finisher.apply((A) a));
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override
+            Map<K, D> gather(List<Map<K, A>> maps) {
+                return toHashMap((List<Map<K, D>>) (List<?>) maps);
+            }
+        };
+    }
+
+    static <K, V> PartitionedGrouping<K, V, V, Map<K, V>> toMap(BinaryOperator<V> mergeFunction) {
+        return new PartitionedGrouping<K, V, V, Map<K, V>>() {
+            @Override
+            void accumulate(Map<K, V> map, K key, V value) {
+                map.merge(key, value, mergeFunction);
+            }
+
+            @Override
+            void combine(Map<K, V> map, K key, V container) {
+                map.merge(key, container, mergeFunction);
+            }
+
+            @Override
+            Map<K, V> gather(List<Map<K, V>> maps) {
+                return toHashMap(maps);
+            }
+        };
+    }
+
+    /**
+     * @return a grouping which produces a concurrent map filled by the
+     *         partitions in parallel. The map is presized, because the number
+     *         of keys is known in advance. Duplicate keys are not allowed.
+     */
+    static <K, V> PartitionedGrouping<K, V, V, Map<K, V>> toConcurrentMap() {
+        return new PartitionedGrouping<K, V, V, Map<K, V>>() {
+            @Override
+            void accumulate(Map<K, V> map, K key, V value) {
+                AbstractStreamEx.addToMap(map, key, Objects.requireNonNull(value));
+            }
+
+            @Override
+            void combine(Map<K, V> map, K key, V container) {
+                AbstractStreamEx.addToMap(map, key, container);
+            }
+
+            @Override
+            Map<K, V> gather(List<Map<K, V>> maps) {
+                int size = 0;
+                for (Map<K, V> map : maps)
+                    size += map.size();
+                Map<K, V> result = new ConcurrentHashMap<>(size);
+                maps.parallelStream().forEach(result::putAll);
+                return result;
+            }
+        };
+    }
+}
@@ -0,0 +1,439 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A spliterator which splits the input around the matches of the pattern
+ * exactly like {@link Pattern#splitAsStream(CharSequence)} does, but can be
+ * split for parallel processing if the maximal length of the pattern match is
+ * known.
+ *
+ * <p>
+ * To split, the matches are searched from the middle of the range. The match
+ * is used as the split point only if no match starting up to
+ * {@code maxLength} chars before it extends over its start (so the sequential
+ * search would find it as well) and the element following it is not empty (so
+ * the trailing empty elements of the prefix are never discarded).
+ *
+ * @author Tagir Valeev
+ */
+/* package */final class PatternSpliterator implements Spliterator<String> {
+    private static final int MAX_SPLIT_ATTEMPTS = 16;
+    private static final int MAX_LENGTH = 1 << 12;
+
+    private final CharSequence source;
+    private final Pattern pattern;
+    private final int maxLength;
+    private final boolean trimEmpty;
+    private final int fence;
+    private int pos;
+    private int nEmpty;
+    private String next;
+    private Matcher matcher;
+
+    PatternSpliterator(CharSequence source, Pattern pattern, int maxLength) {
+        this.source = source;
+        this.pattern = pattern;
+        this.maxLength = maxLength;
+        this.fence = source.length();
+        this.trimEmpty = true;
+    }
+
+    // Create prefix spliterator ending at given fence and update suffix fields
+    private PatternSpliterator(PatternSpliterator suffix, int fence, int suffixPos) {
+        this.source = suffix.source;
+        this.pattern = suffix.pattern;
+        this.maxLength = suffix.maxLength;
+        this.fence = fence;
+        this.trimEmpty = false;
+
+        this.pos = suffix.pos;
+        suffix.pos = suffixPos;
+        this.nEmpty = suffix.nEmpty;
+        suffix.nEmpty = 0;
+        this.next = suffix.next;
+        suffix.next = null;
+        this.matcher = suffix.matcher;
+        suffix.matcher = null;
+    }
+
+    private boolean hasNext() {
+        if (next != null)
+            return true;
+        if (pos > fence)
+            return false;
+        boolean found;
+        if (matcher == null) {
+            matcher = pattern.matcher(source);
+            found = matcher.find(pos);
+        } else {
+            found = matcher.find();
+        }
+        while (found && matcher.start() < fence) {
+            String str = source.subSequence(pos, matcher.start()).toString();
+            pos = matcher.end();
+            if (!str.isEmpty()) {
+                next = str;
+                return true;
+            }
+            // no empty leading substring for zero-width match at the beginning
+            if (pos > 0)
+                nEmpty++;
+            found = matcher.find();
+        }
+        String str = source.subSequence(pos, fence).toString();
+        pos = fence + 1;
+        if (trimEmpty && str.isEmpty()) {
+            nEmpty = 0; // discard empty strings at the end
+            return false;
+        }
+        next = str;
+        return true;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        if (nEmpty == 0 && !hasNext())
+            return false;
+        if (nEmpty > 0) {
+            nEmpty--;
+            action.accept("");
+        } else {
+            action.accept(next);
+            next = null;
+        }
+        return true;
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+        if (maxLength <= 0 || fence - pos < 2)
+            return null;
+        Matcher probe = pattern.matcher(source);
+        if (!probe.find((pos + fence) >>> 1))
+            return null;
+        int start = probe.start(), end = probe.end();
+        for (int attempt = 0; attempt < MAX_SPLIT_ATTEMPTS && start < fence; attempt++) {
+            boolean hasFollowing = probe.find();
+            int nextStart = hasFollowing ? probe.start() : fence;
+            int nextEnd = hasFollowing ? probe.end() : fence;
+            if (end > start && end < Math.min(nextStart, fence) && isSynchronized(start))
+                return new PatternSpliterator(this, start, end);
+            if (!hasFollowing)
+                return null;
+            start = nextStart;
+            end = nextEnd;
+        }
+        return null;
+    }
+
+    /**
+     * @param start the start of the candidate match
+     * @return true if no match started before the candidate can overlap it
+     */
+    private boolean isSynchronized(int start) {
+        Matcher m = pattern.matcher(source).useTransparentBounds(true).useAnchoringBounds(false);
+        for (int i = Math.max(pos, start - maxLength + 1); i < start; i++) {
+            if (m.region(i, source.length()).lookingAt() && m.end() > start)
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public long estimateSize() {
+        return pos > fence ? 0 : fence - pos;
+    }
+
+    @Override
+    public int characteristics() {
+        return NONNULL | ORDERED;
+    }
+
+    /**
+     * Returns the maximal length (in chars) of the match of given pattern if
+     * it can be determined, or -1 if the pattern match length is unbounded or
+     * cannot be determined (for example, it contains backreferences). The
+     * single char atoms like character classes are assumed to match up to two
+     * chars as they may match a supplementary code point.
+     *
+     * @param pattern pattern to analyze
+     * @return maximal match length or -1
+     */
+    static int maxLength(Pattern pattern) {
+        int flags = pattern.flags();
+        if ((flags & (Pattern.COMMENTS | Pattern.CANON_EQ)) != 0)
+            return -1;
+        String regex = pattern.pattern();
+        if ((flags & Pattern.LITERAL) != 0)
+            return regex.length() > MAX_LENGTH ? -1 : regex.length();
+        LengthParser parser = new LengthParser(regex);
+        int result = parser.alternation();
+        return parser.pos < regex.length() || result > MAX_LENGTH ? -1 : result;
+    }
+
+    /**
+     * Conservative recursive descent regex parser which computes the maximal
+     * match length. Anything not recognized is considered as unbounded.
+     */
+    private static final class LengthParser {
+        private static final int UNBOUNDED = Integer.MAX_VALUE;
+
+        private final String regex;
+        int pos;
+
+        LengthParser(String regex) {
+            this.regex = regex;
+        }
+
+        private static int add(int a, int b) {
+            return a == UNBOUNDED || b == UNBOUNDED || a + b > MAX_LENGTH ? UNBOUNDED : a + b;
+        }
+
+        private static int multiply(int a, int b) {
+            return b == 0 ? 0 : a == UNBOUNDED || b == UNBOUNDED || (long) a * b > MAX_LENGTH ? UNBOUNDED : a * b;
+        }
+
+        private boolean eat(char ch) {
+            if (pos < regex.length() && regex.charAt(pos) == ch) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private int number() {
+            int start = pos;
+            while (pos < regex.length() && Character.isDigit(regex.charAt(pos)))
+                pos++;
+            return pos == start || pos - start > 6 ? UNBOUNDED : Integer.parseInt(regex.substring(start, pos));
+        }
+
+        int alternation() {
+            int max = sequence();
+            while (eat('|')) {
+                max = Math.max(max, sequence());
+            }
+            return max;
+        }
+
+        private int sequence() {
+            int total = 0;
+            while (pos < regex.length() && regex.charAt(pos) != '|' && regex.charAt(pos) != ')') {
+                total = add(total, quantified(atom()));
+                if (total == UNBOUNDED) {
+                    pos = regex.length();
+                }
+            }
+            return total;
+        }
+
+        private int quantified(int atom) {
+            if (pos >= regex.length())
+                return atom;
+            int result;
+            switch (regex.charAt(pos)) {
+            case '?':
+                pos++;
+                result = atom;
+                break;
+            case '*':
+            case '+':
+                pos++;
+                result = atom == 0 ? 0 : UNBOUNDED;
+                break;
+            case '{':
+                pos++;
+                int min = number();
+                int max = eat(',') ? number() : min;
+                if (min == UNBOUNDED || !eat('}'))
+                    return UNBOUNDED;
+                result = multiply(atom, max);
+                break;
+            default:
+                return atom;
+            }
+            // lazy or possessive modifier
+            if (!eat('?'))
+                eat('+');
+            return result;
+        }
+
+        private int atom() {
+            char ch = regex.charAt(pos++);
+            switch (ch) {
+            case '(':
+                return group();
+            case '[':
+                return charClass() ? 2 : UNBOUNDED;
+            case '\\':
+                return escape();
+            case '.':
+                return 2;
+            case '^':
+            case '$':
+                return 0;
+            default:
+                if (Character.isHighSurrogate(ch) && pos < regex.length()
+                    && Character.isLowSurrogate(regex.charAt(pos))) {
+                    pos++;
+                    return 2;
+                }
+                return 1;
+            }
+        }
+
+        private int group() {
+            boolean lookaround = false;
+            if (eat('?')) {
+                if (eat('=') || eat('!')) {
+                    lookaround = true;
+                } else if (eat('<')) {
+                    if (eat('=') || eat('!')) {
+                        lookaround = true;
+                    } else {
+                        // named group
+                        while (pos < regex.length() && Character.isLetterOrDigit(regex.charAt(pos)))
+                            pos++;
+                        if (!eat('>'))
+                            return UNBOUNDED;
+                    }
+                } else if (!eat('>') && !eat(':')) {
+                    // inline flags: (?idmsuU-idmsuU) or (?idmsuU-idmsuU:X)
+                    while (pos < regex.length() && "idmsuU-".indexOf(regex.charAt(pos)) >= 0)
+                        pos++;
+                    if (eat(')'))
+                        return 0;
+                    if (!eat(':'))
+                        return UNBOUNDED;
+                }
+            }
+            int length = alternation();
+            if (!eat(')'))
+                return UNBOUNDED;
+            return lookaround ? 0 : length;
+        }
+
+        private boolean charClass() {
+            eat('^');
+            // the leading ']' is literal
+            eat(']');
+            while (pos < regex.length()) {
+                char ch = regex.charAt(pos++);
+                if (ch == '\\') {
+                    if (pos < regex.length() && regex.charAt(pos) == 'Q') {
+                        int end = regex.indexOf("\\E", pos);
+                        pos = end < 0 ? regex.length() : end + 2;
+                    } else {
+                        pos++;
+                    }
+                } else if (ch == '[') {
+                    if (!charClass())
+                        return false;
+                } else if (ch == ']') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int escape() {
+            if (pos >= regex.length())
+                return UNBOUNDED;
+            char ch = regex.charAt(pos++);
+            switch (ch) {
+            case 'Q': {
+                int end = regex.indexOf("\\E", pos);
+                int length = (end < 0 ? regex.length() : end) - pos;
+                pos = end < 0 ? regex.length() : end + 2;
+                return length;
+            }
+            case '0':
+                for (int i = 0; i < 3 && pos < regex.length() && regex.charAt(pos) >= '0'
+                    && regex.charAt(pos) <= '7'; i++)
+                    pos++;
+                return 1;
+            case 'x':
+                if (eat('{')) {
+                    int end = regex.indexOf('}', pos);
+                    if (end < 0)
+                        return UNBOUNDED;
+                    pos = end + 1;
+                } else {
+                    pos += 2;
+                }
+                return 2;
+            case 'u':
+                pos += 4;
+                return 1;
+            case 'c':
+                pos++;
+                return 1;
+            case 'p':
+            case 'P':
+                if (eat('{')) {
+                    int end = regex.indexOf('}', pos);
+                    if (end < 0)
+                        return UNBOUNDED;
+                    pos = end + 1;
+                } else {
+                    pos++;
+                }
+                return 2;
+            case 'b':
+            case 'B':
+            case 'A':
+            case 'z':
+            case 'Z':
+                return 0;
+            case 'd':
+            case 'D':
+            case 's':
+            case 'S':
+            case 'w':
+            case 'W':
+            case 'h':
+            case 'H':
+            case 'v':
+            case 'V':
+            case 'R':
+                return 2;
+            case 't':
+            case 'n':
+            case 'r':
+            case 'f':
+            case 'a':
+            case 'e':
+                return 1;
+            default:
+                // backreferences, \G, \X and unknown escapes are not supported
+                if (Character.isLetterOrDigit(ch))
+                    return UNBOUNDED;
+                if (Character.isHighSurrogate(ch) && pos < regex.length()
+                    && Character.isLowSurrogate(regex.charAt(pos))) {
+                    pos++;
+                    return 2;
+                }
+                return 1;
+            }
+        }
+    }
+}
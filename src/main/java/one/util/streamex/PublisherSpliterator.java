@@ -0,0 +1,140 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.util.Spliterators.AbstractSpliterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * A spliterator which subscribes to the publisher on the first traversal and
+ * pulls its elements keeping at most {@code bufferSize} of them requested but
+ * not consumed yet. When half of the buffer is consumed, it's requested again.
+ * It has no compile-time dependency on {@code java.util.concurrent.Flow}: the
+ * subscriber methods are called by the adapter created in
+ * {@link Java9Specific}.
+ *
+ * @author Tagir Valeev
+ *
+ * @param <T> type of the elements
+ */
+/* package */final class PublisherSpliterator<T> extends AbstractSpliterator<T> {
+    private static final Object END = new Object();
+
+    private final Consumer<PublisherSpliterator<T>> subscriber;
+    private final int bufferSize, limit;
+    // one extra slot is reserved for the end signal
+    private final BlockingQueue<Object> queue;
+    private volatile LongConsumer request;
+    private volatile Runnable cancel;
+    private volatile Throwable error;
+    private volatile boolean closed;
+    private boolean subscribed, done;
+    private int consumed;
+
+    /**
+     * @param subscriber action which subscribes the supplied spliterator to the
+     *        publisher
+     * @param bufferSize maximal number of elements requested in advance
+     */
+    PublisherSpliterator(Consumer<PublisherSpliterator<T>> subscriber, int bufferSize) {
+        super(Long.MAX_VALUE, ORDERED);
+        this.subscriber = subscriber;
+        this.bufferSize = bufferSize;
+        this.limit = bufferSize - (bufferSize >> 1);
+        this.queue = new ArrayBlockingQueue<>(bufferSize + 1);
+    }
+
+    void onSubscribe(LongConsumer request, Runnable cancel) {
+        if (this.cancel != null || closed) {
+            cancel.run();
+            return;
+        }
+        this.request = request;
+        this.cancel = cancel;
+        request.accept(bufferSize);
+    }
+
+    void onNext(T t) {
+        if (t == null) {
+            onError(new NullPointerException("Publisher emitted null"));
+        } else if (queue.remainingCapacity() <= 1) {
+            onError(new IllegalStateException("Publisher emitted more elements than requested"));
+        } else {
+            queue.offer(t);
+        }
+    }
+
+    void onError(Throwable t) {
+        if (error == null)
+            error = t;
+        Runnable c = cancel;
+        if (c != null)
+            c.run();
+        queue.offer(END);
+    }
+
+    void onComplete() {
+        queue.offer(END);
+    }
+
+    void close() {
+        closed = true;
+        Runnable c = cancel;
+        if (c != null)
+            c.run();
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (done)
+            return false;
+        if (!subscribed) {
+            subscribed = true;
+            subscriber.accept(this);
+        }
+        Object next;
+        try {
+            next = queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new CompletionException(e);
+        }
+        if (next == END) {
+            done = true;
+            Throwable t = error;
+            if (t == null)
+                return false;
+            if (t instanceof RuntimeException)
+                throw (RuntimeException) t;
+            if (t instanceof Error)
+                throw (Error) t;
+            throw new CompletionException(t);
+        }
+        if (++consumed == limit) {
+            consumed = 0;
+            request.accept(limit);
+        }
+        @SuppressWarnings("unchecked")
+        T t = (T) next;
+        action.accept(t);
+        return true;
+    }
+}
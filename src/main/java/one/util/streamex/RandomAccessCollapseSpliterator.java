@@ -0,0 +1,148 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.util.List;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+
+import static one.util.streamex.StreamExInternals.*;
+
+/**
+ * A collapsing spliterator for the random access sources. Unlike
+ * {@link CollapseSpliterator} it never needs to stitch the runs between the
+ * parts: the run boundaries are found by index and the source is split only
+ * at run boundaries, so every run is processed by single spliterator.
+ *
+ * @author Tagir Valeev
+ *
+ * @param <T> type of the source elements
+ * @param <R> type of the resulting elements
+ */
+/* package */final class RandomAccessCollapseSpliterator<T, R> extends
+        CloneableSpliterator<R, RandomAccessCollapseSpliterator<T, R>> {
+    private final List<T> list;
+    private final BiPredicate<? super T, ? super T> mergeable;
+    private final RunMapper<T, R> mapper;
+    private int cur;
+    private int limit;
+
+    /**
+     * A function which produces the resulting element from the run of the
+     * source list elements.
+     *
+     * @param <T> type of the list elements
+     * @param <R> type of the result
+     */
+    @FunctionalInterface
+    interface RunMapper<T, R> {
+        R apply(List<T> list, int fromInclusive, int toExclusive);
+    }
+
+    RandomAccessCollapseSpliterator(BiPredicate<? super T, ? super T> mergeable, RunMapper<T, R> mapper,
+            RandomAccessSpliterator<T> source) {
+        this.list = source.list();
+        this.mergeable = mergeable;
+        this.mapper = mapper;
+        this.cur = source.from();
+        this.limit = source.to();
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super R> action) {
+        int start = cur, l = limit;
+        if (start >= l)
+            return false;
+        List<T> list = this.list;
+        int end = start + 1;
+        T prev = list.get(start);
+        while (end < l) {
+            T next = list.get(end);
+            if (!mergeable.test(prev, next))
+                break;
+            prev = next;
+            end++;
+        }
+        cur = end;
+        action.accept(mapper.apply(list, start, end));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super R> action) {
+        int start = cur, l = limit;
+        if (start >= l)
+            return;
+        cur = l;
+        List<T> list = this.list;
+        T prev = list.get(start);
+        for (int i = start + 1; i < l; i++) {
+            T next = list.get(i);
+            if (!mergeable.test(prev, next)) {
+                action.accept(mapper.apply(list, start, i));
+                start = i;
+            }
+            prev = next;
+        }
+        action.accept(mapper.apply(list, start, l));
+    }
+
+    @Override
+    public RandomAccessCollapseSpliterator<T, R> trySplit() {
+        int c = cur, l = limit;
+        int mid = (c + l) >>> 1;
+        if (mid <= c)
+            return null;
+        List<T> list = this.list;
+        int split = mid;
+        T prev = list.get(mid - 1);
+        while (split < l) {
+            T next = list.get(split);
+            if (!mergeable.test(prev, next))
+                break;
+            prev = next;
+            split++;
+        }
+        if (split == l) {
+            // no run boundary after the middle: look before it
+            split = mid - 1;
+            T next = list.get(split);
+            while (split > c) {
+                prev = list.get(split - 1);
+                if (!mergeable.test(prev, next))
+                    break;
+                next = prev;
+                split--;
+            }
+            if (split == c)
+                return null;
+        }
+        RandomAccessCollapseSpliterator<T, R> prefix = doClone();
+        prefix.limit = split;
+        this.cur = split;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return limit - cur;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED;
+    }
+}
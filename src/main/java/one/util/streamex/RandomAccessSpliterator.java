@@ -0,0 +1,160 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A spliterator over the random access {@link List} or array which remembers
+ * its source, so some operations may access the elements by index instead of
+ * traversing the spliterator. Traversal and splitting is delegated to the
+ * source native spliterator which is created lazily, thus the behavior is the
+ * same as if the source spliterator was used directly. The index range is
+ * not updated by the traversal, so it can be used only while the spliterator
+ * is intact (see {@link #isIntact()}).
+ * 
+ * <p>
+ * As the elements are accessible by index, the source can also be traversed
+ * backwards without buffering.
+ *
+ * @author Tagir Valeev
+ *
+ * @param <T> type of the elements
+ */
+/* package */final class RandomAccessSpliterator<T> implements Spliterator<T> {
+    private final List<T> list;
+    private final int from;
+    private final int to;
+    private Spliterator<T> source;
+    private boolean used;
+
+    @SuppressWarnings("unchecked")
+    RandomAccessSpliterator(List<? extends T> list) {
+        this.list = (List<T>) list;
+        this.from = 0;
+        this.to = -1;
+    }
+
+    RandomAccessSpliterator(T[] array, int from, int to) {
+        this.list = Arrays.asList(array);
+        this.from = from;
+        this.to = to;
+        this.source = Arrays.spliterator(array, from, to);
+    }
+
+    /**
+     * @return the source list; only the elements between {@link #from()} and
+     *         {@link #to()} belong to this spliterator
+     */
+    List<T> list() {
+        return list;
+    }
+
+    int from() {
+        return from;
+    }
+
+    int to() {
+        return to == -1 ? list.size() : to;
+    }
+
+    /**
+     * @return true if this spliterator was neither traversed nor split, so
+     *         all the elements between {@link #from()} and {@link #to()}
+     *         still belong to it
+     */
+    boolean isIntact() {
+        return !used;
+    }
+
+    private Spliterator<T> source() {
+        if (source == null)
+            source = list.spliterator();
+        return source;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        used = true;
+        return source().tryAdvance(action);
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        used = true;
+        source().forEachRemaining(action);
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        Spliterator<T> prefix = source().trySplit();
+        if (prefix != null)
+            used = true;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return source().estimateSize();
+    }
+
+    @Override
+    public int characteristics() {
+        return source().characteristics();
+    }
+
+    @Override
+    public Comparator<? super T> getComparator() {
+        return source().getComparator();
+    }
+
+    /**
+     * A fixed-size reversed view of the list prefix. Only the first
+     * {@code size} elements of the backing list are visible.
+     *
+     * @param <T> type of the elements
+     */
+    static final class ReversedList<T> extends AbstractList<T> implements RandomAccess {
+        private final List<? extends T> list;
+        private final int size;
+
+        ReversedList(List<? extends T> list, int size) {
+            this.list = list;
+            this.size = size;
+        }
+
+        @Override
+        public T get(int index) {
+            return list.get(size - index - 1);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Spliterator<T> spliterator() {
+            return new RangeBasedSpliterator.OfList<>(this);
+        }
+    }
+}
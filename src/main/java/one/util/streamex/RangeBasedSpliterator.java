@@ -15,6 +15,8 @@
  */
 package one.util.streamex;
 
+import java.util.BitSet;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Spliterator;
@@ -92,6 +94,34 @@ import static one.util.streamex.StreamExInternals.*;
         }
     }
 
+    static final class OfList<T> extends RangeBasedSpliterator<T, OfList<T>> {
+        private final List<T> list;
+
+        public OfList(List<T> list) {
+            super(0, list.size());
+            this.list = list;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (cur < limit) {
+                action.accept(list.get(cur++));
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            int l = limit, c = cur;
+            List<T> list = this.list;
+            while (c < l) {
+                action.accept(list.get(c++));
+            }
+            cur = limit;
+        }
+    }
+
     static final class OfSubLists<T> extends RangeBasedSpliterator<List<T>, OfSubLists<T>> {
         private final List<T> source;
         private final int length;
@@ -254,6 +284,145 @@ import static one.util.streamex.StreamExInternals.*;
         }
     }
 
+    /**
+     * Traverses the chars of {@link CharSequence}. The {@code String},
+     * {@code StringBuilder} and array-backed {@code CharBuffer} are copied in
+     * bulk by chunks during the traversal.
+     */
+    static final class OfCharSequence extends RangeBasedSpliterator<Integer, OfCharSequence> implements
+            Spliterator.OfInt {
+        private final CharSequence seq;
+
+        public OfCharSequence(CharSequence seq) {
+            super(0, seq.length());
+            this.seq = seq;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (cur < limit) {
+                action.accept(seq.charAt(cur));
+                cur++;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            int l = limit, c = cur;
+            if (c >= l)
+                return;
+            char[] chunk = new char[Math.min(CHAR_CHUNK, l - c)];
+            while (c < l) {
+                int n = Math.min(chunk.length, l - c);
+                getChars(seq, c, c + n, chunk);
+                for (int i = 0; i < n; i++) {
+                    action.accept(chunk[i]);
+                }
+                c += n;
+            }
+            cur = limit;
+        }
+    }
+
+    /**
+     * Traverses the code points of {@link CharSequence}. The surrogate pairs
+     * are never separated by splitting.
+     */
+    static final class OfCodePoints extends RangeBasedSpliterator<Integer, OfCodePoints> implements
+            Spliterator.OfInt {
+        private final CharSequence seq;
+
+        public OfCodePoints(CharSequence seq) {
+            super(0, seq.length());
+            this.seq = seq;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (cur < limit) {
+                char ch = seq.charAt(cur++);
+                if (Character.isHighSurrogate(ch) && cur < limit) {
+                    char low = seq.charAt(cur);
+                    if (Character.isLowSurrogate(low)) {
+                        cur++;
+                        action.accept(Character.toCodePoint(ch, low));
+                        return true;
+                    }
+                }
+                action.accept(ch);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            int l = limit, c = cur;
+            if (c >= l)
+                return;
+            char[] chunk = new char[Math.min(CHAR_CHUNK, l - c)];
+            while (c < l) {
+                int n = Math.min(chunk.length, l - c);
+                getChars(seq, c, c + n, chunk);
+                int i = 0;
+                while (i < n) {
+                    char ch = chunk[i++];
+                    if (Character.isHighSurrogate(ch)) {
+                        // low surrogate may be the first char of the next chunk
+                        char low = i < n ? chunk[i] : c + i < l ? seq.charAt(c + i) : 0;
+                        if (Character.isLowSurrogate(low)) {
+                            i++;
+                            action.accept(Character.toCodePoint(ch, low));
+                            continue;
+                        }
+                    }
+                    action.accept(ch);
+                }
+                c += i;
+            }
+            cur = limit;
+        }
+
+        @Override
+        public OfCodePoints trySplit() {
+            int size = limit - cur;
+            if (size < 2)
+                return null;
+            int mid = cur + size / 2;
+            if (Character.isLowSurrogate(seq.charAt(mid)) && Character.isHighSurrogate(seq.charAt(mid - 1))) {
+                if (++mid == limit)
+                    return null;
+            }
+            OfCodePoints prefix = doClone();
+            prefix.limit = this.cur = mid;
+            return prefix;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED;
+        }
+    }
+
+    private static final int CHAR_CHUNK = 1 << 10;
+
+    private static void getChars(CharSequence seq, int from, int to, char[] dst) {
+        if (seq instanceof String) {
+            ((String) seq).getChars(from, to, dst, 0);
+        } else if (seq instanceof StringBuilder) {
+            ((StringBuilder) seq).getChars(from, to, dst, 0);
+        } else if (seq instanceof java.nio.CharBuffer && ((java.nio.CharBuffer) seq).hasArray()) {
+            java.nio.CharBuffer buf = (java.nio.CharBuffer) seq;
+            System.arraycopy(buf.array(), buf.arrayOffset() + buf.position() + from, dst, 0, to - from);
+        } else {
+            for (int i = from; i < to; i++) {
+                dst[i - from] = seq.charAt(i);
+            }
+        }
+    }
+
     static final class OfShort extends RangeBasedSpliterator<Integer, OfShort> implements Spliterator.OfInt {
         private final short[] array;
 
@@ -282,6 +451,63 @@ import static one.util.streamex.StreamExInternals.*;
         }
     }
 
+    /**
+     * Traverses the set bits of {@link BitSet} splitting by word boundaries.
+     */
+    static final class OfBitSet extends RangeBasedSpliterator<Integer, OfBitSet> implements Spliterator.OfInt {
+        private final BitSet bitSet;
+
+        public OfBitSet(BitSet bitSet) {
+            super(0, bitSet.length());
+            this.bitSet = bitSet;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (cur < limit) {
+                int next = bitSet.nextSetBit(cur);
+                if (next >= 0 && next < limit) {
+                    cur = next + 1;
+                    action.accept(next);
+                    return true;
+                }
+                cur = limit;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            int l = limit;
+            BitSet bs = bitSet;
+            for (int c = cur < l ? bs.nextSetBit(cur) : -1; c >= 0 && c < l; c = c + 1 < l ? bs.nextSetBit(c + 1)
+                    : -1) {
+                action.accept(c);
+            }
+            cur = limit;
+        }
+
+        @Override
+        public OfBitSet trySplit() {
+            int mid = ((cur + limit) >>> 1) & ~63;
+            if (mid <= cur)
+                return null;
+            OfBitSet prefix = doClone();
+            prefix.limit = this.cur = mid;
+            return prefix;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.SORTED;
+        }
+
+        @Override
+        public Comparator<? super Integer> getComparator() {
+            return null;
+        }
+    }
+
     static final class ZipLong extends RangeBasedSpliterator<Long, ZipLong> implements Spliterator.OfLong {
         private final LongBinaryOperator mapper;
         private final long[] arr1, arr2;
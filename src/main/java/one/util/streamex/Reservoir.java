@@ -0,0 +1,391 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A uniform random sample of at most {@code k} elements of the stream
+ * maintained by the reservoir Algorithm L. After the reservoir is filled, the
+ * random number of elements to skip before the next replacement is computed
+ * at once, so the random generator is used {@code O(k*log(n/k))} times for
+ * {@code n} elements.
+ *
+ * <p>
+ * Two partial reservoirs are merged using their counts: the number of
+ * elements to take from each reservoir is drawn from the hypergeometric
+ * distribution and the elements are chosen uniformly from each reservoir.
+ *
+ * @author Tagir Valeev
+ *
+ * @param <R> type of the concrete reservoir
+ */
+/* package */abstract class Reservoir<R extends Reservoir<R>> {
+    private static final int INITIAL_SIZE = 16;
+
+    final SplittableRandom random;
+    final int k;
+    long count;
+    // Algorithm L state: the current threshold and the index of the next
+    // element to put into the reservoir
+    private double w;
+    private long next;
+
+    Reservoir(SplittableRandom random, int k) {
+        this.random = random;
+        this.k = k;
+    }
+
+    /**
+     * @param seedSource the generator to split, possibly shared between
+     *        threads
+     * @return the new generator for the single reservoir
+     */
+    static SplittableRandom split(SplittableRandom seedSource) {
+        synchronized (seedSource) {
+            return seedSource.split();
+        }
+    }
+
+    /**
+     * @return the random number in the (0, 1] range
+     */
+    static double nextUnit(SplittableRandom random) {
+        return 1.0 - random.nextDouble();
+    }
+
+    private void skip(long from) {
+        double skip = Math.floor(Math.log(nextUnit(random)) / Math.log1p(-w));
+        if (!(skip >= 0))
+            skip = 0;
+        double n = from + skip;
+        next = n >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) n;
+    }
+
+    private void start() {
+        w = Math.exp(Math.log(nextUnit(random)) / k);
+        skip(count);
+    }
+
+    /**
+     * Counts the new element.
+     *
+     * @return the reservoir slot to store the new element in or -1 if the
+     *         element should be skipped
+     */
+    final int offer() {
+        long i = count++;
+        if (i < k) {
+            if (count == k)
+                start();
+            return (int) i;
+        }
+        if (i < next)
+            return -1;
+        int slot = random.nextInt(k);
+        w *= Math.exp(Math.log(nextUnit(random)) / k);
+        skip(count);
+        return slot;
+    }
+
+    static int grow(int k, int length) {
+        return (int) Math.min(k, Math.max(INITIAL_SIZE, length * 2L));
+    }
+
+    final int size() {
+        return (int) Math.min(k, count);
+    }
+
+    /**
+     * Returns the indices of the random subset of reservoir slots.
+     */
+    final int[] choose(int m) {
+        int size = size();
+        int[] idx = new int[size];
+        for (int i = 0; i < size; i++) {
+            idx[i] = i;
+        }
+        for (int i = 0; i < m; i++) {
+            int j = i + random.nextInt(size - i);
+            int tmp = idx[i];
+            idx[i] = idx[j];
+            idx[j] = tmp;
+        }
+        return Arrays.copyOf(idx, m);
+    }
+
+    /**
+     * Replaces the content of this reservoir with the elements at the given
+     * slots of this and the other reservoir.
+     */
+    abstract void gather(int[] slots, R other, int[] otherSlots);
+
+    final void merge(R other) {
+        if (other.count == 0)
+            return;
+        int total = (int) Math.min(k, count + other.count);
+        long a = count, b = other.count;
+        int fromThis = 0;
+        for (int i = 0; i < total; i++) {
+            if (random.nextLong(a + b) < a) {
+                fromThis++;
+                a--;
+            } else {
+                b--;
+            }
+        }
+        gather(choose(fromThis), other, other.choose(total - fromThis));
+        count += other.count;
+        // the exact threshold of the merged reservoir is unknown, so the fresh
+        // one is used should the accumulation continue
+        if (count >= k)
+            start();
+    }
+
+    static final class OfRef<T> extends Reservoir<OfRef<T>> {
+        private Object[] items;
+
+        OfRef(SplittableRandom random, int k) {
+            super(random, k);
+            this.items = new Object[Math.min(k, INITIAL_SIZE)];
+        }
+
+        void accept(T t) {
+            int slot = offer();
+            if (slot >= 0) {
+                if (slot == items.length)
+                    items = Arrays.copyOf(items, grow(k, items.length));
+                items[slot] = t;
+            }
+        }
+
+        @Override
+        void gather(int[] slots, OfRef<T> other, int[] otherSlots) {
+            Object[] result = new Object[slots.length + otherSlots.length];
+            int i = 0;
+            for (int slot : slots) {
+                result[i++] = items[slot];
+            }
+            for (int slot : otherSlots) {
+                result[i++] = other.items[slot];
+            }
+            items = result;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<T> toList() {
+            return new ArrayList<>((List<T>) Arrays.asList(items).subList(0, size()));
+        }
+    }
+
+    static final class Ints extends Reservoir<Ints> {
+        private int[] items;
+
+        Ints(SplittableRandom random, int k) {
+            super(random, k);
+            this.items = new int[Math.min(k, INITIAL_SIZE)];
+        }
+
+        void accept(int t) {
+            int slot = offer();
+            if (slot >= 0) {
+                if (slot == items.length)
+                    items = Arrays.copyOf(items, grow(k, items.length));
+                items[slot] = t;
+            }
+        }
+
+        @Override
+        void gather(int[] slots, Ints other, int[] otherSlots) {
+            int[] result = new int[slots.length + otherSlots.length];
+            int i = 0;
+            for (int slot : slots) {
+                result[i++] = items[slot];
+            }
+            for (int slot : otherSlots) {
+                result[i++] = other.items[slot];
+            }
+            items = result;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(items, size());
+        }
+    }
+
+    static final class Longs extends Reservoir<Longs> {
+        private long[] items;
+
+        Longs(SplittableRandom random, int k) {
+            super(random, k);
+            this.items = new long[Math.min(k, INITIAL_SIZE)];
+        }
+
+        void accept(long t) {
+            int slot = offer();
+            if (slot >= 0) {
+                if (slot == items.length)
+                    items = Arrays.copyOf(items, grow(k, items.length));
+                items[slot] = t;
+            }
+        }
+
+        @Override
+        void gather(int[] slots, Longs other, int[] otherSlots) {
+            long[] result = new long[slots.length + otherSlots.length];
+            int i = 0;
+            for (int slot : slots) {
+                result[i++] = items[slot];
+            }
+            for (int slot : otherSlots) {
+                result[i++] = other.items[slot];
+            }
+            items = result;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(items, size());
+        }
+    }
+
+    /**
+     * A weighted random sample without replacement maintained by the
+     * Algorithm A-ExpJ. Every element gets the random key {@code u^(1/w)} and
+     * the elements with the {@code k} largest keys are kept in the min-heap.
+     * The total weight to skip before the next replacement is computed at
+     * once. The keys are stored as logarithms to avoid underflow.
+     *
+     * <p>
+     * As the key depends only on the element itself, the partial samples are
+     * merged by keeping the {@code k} largest keys of both.
+     *
+     * @param <T> type of the elements
+     */
+    static final class Weighted<T> {
+        private final SplittableRandom random;
+        private final int k;
+        private final ToDoubleFunction<? super T> weightFunction;
+        private double[] keys;
+        private Object[] items;
+        private int size;
+        // the weight to skip before the next replacement
+        private double jump;
+
+        Weighted(SplittableRandom random, int k, ToDoubleFunction<? super T> weightFunction) {
+            this.random = random;
+            this.k = k;
+            this.weightFunction = weightFunction;
+            int capacity = Math.min(k, INITIAL_SIZE);
+            this.keys = new double[capacity];
+            this.items = new Object[capacity];
+        }
+
+        private void siftDown(int i) {
+            double key = keys[i];
+            Object item = items[i];
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && keys[child + 1] < keys[child])
+                    child++;
+                if (keys[child] >= key)
+                    break;
+                keys[i] = keys[child];
+                items[i] = items[child];
+                i = child;
+            }
+            keys[i] = key;
+            items[i] = item;
+        }
+
+        private void siftUp(int i) {
+            double key = keys[i];
+            Object item = items[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key)
+                    break;
+                keys[i] = keys[parent];
+                items[i] = items[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            items[i] = item;
+        }
+
+        private void add(double key, Object item) {
+            if (size == keys.length) {
+                int capacity = grow(k, keys.length);
+                keys = Arrays.copyOf(keys, capacity);
+                items = Arrays.copyOf(items, capacity);
+            }
+            keys[size] = key;
+            items[size] = item;
+            siftUp(size++);
+            if (size == k)
+                newJump();
+        }
+
+        private void replaceMin(double key, Object item) {
+            keys[0] = key;
+            items[0] = item;
+            siftDown(0);
+            newJump();
+        }
+
+        private void newJump() {
+            double logThreshold = keys[0];
+            jump = logThreshold == 0 ? Double.POSITIVE_INFINITY : Math.log(nextUnit(random)) / logThreshold;
+        }
+
+        void accept(T t) {
+            double weight = weightFunction.applyAsDouble(t);
+            if (!(weight >= 0) || weight == Double.POSITIVE_INFINITY)
+                throw new IllegalArgumentException("Invalid weight: " + weight);
+            if (weight == 0)
+                return;
+            if (size < k) {
+                add(Math.log(nextUnit(random)) / weight, t);
+                return;
+            }
+            jump -= weight;
+            if (jump > 0)
+                return;
+            // the new key is uniform in the range (threshold, 1]
+            double minKey = Math.exp(weight * keys[0]);
+            double u = minKey + (1 - minKey) * nextUnit(random);
+            replaceMin(Math.log(u) / weight, t);
+        }
+
+        void merge(Weighted<T> other) {
+            for (int i = 0; i < other.size; i++) {
+                if (size < k)
+                    add(other.keys[i], other.items[i]);
+                else if (other.keys[i] > keys[0])
+                    replaceMin(other.keys[i], other.items[i]);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        List<T> toList() {
+            return new ArrayList<>((List<T>) Arrays.asList(items).subList(0, size));
+        }
+    }
+}
@@ -0,0 +1,362 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongConsumer;
+
+import one.util.streamex.DoubleStreamEx.DoubleBiPredicate;
+import one.util.streamex.IntStreamEx.IntBiPredicate;
+import one.util.streamex.LongStreamEx.LongBiPredicate;
+
+import static one.util.streamex.StreamExInternals.*;
+
+/**
+ * A spliterator which groups the adjacent elements of primitive source into
+ * runs without boxing. Every produced run is maximal within the part of the
+ * source covered by this spliterator, but runs may be split at the source
+ * split points. Use {@link #collapse(RunSpliterator)} to stitch them back in
+ * parallel via {@link CollapseSpliterator}.
+ *
+ * @author Tagir Valeev
+ *
+ * @param <R> type of the run
+ * @param <S> type of the source spliterator
+ */
+/* package */abstract class RunSpliterator<R extends RunSpliterator.Run<R>, S extends Spliterator<?>> extends
+        CloneableSpliterator<R, RunSpliterator<R, S>> {
+    S source;
+    R run;
+    boolean hasPending;
+
+    RunSpliterator(S source) {
+        this.source = source;
+    }
+
+    interface Run<R> {
+        boolean connects(R right);
+
+        R merge(R right);
+    }
+
+    static <R extends Run<R>> Spliterator<R> collapse(RunSpliterator<R, ?> runs) {
+        return new CollapseSpliterator<R, R>(Run::connects, r -> r, Run::merge, Run::merge, runs);
+    }
+
+    @Override
+    public Spliterator<R> trySplit() {
+        if (hasPending)
+            return null;
+        @SuppressWarnings("unchecked")
+        S prefix = (S) source.trySplit();
+        if (prefix == null)
+            return null;
+        RunSpliterator<R, S> result = doClone();
+        result.source = prefix;
+        return result;
+    }
+
+    @Override
+    public long estimateSize() {
+        return source.estimateSize();
+    }
+
+    @Override
+    public int characteristics() {
+        return source.characteristics() & (ORDERED | IMMUTABLE | CONCURRENT);
+    }
+
+    final void flush(Consumer<? super R> action) {
+        R r = run;
+        if (r != null) {
+            run = null;
+            action.accept(r);
+        }
+    }
+
+    static final class IntRun implements Run<IntRun> {
+        final int first;
+        int last, acc;
+        long count = 1;
+        private final IntBiPredicate mergeable;
+        private final IntBinaryOperator merger;
+
+        IntRun(int first, IntBiPredicate mergeable, IntBinaryOperator merger) {
+            this.first = this.last = this.acc = first;
+            this.mergeable = mergeable;
+            this.merger = merger;
+        }
+
+        @Override
+        public boolean connects(IntRun right) {
+            return mergeable.test(last, right.first);
+        }
+
+        @Override
+        public IntRun merge(IntRun right) {
+            last = right.last;
+            count += right.count;
+            acc = merger.applyAsInt(acc, right.acc);
+            return this;
+        }
+    }
+
+    static final class LongRun implements Run<LongRun> {
+        final long first;
+        long last, acc;
+        long count = 1;
+        private final LongBiPredicate mergeable;
+        private final LongBinaryOperator merger;
+
+        LongRun(long first, LongBiPredicate mergeable, LongBinaryOperator merger) {
+            this.first = this.last = this.acc = first;
+            this.mergeable = mergeable;
+            this.merger = merger;
+        }
+
+        @Override
+        public boolean connects(LongRun right) {
+            return mergeable.test(last, right.first);
+        }
+
+        @Override
+        public LongRun merge(LongRun right) {
+            last = right.last;
+            count += right.count;
+            acc = merger.applyAsLong(acc, right.acc);
+            return this;
+        }
+    }
+
+    static final class DoubleRun implements Run<DoubleRun> {
+        final double first;
+        double last, acc;
+        long count = 1;
+        private final DoubleBiPredicate mergeable;
+        private final DoubleBinaryOperator merger;
+
+        DoubleRun(double first, DoubleBiPredicate mergeable, DoubleBinaryOperator merger) {
+            this.first = this.last = this.acc = first;
+            this.mergeable = mergeable;
+            this.merger = merger;
+        }
+
+        @Override
+        public boolean connects(DoubleRun right) {
+            return mergeable.test(last, right.first);
+        }
+
+        @Override
+        public DoubleRun merge(DoubleRun right) {
+            last = right.last;
+            count += right.count;
+            acc = merger.applyAsDouble(acc, right.acc);
+            return this;
+        }
+    }
+
+    static final class OfInt extends RunSpliterator<IntRun, Spliterator.OfInt> implements IntConsumer {
+        private final IntBiPredicate mergeable;
+        private final IntBinaryOperator merger;
+        private int cur;
+
+        OfInt(Spliterator.OfInt source, IntBiPredicate mergeable, IntBinaryOperator merger) {
+            super(source);
+            this.mergeable = mergeable;
+            this.merger = merger;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super IntRun> action) {
+            if (!hasPending) {
+                if (!source.tryAdvance(this))
+                    return false;
+                run = new IntRun(cur, mergeable, merger);
+            }
+            hasPending = false;
+            IntRun r = run;
+            while (source.tryAdvance(this)) {
+                int next = cur;
+                if (!mergeable.test(r.last, next)) {
+                    run = new IntRun(next, mergeable, merger);
+                    hasPending = true;
+                    action.accept(r);
+                    return true;
+                }
+                r.last = next;
+                r.count++;
+                r.acc = merger.applyAsInt(r.acc, next);
+            }
+            run = null;
+            action.accept(r);
+            return true;
+        }
+
+        @Override
+        public void accept(int t) {
+            cur = t;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super IntRun> action) {
+            hasPending = false;
+            source.forEachRemaining((int next) -> {
+                IntRun r = run;
+                if (r == null) {
+                    run = new IntRun(next, mergeable, merger);
+                } else if (mergeable.test(r.last, next)) {
+                    r.last = next;
+                    r.count++;
+                    r.acc = merger.applyAsInt(r.acc, next);
+                } else {
+                    run = new IntRun(next, mergeable, merger);
+                    action.accept(r);
+                }
+            });
+            flush(action);
+        }
+    }
+
+    static final class OfLong extends RunSpliterator<LongRun, Spliterator.OfLong> implements LongConsumer {
+        private final LongBiPredicate mergeable;
+        private final LongBinaryOperator merger;
+        private long cur;
+
+        OfLong(Spliterator.OfLong source, LongBiPredicate mergeable, LongBinaryOperator merger) {
+            super(source);
+            this.mergeable = mergeable;
+            this.merger = merger;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super LongRun> action) {
+            if (!hasPending) {
+                if (!source.tryAdvance(this))
+                    return false;
+                run = new LongRun(cur, mergeable, merger);
+            }
+            hasPending = false;
+            LongRun r = run;
+            while (source.tryAdvance(this)) {
+                long next = cur;
+                if (!mergeable.test(r.last, next)) {
+                    run = new LongRun(next, mergeable, merger);
+                    hasPending = true;
+                    action.accept(r);
+                    return true;
+                }
+                r.last = next;
+                r.count++;
+                r.acc = merger.applyAsLong(r.acc, next);
+            }
+            run = null;
+            action.accept(r);
+            return true;
+        }
+
+        @Override
+        public void accept(long t) {
+            cur = t;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super LongRun> action) {
+            hasPending = false;
+            source.forEachRemaining((long next) -> {
+                LongRun r = run;
+                if (r == null) {
+                    run = new LongRun(next, mergeable, merger);
+                } else if (mergeable.test(r.last, next)) {
+                    r.last = next;
+                    r.count++;
+                    r.acc = merger.applyAsLong(r.acc, next);
+                } else {
+                    run = new LongRun(next, mergeable, merger);
+                    action.accept(r);
+                }
+            });
+            flush(action);
+        }
+    }
+
+    static final class OfDouble extends RunSpliterator<DoubleRun, Spliterator.OfDouble> implements DoubleConsumer {
+        private final DoubleBiPredicate mergeable;
+        private final DoubleBinaryOperator merger;
+        private double cur;
+
+        OfDouble(Spliterator.OfDouble source, DoubleBiPredicate mergeable, DoubleBinaryOperator merger) {
+            super(source);
+            this.mergeable = mergeable;
+            this.merger = merger;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super DoubleRun> action) {
+            if (!hasPending) {
+                if (!source.tryAdvance(this))
+                    return false;
+                run = new DoubleRun(cur, mergeable, merger);
+            }
+            hasPending = false;
+            DoubleRun r = run;
+            while (source.tryAdvance(this)) {
+                double next = cur;
+                if (!mergeable.test(r.last, next)) {
+                    run = new DoubleRun(next, mergeable, merger);
+                    hasPending = true;
+                    action.accept(r);
+                    return true;
+                }
+                r.last = next;
+                r.count++;
+                r.acc = merger.applyAsDouble(r.acc, next);
+            }
+            run = null;
+            action.accept(r);
+            return true;
+        }
+
+        @Override
+        public void accept(double t) {
+            cur = t;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super DoubleRun> action) {
+            hasPending = false;
+            source.forEachRemaining((double next) -> {
+                DoubleRun r = run;
+                if (r == null) {
+                    run = new DoubleRun(next, mergeable, merger);
+                } else if (mergeable.test(r.last, next)) {
+                    r.last = next;
+                    r.count++;
+                    r.acc = merger.applyAsDouble(r.acc, next);
+                } else {
+                    run = new DoubleRun(next, mergeable, merger);
+                    action.accept(r);
+                }
+            });
+            flush(action);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.util.Spliterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static one.util.streamex.StreamExInternals.*;
+
+/**
+ * A subscription which feeds the subscriber with the spliterator elements on
+ * demand. It has no compile-time dependency on {@code java.util.concurrent.Flow}
+ * and is adapted to it in {@link Java9Specific}.
+ *
+ * <p>
+ * The signals are delivered from the tasks submitted to the executor. The
+ * tasks never run concurrently: the request or cancellation which arrives
+ * while the task is running is processed by the same task. Unbounded demand
+ * is served by a single {@code forEachRemaining} call.
+ *
+ * @author Tagir Valeev
+ *
+ * @param <T> type of the elements
+ */
+/* package */final class SpliteratorSubscription<T> implements Consumer<T> {
+    private final Spliterator<T> source;
+    private final Executor executor;
+    private final Runnable closer;
+    private final Consumer<? super T> onNext;
+    private final Consumer<? super Throwable> onError;
+    private final Runnable onComplete;
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile boolean cancelled;
+    private volatile Throwable invalidRequest;
+    // accessed from the drain task only
+    private boolean done, terminated;
+
+    SpliteratorSubscription(Spliterator<T> source, Executor executor, Runnable closer, Consumer<? super T> onNext,
+            Consumer<? super Throwable> onError, Runnable onComplete) {
+        this.source = source;
+        this.executor = executor;
+        this.closer = closer;
+        this.onNext = onNext;
+        this.onError = onError;
+        this.onComplete = onComplete;
+    }
+
+    void request(long n) {
+        if (n <= 0) {
+            invalidRequest = new IllegalArgumentException("Non-positive request: " + n);
+        } else {
+            long cur, next;
+            do {
+                cur = demand.get();
+                next = cur + n;
+                if (next < 0)
+                    next = Long.MAX_VALUE;
+            } while (cur != Long.MAX_VALUE && !demand.compareAndSet(cur, next));
+        }
+        schedule();
+    }
+
+    void cancel() {
+        cancelled = true;
+        schedule();
+    }
+
+    private void schedule() {
+        if (wip.getAndIncrement() == 0)
+            executor.execute(this::drain);
+    }
+
+    private void drain() {
+        int missed = 1;
+        do {
+            if (!done)
+                emit();
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void emit() {
+        try {
+            if (cancelled) {
+                done = true;
+                closer.run();
+                return;
+            }
+            Throwable error = invalidRequest;
+            if (error != null) {
+                done = true;
+                closer.run();
+                terminated = true;
+                onError.accept(error);
+                return;
+            }
+            long n = demand.get();
+            if (n == Long.MAX_VALUE) {
+                try {
+                    source.forEachRemaining(this);
+                } catch (CancelException ex) {
+                    done = true;
+                    closer.run();
+                    return;
+                }
+                complete();
+                return;
+            }
+            while (n > 0) {
+                long emitted = 0;
+                while (emitted < n) {
+                    if (cancelled) {
+                        done = true;
+                        closer.run();
+                        return;
+                    }
+                    if (!source.tryAdvance(onNext)) {
+                        complete();
+                        return;
+                    }
+                    emitted++;
+                }
+                n = demand.addAndGet(-emitted);
+            }
+        } catch (Throwable t) {
+            if (terminated) // thrown by the subscriber itself
+                throw t;
+            if (!done) {
+                done = true;
+                try {
+                    closer.run();
+                } catch (Throwable t2) {
+                    t.addSuppressed(t2);
+                }
+            }
+            terminated = true;
+            onError.accept(t);
+        }
+    }
+
+    private void complete() {
+        done = true;
+        closer.run();
+        terminated = true;
+        onComplete.run();
+    }
+
+    @Override
+    public void accept(T t) {
+        if (cancelled)
+            throw new CancelException();
+        onNext.accept(t);
+    }
+}
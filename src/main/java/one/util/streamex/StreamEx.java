@@ -18,6 +18,8 @@ package one.util.streamex;
 import one.util.streamex.PairSpliterator.PSOfRef;
 
 import java.io.BufferedReader;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.UncheckedIOException;
@@ -29,9 +31,10 @@ import java.nio.file.Path;
 import java.util.*;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
 import java.util.function.*;
 import java.util.regex.Pattern;
 import java.util.stream.BaseStream;
@@ -77,8 +80,23 @@ public class StreamEx<T> extends AbstractStreamEx<T, StreamEx<T>> {
 
     private <R> StreamEx<R> collapseInternal(BiPredicate<? super T, ? super T> collapsible, Function<T, R> mapper,
                                              BiFunction<R, T, R> accumulator, BinaryOperator<R> combiner) {
-        CollapseSpliterator<T, R> spliterator = new CollapseSpliterator<>(collapsible, mapper, accumulator, combiner,
-                spliterator());
+        return collapseInternal(collapsible, mapper, accumulator, combiner, (list, from, to) -> {
+            R acc = mapper.apply(list.get(from));
+            for (int i = from + 1; i < to; i++) {
+                acc = accumulator.apply(acc, list.get(i));
+            }
+            return acc;
+        });
+    }
+
+    private <R> StreamEx<R> collapseInternal(BiPredicate<? super T, ? super T> collapsible, Function<T, R> mapper,
+                                             BiFunction<R, T, R> accumulator, BinaryOperator<R> combiner,
+                                             RandomAccessCollapseSpliterator.RunMapper<T, R> runMapper) {
+        Spliterator<T> source = spliterator();
+        Spliterator<R> spliterator = source instanceof RandomAccessSpliterator
+                && ((RandomAccessSpliterator<T>) source).isIntact()
+                ? new RandomAccessCollapseSpliterator<>(collapsible, runMapper, (RandomAccessSpliterator<T>) source)
+                : new CollapseSpliterator<>(collapsible, mapper, accumulator, combiner, source);
         return new StreamEx<>(spliterator, context);
     }
 
@@ -533,6 +551,8 @@ public class StreamEx<T> extends AbstractStreamEx<T, StreamEx<T>> {
             Collector<? super T, ?, D> downstream) {
         if (isParallel() && downstream.characteristics().contains(Characteristics.UNORDERED))
             return rawCollect(Collectors.groupingByConcurrent(classifier, downstream));
+        if (isParallel())
+            return partitioned(classifier, Function.identity(), PartitionedGrouping.grouping(downstream));
         return rawCollect(Collectors.groupingBy(classifier, downstream));
     }
 
@@ -959,8 +979,9 @@ public class StreamEx<T> extends AbstractStreamEx<T, StreamEx<T>> {
      * @see #toMap(Function)
      */
     public <K, V> Map<K, V> toMap(Function<? super T, ? extends K> keyMapper, Function<? super T, ? extends V> valMapper) {
-        Map<K, V> map = isParallel() ? new ConcurrentHashMap<>() : new HashMap<>();
-        return toMapThrowing(keyMapper, valMapper, map);
+        if (isParallel())
+            return partitioned(keyMapper, valMapper, PartitionedGrouping.<K, V> toConcurrentMap());
+        return toMapThrowing(keyMapper, valMapper, new HashMap<>());
     }
 
     /**
@@ -999,6 +1020,8 @@ public class StreamEx<T> extends AbstractStreamEx<T, StreamEx<T>> {
      */
     public <K, V> Map<K, V> toMap(Function<? super T, ? extends K> keyMapper,
             Function<? super T, ? extends V> valMapper, BinaryOperator<V> mergeFunction) {
+        if (isParallel())
+            return partitioned(keyMapper, valMapper, PartitionedGrouping.<K, V> toMap(mergeFunction));
         return rawCollect(Collectors.toMap(keyMapper, valMapper, mergeFunction, HashMap::new));
     }
     
@@ -1514,6 +1537,263 @@ public class StreamEx<T> extends AbstractStreamEx<T, StreamEx<T>> {
         return new StreamEx<>(spliterator, context);
     }
 
+    /**
+     * Returns a stream consisting of the sliding windows of this stream
+     * elements. Every window is a list of {@code size} consecutive elements
+     * and the next window is shifted by {@code step} elements relative to the
+     * previous one. Only full windows are produced: if this stream has fewer
+     * than {@code size} elements, the resulting stream is empty.
+     *
+     * <p>
+     * The windows are immutable views of the internal buffer shared by the
+     * overlapping windows, so producing every window takes constant time
+     * regardless of its size. The windows remain valid after the stream is
+     * consumed.
+     *
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * operation. The parallel stream is split with overlapping boundaries, but
+     * if the step is greater than one, it's split only if the source is
+     * {@code SUBSIZED}.
+     *
+     * @param size the number of elements in every window (must be positive)
+     * @param step the number of elements the next window is shifted relative
+     *        to the previous one (must be positive)
+     * @return the new stream of windows
+     * @throws IllegalArgumentException if size or step is not positive
+     * @see #ofSubLists(List, int, int)
+     * @see #windowed(int)
+     * @since 0.6.7
+     */
+    public StreamEx<List<T>> windowed(int size, int step) {
+        checkPositive("size", size);
+        checkPositive("step", step);
+        return new StreamEx<>(new WindowSpliterator.OfRef<>(spliterator(), size, step), context);
+    }
+
+    /**
+     * Returns a stream consisting of the sliding windows of this stream
+     * elements, every window being shifted by one element relative to the
+     * previous one. The result is the same as {@code windowed(size, 1)}.
+     *
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * operation.
+     *
+     * @param size the number of elements in every window (must be positive)
+     * @return the new stream of windows
+     * @throws IllegalArgumentException if size is not positive
+     * @see #windowed(int, int)
+     * @since 0.6.7
+     */
+    public StreamEx<List<T>> windowed(int size) {
+        return windowed(size, 1);
+    }
+
+    /**
+     * Returns a stream consisting of the lists of the consecutive elements of
+     * this stream. Every list contains {@code size} elements, except possibly
+     * the last one which contains the remaining elements.
+     *
+     * <p>
+     * The lists are allocated with the exact size and are fixed-size: they
+     * support {@link List#set(int, Object)}, but cannot grow or shrink.
+     *
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * operation. If this stream is {@code SUBSIZED}, the parallel stream is
+     * split at the chunk boundaries without buffering. Otherwise the parallel
+     * processing of the chunks is possible, but the source elements are read
+     * sequentially in batches.
+     *
+     * @param size the number of elements in every chunk except possibly the
+     *        last one (must be positive)
+     * @return the new stream of chunks
+     * @throws IllegalArgumentException if size is not positive
+     * @see #ofSubLists(List, int)
+     * @since 0.6.7
+     */
+    public StreamEx<List<T>> chunked(int size) {
+        checkPositive("size", size);
+        return new StreamEx<>(new ChunkSpliterator.OfRef<>(spliterator(), size), context);
+    }
+
+    /**
+     * Returns a stream consisting of the results of the asynchronous
+     * computations started by applying the given function to the elements of
+     * this stream. At most {@code maxInFlight} computations are running at
+     * once. The results are emitted in the encounter order of the
+     * corresponding elements.
+     *
+     * <p>
+     * The pending computations form the bounded reorder buffer: when
+     * {@code maxInFlight} computations are started, no more elements are
+     * requested from this stream until the earliest computation is completed
+     * and its result is consumed.
+     *
+     * <p>
+     * If the computation completes exceptionally, the pending computations are
+     * cancelled and the exception is rethrown to the terminal operation (the
+     * {@link java.util.concurrent.CompletionException} is unwrapped if its
+     * cause is unchecked). The pending computations are also cancelled when
+     * the resulting stream is closed.
+     *
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * operation. The mapper function is called sequentially from the thread
+     * which requests the elements, so it should only start the computation,
+     * not perform it.
+     *
+     * @param <R> the type of the computation results
+     * @param mapper a non-interfering, stateless function which starts the
+     *        computation for the element and returns the future of its result
+     *        (must not return null)
+     * @param maxInFlight the maximal number of the computations running at
+     *        once (must be positive)
+     * @return the new stream
+     * @throws IllegalArgumentException if maxInFlight is not positive
+     * @see #mapAsyncUnordered(Function, int)
+     * @since 0.6.7
+     */
+    public <R> StreamEx<R> mapAsync(Function<? super T, ? extends CompletableFuture<? extends R>> mapper,
+            int maxInFlight) {
+        return mapAsync(mapper, maxInFlight, true);
+    }
+
+    /**
+     * Returns a stream consisting of the results of the asynchronous
+     * computations started by applying the given function to the elements of
+     * this stream. At most {@code maxInFlight} computations are running at
+     * once. The results are emitted in the order of the completion, so the
+     * slow computation does not delay the results of the other ones.
+     *
+     * <p>
+     * If the computation completes exceptionally, the pending computations are
+     * cancelled and the exception is rethrown to the terminal operation (the
+     * {@link java.util.concurrent.CompletionException} is unwrapped if its
+     * cause is unchecked). The pending computations are also cancelled when
+     * the resulting stream is closed.
+     *
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * operation. The resulting stream is unordered. The mapper function is
+     * called sequentially from the thread which requests the elements, so it
+     * should only start the computation, not perform it.
+     *
+     * @param <R> the type of the computation results
+     * @param mapper a non-interfering, stateless function which starts the
+     *        computation for the element and returns the future of its result
+     *        (must not return null)
+     * @param maxInFlight the maximal number of the computations running at
+     *        once (must be positive)
+     * @return the new stream
+     * @throws IllegalArgumentException if maxInFlight is not positive
+     * @see #mapAsync(Function, int)
+     * @since 0.6.7
+     */
+    public <R> StreamEx<R> mapAsyncUnordered(Function<? super T, ? extends CompletableFuture<? extends R>> mapper,
+            int maxInFlight) {
+        return mapAsync(mapper, maxInFlight, false);
+    }
+
+    private <R> StreamEx<R> mapAsync(Function<? super T, ? extends CompletableFuture<? extends R>> mapper,
+            int maxInFlight, boolean ordered) {
+        Objects.requireNonNull(mapper);
+        checkPositive("maxInFlight", maxInFlight);
+        AsyncMapSpliterator<T, R> spliterator = new AsyncMapSpliterator<>(spliterator(), mapper, maxInFlight,
+                ordered);
+        return new StreamEx<>(spliterator, context.onClose(spliterator::cancel));
+    }
+
+    /**
+     * Returns a stream consisting of the elements of this stream, sorted
+     * according to the provided {@code Comparator} using the temporary file
+     * to store the intermediate results.
+     *
+     * <p>
+     * The elements of this stream are cut into the runs of at most
+     * {@code maxInMemory} elements. Every run is sorted in parallel and
+     * appended to the single temporary file in the {@code tempDir} directory
+     * using the supplied codec, except the last run which is kept in memory.
+     * Then the runs are merged lazily reading every run from its own position
+     * of the file, so the memory consumption is proportional to
+     * {@code maxInMemory} plus the number of runs. The sort is stable.
+     *
+     * <p>
+     * The temporary file is deleted when all the elements are consumed or
+     * when the resulting stream is closed, so it's recommended to use this
+     * method within try-with-resources block when the stream may be partially
+     * consumed.
+     *
+     * <p>
+     * This is a <a href="package-summary.html#StreamOps">quasi-intermediate</a>
+     * operation. This stream is fully consumed when the first element of the
+     * resulting stream is requested. The resulting stream is sequential in
+     * nature: the merge cannot be split for parallel processing.
+     *
+     * @param comparator a non-interfering, stateless {@code Comparator} to be
+     *        used to compare stream elements
+     * @param codec the codec to write the elements to the temporary file and
+     *        read them back
+     * @param maxInMemory the maximal number of elements sorted in memory at
+     *        once (must be positive)
+     * @param tempDir the directory to create the temporary file in
+     * @return the new stream
+     * @throws IllegalArgumentException if maxInMemory is not positive
+     * @throws UncheckedIOException if an I/O error occurs when the resulting
+     *         stream is traversed
+     * @see #sorted(Comparator)
+     * @since 0.6.7
+     */
+    public StreamEx<T> externalSorted(Comparator<? super T> comparator, RecordCodec<T> codec, int maxInMemory,
+            Path tempDir) {
+        Objects.requireNonNull(comparator);
+        Objects.requireNonNull(codec);
+        Objects.requireNonNull(tempDir);
+        checkPositive("maxInMemory", maxInMemory);
+        ExternalSortSpliterator.OfRef<T> spliterator = new ExternalSortSpliterator.OfRef<>(spliterator(),
+                comparator, codec, maxInMemory, tempDir);
+        return new StreamEx<>(spliterator, context.onClose(spliterator::close));
+    }
+
+    /**
+     * Returns a {@code java.util.concurrent.Flow.Publisher} which emits the
+     * elements of this stream to its single subscriber.
+     *
+     * <p>
+     * The elements are pulled from this stream only when they are requested by
+     * the subscriber, so the backpressure is respected. The signals are
+     * delivered from the tasks submitted to the supplied executor; no more than
+     * one task is running at a time and it emits as many elements as requested.
+     * The unbounded demand ({@code Long.MAX_VALUE}) is served in a single bulk
+     * traversal. This stream is closed when the subscription is completed,
+     * failed or cancelled.
+     *
+     * <p>
+     * As the library is compiled for Java 8, the result is declared as
+     * {@code Object}, so it should be cast to the publisher type:
+     *
+     * <pre>{@code
+     * Flow.Publisher<String> publisher = (Flow.Publisher<String>) stream.toPublisher(executor);
+     * }</pre>
+     *
+     * <p>
+     * This is a terminal operation. Only one subscriber is allowed: the
+     * subsequent subscribers receive the {@code IllegalStateException} via
+     * {@code onError}.
+     *
+     * @param executor the executor to deliver the signals
+     * @return the new {@code java.util.concurrent.Flow.Publisher}
+     * @throws UnsupportedOperationException if the current Java version is
+     *         earlier than 9
+     * @see #ofPublisher(Object, int)
+     * @since 0.6.7
+     */
+    public Object toPublisher(Executor executor) {
+        Objects.requireNonNull(executor);
+        return VER_SPEC.toPublisher(spliterator(), executor, this::close);
+    }
+
     /**
      * Performs an action for each adjacent pair of elements of this stream.
      *
@@ -1665,7 +1945,7 @@ public class StreamEx<T> extends AbstractStreamEx<T, StreamEx<T>> {
         }, (e1, e2) -> {
             e1.b += e2.b;
             return e1;
-        }), context);
+        }, (list, from, to) -> new ObjLongBox<>(list.get(from), to - from)), context);
     }
 
     /**
@@ -1678,7 +1958,11 @@ public class StreamEx<T> extends AbstractStreamEx<T, StreamEx<T>> {
      * 
      * <p>
      * There are no guarantees on the type, mutability, serializability, or
-     * thread-safety of the {@code List} objects of the resulting stream.
+     * thread-safety of the {@code List} objects of the resulting stream. If
+     * this stream was created directly from an array or a random access
+     * {@code List}, the resulting lists are {@link List#subList(int, int)}
+     * views of the source, so the source must not be structurally modified
+     * while they are in use.
      * 
      * <p>
      * This operation is equivalent to
@@ -1707,7 +1991,7 @@ public class StreamEx<T> extends AbstractStreamEx<T, StreamEx<T>> {
             }
             acc1.addAll(acc2);
             return acc1;
-        });
+        }, List::subList);
     }
 
     /**
@@ -1746,7 +2030,8 @@ public class StreamEx<T> extends AbstractStreamEx<T, StreamEx<T>> {
         }, (left, right) -> {
             left.b = right.b;
             return left;
-        }).map(pair -> mapper.apply(pair.a, pair.b));
+        }, (list, from, to) -> new PairBox<>(list.get(from), list.get(to - 1))).map(pair -> mapper.apply(pair.a,
+            pair.b));
     }
 
     /**
@@ -1990,7 +2275,11 @@ public class StreamEx<T> extends AbstractStreamEx<T, StreamEx<T>> {
      * same semantics could be expressed using other operations like
      * {@link #withFirst(BiFunction)} or {@link #mapFirst(Function)} which
      * parallelize better. Consider using these methods if its possible in your
-     * case.
+     * case. If the mapper result is not tail-stream optimized (for example,
+     * {@code tail.parallel().map(...)}), the resulting parallel stream is
+     * split natively after the head is consumed. Note that to split the
+     * intermediate operations performed on the tail you should explicitly
+     * make the tail parallel as it's sequential by default.
      *
      * @param <R> The element type of the new stream
      * @param mapper a <a
@@ -2047,7 +2336,11 @@ public class StreamEx<T> extends AbstractStreamEx<T, StreamEx<T>> {
      * same semantics could be expressed using other operations like
      * {@link #withFirst(BiFunction)} or {@link #mapFirst(Function)} which
      * parallelize better. Consider using these methods if its possible in your
-     * case.
+     * case. If the mapper result is not tail-stream optimized (for example,
+     * {@code tail.parallel().map(...)}), the resulting parallel stream is
+     * split natively after the head is consumed. Note that to split the
+     * intermediate operations performed on the tail you should explicitly
+     * make the tail parallel as it's sequential by default.
      *
      * @param <R> The element type of the new stream
      * @param mapper a <a
@@ -2102,7 +2395,7 @@ public class StreamEx<T> extends AbstractStreamEx<T, StreamEx<T>> {
      */
     @SafeVarargs
     public static <T> StreamEx<T> of(T... elements) {
-        return of(Arrays.spliterator(elements));
+        return of(new RandomAccessSpliterator<>(elements, 0, elements.length));
     }
 
     /**
@@ -2122,7 +2415,7 @@ public class StreamEx<T> extends AbstractStreamEx<T, StreamEx<T>> {
      * @see Arrays#stream(Object[], int, int)
      */
     public static <T> StreamEx<T> of(T[] array, int startInclusive, int endExclusive) {
-        return of(Arrays.spliterator(array, startInclusive, endExclusive));
+        return of(new RandomAccessSpliterator<>(array, startInclusive, endExclusive));
     }
 
     /**
@@ -2136,6 +2429,8 @@ public class StreamEx<T> extends AbstractStreamEx<T, StreamEx<T>> {
      * @see Collection#stream()
      */
     public static <T> StreamEx<T> of(Collection<? extends T> collection) {
+        if (collection instanceof List && collection instanceof RandomAccess)
+            return of(new RandomAccessSpliterator<T>((List<? extends T>) collection));
         return of(collection.spliterator());
     }
 
@@ -2153,8 +2448,7 @@ public class StreamEx<T> extends AbstractStreamEx<T, StreamEx<T>> {
      * @return the new stream
      */
     public static <T> StreamEx<T> ofReversed(List<? extends T> list) {
-        int size = list.size();
-        return IntStreamEx.ofIndices(list).mapToObj(idx -> list.get(size - idx - 1));
+        return of(new RandomAccessSpliterator<T>(new RandomAccessSpliterator.ReversedList<>(list, list.size())));
     }
 
     /**
@@ -2166,8 +2460,8 @@ public class StreamEx<T> extends AbstractStreamEx<T, StreamEx<T>> {
      * @return the new stream
      */
     public static <T> StreamEx<T> ofReversed(T[] array) {
-        int size = array.length;
-        return IntStreamEx.ofIndices(array).mapToObj(idx -> array[size - idx - 1]);
+        return of(new RandomAccessSpliterator<T>(new RandomAccessSpliterator.ReversedList<>(Arrays.asList(array),
+                array.length)));
     }
     
     /**
@@ -2255,6 +2549,44 @@ public class StreamEx<T> extends AbstractStreamEx<T, StreamEx<T>> {
         });
     }
 
+    /**
+     * Returns a sequential {@code StreamEx} containing the elements emitted by
+     * given {@code java.util.concurrent.Flow.Publisher}.
+     *
+     * <p>
+     * The stream subscribes to the publisher when the terminal operation
+     * starts and keeps at most {@code bufferSize} elements requested, but not
+     * consumed yet: when half of them is consumed, more elements are
+     * requested. The terminal operation blocks while waiting for the
+     * elements. If the publisher signals an error, it's rethrown from the
+     * terminal operation (the checked exception is wrapped into
+     * {@link java.util.concurrent.CompletionException}). Closing the stream
+     * cancels the subscription.
+     *
+     * <p>
+     * As the library is compiled for Java 8, the publisher is declared as
+     * {@code Object}.
+     *
+     * @param <T> the type of stream elements
+     * @param publisher the {@code java.util.concurrent.Flow.Publisher} to
+     *        subscribe to
+     * @param bufferSize the maximal number of elements requested in advance
+     *        (must be positive)
+     * @return the new stream
+     * @throws IllegalArgumentException if bufferSize is not positive or the
+     *         publisher is not a {@code java.util.concurrent.Flow.Publisher}
+     * @throws UnsupportedOperationException if the current Java version is
+     *         earlier than 9
+     * @see #toPublisher(Executor)
+     * @since 0.6.7
+     */
+    public static <T> StreamEx<T> ofPublisher(Object publisher, int bufferSize) {
+        Objects.requireNonNull(publisher);
+        checkPositive("bufferSize", bufferSize);
+        PublisherSpliterator<T> spliterator = VER_SPEC.ofPublisher(publisher, bufferSize);
+        return new StreamEx<>(spliterator, StreamContext.SEQUENTIAL.onClose(spliterator::close));
+    }
+
     /**
      * Returns a sequential {@code StreamEx} containing an {@link Optional}
      * value, if present, otherwise returns an empty {@code StreamEx}.
@@ -2554,6 +2886,12 @@ public class StreamEx<T> extends AbstractStreamEx<T, StreamEx<T>> {
      * creation until the execution of the terminal stream operation. Otherwise,
      * the result of the terminal stream operation is undefined.
      *
+     * <p>
+     * Unlike {@link Pattern#splitAsStream(CharSequence)} the resulting stream
+     * can be efficiently processed in parallel if the maximal length of the
+     * pattern match is bounded (for example, the pattern contains no
+     * {@code *}, {@code +} or {@code {n,}} quantifiers and no backreferences).
+     *
      * @param str The character sequence to be split
      * @param pattern The pattern to use for splitting
      *
@@ -2564,7 +2902,15 @@ public class StreamEx<T> extends AbstractStreamEx<T, StreamEx<T>> {
     public static StreamEx<String> split(CharSequence str, Pattern pattern) {
         if (str.length() == 0)
             return of("");
-        return of(UnknownSizeSpliterator.optimize(pattern.splitAsStream(str)));
+        int flags = pattern.flags();
+        String regex = pattern.pattern();
+        if (flags == Pattern.LITERAL && regex.length() == 1 || flags == 0 && literalChar(regex) >= 0) {
+            return split(str, flags == 0 ? (char) literalChar(regex) : regex.charAt(0));
+        }
+        int maxLength = PatternSpliterator.maxLength(pattern);
+        if (maxLength <= 0)
+            return of(UnknownSizeSpliterator.optimize(pattern.splitAsStream(str)));
+        return of(new PatternSpliterator(str, pattern, maxLength));
     }
 
     /**
@@ -2589,17 +2935,32 @@ public class StreamEx<T> extends AbstractStreamEx<T, StreamEx<T>> {
         if (regex.isEmpty()) {
             return IntStreamEx.ofChars(str).mapToObj(ch -> new String(new char[] { (char) ch }));
         }
+        int ch = literalChar(regex);
+        if (ch >= 0) {
+            return split(str, (char) ch);
+        }
+        return split(str, Pattern.compile(regex));
+    }
+
+    /**
+     * @param regex regular expression
+     * @return the char if the regular expression matches only this single
+     *         char, or -1 otherwise
+     */
+    private static int literalChar(String regex) {
+        if (regex.isEmpty())
+            return -1;
         char ch = regex.charAt(0);
         if (regex.length() == 1 && ".$|()[{^?*+\\".indexOf(ch) == -1) {
-            return split(str, ch);
+            return ch;
         } else if (regex.length() == 2 && ch == '\\') {
             ch = regex.charAt(1);
             if ((ch < '0' || ch > '9') && (ch < 'A' || ch > 'Z') && (ch < 'a' || ch > 'z')
                 && (ch < Character.MIN_HIGH_SURROGATE || ch > Character.MAX_LOW_SURROGATE)) {
-                return split(str, ch);
+                return ch;
             }
         }
-        return of(UnknownSizeSpliterator.optimize(Pattern.compile(regex).splitAsStream(str)));
+        return -1;
     }
 
     /**
@@ -2658,6 +3019,135 @@ public class StreamEx<T> extends AbstractStreamEx<T, StreamEx<T>> {
         return of(new CharSpliterator(str, delimiter, trimEmpty));
     }
 
+    /**
+     * Returns a lazily concatenated stream whose elements are all the elements
+     * of the supplied streams in their order. The resulting stream is ordered
+     * if all of the input streams are ordered, and parallel if any of the
+     * input streams is parallel. When the resulting stream is closed, the close
+     * handlers for all input streams are invoked.
+     *
+     * <p>
+     * Unlike the chain of {@link Stream#concat(Stream, Stream)} calls, the
+     * streams are concatenated by single node which splits them for parallel
+     * processing by the boundary closest to the middle of the total size, so
+     * concatenating thousands of streams creates neither deep call stacks nor
+     * degenerate parallel splits.
+     *
+     * @param <T> the type of stream elements
+     * @param streams the streams to concatenate
+     * @return the concatenated stream
+     * @see #concat(Collection)
+     * @see #append(Stream)
+     * @since 0.6.7
+     */
+    @SafeVarargs
+    public static <T> StreamEx<T> concat(Stream<? extends T>... streams) {
+        return concat(Arrays.asList(streams));
+    }
+
+    /**
+     * Returns a lazily concatenated stream whose elements are all the elements
+     * of the streams from the supplied collection in the collection iteration
+     * order. The resulting stream is ordered if all of the input streams are
+     * ordered, and parallel if any of the input streams is parallel. When the
+     * resulting stream is closed, the close handlers for all input streams are
+     * invoked.
+     *
+     * <p>
+     * Unlike the chain of {@link Stream#concat(Stream, Stream)} calls, the
+     * streams are concatenated by single node which splits them for parallel
+     * processing by the boundary closest to the middle of the total size, so
+     * concatenating thousands of streams creates neither deep call stacks nor
+     * degenerate parallel splits.
+     *
+     * @param <T> the type of stream elements
+     * @param streams the collection of streams to concatenate
+     * @return the concatenated stream
+     * @see #concat(Stream...)
+     * @since 0.6.7
+     */
+    public static <T> StreamEx<T> concat(Collection<? extends Stream<? extends T>> streams) {
+        Spliterator<?>[] parts = new Spliterator<?>[streams.size()];
+        StreamContext context = StreamContext.SEQUENTIAL;
+        int i = 0;
+        for (Stream<? extends T> stream : streams) {
+            parts[i++] = stream.spliterator();
+            context = context.combine(stream);
+        }
+        return new StreamEx<>(new ConcatSpliterator.OfRef<T>(parts), context);
+    }
+
+    /**
+     * Returns a stream which merges the supplied sorted streams into the single
+     * sorted stream. Every input stream must be sorted according to the
+     * supplied comparator, otherwise the result is unspecified. The merge is
+     * stable: the equal elements from different streams appear in the order of
+     * the streams. The resulting stream is parallel if any of the input streams
+     * is parallel. When the resulting stream is closed, the close handlers for
+     * all input streams are invoked.
+     *
+     * <p>
+     * Unlike the concatenation followed by {@link #sorted(Comparator)}, the
+     * input streams are not buffered: they are pulled lazily keeping only one
+     * element per stream in memory. The next element is selected using the
+     * binary heap, so every element costs {@code O(log(N))} comparisons where
+     * {@code N} is the number of streams.
+     *
+     * <p>
+     * If all the input streams are created directly from arrays or random
+     * access lists, the parallel stream is split by the key range: the pivot
+     * is sampled from the middle elements of the inputs and every input is
+     * cut at the pivot using the binary search. Otherwise the parallel stream
+     * is split by batches of the merged elements.
+     *
+     * @param <T> the type of stream elements
+     * @param comparator the comparator the input streams are sorted by
+     * @param streams the sorted streams to merge
+     * @return the merged stream
+     * @see #mergeSorted(Comparator, Collection)
+     * @since 0.6.7
+     */
+    @SafeVarargs
+    public static <T> StreamEx<T> mergeSorted(Comparator<? super T> comparator, Stream<? extends T>... streams) {
+        return mergeSorted(comparator, Arrays.asList(streams));
+    }
+
+    /**
+     * Returns a stream which merges the sorted streams from the supplied
+     * collection into the single sorted stream. Every input stream must be
+     * sorted according to the supplied comparator, otherwise the result is
+     * unspecified. The merge is stable: the equal elements from different
+     * streams appear in the collection iteration order. The resulting stream
+     * is parallel if any of the input streams is parallel. When the resulting
+     * stream is closed, the close handlers for all input streams are invoked.
+     *
+     * <p>
+     * The input streams are pulled lazily keeping only one element per stream
+     * in memory. If all the input streams are created directly from arrays or
+     * random access lists, the parallel stream is split by the key range
+     * sampled from the inputs.
+     *
+     * @param <T> the type of stream elements
+     * @param comparator the comparator the input streams are sorted by
+     * @param streams the collection of sorted streams to merge
+     * @return the merged stream
+     * @see #mergeSorted(Comparator, Stream...)
+     * @since 0.6.7
+     */
+    public static <T> StreamEx<T> mergeSorted(Comparator<? super T> comparator,
+            Collection<? extends Stream<? extends T>> streams) {
+        Objects.requireNonNull(comparator);
+        @SuppressWarnings("unchecked")
+        Spliterator<? extends T>[] parts = new Spliterator[streams.size()];
+        StreamContext context = StreamContext.SEQUENTIAL;
+        int i = 0;
+        for (Stream<? extends T> stream : streams) {
+            parts[i++] = stream.spliterator();
+            context = context.combine(stream);
+        }
+        return new StreamEx<>(MergeSortedSpliterator.of(parts, comparator), context);
+    }
+
     /**
      * Returns an infinite sequential ordered {@code StreamEx} produced by
      * iterative application of a function {@code f} to an initial element
@@ -3298,4 +3788,182 @@ public class StreamEx<T> extends AbstractStreamEx<T, StreamEx<T>> {
             return of(spliterator());
         }
     }
+
+    /**
+     * A helper interface to build a new stream by emitting elements from the
+     * mutable state. Unlike {@link Emitter} which creates a new emitter for every
+     * step, the same object is advanced repeatedly keeping the state in its
+     * fields.
+     * 
+     * <p>
+     * This emitter is advanced until it's exhausted, so no per-element
+     * allocation is necessary. For example, the Collatz sequence can be
+     * generated in the following way:
+     * 
+     * <pre>{@code
+     * public static StatefulEmitter<Integer> collatz(int start) {
+     *    return new StatefulEmitter<Integer>() {
+     *       int cur = start;
+     *
+     *       public boolean advance(Consumer<? super Integer> action) {
+     *          if (cur == 0)
+     *             return false;
+     *          action.accept(cur);
+     *          cur = cur == 1 ? 0 : cur % 2 == 0 ? cur / 2 : cur * 3 + 1;
+     *          return true;
+     *       }
+     *    };
+     * }}</pre>
+     * 
+     * <p>
+     * The stream created from this emitter is traversed via
+     * {@code forEachRemaining} without intermediate buffering. The emitter
+     * which maintains the pending work (like the stack of nodes not visited yet
+     * when traversing a tree) may override the {@link #trySplit()} method to
+     * hand off part of this work, so the stream can be processed in parallel.
+     * 
+     * @author Tagir Valeev
+     *
+     * @param <T> the type of the elements this emitter emits
+     * @since 0.6.7
+     */
+    public interface StatefulEmitter<T> {
+        /**
+         * Calls the supplied consumer zero or more times to emit some elements
+         * if this emitter is not exhausted.
+         * 
+         * <p>
+         * Normally one element is emitted during the {@code advance()} call.
+         * However, it's not restricted: you may emit as many elements as you
+         * want, though in some cases if many elements were emitted they might
+         * be buffered consuming additional memory.
+         * 
+         * @param action consumer to be called to emit elements
+         * @return false if this emitter is exhausted (in this case no elements
+         *         must be emitted), true otherwise
+         */
+        boolean advance(Consumer<? super T> action);
+
+        /**
+         * Removes some of the pending elements from this emitter and returns
+         * them as a new emitter. The new emitter must emit only the elements
+         * which would be emitted by this emitter after all the elements which
+         * remain in this emitter.
+         * 
+         * <p>
+         * The default implementation returns null, so the stream is split by
+         * buffering the emitted elements.
+         * 
+         * @return the emitter covering the suffix of the elements, or null if
+         *         this emitter cannot be split
+         */
+        default StatefulEmitter<T> trySplit() {
+            return null;
+        }
+
+        /**
+         * Returns the spliterator which covers all the elements emitted by this
+         * emitter.
+         * 
+         * @return the new spliterator
+         */
+        default Spliterator<T> spliterator() {
+            return new EmitterSpliterator.Stateful<>(this);
+        }
+
+        /**
+         * Returns the stream which covers all the elements emitted by this
+         * emitter.
+         * 
+         * @return the new stream
+         */
+        default StreamEx<T> stream() {
+            return of(spliterator());
+        }
+    }
+
+    /**
+     * A codec which writes the stream elements to the binary output and reads
+     * them back. It's used by {@link StreamEx#externalSorted(Comparator,
+     * RecordCodec, int, Path)} to store the elements in the temporary file.
+     * 
+     * <p>
+     * The {@link #read(DataInput)} method must read exactly the bytes written
+     * by the single {@link #write(Object, DataOutput)} call. For example, the
+     * codec for strings may look like this:
+     * 
+     * <pre>{@code
+     * RecordCodec<String> codec = RecordCodec.of((s, out) -> out.writeUTF(s), DataInput::readUTF);
+     * }</pre>
+     * 
+     * @author Tagir Valeev
+     *
+     * @param <T> the type of the elements
+     * @since 0.6.7
+     */
+    public interface RecordCodec<T> {
+        /**
+         * Writes the element to the output.
+         * 
+         * @param t the element to write
+         * @param out the output to write to
+         * @throws IOException if an I/O error occurs
+         */
+        void write(T t, DataOutput out) throws IOException;
+
+        /**
+         * Reads the element written by {@link #write(Object, DataOutput)}
+         * from the input.
+         * 
+         * @param in the input to read from
+         * @return the element
+         * @throws IOException if an I/O error occurs
+         */
+        T read(DataInput in) throws IOException;
+
+        /**
+         * Creates a codec from the pair of functions.
+         * 
+         * @param <T> the type of the elements
+         * @param writer the function which writes the element to the output
+         * @param reader the function which reads the element from the input
+         * @return the new codec
+         */
+        static <T> RecordCodec<T> of(Encoder<T> writer, Decoder<T> reader) {
+            Objects.requireNonNull(writer);
+            Objects.requireNonNull(reader);
+            return new RecordCodec<T>() {
+                @Override
+                public void write(T t, DataOutput out) throws IOException {
+                    writer.write(t, out);
+                }
+
+                @Override
+                public T read(DataInput in) throws IOException {
+                    return reader.read(in);
+                }
+            };
+        }
+
+        /**
+         * A function which writes the element to the output. The arguments
+         * go in the same order as in {@link RecordCodec#write(Object, DataOutput)}.
+         *
+         * @param <T> the type of the elements
+         */
+        @FunctionalInterface
+        interface Encoder<T> {
+            void write(T t, DataOutput out) throws IOException;
+        }
+
+        /**
+         * A function which reads the element from the input.
+         *
+         * @param <T> the type of the elements
+         */
+        @FunctionalInterface
+        interface Decoder<T> {
+            T read(DataInput in) throws IOException;
+        }
+    }
 }
@@ -17,22 +17,23 @@ package one.util.streamex;
 
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Field;
-import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.math.MathContext;
-import java.nio.ByteOrder;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.*;
 import java.util.stream.BaseStream;
 import java.util.stream.Collector;
 import java.util.stream.Collector.Characteristics;
+import java.util.stream.IntStream;
 
 /* package */final class StreamExInternals {
     static final int INITIAL_SIZE = 128;
+    static final int MIN_SCAN_CHUNK = 1024;
     static final Function<int[], Integer> UNBOX_INT = box -> box[0];
     static final Function<long[], Long> UNBOX_LONG = box -> box[0];
     static final Function<double[], Double> UNBOX_DOUBLE = box -> box[0];
@@ -95,6 +96,12 @@ import java.util.stream.Collector.Characteristics;
         }
     }
 
+    static void checkPositive(String name, int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive: " + value);
+        }
+    }
+
     static final class ByteBuffer {
         int size = 0;
         byte[] data;
@@ -154,6 +161,17 @@ import java.util.stream.Collector.Characteristics;
             data[size++] = (char) n;
         }
 
+        void addCodePoint(int codePoint) {
+            if (Character.isBmpCodePoint(codePoint)) {
+                add(codePoint);
+                return;
+            }
+            if (data.length - size < 2) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + 2));
+            }
+            size += Character.toChars(codePoint, data, size);
+        }
+
         void addAll(CharBuffer buf) {
             if (data.length < buf.size + size) {
                 data = Arrays.copyOf(data, buf.size + size);
@@ -165,6 +183,11 @@ import java.util.stream.Collector.Characteristics;
         char[] toArray() {
             return data.length == size ? data : Arrays.copyOfRange(data, 0, size);
         }
+
+        @Override
+        public String toString() {
+            return new String(data, 0, size);
+        }
     }
 
     static final class ShortBuffer {
@@ -674,6 +697,83 @@ import java.util.stream.Collector.Characteristics;
         }
     }
 
+    /**
+     * Common part of the fused collectors which feed every element to several
+     * downstream collectors in a single pass. The accumulation container is an
+     * array holding the containers of every downstream collector.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static final class CollectorTuple {
+        private final Supplier[] suppliers;
+        private final BinaryOperator[] combiners;
+        private final Function[] finishers;
+        private final Predicate[] finished;
+        final Set<Characteristics> characteristics;
+
+        CollectorTuple(List<? extends Collector<?, ?, ?>> collectors) {
+            int n = collectors.size();
+            suppliers = new Supplier[n];
+            combiners = new BinaryOperator[n];
+            finishers = new Function[n];
+            Predicate[] finished = new Predicate[n];
+            boolean cancellable = n > 0;
+            EnumSet<Characteristics> c = EnumSet.noneOf(Characteristics.class);
+            for (int i = 0; i < n; i++) {
+                Collector<?, ?, ?> collector = collectors.get(i);
+                suppliers[i] = collector.supplier();
+                combiners[i] = collector.combiner();
+                finishers[i] = collector.finisher();
+                if (i == 0)
+                    c.addAll(collector.characteristics());
+                else
+                    c.retainAll(collector.characteristics());
+                finished[i] = StreamExInternals.finished(collector);
+                cancellable &= finished[i] != null;
+            }
+            c.remove(Characteristics.IDENTITY_FINISH);
+            this.characteristics = c;
+            this.finished = cancellable ? finished : null;
+        }
+
+        Object[] supply() {
+            Object[] acc = new Object[suppliers.length];
+            for (int i = 0; i < acc.length; i++) {
+                acc[i] = suppliers[i].get();
+            }
+            return acc;
+        }
+
+        void merge(Object[] acc1, Object[] acc2) {
+            for (int i = 0; i < acc1.length; i++) {
+                acc1[i] = combiners[i].apply(acc1[i], acc2[i]);
+            }
+        }
+
+        <R> List<R> finish(Object[] acc) {
+            Object[] result = new Object[acc.length];
+            for (int i = 0; i < acc.length; i++) {
+                result[i] = finishers[i].apply(acc[i]);
+            }
+            return (List<R>) Arrays.asList(result);
+        }
+
+        /**
+         * @return a predicate which tests whether all the downstream collectors
+         *         are finished or null if some of them is not short-circuiting
+         */
+        Predicate<Object[]> finished() {
+            if (finished == null)
+                return null;
+            return acc -> {
+                for (int i = 0; i < acc.length; i++) {
+                    if (!finished[i].test(acc[i]))
+                        return false;
+                }
+                return true;
+            };
+        }
+    }
+
     static final class ObjIntBox<A> extends Box<A> implements Entry<Integer, A> {
         int b;
 
@@ -854,12 +954,71 @@ import java.util.stream.Collector.Characteristics;
         public OptionalDouble result() {
             if (cnt == 0)
                 return OptionalDouble.empty();
+            return OptionalDouble.of(average());
+        }
+
+        /**
+         * @return the arithmetic mean of the accepted numbers (must be called
+         *         only if at least one number was accepted)
+         */
+        double average() {
             if (hi == 0 && lo >= 0 || hi == -1 && lo < 0) {
-                return OptionalDouble.of(((double) lo) / cnt);
+                return ((double) lo) / cnt;
             }
-            return OptionalDouble.of(new BigDecimal(new BigInteger(java.nio.ByteBuffer.allocate(16).order(
-                ByteOrder.BIG_ENDIAN).putLong(hi).putLong(lo).array())).divide(BigDecimal.valueOf(cnt),
-                MathContext.DECIMAL64).doubleValue());
+            return divide(hi, lo, cnt);
+        }
+
+        BigInteger sum() {
+            BigInteger low = BigInteger.valueOf(lo & Long.MAX_VALUE);
+            if (lo < 0)
+                low = low.setBit(63);
+            return BigInteger.valueOf(hi).shiftLeft(64).add(low);
+        }
+
+        /**
+         * Divides the signed 128-bit number by the positive long number using
+         * the shift-subtract division. As every accepted number is at least
+         * -2^63, the quotient magnitude never exceeds 2^63, thus 64 steps are
+         * enough.
+         *
+         * @param hi the high 64 bits of the dividend
+         * @param lo the low 64 bits of the dividend
+         * @param divisor the positive divisor
+         * @return the quotient rounded to double
+         */
+        static double divide(long hi, long lo, long divisor) {
+            boolean negative = hi < 0;
+            if (negative) {
+                lo = -lo;
+                hi = lo == 0 ? -hi : ~hi;
+            }
+            long rem = hi, quot = 0;
+            for (int i = 0; i < 64; i++) {
+                boolean carry = rem < 0;
+                rem = (rem << 1) | (lo >>> 63);
+                lo <<= 1;
+                quot <<= 1;
+                if (carry || Long.compareUnsigned(rem, divisor) >= 0) {
+                    rem -= divisor;
+                    quot |= 1;
+                }
+            }
+            double result;
+            if (Long.compareUnsigned(quot, 1L << 53) >= 0) {
+                // the quotient alone exceeds the double precision, so the
+                // fraction can only affect the rounding: it's folded into the
+                // sticky bit which must stay below the rounding bit
+                long sticky = rem == 0 ? 0 : 1;
+                if (Long.compareUnsigned(quot, 1L << 62) < 0) {
+                    result = (double) ((quot << 1) | sticky) * 0.5;
+                } else {
+                    long q = quot | sticky;
+                    result = q >= 0 ? (double) q : (double) ((q >>> 1) | (q & 1)) * 2.0;
+                }
+            } else {
+                result = quot + (double) rem / divisor;
+            }
+            return negative ? -result : result;
         }
     }
 
@@ -1029,4 +1188,46 @@ import java.util.stream.Collector.Characteristics;
         }
         return index;
     }
+
+    /**
+     * Computes the suffix results of associative operation for the
+     * {@code source} elements between {@code from} and {@code to} storing them
+     * into the {@code target} list starting from index 0. Target list must be
+     * presized, it may be the same as the source list if {@code from} is zero.
+     * The chunks are processed in parallel in the current pool.
+     */
+    static <T> List<T> suffixScan(List<T> source, int from, int to, List<T> target, BinaryOperator<T> op) {
+        int size = to - from;
+        if (size == 0)
+            return target;
+        // the chunks are processed in the pool we're running in, which may be
+        // the custom one (see StreamEx#parallel(ForkJoinPool))
+        int parallelism = ForkJoinTask.inForkJoinPool() ? ForkJoinTask.getPool().getParallelism() : ForkJoinPool
+                .getCommonPoolParallelism();
+        int chunkSize = Math.max(MIN_SCAN_CHUNK, size / (parallelism * 4) + 1);
+        int chunks = (size - 1) / chunkSize + 1;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int start = chunk * chunkSize, end = Math.min(size, start + chunkSize);
+            T acc = source.get(from + end - 1);
+            target.set(end - 1, acc);
+            for (int i = end - 2; i >= start; i--) {
+                target.set(i, acc = op.apply(source.get(from + i), acc));
+            }
+        });
+        if (chunks == 1)
+            return target;
+        @SuppressWarnings("unchecked")
+        T[] carries = (T[]) new Object[chunks - 1];
+        carries[chunks - 2] = target.get((chunks - 1) * chunkSize);
+        for (int chunk = chunks - 3; chunk >= 0; chunk--) {
+            carries[chunk] = op.apply(target.get((chunk + 1) * chunkSize), carries[chunk + 1]);
+        }
+        IntStream.range(0, chunks - 1).parallel().forEach(chunk -> {
+            T carry = carries[chunk];
+            for (int i = chunk * chunkSize, end = i + chunkSize; i < end; i++) {
+                target.set(i, op.apply(target.get(i), carry));
+            }
+        });
+        return target;
+    }
 }
@@ -32,6 +32,7 @@ import java.util.function.LongConsumer;
 import java.util.function.LongPredicate;
 import java.util.function.Predicate;
 
+import one.util.streamex.StreamExInternals.CancelException;
 import one.util.streamex.StreamExInternals.CloneableSpliterator;
 
 /**
@@ -85,22 +86,27 @@ class TakeDrop {
         @Override
         public void forEachRemaining(Consumer<? super T> action) {
             if (drop) {
-                if (checked)
+                // once the prefix is dropped, the rest is pushed to the action directly
+                if (checked || tryAdvance(action))
                     source.forEachRemaining(action);
-                else {
+            } else if (!checked) {
+                try {
                     source.forEachRemaining(e -> {
-                        if (checked)
+                        if (predicate.test(e)) {
                             action.accept(e);
-                        else {
-                            if (!predicate.test(e)) {
-                                checked = true;
+                        } else {
+                            if (inclusive)
                                 action.accept(e);
-                            }
+                            checked = true;
+                            throw new CancelException();
                         }
                     });
+                } catch (CancelException ex) {
+                    if (!checked)
+                        throw ex;
                 }
-            } else
-                super.forEachRemaining(action);
+                checked = true;
+            }
         }
     
         @Override
@@ -114,6 +120,7 @@ class TakeDrop {
         private final boolean drop;
         private final boolean inclusive;
         private final AtomicBoolean checked = new AtomicBoolean();
+        private boolean cancelled;
         private Spliterator<T> source;
         private T cur;
 
@@ -151,6 +158,35 @@ class TakeDrop {
             return false;
         }
 
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            if (drop) {
+                if (checked.get() || tryAdvance(action))
+                    source.forEachRemaining(action);
+                return;
+            }
+            if (checked.get())
+                return;
+            try {
+                source.forEachRemaining(e -> {
+                    if (!checked.get()) {
+                        if (predicate.test(e)) {
+                            action.accept(e);
+                            return;
+                        }
+                        if (checked.compareAndSet(false, true) && inclusive)
+                            action.accept(e);
+                    }
+                    // this or another part has reached the end of the prefix
+                    cancelled = true;
+                    throw new CancelException();
+                });
+            } catch (CancelException ex) {
+                if (!cancelled)
+                    throw ex;
+            }
+        }
+
         @Override
         public Spliterator<T> trySplit() {
             Spliterator<T> prefix = source.trySplit();
@@ -223,22 +259,27 @@ class TakeDrop {
         @Override
         public void forEachRemaining(IntConsumer action) {
             if (drop) {
-                if (checked)
+                // once the prefix is dropped, the rest is pushed to the action directly
+                if (checked || tryAdvance(action))
                     source.forEachRemaining(action);
-                else {
+            } else if (!checked) {
+                try {
                     source.forEachRemaining((int e) -> {
-                        if (checked)
+                        if (predicate.test(e)) {
                             action.accept(e);
-                        else {
-                            if (!predicate.test(e)) {
-                                checked = true;
+                        } else {
+                            if (inclusive)
                                 action.accept(e);
-                            }
+                            checked = true;
+                            throw new CancelException();
                         }
                     });
+                } catch (CancelException ex) {
+                    if (!checked)
+                        throw ex;
                 }
-            } else
-                super.forEachRemaining(action);
+                checked = true;
+            }
         }
     
         @Override
@@ -294,22 +335,27 @@ class TakeDrop {
         @Override
         public void forEachRemaining(LongConsumer action) {
             if (drop) {
-                if (checked)
+                // once the prefix is dropped, the rest is pushed to the action directly
+                if (checked || tryAdvance(action))
                     source.forEachRemaining(action);
-                else {
+            } else if (!checked) {
+                try {
                     source.forEachRemaining((long e) -> {
-                        if (checked)
+                        if (predicate.test(e)) {
                             action.accept(e);
-                        else {
-                            if (!predicate.test(e)) {
-                                checked = true;
+                        } else {
+                            if (inclusive)
                                 action.accept(e);
-                            }
+                            checked = true;
+                            throw new CancelException();
                         }
                     });
+                } catch (CancelException ex) {
+                    if (!checked)
+                        throw ex;
                 }
-            } else
-                super.forEachRemaining(action);
+                checked = true;
+            }
         }
     
         @Override
@@ -365,22 +411,27 @@ class TakeDrop {
         @Override
         public void forEachRemaining(DoubleConsumer action) {
             if (drop) {
-                if (checked)
+                // once the prefix is dropped, the rest is pushed to the action directly
+                if (checked || tryAdvance(action))
                     source.forEachRemaining(action);
-                else {
+            } else if (!checked) {
+                try {
                     source.forEachRemaining((double e) -> {
-                        if (checked)
+                        if (predicate.test(e)) {
                             action.accept(e);
-                        else {
-                            if (!predicate.test(e)) {
-                                checked = true;
+                        } else {
+                            if (inclusive)
                                 action.accept(e);
-                            }
+                            checked = true;
+                            throw new CancelException();
                         }
                     });
+                } catch (CancelException ex) {
+                    if (!checked)
+                        throw ex;
                 }
-            } else
-                super.forEachRemaining(action);
+                checked = true;
+            }
         }
     
         @Override
@@ -15,13 +15,14 @@
  */
 package one.util.streamex;
 
-import java.nio.CharBuffer;
 import java.util.Spliterator;
+import java.util.concurrent.Executor;
 import java.util.function.DoublePredicate;
 import java.util.function.IntPredicate;
 import java.util.function.LongPredicate;
 import java.util.function.Predicate;
 import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
 /**
  * @author Tagir Valeev
@@ -51,6 +52,18 @@ import java.util.stream.IntStream;
         // In JDK 8 there's only default chars() method which uses
         // IteratorSpliterator
         // In JDK 9 chars() method for most of implementations is much better
-        return CharBuffer.wrap(seq).chars();
+        return StreamSupport.intStream(new RangeBasedSpliterator.OfCharSequence(seq), false);
+    }
+
+    IntStream ofCodePoints(CharSequence seq) {
+        return StreamSupport.intStream(new RangeBasedSpliterator.OfCodePoints(seq), false);
+    }
+
+    <T> Object toPublisher(Spliterator<T> spliterator, Executor executor, Runnable closer) {
+        throw new UnsupportedOperationException("java.util.concurrent.Flow is not available before Java 9");
+    }
+
+    <T> PublisherSpliterator<T> ofPublisher(Object publisher, int bufferSize) {
+        throw new UnsupportedOperationException("java.util.concurrent.Flow is not available before Java 9");
     }
 }
@@ -0,0 +1,700 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+import static one.util.streamex.StreamExInternals.*;
+
+/**
+ * A spliterator which produces the results for the sliding windows of given
+ * size over the source, taking every window which starts at the index
+ * divisible by step. Only full windows are produced.
+ *
+ * <p>
+ * When split, the first {@code size - 1} elements of the suffix are read in
+ * advance and shared by both parts: the prefix appends them to complete the
+ * windows which cross the split boundary, while the suffix starts with them.
+ * If the step is greater than one, the source must be {@code SUBSIZED} to
+ * split, as the global index of the suffix start is necessary to align the
+ * windows.
+ *
+ * <p>
+ * The subclasses update the window result incrementally when the next element
+ * arrives, so every part is processed in amortized constant time per element.
+ *
+ * @author Tagir Valeev
+ *
+ * @param <T> type of the produced elements
+ * @param <S> type of the source spliterator
+ * @param <A> type of the array to store the overlapping elements
+ * @param <SS> type of the spliterator itself
+ */
+/* package */abstract class WindowSpliterator<T, S extends Spliterator<?>, A, SS extends WindowSpliterator<T, S, A, SS>>
+        extends CloneableSpliterator<T, SS> {
+    static final int SUM = 0;
+    static final int MIN = 1;
+    static final int MAX = 2;
+
+    final int size, step;
+    S source;
+    // elements preceding the source which belong to this part
+    A head;
+    int headPos, headLength;
+    // elements following the source which belong to the next part
+    A tail;
+    int tailPos, tailLength;
+    // global index of the next element and the start of the next window
+    long pos, next;
+    boolean started, emitted;
+
+    WindowSpliterator(S source, int size, int step) {
+        this.source = source;
+        this.size = size;
+        this.step = step;
+    }
+
+    /**
+     * Reads up to n elements from the source.
+     *
+     * @param source source to read from
+     * @param n maximal number of elements to read
+     * @return the array containing read elements (its length is returned by
+     *         {@link #length(Object)})
+     */
+    abstract A read(S source, int n);
+
+    abstract int length(A array);
+
+    abstract A copyOf(A array, int length);
+
+    /**
+     * Allocates the window state. Called once before the traversal.
+     */
+    abstract void init();
+
+    /**
+     * Feeds the array element to the window, emitting the result if the
+     * window is complete.
+     */
+    abstract void push(A array, int i);
+
+    abstract boolean advanceSource();
+
+    abstract void forEachSource();
+
+    /**
+     * Must be called after every element is added to the window.
+     *
+     * @return true if the window ending at the last added element must be
+     *         emitted.
+     */
+    final boolean complete() {
+        if (pos++ - size + 1 != next)
+            return false;
+        next += step;
+        emitted = true;
+        return true;
+    }
+
+    private void start() {
+        started = true;
+        if (step > 1)
+            next = (pos + step - 1) / step * step;
+        else
+            next = pos;
+        init();
+    }
+
+    final boolean advance() {
+        if (!started)
+            start();
+        emitted = false;
+        while (!emitted) {
+            if (headPos < headLength) {
+                push(head, headPos++);
+            } else if (source != null) {
+                if (!advanceSource())
+                    source = null;
+            } else if (tailPos < tailLength) {
+                push(tail, tailPos++);
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    final void forEach() {
+        if (!started)
+            start();
+        while (headPos < headLength) {
+            push(head, headPos++);
+        }
+        if (source != null) {
+            forEachSource();
+            source = null;
+        }
+        while (tailPos < tailLength) {
+            push(tail, tailPos++);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public SS trySplit() {
+        if (started || source == null || source.estimateSize() <= size)
+            return null;
+        if (step > 1 && !source.hasCharacteristics(SUBSIZED))
+            return null;
+        S prefixSource = (S) source.trySplit();
+        if (prefixSource == null)
+            return null;
+        SS prefix = doClone();
+        prefix.source = prefixSource;
+        A overlap = read(source, size - 1);
+        int overlapLength = length(overlap);
+        prefix.tail = overlap;
+        prefix.tailLength = overlapLength;
+        if (overlapLength < size - 1 && tailLength > 0) {
+            // the source is exhausted, so the windows of the prefix may
+            // continue into our tail
+            int length = Math.min(size - 1, overlapLength + tailLength);
+            prefix.tail = copyOf(overlap, length);
+            System.arraycopy(tail, 0, prefix.tail, overlapLength, length - overlapLength);
+            prefix.tailLength = length;
+        }
+        if (step > 1)
+            pos += headLength + prefixSource.getExactSizeIfKnown();
+        head = overlap;
+        headLength = overlapLength;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        long sourceSize = source == null ? 0 : source.estimateSize();
+        if (sourceSize == Long.MAX_VALUE)
+            return sourceSize;
+        long start = started ? next : step > 1 ? (pos + step - 1) / step * step : pos;
+        long end = pos + (headLength - headPos) + sourceSize + (tailLength - tailPos);
+        return start + size > end ? 0 : (end - size - start) / step + 1;
+    }
+
+    @Override
+    public int characteristics() {
+        int sourceCharacteristics = source == null ? SIZED : source.characteristics();
+        return sourceCharacteristics & (SIZED | SUBSIZED | ORDERED | IMMUTABLE);
+    }
+
+    /**
+     * Immutable view of the window in the array which is never modified
+     * afterwards.
+     */
+    static final class Window<T> extends AbstractList<T> implements RandomAccess {
+        private final Object[] data;
+        private final int from, size;
+
+        Window(Object[] data, int from, int size) {
+            this.data = data;
+            this.from = from;
+            this.size = size;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public T get(int index) {
+            if (index < 0 || index >= size)
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            return (T) data[from + index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Object[] toArray() {
+            return Arrays.copyOfRange(data, from, from + size);
+        }
+    }
+
+    static final class OfRef<T> extends WindowSpliterator<List<T>, Spliterator<T>, Object[], OfRef<T>> implements
+            Consumer<T> {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private Consumer<? super List<T>> action;
+        private Object[] buf;
+        private int count;
+
+        OfRef(Spliterator<T> source, int size, int step) {
+            super(source, size, step);
+        }
+
+        @Override
+        Object[] read(Spliterator<T> source, int n) {
+            Object[] array = new Object[Math.min(n, INITIAL_CAPACITY)];
+            int i = 0;
+            Box<T> box = new Box<>();
+            while (i < n && source.tryAdvance(box)) {
+                if (i == array.length)
+                    array = Arrays.copyOf(array, (int) Math.min(n, array.length * 2L));
+                array[i++] = box.a;
+            }
+            return i == array.length ? array : Arrays.copyOf(array, i);
+        }
+
+        @Override
+        int length(Object[] array) {
+            return array == null ? 0 : array.length;
+        }
+
+        @Override
+        Object[] copyOf(Object[] array, int length) {
+            return Arrays.copyOf(array, length);
+        }
+
+        @Override
+        void init() {
+            buf = new Object[Math.min(size, INITIAL_CAPACITY)];
+        }
+
+        @Override
+        void push(Object[] array, int i) {
+            @SuppressWarnings("unchecked")
+            T t = (T) array[i];
+            accept(t);
+        }
+
+        @Override
+        public void accept(T t) {
+            if (count == buf.length) {
+                int capacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(INITIAL_CAPACITY, size * 2L));
+                if (buf.length < capacity) {
+                    // the windows may refer the old array, so it's not reused
+                    buf = Arrays.copyOf(buf, (int) Math.min(capacity, buf.length * 2L));
+                } else {
+                    Object[] newBuf = new Object[buf.length];
+                    System.arraycopy(buf, count - size + 1, newBuf, 0, size - 1);
+                    buf = newBuf;
+                    count = size - 1;
+                }
+            }
+            buf[count++] = t;
+            if (complete())
+                action.accept(new Window<>(buf, count - size, size));
+        }
+
+        @Override
+        boolean advanceSource() {
+            return source.tryAdvance(this);
+        }
+
+        @Override
+        void forEachSource() {
+            source.forEachRemaining(this);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super List<T>> action) {
+            this.action = action;
+            return advance();
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super List<T>> action) {
+            this.action = action;
+            forEach();
+        }
+    }
+
+    static final class Ints extends WindowSpliterator<Integer, Spliterator.OfInt, int[], Ints> implements
+            Spliterator.OfInt, IntConsumer {
+        private final int op;
+        private IntConsumer action;
+        // SUM: the ring of the last elements; MIN/MAX: the monotonic deque
+        // starting at first and having count elements
+        private int[] values;
+        private long[] indices;
+        private int first, count, sum;
+
+        Ints(Spliterator.OfInt source, int size, int op) {
+            super(source, size, 1);
+            this.op = op;
+        }
+
+        @Override
+        int[] read(Spliterator.OfInt source, int n) {
+            IntBuffer buf = new IntBuffer(Math.min(n, INITIAL_SIZE));
+            while (buf.size < n && source.tryAdvance((IntConsumer) buf::add)) {
+                // empty
+            }
+            return buf.toArray();
+        }
+
+        @Override
+        int length(int[] array) {
+            return array == null ? 0 : array.length;
+        }
+
+        @Override
+        int[] copyOf(int[] array, int length) {
+            return Arrays.copyOf(array, length);
+        }
+
+        @Override
+        void init() {
+            values = new int[size];
+            if (op != SUM)
+                indices = new long[size];
+        }
+
+        @Override
+        void push(int[] array, int i) {
+            accept(array[i]);
+        }
+
+        @Override
+        public void accept(int t) {
+            long idx = pos;
+            if (op == SUM) {
+                sum += t - values[first];
+                values[first] = t;
+                if (++first == size)
+                    first = 0;
+                if (complete())
+                    action.accept(sum);
+                return;
+            }
+            if (count > 0 && indices[first] <= idx - size) {
+                if (++first == size)
+                    first = 0;
+                count--;
+            }
+            while (count > 0) {
+                int back = values[(first + count - 1) % size];
+                if (op == MIN ? back < t : back > t)
+                    break;
+                count--;
+            }
+            int slot = (first + count++) % size;
+            values[slot] = t;
+            indices[slot] = idx;
+            if (complete())
+                action.accept(values[first]);
+        }
+
+        @Override
+        boolean advanceSource() {
+            return source.tryAdvance(this);
+        }
+
+        @Override
+        void forEachSource() {
+            source.forEachRemaining(this);
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            this.action = action;
+            return advance();
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            this.action = action;
+            forEach();
+        }
+    }
+
+    static abstract class LongInput<T, SS extends LongInput<T, SS>> extends
+            WindowSpliterator<T, Spliterator.OfLong, long[], SS> implements LongConsumer {
+        LongInput(Spliterator.OfLong source, int size) {
+            super(source, size, 1);
+        }
+
+        @Override
+        long[] read(Spliterator.OfLong source, int n) {
+            LongBuffer buf = new LongBuffer(Math.min(n, INITIAL_SIZE));
+            while (buf.size < n && source.tryAdvance((LongConsumer) buf::add)) {
+                // empty
+            }
+            return buf.toArray();
+        }
+
+        @Override
+        int length(long[] array) {
+            return array == null ? 0 : array.length;
+        }
+
+        @Override
+        long[] copyOf(long[] array, int length) {
+            return Arrays.copyOf(array, length);
+        }
+
+        @Override
+        void push(long[] array, int i) {
+            accept(array[i]);
+        }
+
+        @Override
+        boolean advanceSource() {
+            return source.tryAdvance(this);
+        }
+
+        @Override
+        void forEachSource() {
+            source.forEachRemaining(this);
+        }
+    }
+
+    static final class Longs extends LongInput<Long, Longs> implements Spliterator.OfLong {
+        private final int op;
+        private LongConsumer action;
+        // SUM: the ring of the last elements; MIN/MAX: the monotonic deque
+        // starting at first and having count elements
+        private long[] values;
+        private long[] indices;
+        private int first, count;
+        private long sum;
+
+        Longs(Spliterator.OfLong source, int size, int op) {
+            super(source, size);
+            this.op = op;
+        }
+
+        @Override
+        void init() {
+            values = new long[size];
+            if (op != SUM)
+                indices = new long[size];
+        }
+
+        @Override
+        public void accept(long t) {
+            long idx = pos;
+            if (op == SUM) {
+                sum += t - values[first];
+                values[first] = t;
+                if (++first == size)
+                    first = 0;
+                if (complete())
+                    action.accept(sum);
+                return;
+            }
+            if (count > 0 && indices[first] <= idx - size) {
+                if (++first == size)
+                    first = 0;
+                count--;
+            }
+            while (count > 0) {
+                long back = values[(first + count - 1) % size];
+                if (op == MIN ? back < t : back > t)
+                    break;
+                count--;
+            }
+            int slot = (first + count++) % size;
+            values[slot] = t;
+            indices[slot] = idx;
+            if (complete())
+                action.accept(values[first]);
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            this.action = action;
+            return advance();
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            this.action = action;
+            forEach();
+        }
+    }
+
+    static final class LongAverages extends LongInput<Double, LongAverages> implements Spliterator.OfDouble {
+        private DoubleConsumer action;
+        private long[] values;
+        private int first;
+        // 128-bit sum of the window
+        private long hi, lo;
+
+        LongAverages(Spliterator.OfLong source, int size) {
+            super(source, size);
+        }
+
+        @Override
+        void init() {
+            values = new long[size];
+        }
+
+        @Override
+        public void accept(long t) {
+            long old = values[first];
+            values[first] = t;
+            if (++first == size)
+                first = 0;
+            long prev = lo;
+            lo += t;
+            hi += (t >> 63) + (Long.compareUnsigned(lo, prev) < 0 ? 1 : 0);
+            prev = lo;
+            lo -= old;
+            hi -= (old >> 63) + (Long.compareUnsigned(prev, old) < 0 ? 1 : 0);
+            if (complete()) {
+                action.accept(hi == 0 && lo >= 0 || hi == -1 && lo < 0 ? ((double) lo) / size : AverageLong
+                        .divide(hi, lo, size));
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            this.action = action;
+            return advance();
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            this.action = action;
+            forEach();
+        }
+    }
+
+    static final class Doubles extends WindowSpliterator<Double, Spliterator.OfDouble, double[], Doubles> implements
+            Spliterator.OfDouble, DoubleConsumer {
+        static final int AVERAGE = 3;
+
+        private final int op;
+        private DoubleConsumer action;
+        // SUM/AVERAGE: the elements of the current block and the suffix sums
+        // of the previous block; MIN/MAX: the monotonic deque
+        private double[] values, suffix;
+        private long[] indices;
+        private int first, count;
+        private double sum;
+
+        Doubles(Spliterator.OfDouble source, int size, int op) {
+            super(source, size, 1);
+            this.op = op;
+        }
+
+        @Override
+        double[] read(Spliterator.OfDouble source, int n) {
+            DoubleBuffer buf = new DoubleBuffer(Math.min(n, INITIAL_SIZE));
+            while (buf.size < n && source.tryAdvance((DoubleConsumer) buf::add)) {
+                // empty
+            }
+            return buf.toArray();
+        }
+
+        @Override
+        int length(double[] array) {
+            return array == null ? 0 : array.length;
+        }
+
+        @Override
+        double[] copyOf(double[] array, int length) {
+            return Arrays.copyOf(array, length);
+        }
+
+        @Override
+        void init() {
+            values = new double[size];
+            if (op == SUM || op == AVERAGE)
+                suffix = new double[size + 1];
+            else
+                indices = new long[size];
+        }
+
+        @Override
+        void push(double[] array, int i) {
+            accept(array[i]);
+        }
+
+        @Override
+        public void accept(double t) {
+            long idx = pos;
+            if (op == SUM || op == AVERAGE) {
+                // The window is the suffix of the previous block plus the
+                // prefix of the current one. Unlike subtracting the leaving
+                // elements, this does not accumulate the rounding errors.
+                values[first] = t;
+                sum += t;
+                double result = sum + suffix[first + 1];
+                if (++first == size) {
+                    double s = 0;
+                    for (int i = size - 1; i >= 0; i--) {
+                        suffix[i] = s += values[i];
+                    }
+                    first = 0;
+                    sum = 0;
+                }
+                if (complete())
+                    action.accept(op == SUM ? result : result / size);
+                return;
+            }
+            if (count > 0 && indices[first] <= idx - size) {
+                if (++first == size)
+                    first = 0;
+                count--;
+            }
+            while (count > 0) {
+                double back = values[(first + count - 1) % size];
+                int cmp = Double.compare(back, t);
+                // like Math.min, prefer NaN for the minimum
+                if (op == MIN ? (Double.isNaN(back) || Double.isNaN(t) ? cmp > 0 : cmp < 0) : cmp > 0)
+                    break;
+                count--;
+            }
+            int slot = (first + count++) % size;
+            values[slot] = t;
+            indices[slot] = idx;
+            if (complete())
+                action.accept(values[first]);
+        }
+
+        @Override
+        boolean advanceSource() {
+            return source.tryAdvance(this);
+        }
+
+        @Override
+        void forEachSource() {
+            source.forEachRemaining(this);
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            this.action = action;
+            return advance();
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            this.action = action;
+            forEach();
+        }
+    }
+}
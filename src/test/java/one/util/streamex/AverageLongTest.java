@@ -96,6 +96,49 @@ public class AverageLongTest {
         });
     }
 
+    @Test
+    public void testExactDivision() {
+        withRandom(r -> repeat(1000, i -> {
+            long[] input = LongStreamEx.of(r, r.nextInt(100) + 1).map(x -> r.nextBoolean() ? x : x >> r.nextInt(64))
+                    .toArray();
+            AverageLong avg = new AverageLong();
+            LongStream.of(input).forEach(avg::accept);
+            BigInteger sum = LongStream.of(input).mapToObj(BigInteger::valueOf).reduce(BigInteger.ZERO,
+                BigInteger::add);
+            assertEquals(sum, avg.sum());
+            double expected = new BigDecimal(sum).divide(BigDecimal.valueOf(input.length), MathContext.DECIMAL128)
+                    .doubleValue();
+            assertEquals(expected, avg.result().getAsDouble(), Math.ulp(expected));
+        }));
+        AverageLong avg = new AverageLong();
+        avg.accept(Long.MIN_VALUE);
+        avg.accept(Long.MIN_VALUE);
+        avg.accept(Long.MIN_VALUE);
+        assertEquals(-0x1p63, avg.result().getAsDouble(), 0.0);
+        avg = new AverageLong();
+        avg.accept(Long.MAX_VALUE);
+        avg.accept(Long.MAX_VALUE);
+        assertEquals(0x1p63, avg.result().getAsDouble(), 0.0);
+        // 2^64+1 / 2: sticky bit must round up the tie
+        assertEquals(0x1p63, AverageLong.divide(1, 1, 2), 0.0);
+        assertEquals(0x1p54 + 4, AverageLong.divide(0, (1L << 56) + 9, 4), 0.0);
+        // quotients in [2^53, 2^55) must not be rounded before the fraction
+        // is taken into account
+        assertEquals(0x1p53 + 2, AverageLong.divide(0, ((1L << 53) + 1) * 3 + 2, 3), 0.0);
+        assertEquals(0x1p54 + 4, AverageLong.divide(0, ((1L << 54) + 2) * 3 + 1, 3), 0.0);
+        withRandom(r -> repeat(1000, i -> {
+            long divisor = r.nextInt(1 << 20) + 3;
+            long quot = (r.nextLong() >>> 9) | (1L << 53);
+            long rem = divisor / 2 + r.nextInt(3) - 1;
+            BigInteger dividend = BigInteger.valueOf(quot).multiply(BigInteger.valueOf(divisor)).add(
+                BigInteger.valueOf(rem));
+            double expected = new BigDecimal(dividend).divide(BigDecimal.valueOf(divisor), new MathContext(40))
+                    .doubleValue();
+            assertEquals(expected, AverageLong.divide(dividend.shiftRight(64).longValue(), dividend.longValue(),
+                divisor), 0.0);
+        }));
+    }
+
     private static Collector<Long, ?, OptionalDouble> getBigIntegerAverager() {
         BiFunction<BigInteger, Long, OptionalDouble> finisher = (BigInteger sum, Long cnt) -> cnt == 0L ? OptionalDouble
                 .empty()
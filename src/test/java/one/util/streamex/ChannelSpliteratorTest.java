@@ -0,0 +1,199 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static one.util.streamex.TestHelpers.*;
+import static org.junit.Assert.*;
+
+/**
+ * @author Tagir Valeev
+ */
+public class ChannelSpliteratorTest {
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    private static byte[] varints(long[] values) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (long value : values) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+        return out.toByteArray();
+    }
+
+    private Path write(byte[] data) throws IOException {
+        File file = tmp.newFile();
+        Files.write(file.toPath(), data);
+        return file.toPath();
+    }
+
+    private static ReadableByteChannel channel(byte[] data) {
+        return Channels.newChannel(new ByteArrayInputStream(data));
+    }
+
+    @Test
+    public void testInts() throws IOException {
+        withRandom(r -> repeat(5, n -> {
+            int[] input = r.ints(n * 1000).toArray();
+            ByteBuffer bb = ByteBuffer.allocate(input.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+            bb.asIntBuffer().put(input);
+            byte[] data = bb.array();
+            List<Integer> expected = IntStreamEx.of(input).boxed().toList();
+            checkSpliterator("ints", expected, () -> new ChannelSpliterator.Ints(channel(data),
+                    ByteOrder.LITTLE_ENDIAN, 4));
+            try (FileChannel fc = FileChannel.open(write(data))) {
+                checkSpliterator("ints/file", expected, () -> new ChannelSpliterator.Ints(fc,
+                        ByteOrder.LITTLE_ENDIAN, 4));
+                assertArrayEquals(input, IntStreamEx.ofInts(fc, ByteOrder.LITTLE_ENDIAN).parallel().toArray());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+
+    @Test
+    public void testLongs() throws IOException {
+        withRandom(r -> {
+            long[] input = r.longs(3000).toArray();
+            ByteBuffer bb = ByteBuffer.allocate(input.length * 8);
+            bb.asLongBuffer().put(input);
+            byte[] data = bb.array();
+            List<Long> expected = LongStreamEx.of(input).boxed().toList();
+            checkSpliterator("longs", expected, () -> new ChannelSpliterator.Longs(channel(data),
+                    ByteOrder.BIG_ENDIAN, 8));
+            try (FileChannel fc = FileChannel.open(write(data))) {
+                checkSpliterator("longs/file", expected, () -> new ChannelSpliterator.Longs(fc,
+                        ByteOrder.BIG_ENDIAN, 8));
+                assertEquals(3000, LongStreamEx.ofLongs(fc, ByteOrder.BIG_ENDIAN).count());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Test
+    public void testVarints() throws IOException {
+        withRandom(r -> {
+            long[] input = LongStreamEx.of(r, 3000).map(x -> x >>> r.nextInt(64)).toArray();
+            byte[] data = varints(input);
+            List<Long> expected = LongStreamEx.of(input).boxed().toList();
+            int[] ints = LongStreamEx.of(input).mapToInt(x -> (int) x).toArray();
+            byte[] intData = varints(IntStreamEx.of(ints).mapToLong(x -> x & 0xFFFFFFFFL).toArray());
+            checkSpliterator("varlongs", expected, () -> new ChannelSpliterator.Longs(channel(data),
+                    ByteOrder.BIG_ENDIAN, 0));
+            try (FileChannel fc = FileChannel.open(write(data)); FileChannel intFc = FileChannel.open(write(
+                intData))) {
+                checkSpliterator("varlongs/file", expected, () -> new ChannelSpliterator.Longs(fc,
+                        ByteOrder.BIG_ENDIAN, 0));
+                checkSpliterator("varints/file", IntStreamEx.of(ints).boxed().toList(),
+                    () -> new ChannelSpliterator.Ints(intFc, ByteOrder.BIG_ENDIAN, 0));
+                assertArrayEquals(input, LongStreamEx.ofVarLongs(fc).parallel().toArray());
+                assertArrayEquals(ints, IntStreamEx.ofVarInts(intFc).parallel().toArray());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            assertArrayEquals(ints, IntStreamEx.ofVarInts(channel(intData)).toArray());
+        });
+        assertArrayEquals(new int[] { 0, 1, 127, 128, 300, -1 }, IntStreamEx.ofVarInts(channel(varints(new long[] {
+                0, 1, 127, 128, 300, 0xFFFFFFFFL }))).toArray());
+    }
+
+    @Test
+    public void testBytes() throws IOException {
+        byte[] data = IntStreamEx.range(-128, 128).toByteArray();
+        List<Integer> expected = IntStreamEx.range(-128, 128).map(b -> b & 0xFF).boxed().toList();
+        checkSpliterator("bytes", expected, () -> new ChannelSpliterator.Ints(channel(data), ByteOrder.BIG_ENDIAN,
+                1));
+        Path path = write(data);
+        assertEquals(expected, IntStreamEx.ofBytes(Files.newInputStream(path)).parallel().boxed().toList());
+        assertEquals(expected, IntStreamEx.of(Files.newInputStream(path)).parallel().boxed().toList());
+        // of(InputStream) does not read ahead
+        ByteArrayInputStream is = new ByteArrayInputStream(data);
+        assertEquals(expected.subList(0, 4), IntStreamEx.of(is).limit(4).boxed().toList());
+        assertEquals(data.length - 4, is.available());
+    }
+
+    @Test
+    public void testNonBlocking() throws IOException {
+        Pipe pipe = Pipe.open();
+        try {
+            pipe.source().configureBlocking(false);
+            try {
+                IntStreamEx.ofInts(pipe.source(), ByteOrder.BIG_ENDIAN);
+                fail("Should throw");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        } finally {
+            pipe.source().close();
+            pipe.sink().close();
+        }
+    }
+
+    @Test
+    public void testErrors() throws IOException {
+        try {
+            IntStreamEx.ofInts(channel(new byte[] { 1, 2, 3, 4, 5, 6 }), ByteOrder.BIG_ENDIAN).toArray();
+            fail("Should throw");
+        } catch (UncheckedIOException e) {
+            // expected
+        }
+        try {
+            LongStreamEx.ofVarLongs(channel(new byte[] { 1, (byte) 0x80 })).toArray();
+            fail("Should throw");
+        } catch (UncheckedIOException e) {
+            // expected
+        }
+        try {
+            IntStreamEx.ofVarInts(channel(new byte[] { -1, -1, -1, -1, -1, 1 })).toArray();
+            fail("Should throw");
+        } catch (UncheckedIOException e) {
+            assertTrue(e.getCause() instanceof StreamCorruptedException);
+        }
+        Path path = write(new byte[] { 0, 0, 0, 1, 0, 0, 0, 2, 0, 0, 0, 3 });
+        FileChannel fc = FileChannel.open(path, StandardOpenOption.READ);
+        fc.position(4);
+        try (IntStreamEx stream = IntStreamEx.ofInts(fc, ByteOrder.BIG_ENDIAN)) {
+            assertArrayEquals(new int[] { 2, 3 }, stream.toArray());
+            assertTrue(fc.isOpen());
+        }
+        assertFalse(fc.isOpen());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import static one.util.streamex.TestHelpers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+import org.junit.Test;
+
+/**
+ * @author Tagir Valeev
+ */
+public class ChunkSpliteratorTest {
+    @Test
+    public void testSpliterator() {
+        withRandom(r -> repeat(10, n -> {
+            List<Integer> input = IntStreamEx.of(r, r.nextInt(n * 30), 0, 100).boxed().toList();
+            for (int size : new int[] { 1, 2, 3, 7, 50 }) {
+                List<List<Integer>> expected = StreamEx.ofSubLists(input, size).toList();
+                checkSpliterator("sized/" + size, expected, () -> new ChunkSpliterator.OfRef<>(input.spliterator(),
+                        size));
+                checkSpliterator("unsized/" + size, expected, () -> new ChunkSpliterator.OfRef<>(Spliterators
+                        .spliteratorUnknownSize(input.iterator(), Spliterator.ORDERED), size));
+            }
+        }));
+        List<Integer> input = IntStreamEx.range(2500).boxed().toList();
+        for (int size : new int[] { 7, 1000 }) {
+            checkSpliterator("unsized/" + size, StreamEx.ofSubLists(input, size).toList(),
+                () -> new ChunkSpliterator.OfRef<>(Spliterators.spliteratorUnknownSize(input.iterator(),
+                    Spliterator.ORDERED), size));
+        }
+    }
+
+    @Test
+    public void testChunked() {
+        List<Integer> input = IntStreamEx.range(10000).boxed().toList();
+        streamEx(input::stream, s -> {
+            assertEquals(StreamEx.ofSubLists(input, 1000).toList(), s.get().chunked(1000).toList());
+            assertEquals(StreamEx.ofSubLists(input, 333).toList(), s.get().chunked(333).toList());
+            assertEquals(StreamEx.ofSubLists(input, 20000).toList(), s.get().chunked(20000).toList());
+            assertEquals(StreamEx.ofSubLists(input, 17).toList(), s.get().filter(x -> x >= 0).chunked(17)
+                    .toList());
+        });
+        assertEquals(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3, 4), Collections.singletonList(5)), StreamEx
+                .of(1, 2, 3, 4, 5).chunked(2).toList());
+        assertEquals(0, StreamEx.empty().chunked(10).count());
+        assertEquals(34, StreamEx.of(input).parallel().chunked(300).count());
+        assertEquals(49995000L, StreamEx.of(input).parallel().chunked(300).mapToLong(l -> IntStreamEx.of(l).sum())
+                .sum());
+        assertEquals(10, StreamEx.iterate(0, x -> x + 1).parallel().chunked(100).limit(10).count());
+        List<Integer> chunk = StreamEx.of(input).chunked(3).skip(5).findFirst().get();
+        assertEquals(Arrays.asList(15, 16, 17), chunk);
+        chunk.set(0, 0);
+        assertEquals(Arrays.asList(0, 16, 17), chunk);
+        try {
+            chunk.add(1);
+            fail("Should be fixed-size");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            StreamEx.of(input).chunked(0);
+            fail("Should throw");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testPrimitive() {
+        withRandom(r -> {
+            int[] input = IntStreamEx.of(r, 10000, -1000, 1000).toArray();
+            List<List<Integer>> expected = StreamEx.ofSubLists(IntStreamEx.of(input).boxed().toList(), 999)
+                    .toList();
+            for (IntStreamEx s : new IntStreamEx[] { IntStreamEx.of(input), IntStreamEx.of(input).parallel(),
+                    IntStreamEx.of(input).parallel().filter(x -> true) }) {
+                assertEquals(expected, s.chunked(999).map(a -> IntStreamEx.of(a).boxed().toList()).toList());
+            }
+            assertEquals(expected, IntStreamEx.of(input).asLongStream().parallel().chunked(999).map(a -> LongStreamEx
+                    .of(a).mapToInt(x -> (int) x).boxed().toList()).toList());
+            assertEquals(expected, IntStreamEx.of(input).asDoubleStream().parallel().chunked(999).map(
+                a -> DoubleStreamEx.of(a).mapToInt(x -> (int) x).boxed().toList()).toList());
+        });
+        assertArrayEquals(new int[][] { { 1, 2, 3 }, { 4 } }, IntStreamEx.rangeClosed(1, 4).chunked(3).toArray(
+            int[][]::new));
+        assertArrayEquals(new long[][] { { 1 }, { 2 } }, LongStreamEx.of(1, 2).chunked(1).toArray(long[][]::new));
+        assertArrayEquals(new double[][] { { 1, 2 } }, DoubleStreamEx.of(1, 2).chunked(5).toArray(
+            double[][]::new));
+        assertEquals(1000, IntStreamEx.range(10000).parallel().chunked(10).mapToInt(a -> a.length).filter(
+            len -> len == 10).count());
+    }
+}
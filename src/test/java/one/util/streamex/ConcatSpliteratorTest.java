@@ -0,0 +1,160 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import static one.util.streamex.TestHelpers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+/**
+ * @author Tagir Valeev
+ */
+public class ConcatSpliteratorTest {
+    @Test
+    public void testCharacteristics() {
+        ConcatSpliterator.OfRef<Integer> spltr = new ConcatSpliterator.OfRef<>(new Spliterator<?>[] {
+                IntStreamEx.range(1000).spliterator(), IntStreamEx.range(10).spliterator(),
+                IntStreamEx.range(1000).spliterator() });
+        assertTrue(spltr.hasCharacteristics(Spliterator.SIZED));
+        assertTrue(spltr.hasCharacteristics(Spliterator.SUBSIZED));
+        assertTrue(spltr.hasCharacteristics(Spliterator.ORDERED));
+        assertEquals(2010, spltr.getExactSizeIfKnown());
+        spltr.tryAdvance(x -> assertEquals(0, (int) x));
+        assertEquals(2009, spltr.getExactSizeIfKnown());
+
+        spltr = new ConcatSpliterator.OfRef<>(new Spliterator<?>[] { IntStreamEx.range(1000).spliterator(),
+                new HashSet<>(Arrays.asList(1, 2, 3)).spliterator() });
+        assertTrue(spltr.hasCharacteristics(Spliterator.SIZED));
+        assertFalse(spltr.hasCharacteristics(Spliterator.ORDERED));
+
+        ConcatSpliterator.Longs longSpltr = new ConcatSpliterator.Longs(new Spliterator.OfLong[] {
+                LongStreamEx.range(Long.MAX_VALUE / 2 + 1).spliterator(),
+                LongStreamEx.range(Long.MAX_VALUE / 2 + 1).spliterator() });
+        assertFalse(longSpltr.hasCharacteristics(Spliterator.SIZED));
+        assertFalse(longSpltr.hasCharacteristics(Spliterator.SUBSIZED));
+        assertEquals(Long.MAX_VALUE, longSpltr.estimateSize());
+
+        assertEquals(0, new ConcatSpliterator.OfRef<>(new Spliterator<?>[0]).getExactSizeIfKnown());
+    }
+
+    @Test
+    public void testSpliterator() {
+        withRandom(r -> repeat(10, n -> {
+            List<List<Integer>> lists = IntStreamEx.range(r.nextInt(n * 10) + 1).mapToObj(i -> IntStreamEx.range(
+                r.nextInt(4) == 0 ? 0 : r.nextInt(100)).boxed().toList()).toList();
+            List<Integer> expected = StreamEx.of(lists).toFlatList(l -> l);
+            checkSpliterator("ref", expected, () -> new ConcatSpliterator.OfRef<>(StreamEx.of(lists).map(
+                List::spliterator).toArray(Spliterator<?>[]::new)));
+            checkSpliterator("unsized", expected, () -> new ConcatSpliterator.OfRef<>(StreamEx.of(lists).map(
+                l -> Spliterators.spliteratorUnknownSize(l.iterator(), Spliterator.ORDERED)).toArray(
+                Spliterator<?>[]::new)));
+            checkSpliterator("int", expected, () -> new ConcatSpliterator.Ints(StreamEx.of(lists).map(
+                l -> IntStreamEx.of(l).spliterator()).toArray(Spliterator.OfInt[]::new)));
+        }));
+    }
+
+    @Test
+    public void testBalancedSplit() {
+        ConcatSpliterator.OfRef<Integer> spltr = new ConcatSpliterator.OfRef<>(IntStreamEx.range(1000).mapToObj(
+            i -> Collections.singletonList(i).spliterator()).toArray(Spliterator<?>[]::new));
+        Spliterator<Integer> prefix = spltr.trySplit();
+        assertEquals(500, prefix.getExactSizeIfKnown());
+        assertEquals(500, spltr.getExactSizeIfKnown());
+        prefix.tryAdvance(x -> assertEquals(0, (int) x));
+        spltr.tryAdvance(x -> assertEquals(500, (int) x));
+
+        // the big part goes alone
+        spltr = new ConcatSpliterator.OfRef<>(new Spliterator<?>[] { IntStreamEx.range(10).spliterator(),
+                IntStreamEx.range(10).spliterator(), IntStreamEx.range(1000).spliterator(),
+                IntStreamEx.range(10).spliterator() });
+        assertEquals(20, spltr.trySplit().getExactSizeIfKnown());
+        assertEquals(1010, spltr.getExactSizeIfKnown());
+        assertEquals(1000, spltr.trySplit().getExactSizeIfKnown());
+        assertEquals(10, spltr.getExactSizeIfKnown());
+    }
+
+    @Test
+    public void testFlattenAppend() {
+        StreamEx<Integer> stream = StreamEx.of(0);
+        for (int i = 1; i < 10000; i++) {
+            stream = i % 2 == 0 ? stream.append(StreamEx.of(i)) : stream.append(i);
+        }
+        Spliterator<Integer> spltr = stream.spliterator();
+        assertTrue(spltr instanceof ConcatSpliterator);
+        ConcatSpliterator<?, ?> concat = (ConcatSpliterator<?, ?>) spltr;
+        assertEquals(10000, concat.to - concat.from);
+        assertEquals(IntStreamEx.range(10000).boxed().toList(), StreamEx.of(spltr).toList());
+
+        stream = StreamEx.of(0);
+        for (int i = 1; i < 10000; i++) {
+            stream = i % 2 == 0 ? stream.prepend(StreamEx.of(-i)) : stream.prepend(Collections.singleton(-i));
+        }
+        assertEquals(IntStreamEx.range(-9999, 1).boxed().toList(), stream.parallel().toList());
+
+        List<Integer> expected = IntStreamEx.range(-90, 100).boxed().toList();
+        streamEx(() -> IntStreamEx.range(0, 10).boxed(), supplier -> {
+            StreamEx<Integer> s = supplier.get();
+            for (int i = 1; i < 10; i++) {
+                s = s.append(IntStreamEx.range(i * 10, i * 10 + 10).boxed()).prepend(IntStreamEx.range(-i * 10,
+                    -i * 10 + 10).boxed());
+            }
+            assertEquals(expected, s.toList());
+        });
+    }
+
+    @Test
+    public void testConcat() {
+        List<Stream<Integer>> streams = new ArrayList<>();
+        AtomicInteger closed = new AtomicInteger();
+        for (int i = 0; i < 1000; i++) {
+            streams.add(IntStreamEx.range(i * 10, i * 10 + 10).boxed().onClose(closed::incrementAndGet));
+        }
+        streams.add(StreamEx.of(10000).parallel());
+        try (StreamEx<Integer> stream = StreamEx.concat(streams)) {
+            assertTrue(stream.isParallel());
+            assertEquals(IntStreamEx.rangeClosed(0, 10000).boxed().toList(), stream.toList());
+        }
+        assertEquals(1000, closed.get());
+        assertEquals(Arrays.asList(1, 2, 3), StreamEx.concat(StreamEx.of(1), Stream.of(2, 3)).toList());
+        assertEquals(0, StreamEx.concat().count());
+
+        List<IntStream> intStreams = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            intStreams.add(IntStreamEx.range(i * 10, i * 10 + 10));
+        }
+        assertArrayEquals(IntStreamEx.range(10000).toArray(), IntStreamEx.concat(intStreams).parallel().toArray());
+        assertArrayEquals(new int[] { 1, 2, 3 }, IntStreamEx.concat(IntStreamEx.of(1), IntStream.of(2, 3))
+                .toArray());
+        assertArrayEquals(new long[] { 1, 2, 3 }, LongStreamEx.concat(LongStreamEx.of(1), LongStreamEx.of(2, 3))
+                .toArray());
+        assertArrayEquals(new double[] { 1, 2, 3 }, DoubleStreamEx.concat(DoubleStreamEx.of(1), DoubleStreamEx.of(
+            2, 3)).toArray(), 0.0);
+        assertEquals(4950, LongStreamEx.concat(LongStreamEx.range(50), LongStreamEx.range(50, 100)).parallel()
+                .sum());
+    }
+}
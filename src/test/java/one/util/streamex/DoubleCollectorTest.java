@@ -15,8 +15,12 @@
  */
 package one.util.streamex;
 
+import static one.util.streamex.TestHelpers.*;
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.OptionalDouble;
 import java.util.stream.Collectors;
@@ -96,6 +100,25 @@ public class DoubleCollectorTest {
                 .asDoubleStream().collect(DoubleCollector.toFloatArray()), 0.0f);
     }
 
+    @Test
+    public void testTupling() {
+        DoubleCollector<?, List<Object>> stats = DoubleCollector.tupling(DoubleCollector.counting(), DoubleCollector
+                .summing(), DoubleCollector.min(), DoubleCollector.max(), DoubleCollector.mapping(x -> x % 10,
+            DoubleCollector.toArray()));
+        List<Object> expected = Arrays.asList(100L, 4950.0, OptionalDouble.of(0), OptionalDouble.of(99), IntStreamEx
+                .range(100).asDoubleStream().map(x -> x % 10).toArray());
+        List<Object> result = IntStreamEx.range(100).asDoubleStream().collect(stats);
+        assertEquals(expected.subList(0, 4), result.subList(0, 4));
+        assertArrayEquals((double[]) expected.get(4), (double[]) result.get(4), 0.0);
+        result = IntStreamEx.range(100).asDoubleStream().parallel().collect(stats);
+        assertEquals(expected.subList(0, 4), result.subList(0, 4));
+        assertArrayEquals((double[]) expected.get(4), (double[]) result.get(4), 0.0);
+        // boxed stream is unboxed once
+        assertEquals(Arrays.asList(4950.0, OptionalDouble.of(99)), IntStreamEx.range(100).asDoubleStream().boxed()
+                .collect(DoubleCollector.tupling(DoubleCollector.summing(), DoubleCollector.max())));
+        assertEquals(Collections.emptyList(), DoubleStreamEx.empty().collect(DoubleCollector.tupling()));
+    }
+
     @Test
     public void testPartitioning() {
         double[] expectedEven = IntStream.range(0, 1000).asDoubleStream().map(i -> i * 2).toArray();
@@ -175,4 +198,42 @@ public class DoubleCollectorTest {
         assertArrayEquals(expected, DoubleStreamEx.of(1.0, 1.5, 2.7, 3.0).parallel().collect(
             DoubleCollector.toBooleanArray(x -> Math.floor(x) == x)));
     }
+
+    @Test
+    public void testMoments() {
+        withRandom(r -> {
+            // large offset makes the naive sum of squares approach useless
+            double[] data = DoubleStreamEx.of(r, 10000).map(x -> 1e6 + x * x * x).toArray();
+            double n = data.length;
+            double mean = DoubleStreamEx.of(data).sum() / n;
+            double m2 = DoubleStreamEx.of(data).map(x -> Math.pow(x - mean, 2)).sum();
+            double m3 = DoubleStreamEx.of(data).map(x -> Math.pow(x - mean, 3)).sum();
+            double m4 = DoubleStreamEx.of(data).map(x -> Math.pow(x - mean, 4)).sum();
+            for (DoubleMoments moments : new DoubleMoments[] { DoubleStreamEx.of(data).collect(DoubleCollector.moments()),
+                    DoubleStreamEx.of(data).parallel().collect(DoubleCollector.moments()) }) {
+                assertEquals(data.length, moments.getCount());
+                assertEquals(mean, moments.getMean(), 1e-8);
+                assertEquals(m2 / n, moments.getVariance(), 1e-9);
+                assertEquals(m2 / (n - 1), moments.getSampleVariance(), 1e-9);
+                assertEquals(Math.sqrt(m2 / n), moments.getStandardDeviation(), 1e-9);
+                assertEquals(Math.sqrt(n) * m3 / Math.pow(m2, 1.5), moments.getSkewness(), 1e-6);
+                assertEquals(n * m4 / (m2 * m2) - 3, moments.getKurtosis(), 1e-6);
+            }
+        });
+        DoubleMoments moments = DoubleStreamEx.of(2, 4, 4, 4, 5, 5, 7, 9).parallel().collect(DoubleCollector
+                .moments());
+        assertEquals(5.0, moments.getMean(), 0.0);
+        assertEquals(4.0, moments.getVariance(), 1e-15);
+        assertEquals(2.0, moments.getStandardDeviation(), 1e-15);
+        assertEquals(0.65625, moments.getSkewness(), 1e-14);
+        assertEquals(-0.21875, moments.getKurtosis(), 1e-14);
+        assertEquals("DoubleMoments{count=8, mean=5.000000, variance=4.000000, skewness=0.656250, kurtosis=-0.218750}",
+            moments.toString());
+        DoubleMoments empty = DoubleStreamEx.empty().collect(DoubleCollector.moments());
+        assertEquals(0, empty.getCount());
+        assertEquals(0.0, empty.getVariance(), 0.0);
+        assertTrue(Double.isNaN(empty.getSampleVariance()));
+        assertTrue(Double.isNaN(empty.getSkewness()));
+        assertTrue(Double.isNaN(DoubleStreamEx.constant(3.0, 10).collect(DoubleCollector.moments()).getKurtosis()));
+    }
 }
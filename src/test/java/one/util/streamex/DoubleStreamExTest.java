@@ -500,4 +500,29 @@ public class DoubleStreamExTest {
                 .toArray(), 0.0);
         assertEquals(0L, IntStreamEx.empty().intersperse(1).count());
     }
+
+    @Test
+    public void testCollapse() {
+        assertArrayEquals(new double[] { 1, 2, 5, 3 }, DoubleStreamEx.of(1, 1, 2, 5, 5, 5, 3).collapse(
+            (a, b) -> a == b).toArray(), 0.0);
+        assertArrayEquals(new double[] { 8.5, 5, 5, 3 }, DoubleStreamEx.of(1, 2.5, 5, 5, 5, 3).collapse(
+            (a, b) -> a < b, Double::sum).toArray(), 0.0);
+        assertArrayEquals(new double[] { 8.5, 5, 5, 3 }, DoubleStreamEx.of(1, 2.5, 5, 5, 5, 3).parallel().collapse(
+            (a, b) -> a < b, Double::sum).toArray(), 0.0);
+    }
+
+    @Test
+    public void testRunLengths() {
+        assertEquals("1.0=2, NaN=2, 1.0=1", DoubleStreamEx.of(1, 1, Double.NaN, Double.NaN, 1).runLengths().join(
+            "=").joining(", "));
+        double[] data = IntStreamEx.of(new Random(1), 10000, 0, 100).sorted().asDoubleStream().toArray();
+        assertEquals(DoubleStreamEx.of(data).boxed().runLengths().toMap(), DoubleStreamEx.of(data).parallel()
+                .runLengths().toMap());
+    }
+
+    @Test
+    public void testIntervalMap() {
+        assertArrayEquals(new double[] { 2, 1, 0 }, DoubleStreamEx.of(1, 2, 3, 5, 6, 8).parallel().intervalMap(
+            (a, b) -> b - a == 1, (a, b) -> b - a).toArray(), 0.0);
+    }
 }
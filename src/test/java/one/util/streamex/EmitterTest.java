@@ -20,8 +20,16 @@ import static one.util.streamex.TestHelpers.*;
 import static java.util.Arrays.asList;
 
 import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
 import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
 import java.util.function.LongPredicate;
 import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
@@ -141,6 +149,100 @@ public class EmitterTest {
         };
     }
     
+    public static StreamEx.StatefulEmitter<Integer> collatzStateful(int start) {
+        return new StreamEx.StatefulEmitter<Integer>() {
+            int cur = start;
+
+            @Override
+            public boolean advance(Consumer<? super Integer> action) {
+                if (cur == 0)
+                    return false;
+                action.accept(cur);
+                cur = cur == 1 ? 0 : cur % 2 == 0 ? cur / 2 : cur * 3 + 1;
+                return true;
+            }
+        };
+    }
+
+    // Emits every number n times starting from given one down to 1
+    public static IntStreamEx.IntStatefulEmitter flatTestIntStateful(int start) {
+        return new IntStreamEx.IntStatefulEmitter() {
+            int cur = start;
+
+            @Override
+            public boolean advance(IntConsumer action) {
+                if (cur == 0)
+                    return false;
+                for (int i = 0; i < cur; i++)
+                    action.accept(cur);
+                cur--;
+                return true;
+            }
+        };
+    }
+
+    // Visits the numbers in [from, to) range via depth-first traversal of the
+    // halving tree; pending subtrees can be handed off
+    static final class RangeTree implements LongStreamEx.LongStatefulEmitter {
+        private final Deque<long[]> stack = new ArrayDeque<>();
+
+        RangeTree(long from, long to) {
+            if (from < to)
+                stack.push(new long[] { from, to });
+        }
+
+        @Override
+        public boolean advance(LongConsumer action) {
+            long[] range = stack.poll();
+            if (range == null)
+                return false;
+            if (range[1] - range[0] == 1) {
+                action.accept(range[0]);
+            } else {
+                long mid = (range[0] + range[1]) >>> 1;
+                stack.push(new long[] { mid, range[1] });
+                stack.push(new long[] { range[0], mid });
+            }
+            return true;
+        }
+
+        @Override
+        public LongStreamEx.LongStatefulEmitter trySplit() {
+            if (stack.size() < 2)
+                return null;
+            long[] last = stack.pollLast();
+            return new RangeTree(last[0], last[1]);
+        }
+    }
+
+    @Test
+    public void testStatefulEmitter() {
+        List<Integer> expected = asList(17, 52, 26, 13, 40, 20, 10, 5, 16, 8, 4, 2, 1);
+        assertEquals(expected, collatzStateful(17).stream().toList());
+        checkSpliterator("collatz", expected, () -> collatzStateful(17).spliterator());
+        assertEquals(expected, collatzStateful(17).stream().parallel().toList());
+        assertArrayEquals(new int[] { 3, 3, 3, 2, 2, 1 }, flatTestIntStateful(3).stream().toArray());
+        checkSpliterator("flatTest", asList(4, 4, 4, 4, 3, 3, 3, 2, 2, 1), () -> flatTestIntStateful(4).spliterator());
+        assertEquals(asList(3, 3, 3, 2, 2), flatTestIntStateful(3).stream().limit(5).boxed().toList());
+
+        checkSpliterator("rangeTree", LongStreamEx.range(100).boxed().toList(), () -> new RangeTree(0, 100)
+                .spliterator());
+        Spliterator.OfLong spliterator = new RangeTree(0, 1000).spliterator();
+        assertTrue(spliterator.tryAdvance((long x) -> assertEquals(0, x)));
+        // pending right subtrees are handed off without buffering
+        Spliterator.OfLong prefix = spliterator.trySplit();
+        assertEquals(Long.MAX_VALUE, prefix.estimateSize());
+        assertEquals(LongStreamEx.range(1, 500).boxed().toList(), LongStreamEx.of(prefix).boxed().toList());
+        assertEquals(LongStreamEx.range(500, 1000).boxed().toList(), LongStreamEx.of(spliterator).boxed().toList());
+        assertEquals(499500L, new RangeTree(0, 1000).stream().parallel().sum());
+        assertArrayEquals(LongStreamEx.range(100000).toArray(), new RangeTree(0, 100000).stream().parallel()
+                .toArray());
+
+        DoubleStreamEx.DoubleStatefulEmitter empty = action -> false;
+        assertEquals(0, empty.stream().count());
+        checkSpliterator("empty", Collections.emptyList(), empty::spliterator);
+    }
+
     @Test
     public void testEmitter() {
         assertEquals(asList(17, 52, 26, 13, 40, 20, 10, 5, 16, 8, 4, 2, 1), collatz(17).stream().toList());
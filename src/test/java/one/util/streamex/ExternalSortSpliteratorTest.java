@@ -0,0 +1,144 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import one.util.streamex.StreamEx.RecordCodec;
+
+import static one.util.streamex.TestHelpers.*;
+import static org.junit.Assert.*;
+
+/**
+ * @author Tagir Valeev
+ */
+public class ExternalSortSpliteratorTest {
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    private static final RecordCodec<Entry<String, Integer>> ENTRY_CODEC = new RecordCodec<Entry<String, Integer>>() {
+        @Override
+        public void write(Entry<String, Integer> e, DataOutput out) throws IOException {
+            out.writeUTF(e.getKey());
+            out.writeInt(e.getValue());
+        }
+
+        @Override
+        public Entry<String, Integer> read(DataInput in) throws IOException {
+            return new SimpleImmutableEntry<>(in.readUTF(), in.readInt());
+        }
+    };
+
+    private Path dir() throws IOException {
+        return tmp.newFolder().toPath();
+    }
+
+    private static void assertEmpty(Path dir) {
+        File[] files = dir.toFile().listFiles();
+        assertNotNull(files);
+        assertEquals(Arrays.toString(files), 0, files.length);
+    }
+
+    @Test
+    public void testSorted() throws IOException {
+        Path dir = dir();
+        RecordCodec<String> codec = RecordCodec.of((s, out) -> out.writeUTF(s), DataInput::readUTF);
+        withRandom(r -> {
+            for (int size : new int[] { 0, 1, 10, 1000 }) {
+                List<String> input = IntStreamEx.of(r, size, 0, 300).mapToObj(String::valueOf).toList();
+                List<String> expected = StreamEx.of(input).sorted().toList();
+                for (int maxInMemory : new int[] { 1, 3, 100, 5000 }) {
+                    assertEquals(expected, StreamEx.of(input).externalSorted(Comparator.naturalOrder(), codec,
+                        maxInMemory, dir).toList());
+                    assertEmpty(dir);
+                    assertEquals(expected, StreamEx.of(input).parallel().externalSorted(Comparator.naturalOrder(),
+                        codec, maxInMemory, dir).toList());
+                    assertEmpty(dir);
+                }
+            }
+        });
+        // stability
+        List<Entry<String, Integer>> entries = EntryStream.of(IntStreamEx.range(500).boxed().toList()).invert()
+                .mapKeys(x -> String.valueOf(x % 7)).toList();
+        Comparator<Entry<String, Integer>> byKey = Entry.comparingByKey();
+        assertEquals(StreamEx.of(entries).sorted(byKey).toList(), StreamEx.of(entries).externalSorted(byKey,
+            ENTRY_CODEC, 16, dir).toList());
+        assertEmpty(dir);
+    }
+
+    @Test
+    public void testClose() throws IOException {
+        Path dir = dir();
+        try (IntStreamEx s = IntStreamEx.range(1000).map(x -> 999 - x).externalSorted(10, dir)) {
+            assertEquals(IntStreamEx.range(5).boxed().toList(), s.limit(5).boxed().toList());
+            assertEquals(1, dir.toFile().listFiles().length);
+        }
+        assertEmpty(dir);
+        // not started
+        IntStreamEx.range(1000).externalSorted(10, dir).close();
+        assertEmpty(dir);
+        try {
+            StreamEx.of("a", "b").externalSorted(Comparator.naturalOrder(), RecordCodec.of((s, out) -> out
+                    .writeUTF(s), DataInput::readUTF), 1, dir.resolve("missing")).toList();
+            fail("Should throw");
+        } catch (UncheckedIOException e) {
+            // expected
+        }
+        try {
+            IntStreamEx.of(1).externalSorted(0, dir);
+            fail("Should throw");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testPrimitive() throws IOException {
+        Path dir = dir();
+        Random r = new Random(1);
+        int[] ints = r.ints(50000).toArray();
+        long[] longs = r.longs(50000).toArray();
+        int[] sortedInts = ints.clone();
+        Arrays.sort(sortedInts);
+        long[] sortedLongs = longs.clone();
+        Arrays.sort(sortedLongs);
+        for (int maxInMemory : new int[] { 7, 1000, 20000, 100000 }) {
+            assertArrayEquals(sortedInts, IntStreamEx.of(ints).externalSorted(maxInMemory, dir).toArray());
+            assertEmpty(dir);
+            assertArrayEquals(sortedLongs, LongStreamEx.of(longs).externalSorted(maxInMemory, dir).toArray());
+            assertEmpty(dir);
+        }
+        assertArrayEquals(new int[0], IntStreamEx.empty().externalSorted(1, dir).toArray());
+        assertArrayEquals(new long[] { -1, 0, 0, 2 }, LongStreamEx.of(0, 2, -1, 0).parallel().externalSorted(1,
+            dir).toArray());
+        assertEmpty(dir);
+    }
+}
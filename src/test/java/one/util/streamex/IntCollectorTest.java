@@ -18,10 +18,14 @@ package one.util.streamex;
 import static one.util.streamex.TestHelpers.*;
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
 import java.util.BitSet;
+import java.util.Collections;
 import java.util.IntSummaryStatistics;
 import java.util.List;
 import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.OptionalInt;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -128,6 +132,24 @@ public class IntCollectorTest {
             IntCollector.toShortArray()));
     }
 
+    @Test
+    public void testTupling() {
+        IntCollector<?, List<Object>> stats = IntCollector.tupling(IntCollector.counting(), IntCollector.summing(),
+            IntCollector.min(), IntCollector.max(), IntCollector.mapping(x -> x % 10, IntCollector.toArray()));
+        List<Object> expected = Arrays.asList(100L, 4950, OptionalInt.of(0), OptionalInt.of(99), IntStreamEx.range(100)
+                .map(x -> x % 10).toArray());
+        List<Object> result = IntStreamEx.range(100).collect(stats);
+        assertEquals(expected.subList(0, 4), result.subList(0, 4));
+        assertArrayEquals((int[]) expected.get(4), (int[]) result.get(4));
+        result = IntStreamEx.range(100).parallel().collect(stats);
+        assertEquals(expected.subList(0, 4), result.subList(0, 4));
+        assertArrayEquals((int[]) expected.get(4), (int[]) result.get(4));
+        // boxed stream is unboxed once
+        assertEquals(Arrays.asList(4950, OptionalInt.of(99)), IntStreamEx.range(100).boxed().collect(IntCollector.tupling(
+            IntCollector.summing(), IntCollector.max())));
+        assertEquals(Collections.emptyList(), IntStreamEx.range(100).collect(IntCollector.tupling()));
+    }
+
     @SuppressWarnings("SuspiciousMethodCalls")
     @Test
     public void testPartitioning() {
@@ -242,4 +264,28 @@ public class IntCollectorTest {
         assertArrayEquals(expected, IntStreamEx.of(-1, 2, 3, -4).parallel().collect(
             IntCollector.toBooleanArray(x -> x < 0)));
     }
+
+    @Test
+    public void testSample() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (boolean parallel : new boolean[] { false, true }) {
+            int[] buckets = new int[10];
+            int trials = 3000;
+            for (int i = 0; i < trials; i++) {
+                IntStreamEx s = IntStreamEx.range(1000);
+                int[] sample = (parallel ? s.parallel() : s).collect(IntCollector.sample(10, random));
+                assertEquals(10, sample.length);
+                assertEquals(10, IntStreamEx.of(sample).distinct().count());
+                for (int x : sample) {
+                    buckets[(int) (x / 100)]++;
+                }
+            }
+            for (int bucket : buckets) {
+                assertEquals(trials, bucket, trials / 10);
+            }
+        }
+        assertArrayEquals(new int[] { 1, 2, 3 }, IntStreamEx.of(IntStreamEx.of(3, 1, 2).parallel().collect(IntCollector.sample(5,
+            random))).sorted().toArray());
+        assertArrayEquals(new int[0], IntStreamEx.empty().collect(IntCollector.sample(5, random)));
+    }
 }
@@ -383,6 +383,26 @@ public class IntStreamExTest {
     public void testToBitSet() {
         assertEquals("{0, 1, 2, 3, 4}", IntStreamEx.range(5).toBitSet().toString());
         assertEquals("{0, 2, 3, 4, 10}", IntStreamEx.of(0, 2, 0, 3, 0, 4, 0, 10).parallel().toBitSet().toString());
+        BitSet dense = IntStreamEx.range(1000000).parallel().filter(x -> x % 3 != 0).toBitSet();
+        assertEquals(666666, dense.cardinality());
+        assertEquals(999999, dense.length());
+        assertEquals(dense, IntStreamEx.range(1000000).filter(x -> x % 3 != 0).toBitSet());
+        assertEquals(dense, IntStreamEx.of(dense).parallel().toBitSet());
+        assertEquals(666666, IntStreamEx.of(dense).parallel().count());
+        assertArrayEquals(IntStreamEx.of(dense).toArray(), IntStreamEx.of(dense).parallel().toArray());
+        withRandom(r -> {
+            int[] input = r.ints(10000, 0, 1 << 30).toArray();
+            BitSet expected = new BitSet();
+            IntStreamEx.of(input).forEach(expected::set);
+            assertEquals(expected, IntStreamEx.of(input).parallel().toBitSet());
+            assertEquals(expected, IntStreamEx.of(input).collect(IntCollector.toBitSet()));
+        });
+        try {
+            IntStreamEx.of(1, -1).parallel().toBitSet();
+            fail("Should throw");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
     }
 
     @Test
@@ -422,6 +442,21 @@ public class IntStreamExTest {
                 .charsToString());
         assertEquals("LOWERCASE", IntStreamEx.ofCodePoints("lowercase").map(Character::toUpperCase)
                 .codePointsToString());
+        String smp = "a\uD83D\uDE00b\uD835\uDD0Ac";
+        assertEquals(smp, IntStreamEx.ofCodePoints(smp).codePointsToString());
+        assertEquals(smp, IntStreamEx.ofCodePoints(smp).parallel().codePointsToString());
+        assertEquals(smp, IntStreamEx.ofCodePoints(smp).filter(cp -> true).codePointsToString());
+        assertEquals(smp, IntStreamEx.ofChars(smp).charsToString());
+        assertEquals(smp, IntStreamEx.ofChars(smp).parallel().charsToString());
+        assertEquals(smp, IntStreamEx.ofChars(smp).filter(cp -> true).charsToString());
+        assertEquals("", IntStreamEx.empty().codePointsToString());
+        assertEquals("", IntStreamEx.empty().charsToString());
+        withRandom(r -> {
+            String str = IntStreamEx.of(r, 5000, 0, 0x20000).filter(Character::isValidCodePoint).codePointsToString();
+            assertEquals(str, IntStreamEx.ofCodePoints(str).codePointsToString());
+            assertEquals(str, IntStreamEx.ofCodePoints(str).parallel().codePointsToString());
+            assertEquals(str, IntStreamEx.ofChars(str).parallel().charsToString());
+        });
     }
 
     @SafeVarargs
@@ -777,4 +812,41 @@ public class IntStreamExTest {
                 .toArray());
         assertEquals(0L, IntStreamEx.empty().intersperse(1).count());
     }
+
+    @Test
+    public void testCollapse() {
+        assertArrayEquals(new int[] { 1, 2, 5, 3 }, IntStreamEx.of(1, 1, 2, 5, 5, 5, 3).collapse((a, b) -> a == b)
+                .toArray());
+        assertArrayEquals(new int[] { 1, 4, 15, 3 }, IntStreamEx.of(1, 2, 2, 5, 5, 5, 3).collapse((a, b) -> a == b,
+            Integer::sum).toArray());
+        assertEquals(0, IntStreamEx.empty().collapse((a, b) -> true).count());
+        withRandom(r -> {
+            int[] data = IntStreamEx.of(r, 10000, 0, 100).sorted().toArray();
+            int[] expected = IntStreamEx.of(data).boxed().collapse(Integer::equals, Integer::sum).mapToInt(
+                Integer::intValue).toArray();
+            assertArrayEquals(expected, IntStreamEx.of(data).collapse((a, b) -> a == b, Integer::sum).toArray());
+            assertArrayEquals(expected, IntStreamEx.of(data).parallel().collapse((a, b) -> a == b, Integer::sum)
+                    .toArray());
+        });
+    }
+
+    @Test
+    public void testRunLengths() {
+        assertEquals("1=2, 2=1, 1=3", IntStreamEx.of(1, 1, 2, 1, 1, 1).runLengths().join("=").joining(", "));
+        withRandom(r -> {
+            int[] data = IntStreamEx.of(r, 10000, 0, 100).sorted().toArray();
+            Map<Integer, Long> expected = IntStreamEx.of(data).boxed().runLengths().toMap();
+            assertEquals(expected, IntStreamEx.of(data).runLengths().toMap());
+            assertEquals(expected, IntStreamEx.of(data).parallel().runLengths().toMap());
+        });
+    }
+
+    @Test
+    public void testIntervalMap() {
+        assertEquals("1..3,5..6,8..8", IntStreamEx.of(1, 2, 3, 5, 6, 8).intervalMap((a, b) -> b - a == 1,
+            (a, b) -> a * 10 + b).mapToObj(x -> x / 10 + ".." + x % 10).joining(","));
+        assertArrayEquals(IntStreamEx.range(1000).boxed().intervalMap((a, b) -> b - a == 1 && b % 100 != 0,
+            (a, b) -> b - a).mapToInt(Integer::intValue).toArray(), IntStreamEx.range(1000).parallel().intervalMap(
+            (a, b) -> b - a == 1 && b % 100 != 0, (a, b) -> b - a).toArray());
+    }
 }
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static one.util.streamex.TestHelpers.*;
+import static org.junit.Assert.*;
+
+/**
+ * @author Tagir Valeev
+ */
+public class JoinSpliteratorTest {
+    // reference nested loop join
+    private static List<Entry<Integer, String>> join(List<Entry<Integer, String>> left,
+            List<Entry<Integer, String>> right, boolean keepLeft, boolean keepRight) {
+        List<Entry<Integer, String>> result = new ArrayList<>();
+        for (Entry<Integer, String> l : left) {
+            boolean found = false;
+            for (Entry<Integer, String> r : right) {
+                if (l.getKey().equals(r.getKey())) {
+                    found = true;
+                    result.add(new SimpleImmutableEntry<>(l.getKey(), l.getValue() + r.getValue()));
+                }
+            }
+            if (!found && keepLeft)
+                result.add(new SimpleImmutableEntry<>(l.getKey(), l.getValue() + null));
+        }
+        if (keepRight) {
+            // unmatched entries are grouped by key in the order of first occurrence
+            StreamEx.of(right).map(Entry::getKey).distinct().remove(k -> StreamEx.of(left).anyMatch(
+                l -> l.getKey().equals(k))).forEach(k -> right.stream().filter(r -> r.getKey().equals(k)).forEach(
+                r -> result.add(new SimpleImmutableEntry<>(k, null + r.getValue()))));
+        }
+        return result;
+    }
+
+    private static List<Entry<Integer, String>> input(Random r, int size, String prefix) {
+        return IntStreamEx.of(r, size, 0, size).sorted().boxed().mapToEntry(x -> prefix + r.nextInt(10)).toList();
+    }
+
+    @Test
+    public void testHash() {
+        withRandom(r -> repeat(10, n -> {
+            List<Entry<Integer, String>> left = input(r, n * 10, "a");
+            List<Entry<Integer, String>> right = input(r, n * 5, "b");
+            Collections.shuffle(right, r);
+            for (boolean keepLeft : new boolean[] { false, true }) {
+                for (boolean keepRight : new boolean[] { false, true }) {
+                    List<Entry<Integer, String>> expected = join(left, right, keepLeft, keepRight);
+                    checkSpliterator("hash " + keepLeft + keepRight, expected, () -> new JoinSpliterator.Hash<>(left
+                            .spliterator(), () -> EntryStream.of(right.stream()).grouping(LinkedHashMap::new),
+                            (String a, String b) -> a + b, keepLeft, keepRight));
+                }
+            }
+        }));
+    }
+
+    @Test
+    public void testMerge() {
+        withRandom(r -> repeat(10, n -> {
+            List<Entry<Integer, String>> left = input(r, n * 10, "a");
+            List<Entry<Integer, String>> right = input(r, n * 5, "b");
+            for (boolean keepLeft : new boolean[] { false, true }) {
+                for (boolean keepRight : new boolean[] { false, true }) {
+                    if (keepRight && !keepLeft)
+                        continue;
+                    List<Entry<Integer, String>> expected = StreamEx.of(join(left, right, keepLeft, keepRight))
+                            .sorted(Entry.comparingByKey()).toList();
+                    checkSpliterator("merge " + keepLeft + keepRight, expected, () -> new JoinSpliterator.Merge<>(
+                            EntryStream.of(left.stream()).collapseKeys().spliterator(), EntryStream.of(
+                                right.stream()).collapseKeys().spliterator(), Comparator.<Integer> naturalOrder(), (
+                                    String a, String b) -> a + b, keepLeft, keepRight));
+                }
+            }
+        }));
+    }
+
+    @Test
+    public void testEntryStream() {
+        Map<String, Integer> ages = new LinkedHashMap<>();
+        ages.put("alice", 30);
+        ages.put("bob", 25);
+        ages.put("carol", 40);
+        Map<String, String> cities = new HashMap<>();
+        cities.put("bob", "Paris");
+        cities.put("carol", "Rome");
+        cities.put("dave", "Oslo");
+
+        assertEquals("bob:25/Paris,carol:40/Rome", EntryStream.of(ages).innerJoin(cities, (a, c) -> a + "/" + c)
+                .join(":").joining(","));
+        assertEquals("alice:30/null,bob:25/Paris,carol:40/Rome", EntryStream.of(ages).leftJoin(cities,
+            (a, c) -> a + "/" + c).join(":").joining(","));
+        streamEx(() -> EntryStream.of(ages).mapKeyValue(SimpleImmutableEntry::new), s -> {
+            assertEquals("bob:25/Paris,carol:40/Rome", EntryStream.of(s.get()).innerJoin(EntryStream.of(cities),
+                (a, c) -> a + "/" + c).join(":").joining(","));
+            assertEquals("alice:30/null,bob:25/Paris,carol:40/Rome", EntryStream.of(s.get()).leftJoin(EntryStream
+                    .of(cities), (a, c) -> a + "/" + c).join(":").joining(","));
+            assertEquals("alice:30/null,bob:25/Paris,carol:40/Rome,dave:null/Oslo", EntryStream.of(s.get()).fullJoin(
+                EntryStream.of(cities), (a, c) -> a + "/" + c).join(":").joining(","));
+        });
+        assertEquals("alice:30/null,bob:25/Paris,carol:40/Rome,dave:null/Oslo", EntryStream.of(ages).fullJoin(
+            EntryStream.of(cities).sortedBy(Entry::getKey), Comparator.naturalOrder(), (a, c) -> a + "/" + c).join(
+            ":").joining(","));
+        assertEquals("bob:25/Paris,carol:40/Rome", EntryStream.of(ages).innerJoin(EntryStream.of(cities).parallel()
+                .sortedBy(Entry::getKey), Comparator.naturalOrder(), (a, c) -> a + "/" + c).join(":").joining(","));
+        assertEquals(Arrays.asList(1, 4, 4, 9), EntryStream.of(1, 1, 2, 2, 2, 2, 3, 3).leftJoin(EntryStream.of(2,
+            2, 3, 3), Comparator.naturalOrder(), (a, b) -> b == null ? a : a * b).values().toList());
+        assertEquals(Arrays.asList(1, 4, 4, 9), EntryStream.of(1, 1, 2, 2, 2, 2, 3, 3).leftJoin(EntryStream.of(2,
+            2, 3, 3), (a, b) -> b == null ? a : a * b).values().toList());
+        // the order follows this stream regardless of the sizes
+        List<Entry<Integer, String>> small = EntryStream.of(1, "a", 3, "c", 5, "e").toList();
+        List<Entry<Integer, String>> big = EntryStream.of(4, "D", 3, "C", 2, "B", 1, "A").toList();
+        assertEquals("1aA,3cC", EntryStream.of(small.stream()).innerJoin(EntryStream.of(big.stream()),
+            (a, b) -> a + b).join("").joining(","));
+        assertEquals("1aA,3cC,5enull", EntryStream.of(small.stream()).leftJoin(EntryStream.of(big.stream()),
+            (a, b) -> a + b).join("").joining(","));
+        assertEquals("1aA,3cC,5enull,2nullB,4nullD", EntryStream.of(small.stream()).fullJoin(EntryStream.of(big
+                .stream()), (a, b) -> a + b).join("").joining(","));
+        assertEquals("1aA,3cC,5enull", EntryStream.of(small.stream()).parallel().leftJoin(EntryStream.of(big
+                .stream()), (a, b) -> a + b).join("").joining(","));
+        assertEquals("3Cc,1Aa", EntryStream.of(big.stream()).innerJoin(EntryStream.of(small.stream()),
+            (a, b) -> a + b).join("").joining(","));
+        assertEquals("4Dnull,3Cc,2Bnull,1Aa", EntryStream.of(big.stream()).leftJoin(EntryStream.of(small.stream()),
+            (a, b) -> a + b).join("").joining(","));
+        assertEquals("4Dnull,3Cc,2Bnull,1Aa,5nulle", EntryStream.of(big.stream()).fullJoin(EntryStream.of(small
+                .stream()), (a, b) -> a + b).join("").joining(","));
+        // the smaller unordered stream is collected instead of the other one
+        AtomicInteger pulled = new AtomicInteger();
+        assertEquals("3:cC", EntryStream.of(small.stream()).unordered().innerJoin(EntryStream.of(big.stream())
+                .peekKeys(k -> pulled.incrementAndGet()), (a, b) -> a + b).join(":").findFirst().get());
+        assertEquals(2, pulled.get());
+        assertEquals(StreamEx.of("1aA", "3cC", "5enull", "2nullB", "4nullD").toSet(), EntryStream.of(small.stream())
+                .unordered().fullJoin(EntryStream.of(big.stream()), (a, b) -> a + b).join("").toSet());
+        assertEquals(StreamEx.of("1aA", "3cC", "5enull").toSet(), EntryStream.of(small.stream()).unordered()
+                .leftJoin(EntryStream.of(big.stream()), (a, b) -> a + b).join("").toSet());
+        assertEquals(1000, IntStreamEx.range(1000).boxed().mapToEntry(x -> x).parallel().innerJoin(IntStreamEx
+                .range(2000).boxed().mapToEntry(x -> -x).parallel(), Integer::sum).filterValues(v -> v == 0).count());
+
+        try {
+            EntryStream.of(2, "a", 1, "b").innerJoin(EntryStream.of(1, "c", 2, "d"), Comparator.naturalOrder(),
+                String::concat)
+                    .toList();
+            fail("Should throw");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        AtomicBoolean closed = new AtomicBoolean();
+        EntryStream<String, String> joined = EntryStream.of(ages).innerJoin(EntryStream.of(cities).onClose(
+            () -> closed.set(true)), (a, c) -> a + c);
+        assertEquals(2, joined.count());
+        joined.close();
+        assertTrue(closed.get());
+        assertTrue(EntryStream.of(ages).innerJoin(EntryStream.<String, String> empty(), Objects::equals).toList()
+                .isEmpty());
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import static one.util.streamex.TestHelpers.*;
+import static org.junit.Assert.*;
+
+/**
+ * @author Tagir Valeev
+ */
+public class KeyValueSpliteratorTest {
+    private static Map<Integer, String> input() {
+        Map<Integer, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < 100; i++)
+            map.put(i, String.valueOf(i * 3));
+        return map;
+    }
+
+    @Test
+    public void testSpliterator() {
+        Map<Integer, String> input = input();
+        List<Entry<Integer, Integer>> expected = EntryStream.of(input.entrySet().stream()).filterKeys(
+            k -> k % 2 == 0).mapValues(String::length).invert().toList();
+        checkSpliterator("fused", expected, () -> {
+            Spliterator<Entry<Integer, String>> source = input.entrySet().spliterator();
+            Spliterator<Entry<Integer, String>> filtered = KeyValueSpliterator.withStep(source, KeyValueSpliterator
+                    .filterKeys((Integer k) -> k % 2 == 0), true);
+            Spliterator<Entry<Integer, Integer>> mapped = KeyValueSpliterator.withStep(filtered,
+                KeyValueSpliterator.mapValues((String v) -> v.length()), false);
+            return KeyValueSpliterator.<Integer, Integer> withStep(mapped, KeyValueSpliterator.invert(), false);
+        });
+        checkSpliterator("finished", StreamEx.of(expected).map(e -> e.getKey() + ":" + e.getValue()).toList(),
+            () -> {
+                Spliterator<Entry<Integer, Integer>> fused = KeyValueSpliterator.withStep(KeyValueSpliterator
+                        .withStep(input.entrySet().spliterator(), KeyValueSpliterator
+                                .filterKeys((Integer k) -> k % 2 == 0), true), KeyValueSpliterator
+                        .mapToValue((Integer k, String v) -> v.length()), false);
+                return KeyValueSpliterator.finish(fused, (Integer k, Integer len) -> len + ":" + k);
+            });
+    }
+
+    @Test
+    public void testCharacteristics() {
+        Spliterator<Entry<Integer, String>> sized = KeyValueSpliterator.withStep(input().entrySet().spliterator(),
+            KeyValueSpliterator.mapKeys((Integer k) -> k + 1), false);
+        assertEquals(100, sized.getExactSizeIfKnown());
+        Spliterator<Entry<Integer, String>> filtered = KeyValueSpliterator.withStep(sized, KeyValueSpliterator
+                .filterValues((String v) -> v.length() > 1), true);
+        assertEquals(-1, filtered.getExactSizeIfKnown());
+        assertEquals(100, filtered.estimateSize());
+        assertNull(KeyValueSpliterator.finish(input().entrySet().spliterator(), (Integer k, String v) -> v));
+    }
+
+    @Test
+    public void testEntryStream() {
+        Map<Integer, String> input = input();
+        streamEx(() -> StreamEx.of(input.entrySet().spliterator()), supplier -> {
+            Map<String, Integer> expected = new TreeMap<>();
+            input.forEach((k, v) -> {
+                if (k % 3 == 0 && v.length() == 2)
+                    expected.put(v + "!", k * 2);
+            });
+            List<Integer> peeked = new ArrayList<>();
+            assertEquals(expected, EntryStream.of(supplier.get()).filterKeys(k -> k % 3 == 0).peekKeys(k -> {
+                    synchronized (peeked) {
+                        peeked.add(k);
+                    }
+                }).mapKeys(k -> k * 2).mapValues(v -> v + "!").filterValues(v -> v.length() == 3).invert()
+                    .toSortedMap());
+            assertEquals(34, peeked.size());
+        });
+        Map<Integer, Integer> lengths = EntryStream.of(input).filterKeys(k -> k < 10).mapValues(String::length)
+                .toMap();
+        assertEquals(EntryStream.of(1, 1, 5, 2, 9, 2).toMap(), EntryStream.of(lengths).filterKeyValue(
+            (k, v) -> k % 4 == 1).toMap());
+        assertEquals("0:0,1:3,2:6", EntryStream.of(input).filterKeys(k -> k < 3).mapKeyValue((k, v) -> k + ":" + v)
+                .joining(","));
+        StringBuilder sb = new StringBuilder();
+        EntryStream.of(input).removeKeys(k -> k > 2).invert().forKeyValue((k, v) -> sb.append(k).append(v));
+        assertEquals("003162", sb.toString());
+        assertEquals(100, EntryStream.of(input).mapToKey((k, v) -> v).count());
+        assertEquals(50, EntryStream.of(input).parallel().filterKeys(k -> k % 2 == 1).toMap().size());
+    }
+
+    @Test
+    public void testPassThrough() {
+        // the entries are not recreated unless the key or the value is mapped
+        Map<Integer, String> input = new HashMap<>(input());
+        EntryStream.of(input).filterKeys(k -> k < 10).nonNullValues().peekKeys(k -> {}).forEach(e -> e.setValue(
+            "x"));
+        assertEquals(10, EntryStream.of(input).filterValues("x"::equals).count());
+        EntryStream.of(input).selectValues(String.class).filterKeyValue((k, v) -> k >= 90).peekValues(v -> {})
+                .parallel().forEach(e -> e.setValue("y"));
+        assertEquals(10, EntryStream.of(input).filterValues("y"::equals).count());
+        Entry<Integer, String> entry = new SimpleEntry<>(1, "a");
+        assertSame(entry, EntryStream.of(Stream.of(entry).spliterator()).filterKeys(k -> k == 1).findFirst()
+                .get());
+        assertNotSame(entry, EntryStream.of(Stream.of(entry).spliterator()).filterKeys(k -> k == 1).mapValues(
+            v -> v).findFirst().get());
+    }
+}
@@ -18,9 +18,16 @@ package one.util.streamex;
 import static one.util.streamex.TestHelpers.*;
 import static org.junit.Assert.*;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LongSummaryStatistics;
+import java.util.List;
 import java.util.Map;
+import java.util.SplittableRandom;
 import java.util.OptionalLong;
 import java.util.stream.Collectors;
 import java.util.stream.LongStream;
@@ -93,6 +100,42 @@ public class LongCollectorTest {
         });
     }
 
+    @Test
+    public void testStatistics() {
+        withRandom(r -> {
+            long[] data = LongStreamEx.of(r, 1000, Long.MAX_VALUE / 2, Long.MAX_VALUE).toArray();
+            BigInteger sum = LongStreamEx.of(data).mapToObj(BigInteger::valueOf).reduce(BigInteger.ZERO,
+                BigInteger::add);
+            double mean = new BigDecimal(sum).divide(BigDecimal.valueOf(data.length), MathContext.DECIMAL128)
+                    .doubleValue();
+            double variance = LongStreamEx.of(data).mapToDouble(x -> (x - mean) * (x - mean)).sum() / data.length;
+            for (LongStatistics statistics : new LongStatistics[] {
+                    LongStreamEx.of(data).collect(LongCollector.statistics()),
+                    LongStreamEx.of(data).parallel().collect(LongCollector.statistics()) }) {
+                assertEquals(data.length, statistics.getCount());
+                assertEquals(sum, statistics.getSum());
+                assertEquals(LongStreamEx.of(data).max().getAsLong(), statistics.getMax());
+                assertEquals(LongStreamEx.of(data).min().getAsLong(), statistics.getMin());
+                assertEquals(mean, statistics.getAverage(), 0.0);
+                assertEquals(variance, statistics.getVariance(), variance / 1e10);
+            }
+        });
+        LongStatistics empty = LongStreamEx.empty().collect(LongCollector.statistics());
+        assertEquals(0, empty.getCount());
+        assertEquals(BigInteger.ZERO, empty.getSum());
+        assertEquals(Long.MAX_VALUE, empty.getMin());
+        assertEquals(Long.MIN_VALUE, empty.getMax());
+        assertEquals(0.0, empty.getAverage(), 0.0);
+        assertEquals(0.0, empty.getVariance(), 0.0);
+        LongStatistics stats = LongStreamEx.of(-1, Long.MIN_VALUE, Long.MIN_VALUE).parallel().collect(
+            LongCollector.statistics());
+        assertEquals(BigInteger.valueOf(Long.MIN_VALUE).shiftLeft(1).subtract(BigInteger.ONE), stats.getSum());
+        assertEquals(new BigDecimal(stats.getSum()).divide(BigDecimal.valueOf(3), MathContext.DECIMAL128)
+                .doubleValue(), stats.getAverage(), 0.0);
+        assertTrue(stats.toString().startsWith(
+            "LongStatistics{count=3, sum=-18446744073709551617, min=-9223372036854775808, average="));
+    }
+
     @Test
     public void testToArray() {
         assertArrayEquals(new long[] { 0, 1, 2, 3, 4 }, LongStreamEx.of(0, 1, 2, 3, 4).collect(LongCollector.toArray()));
@@ -107,6 +150,24 @@ public class LongCollectorTest {
             LongCollector.reducing((a, b) -> a * b).andThen(OptionalLong::getAsLong)));
     }
 
+    @Test
+    public void testTupling() {
+        LongCollector<?, List<Object>> stats = LongCollector.tupling(LongCollector.counting(), LongCollector.summing(),
+            LongCollector.min(), LongCollector.max(), LongCollector.mapping(x -> x % 10, LongCollector.toArray()));
+        List<Object> expected = Arrays.asList(100L, 4950L, OptionalLong.of(0), OptionalLong.of(99), LongStreamEx.range(100)
+                .map(x -> x % 10).toArray());
+        List<Object> result = LongStreamEx.range(100).collect(stats);
+        assertEquals(expected.subList(0, 4), result.subList(0, 4));
+        assertArrayEquals((long[]) expected.get(4), (long[]) result.get(4));
+        result = LongStreamEx.range(100).parallel().collect(stats);
+        assertEquals(expected.subList(0, 4), result.subList(0, 4));
+        assertArrayEquals((long[]) expected.get(4), (long[]) result.get(4));
+        // boxed stream is unboxed once
+        assertEquals(Arrays.asList(4950L, OptionalLong.of(99)), LongStreamEx.range(100).boxed().collect(LongCollector.tupling(
+            LongCollector.summing(), LongCollector.max())));
+        assertEquals(Collections.emptyList(), LongStreamEx.range(100).collect(LongCollector.tupling()));
+    }
+
     @Test
     public void testPartitioning() {
         long[] expectedEven = LongStream.range(0, 1000).map(i -> i * 2).toArray();
@@ -187,4 +248,28 @@ public class LongCollectorTest {
             Long.MAX_VALUE).parallel().collect(
             LongCollector.toBooleanArray(x -> x < Integer.MIN_VALUE || x > Integer.MAX_VALUE)));
     }
+
+    @Test
+    public void testSample() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (boolean parallel : new boolean[] { false, true }) {
+            int[] buckets = new int[10];
+            int trials = 3000;
+            for (int i = 0; i < trials; i++) {
+                LongStreamEx s = LongStreamEx.range(1000);
+                long[] sample = (parallel ? s.parallel() : s).collect(LongCollector.sample(10, random));
+                assertEquals(10, sample.length);
+                assertEquals(10, LongStreamEx.of(sample).distinct().count());
+                for (long x : sample) {
+                    buckets[(int) (x / 100)]++;
+                }
+            }
+            for (int bucket : buckets) {
+                assertEquals(trials, bucket, trials / 10);
+            }
+        }
+        assertArrayEquals(new long[] { 1, 2, 3 }, LongStreamEx.of(LongStreamEx.of(3, 1, 2).parallel().collect(LongCollector.sample(5,
+            random))).sorted().toArray());
+        assertArrayEquals(new long[0], LongStreamEx.empty().collect(LongCollector.sample(5, random)));
+    }
 }
@@ -589,4 +589,33 @@ public class LongStreamExTest {
                 .toArray());
         assertEquals(0L, IntStreamEx.empty().intersperse(1).count());
     }
+
+    @Test
+    public void testCollapse() {
+        assertArrayEquals(new long[] { 1, 2, 5, 3 }, LongStreamEx.of(1, 1, 2, 5, 5, 5, 3).collapse((a, b) -> a == b)
+                .toArray());
+        assertArrayEquals(new long[] { 1, 4, 15, 3 }, LongStreamEx.of(1, 2, 2, 5, 5, 5, 3).collapse(
+            (a, b) -> a == b, Long::sum).toArray());
+        long[] data = LongStreamEx.of(new Random(1), 10000, 0, 100).sorted().toArray();
+        long[] expected = LongStreamEx.of(data).boxed().collapse(Long::equals, Long::sum).mapToLong(Long::longValue)
+                .toArray();
+        assertArrayEquals(expected, LongStreamEx.of(data).parallel().collapse((a, b) -> a == b, Long::sum)
+                .toArray());
+    }
+
+    @Test
+    public void testRunLengths() {
+        assertEquals("1=2, 2=1, 1=3", LongStreamEx.of(1, 1, 2, 1, 1, 1).runLengths().join("=").joining(", "));
+        long[] data = LongStreamEx.of(new Random(1), 10000, 0, 100).sorted().toArray();
+        assertEquals(LongStreamEx.of(data).boxed().runLengths().toMap(), LongStreamEx.of(data).parallel()
+                .runLengths().toMap());
+    }
+
+    @Test
+    public void testIntervalMap() {
+        assertArrayEquals(new long[] { 13, 56, 88 }, LongStreamEx.of(1, 2, 3, 5, 6, 8).intervalMap(
+            (a, b) -> b - a == 1, (a, b) -> a * 10 + b).toArray());
+        assertArrayEquals(new long[] { 13, 56, 88 }, LongStreamEx.of(1, 2, 3, 5, 6, 8).parallel().intervalMap(
+            (a, b) -> b - a == 1, (a, b) -> a * 10 + b).toArray());
+    }
 }
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import static one.util.streamex.TestHelpers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * @author Tagir Valeev
+ */
+public class MergeSortedSpliteratorTest {
+    @SuppressWarnings("unchecked")
+    private static <T> Spliterator<? extends T>[] spliterators(List<List<T>> lists, boolean randomAccess) {
+        return StreamEx.of(lists).map(l -> randomAccess ? new RandomAccessSpliterator<>(l) : Spliterators
+                .spliteratorUnknownSize(l.iterator(), Spliterator.ORDERED)).toArray(Spliterator[]::new);
+    }
+
+    @Test
+    public void testSpliterator() {
+        withRandom(r -> repeat(10, n -> {
+            List<List<Integer>> lists = IntStreamEx.range(r.nextInt(n * 3) + 1).mapToObj(i -> IntStreamEx.of(r,
+                r.nextInt(4) == 0 ? 0 : r.nextInt(50), 0, 100).sorted().boxed().toList()).toList();
+            List<Integer> expected = StreamEx.of(lists).toFlatList(l -> l);
+            expected.sort(null);
+            Comparator<Integer> cmp = Comparator.naturalOrder();
+            checkSpliterator("list", expected, () -> MergeSortedSpliterator.of(spliterators(lists, true), cmp));
+            checkSpliterator("ref", expected, () -> MergeSortedSpliterator.of(spliterators(lists, false), cmp));
+            checkSpliterator("int", expected, () -> new MergeSortedSpliterator.Ints(StreamEx.of(lists).map(
+                l -> IntStreamEx.of(l).spliterator()).toArray(Spliterator.OfInt[]::new)));
+        }));
+    }
+
+    @Test
+    public void testStable() {
+        List<String> a = StreamEx.of("a1", "b1", "b2", "c1").toList();
+        List<String> b = StreamEx.of("a2", "b3", "d1").toList();
+        List<String> c = StreamEx.of("b4", "c2").toList();
+        List<String> expected = StreamEx.of("a1", "a2", "b1", "b2", "b3", "b4", "c1", "c2", "d1").toList();
+        Comparator<String> cmp = Comparator.comparing(s -> s.charAt(0));
+        assertEquals(expected, StreamEx.mergeSorted(cmp, StreamEx.of(a), StreamEx.of(b), StreamEx.of(c)).toList());
+        assertEquals(expected, StreamEx.mergeSorted(cmp, StreamEx.of(a), StreamEx.of(b), StreamEx.of(c)).parallel()
+                .toList());
+        assertEquals(expected, StreamEx.mergeSorted(cmp, a.stream(), b.stream(), c.stream()).parallel().toList());
+        Spliterator<String> spltr = StreamEx.mergeSorted(cmp, StreamEx.of(a), StreamEx.of(b)).spliterator();
+        assertTrue(spltr.hasCharacteristics(Spliterator.SORTED));
+        assertSame(cmp, spltr.getComparator());
+        assertEquals(7, spltr.getExactSizeIfKnown());
+    }
+
+    @Test
+    public void testPivotSplit() {
+        List<Integer> evens = IntStreamEx.range(0, 2000, 2).boxed().toList();
+        List<Integer> odds = IntStreamEx.range(1, 2000, 2).boxed().toList();
+        Spliterator<Integer> spltr = StreamEx.mergeSorted(Comparator.naturalOrder(), StreamEx.of(evens), StreamEx
+                .of(odds)).spliterator();
+        Spliterator<Integer> prefix = spltr.trySplit();
+        assertEquals(2000, prefix.getExactSizeIfKnown() + spltr.getExactSizeIfKnown());
+        assertTrue(prefix.getExactSizeIfKnown() > 900 && prefix.getExactSizeIfKnown() < 1100);
+        List<Integer> left = StreamEx.of(prefix).toList();
+        List<Integer> right = StreamEx.of(spltr).toList();
+        assertEquals(IntStreamEx.range(left.size()).boxed().toList(), left);
+        assertEquals(IntStreamEx.range(left.size(), 2000).boxed().toList(), right);
+
+        // equal elements cannot be split
+        List<Integer> same = StreamEx.constant(1, 10).toList();
+        spltr = StreamEx.mergeSorted(Comparator.naturalOrder(), StreamEx.of(same), StreamEx.of(same))
+                .spliterator();
+        assertNull(spltr.trySplit());
+    }
+
+    @Test
+    public void testUsedSource() {
+        Spliterator<Integer> spltr = StreamEx.of(Arrays.asList(1, 2, 3, 4)).spliterator();
+        assertTrue(spltr.tryAdvance(x -> {}));
+        assertTrue(spltr.tryAdvance(x -> {}));
+        assertEquals(Arrays.asList(3, 4, 5, 6), StreamEx.mergeSorted(Comparator.naturalOrder(), StreamEx.of(spltr),
+            StreamEx.of(Arrays.asList(5, 6))).toList());
+        Spliterator<Integer> suffix = StreamEx.of(Arrays.asList(1, 3, 5, 7)).spliterator();
+        Spliterator<Integer> prefix = suffix.trySplit();
+        assertEquals(Arrays.asList(1, 2, 3), StreamEx.mergeSorted(Comparator.naturalOrder(), StreamEx.of(prefix),
+            StreamEx.of(Arrays.asList(2))).toList());
+        assertEquals(Arrays.asList(2, 5, 7), StreamEx.mergeSorted(Comparator.naturalOrder(), StreamEx.of(suffix),
+            StreamEx.of(Arrays.asList(2))).parallel().toList());
+    }
+
+    @Test
+    public void testLazy() {
+        AtomicInteger pulled = new AtomicInteger();
+        StreamEx<Integer> infinite1 = StreamEx.iterate(0, x -> x + 2).peek(x -> pulled.incrementAndGet());
+        StreamEx<Integer> infinite2 = StreamEx.iterate(1, x -> x + 2).peek(x -> pulled.incrementAndGet());
+        assertEquals(IntStreamEx.range(10).boxed().toList(), StreamEx.mergeSorted(Comparator.naturalOrder(),
+            infinite1, infinite2).limit(10).toList());
+        assertTrue(pulled.get() <= 12);
+
+        AtomicInteger closed = new AtomicInteger();
+        StreamEx.mergeSorted(Comparator.naturalOrder(), StreamEx.of(1).onClose(closed::incrementAndGet), StreamEx
+                .of(2).onClose(closed::incrementAndGet)).close();
+        assertEquals(2, closed.get());
+    }
+
+    @Test
+    public void testPrimitive() {
+        assertArrayEquals(new int[] { 1, 2, 3, 3, 4, 5, 7 }, IntStreamEx.mergeSorted(IntStreamEx.of(1, 3, 5),
+            IntStreamEx.of(2, 3, 4, 7), IntStreamEx.empty()).toArray());
+        assertArrayEquals(new long[] { -1, 0, 1, 10 }, LongStreamEx.mergeSorted(LongStreamEx.of(-1, 10),
+            LongStreamEx.of(0, 1)).parallel().toArray());
+        assertArrayEquals(new double[] { -0.0, 0.0, 1.5, Double.NaN }, DoubleStreamEx.mergeSorted(DoubleStreamEx
+                .of(0.0, Double.NaN), DoubleStreamEx.of(-0.0, 1.5)).toArray(), 0.0);
+        assertEquals(0, IntStreamEx.mergeSorted().count());
+        int[] big = IntStreamEx.range(0, 30000, 3).toArray();
+        assertArrayEquals(IntStreamEx.range(30000).filter(x -> x % 3 != 2).toArray(), IntStreamEx.mergeSorted(
+            IntStreamEx.of(big), IntStreamEx.of(big).map(x -> x + 1)).parallel().toArray());
+    }
+
+    @Test
+    public void testEntryStream() {
+        List<Entry<String, Integer>> a = EntryStream.of("a", 1, "b", 2, "d", 3).toList();
+        List<Entry<String, Integer>> b = EntryStream.of("b", 10, "c", 20, "d", 30).toList();
+        List<Entry<String, Integer>> c = EntryStream.of("a", 100, "d", 300, "d", 400).toList();
+        Map<String, Integer> expected = EntryStream.of("a", 101, "b", 12, "c", 20, "d", 733).toMap();
+        assertEquals(expected, EntryStream.mergeSorted(Comparator.naturalOrder(), Integer::sum, a.stream(), b
+                .stream(), c.stream()).toMap());
+        assertEquals(expected, EntryStream.mergeSorted(Comparator.naturalOrder(), Integer::sum, StreamEx.of(a),
+            StreamEx.of(b), StreamEx.of(c)).parallel().toMap());
+        assertEquals("a:1,100;b:2,10;c:20;d:3,30,300,400", EntryStream.mergeSorted(Comparator.<String> naturalOrder(),
+            (x, y) -> x + "," + y, EntryStream.of(a.stream()).mapValues(String::valueOf), EntryStream.of(b.stream())
+                    .mapValues(String::valueOf), EntryStream.of(c.stream()).mapValues(String::valueOf)).join(":")
+                .joining(";"));
+    }
+}
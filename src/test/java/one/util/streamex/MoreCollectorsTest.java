@@ -15,13 +15,19 @@
  */
 package one.util.streamex;
 
+import one.util.streamex.StreamEx.RecordCodec;
 import one.util.streamex.StreamExInternals.BooleanMap;
 import org.junit.FixMethodOrder;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runners.MethodSorters;
 
+import java.io.DataInput;
+import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.Map.Entry;
@@ -41,6 +47,9 @@ import static org.junit.Assert.*;
  */
 @FixMethodOrder(MethodSorters.NAME_ASCENDING)
 public class MoreCollectorsTest {
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
     static class MyNumber implements Comparable<MyNumber> {
         final int value;
         
@@ -359,6 +368,70 @@ public class MoreCollectorsTest {
         assertEquals(7, counter.get());
     }
 
+    @Test
+    public void testExternalGroupingBy() throws IOException {
+        Path dir = tmp.newFolder().toPath();
+        RecordCodec<Integer> keyCodec = RecordCodec.of((x, out) -> out.writeInt(x), DataInput::readInt);
+        RecordCodec<long[]> stateCodec = RecordCodec.of((box, out) -> out.writeLong(box[0]), in -> new long[] { in
+                .readLong() });
+        Collector<Integer, long[], Long> summing = Collector.of(() -> new long[1], (box, x) -> box[0] += x, (b1,
+                b2) -> {
+            b1[0] += b2[0];
+            return b1;
+        }, box -> box[0]);
+        withRandom(r -> {
+            List<Integer> input = IntStreamEx.of(r, 5000, 0, 5000).boxed().toList();
+            Map<Integer, Long> expected = input.stream().collect(Collectors.groupingBy(x -> x % 1000, Collectors
+                    .summingLong(x -> x)));
+            for (int maxInMemory : new int[] { 2, 50, 10000 }) {
+                Collector<Integer, ?, EntryStream<Integer, Long>> collector = MoreCollectors.externalGroupingBy(
+                    x -> x % 1000, summing, keyCodec, stateCodec, maxInMemory, dir);
+                assertEquals(expected, input.stream().collect(collector).toMap());
+                assertEquals(0, dir.toFile().list().length);
+                assertEquals(expected, input.parallelStream().collect(collector).toMap());
+                assertEquals(0, dir.toFile().list().length);
+            }
+        });
+        Collector<Integer, ?, EntryStream<Integer, Long>> collector = MoreCollectors.externalGroupingBy(x -> x,
+            summing, keyCodec, stateCodec, 10, dir);
+        try (EntryStream<Integer, Long> result = IntStreamEx.range(1000).boxed().collect(collector)) {
+            assertTrue(dir.toFile().list().length > 0);
+            assertEquals(10, result.limit(10).count());
+        }
+        assertEquals(0, dir.toFile().list().length);
+        // the files are deleted when the accumulator or the combiner fails
+        Collector<Integer, long[], Long> failing = Collector.of(summing.supplier(), (box, x) -> {
+            if (x == 500)
+                throw new IllegalStateException();
+            box[0] += x;
+        }, (b1, b2) -> {
+            throw new IllegalStateException();
+        }, summing.finisher());
+        try {
+            IntStreamEx.range(1000).boxed().collect(MoreCollectors.externalGroupingBy(x -> x, failing, keyCodec,
+                stateCodec, 10, dir));
+            fail("Should throw");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertEquals(0, dir.toFile().list().length);
+        EntryStream<Integer, Long> spilled = IntStreamEx.range(400).boxed().collect(MoreCollectors
+                .externalGroupingBy(x -> x % 100, failing, keyCodec, stateCodec, 10, dir));
+        assertTrue(dir.toFile().list().length > 0);
+        try {
+            spilled.count();
+            fail("Should throw");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertEquals(0, dir.toFile().list().length);
+        assertFalse(collector.characteristics().contains(Characteristics.UNORDERED));
+        Collector<Integer, long[], Long> unordered = Collector.of(summing.supplier(), summing.accumulator(), summing
+                .combiner(), summing.finisher(), Characteristics.UNORDERED);
+        assertTrue(MoreCollectors.externalGroupingBy(x -> x, unordered, keyCodec, stateCodec, 10, dir)
+                .characteristics().contains(Characteristics.UNORDERED));
+    }
+
     @Test
     public void testToBooleanArray() {
         withRandom(r -> {
@@ -478,6 +551,28 @@ public class MoreCollectorsTest {
             MoreCollectors.filtering(x -> x % 2 == 1));
     }
 
+    @Test
+    public void testTupling() {
+        List<Integer> ints = IntStreamEx.range(100).map(x -> x * 7 % 100).boxed().toList();
+        Collector<Integer, ?, List<Object>> stats = MoreCollectors.<Integer, Object> tupling(Collectors.counting(),
+            Collectors.summingInt(x -> x), MoreCollectors.minMax(Comparator.naturalOrder(), (a, b) -> b - a),
+            MoreCollectors.distinctCount(x -> x % 10), MoreCollectors.greatest(2));
+        checkCollector("tupling", asList(100L, 4950, Optional.of(99), 10, asList(99, 98)), ints::stream, stats);
+        checkCollector("tuplingEmpty", Collections.emptyList(), ints::stream, MoreCollectors.tupling());
+        checkCollectorEmpty("tuplingEmptyStream", asList(0L, Optional.empty()), MoreCollectors.tupling(Collectors
+                .counting(), MoreCollectors.first()));
+
+        // short-circuits only when all the downstreams are finished
+        Collector<Integer, ?, List<Optional<Integer>>> firsts = MoreCollectors.tupling(MoreCollectors.first(),
+            MoreCollectors.filtering(x -> x % 10 == 0, MoreCollectors.first()), MoreCollectors.filtering(
+                x -> x % 10 == 3, MoreCollectors.first()));
+        checkShortCircuitCollector("tuplingShortCircuit", asList(Optional.of(0), Optional.of(0), Optional.of(63)), 10,
+            ints::stream, firsts);
+        assertNull(StreamExInternals.finished(MoreCollectors.tupling(MoreCollectors.first(), Collectors.counting())));
+        assertFalse(MoreCollectors.tupling(Collectors.toList()).characteristics().contains(
+            Characteristics.IDENTITY_FINISH));
+    }
+
     @Test
     public void testOnlyOne() {
         List<Integer> ints = IntStreamEx.rangeClosed(1, 100).boxed().toList();
@@ -776,4 +871,130 @@ public class MoreCollectorsTest {
         checkShortCircuitCollector("ifAllMatch: empty stream", Optional.of(Collections.emptyList()), 0, Stream::empty,
                 MoreCollectors.ifAllMatch(i -> true, Collectors.toList()));
     }
+
+    @Test
+    public void testCovariance() {
+        withRandom(r -> {
+            double[] xs = DoubleStreamEx.of(r, 10000).map(x -> 1e6 + x).toArray();
+            double[] ys = IntStreamEx.ofIndices(xs).mapToDouble(i -> 3 - 2 * xs[i] + r.nextGaussian()).toArray();
+            double mx = DoubleStreamEx.of(xs).sum() / xs.length, my = DoubleStreamEx.of(ys).sum() / ys.length;
+            double cxy = IntStreamEx.ofIndices(xs).mapToDouble(i -> (xs[i] - mx) * (ys[i] - my)).sum();
+            double sxx = DoubleStreamEx.of(xs).map(x -> (x - mx) * (x - mx)).sum();
+            double syy = DoubleStreamEx.of(ys).map(y -> (y - my) * (y - my)).sum();
+            streamEx(() -> IntStreamEx.ofIndices(xs).boxed(), s -> {
+                DoubleCovariance cov = EntryStream.of(s.get().mapToEntry(i -> xs[i], i -> ys[i])).collect(
+                    MoreCollectors.covariance(Entry::getKey, Entry::getValue));
+                assertEquals(xs.length, cov.getCount());
+                assertEquals(mx, cov.getMeanX(), 1e-6);
+                assertEquals(my, cov.getMeanY(), 1e-6);
+                assertEquals(cxy / xs.length, cov.getCovariance(), 1e-9);
+                assertEquals(cxy / (xs.length - 1), cov.getSampleCovariance(), 1e-9);
+                assertEquals(sxx / xs.length, cov.getVarianceX(), 1e-9);
+                assertEquals(syy / xs.length, cov.getVarianceY(), 1e-9);
+                assertEquals(cxy / Math.sqrt(sxx * syy), cov.getCorrelation(), 1e-9);
+            });
+        });
+        DoubleCovariance cov = StreamEx.zip(asList(1.0, 2.0, 3.0), asList(2.0, 4.0, 6.0), SimpleEntry::new).collect(
+            MoreCollectors.covariance(Entry::getKey, Entry::getValue));
+        assertEquals(4.0 / 3, cov.getCovariance(), 1e-15);
+        assertEquals(1.0, cov.getCorrelation(), 0.0);
+        assertTrue(Double.isNaN(StreamEx.of(1.0, 1.0).collect(MoreCollectors.covariance(x -> x, x -> x * 2))
+                .getCorrelation()));
+        assertEquals(0.0, StreamEx.<Double> empty().collect(MoreCollectors.covariance(x -> x, x -> x))
+                .getCovariance(), 0.0);
+    }
+
+    @Test
+    public void testSample() {
+        SplittableRandom random = new SplittableRandom(1);
+        List<Integer> input = IntStreamEx.range(10).boxed().toList();
+        for (boolean parallel : new boolean[] { false, true }) {
+            int[] counts = new int[10];
+            int trials = 20000;
+            for (int i = 0; i < trials; i++) {
+                List<Integer> sample = (parallel ? input.parallelStream() : input.stream()).collect(MoreCollectors
+                        .sample(3, random));
+                assertEquals(3, sample.size());
+                assertEquals(3, new HashSet<>(sample).size());
+                sample.forEach(x -> counts[x]++);
+            }
+            for (int count : counts) {
+                assertEquals(0.3, (double) count / trials, 0.02);
+            }
+            // elements far behind the reservoir are reached by skipping
+            int[] buckets = new int[10];
+            trials = 3000;
+            for (int i = 0; i < trials; i++) {
+                IntStreamEx s = IntStreamEx.range(1000);
+                for (int x : (parallel ? s.parallel() : s).boxed().collect(MoreCollectors.sample(10, random))) {
+                    buckets[x / 100]++;
+                }
+            }
+            for (int bucket : buckets) {
+                assertEquals(trials, bucket, trials / 10);
+            }
+        }
+        streamEx(input::stream, s -> assertEquals(input, StreamEx.of(s.get().collect(MoreCollectors.sample(20,
+            random))).sorted().toList()));
+        assertEquals(Collections.emptyList(), StreamEx.empty().collect(MoreCollectors.sample(1, random)));
+        assertEquals(Collections.singletonList(1), StreamEx.constant(1, 100).parallel().collect(MoreCollectors
+                .sample(1, random)));
+        try {
+            MoreCollectors.sample(0, random);
+            fail("Should throw");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        // reproducible for the same seed
+        assertEquals(IntStreamEx.range(10000).boxed().collect(MoreCollectors.sample(50, new SplittableRandom(5))),
+            IntStreamEx.range(10000).boxed().collect(MoreCollectors.sample(50, new SplittableRandom(5))));
+    }
+
+    @Test
+    public void testWeightedSample() {
+        SplittableRandom random = new SplittableRandom(1);
+        List<Integer> input = IntStreamEx.range(10).boxed().toList();
+        for (boolean parallel : new boolean[] { false, true }) {
+            int[] counts = new int[10];
+            int trials = 20000;
+            for (int i = 0; i < trials; i++) {
+                List<Integer> sample = (parallel ? input.parallelStream() : input.stream()).collect(MoreCollectors
+                        .weightedSample(1, x -> x, random));
+                assertEquals(1, sample.size());
+                counts[sample.get(0)]++;
+            }
+            assertEquals(0, counts[0]);
+            for (int i = 1; i < 10; i++) {
+                assertEquals(i / 45.0, (double) counts[i] / trials, 0.015);
+            }
+            // only every second element has non-zero weight
+            int[] buckets = new int[10];
+            trials = 3000;
+            for (int i = 0; i < trials; i++) {
+                IntStreamEx s = IntStreamEx.range(1000);
+                List<Integer> sample = (parallel ? s.parallel() : s).boxed().collect(MoreCollectors.weightedSample(
+                    10, x -> x % 2, random));
+                assertEquals(10, sample.size());
+                for (int x : sample) {
+                    assertEquals(1, x % 2);
+                    buckets[x / 100]++;
+                }
+            }
+            for (int bucket : buckets) {
+                assertEquals(trials, bucket, trials / 10);
+            }
+        }
+        streamEx(input::stream, s -> assertEquals(input.subList(1, 10), StreamEx.of(s.get().collect(MoreCollectors
+                .weightedSample(20, x -> x))).sorted().toList()));
+        assertEquals(Collections.emptyList(), StreamEx.of(1, 2, 3).collect(MoreCollectors.weightedSample(2,
+            x -> 0)));
+        for (double weight : new double[] { -1, Double.NaN, Double.POSITIVE_INFINITY }) {
+            try {
+                StreamEx.of(1, 2, 3).collect(MoreCollectors.weightedSample(2, x -> weight));
+                fail("Should throw");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import static one.util.streamex.TestHelpers.*;
+import static org.junit.Assert.*;
+
+/**
+ * @author Tagir Valeev
+ */
+public class PartitionedGroupingTest {
+    @Test
+    public void testGrouping() {
+        withRandom(r -> repeat(10, n -> {
+            List<Integer> input = IntStreamEx.of(r, n * 1000, 0, n * 100).boxed().toList();
+            Map<Integer, List<Integer>> expected = input.stream().collect(Collectors.groupingBy(x -> x % (n * 50)));
+            Map<Integer, String> expectedJoined = input.stream().collect(Collectors.toMap(x -> x % 7, String::valueOf,
+                String::concat));
+            for (ForkJoinPool pool : new ForkJoinPool[] { null, new ForkJoinPool(1), new ForkJoinPool(3) }) {
+                StreamEx<Integer> parallel = pool == null ? StreamEx.of(input).parallel() : StreamEx.of(input)
+                        .parallel(pool);
+                Map<Integer, List<Integer>> grouped = parallel.groupingBy(x -> x % (n * 50));
+                assertEquals(expected, grouped);
+                assertTrue(grouped instanceof HashMap);
+                assertEquals(expected, StreamEx.of(input).mapToEntry(x -> x % (n * 50), Function.identity())
+                        .parallel().grouping());
+                assertEquals(expectedJoined, StreamEx.of(input).parallel().toMap(x -> x % 7, String::valueOf,
+                    String::concat));
+                assertEquals(expectedJoined, StreamEx.of(input).mapToEntry(x -> x % 7, String::valueOf).parallel()
+                        .toMap(String::concat));
+                if (pool != null)
+                    pool.shutdown();
+            }
+        }));
+    }
+
+    @Test
+    public void testDownstream() {
+        Map<Boolean, Long> counts = IntStreamEx.range(10000).boxed().parallel().groupingBy(x -> x % 3 == 0,
+            Collectors.counting());
+        assertEquals(3334L, (long) counts.get(true));
+        assertEquals(6666L, (long) counts.get(false));
+        Map<Integer, Integer> sums = IntStreamEx.range(10000).boxed().mapToEntry(x -> x % 10, x -> x).parallel()
+                .grouping(Collectors.summingInt(Integer::intValue));
+        assertEquals(10, sums.size());
+        assertEquals(4995000, (int) sums.get(0));
+        assertEquals(5004000, (int) sums.get(9));
+        // unordered downstream keeps using the concurrent map
+        Map<Integer, Set<Integer>> sets = IntStreamEx.range(10000).boxed().parallel().groupingBy(x -> x % 10,
+            Collectors.toSet());
+        assertTrue(sets instanceof ConcurrentMap);
+        assertEquals(1000, sets.get(3).size());
+        Map<Integer, Long> counts2 = IntStreamEx.range(100000).boxed().parallel().groupingBy(x -> x % 100000 / 1000,
+            Collectors.counting());
+        assertEquals(100, counts2.size());
+        assertTrue(StreamEx.ofValues(counts2).allMatch(c -> c == 1000));
+        try {
+            StreamEx.of("a", "b", "c").parallel().groupingBy(s -> s.equals("b") ? null : s);
+            fail("Should throw");
+        } catch (NullPointerException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testToMap() {
+        Map<Integer, Integer> squares = IntStreamEx.range(100000).boxed().parallel().toMap(x -> x * x);
+        assertTrue(squares instanceof ConcurrentMap);
+        assertEquals(100000, squares.size());
+        assertEquals(99999 * 99999, (int) squares.get(99999));
+        assertEquals(squares, IntStreamEx.range(100000).boxed().mapToEntry(x -> x * x).parallel().toMap());
+        try {
+            IntStreamEx.range(1000).boxed().parallel().toMap(x -> x % 999, x -> x);
+            fail("Should throw");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            EntryStream.of(1, "a", 2, null).parallel().toMap();
+            fail("Should throw");
+        } catch (NullPointerException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import static one.util.streamex.TestHelpers.*;
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+/**
+ * @author Tagir Valeev
+ */
+public class PatternSpliteratorTest {
+    @Test
+    public void testMaxLength() {
+        assertEquals(1, PatternSpliterator.maxLength(Pattern.compile(",")));
+        assertEquals(3, PatternSpliterator.maxLength(Pattern.compile("a|bc|\\Qx.y\\E")));
+        assertEquals(2, PatternSpliterator.maxLength(Pattern.compile("[a-z&&[^x]]")));
+        assertEquals(2, PatternSpliterator.maxLength(Pattern.compile("\\s")));
+        assertEquals(5, PatternSpliterator.maxLength(Pattern.compile("(?i)\\s?,\\s?")));
+        assertEquals(7, PatternSpliterator.maxLength(Pattern.compile("(?:ab){2,3}c")));
+        assertEquals(1, PatternSpliterator.maxLength(Pattern.compile("(?<=a)b(?=c)")));
+        assertEquals(0, PatternSpliterator.maxLength(Pattern.compile("\\b")));
+        assertEquals(3, PatternSpliterator.maxLength(Pattern.compile("a.b", Pattern.LITERAL)));
+        assertEquals(3, PatternSpliterator.maxLength(Pattern.compile("(?<name>a\\u0041)\\t")));
+        assertEquals(-1, PatternSpliterator.maxLength(Pattern.compile(",+")));
+        assertEquals(-1, PatternSpliterator.maxLength(Pattern.compile("\\s*")));
+        assertEquals(-1, PatternSpliterator.maxLength(Pattern.compile("a{2,}")));
+        assertEquals(-1, PatternSpliterator.maxLength(Pattern.compile("(a)\\1")));
+        assertEquals(-1, PatternSpliterator.maxLength(Pattern.compile("\\Ga")));
+        assertEquals(-1, PatternSpliterator.maxLength(Pattern.compile("(?x) a ")));
+        assertEquals(-1, PatternSpliterator.maxLength(Pattern.compile("a", Pattern.COMMENTS)));
+        assertEquals(-1, PatternSpliterator.maxLength(Pattern.compile("a{10000}")));
+    }
+
+    @Test
+    public void testSpliterator() {
+        String[] regexes = { ",", "aa", "ab|ba", "a{2,3}", "(?<=a)b", "b(?=a)", "a?", "[ab],", "^a|b$", ",?" };
+        withRandom(r -> repeat(10, n -> {
+            String input = IntStreamEx.of(r, r.nextInt(n * 50) + 1, 0, 3).elements(new int[] { ',', 'a', 'b' })
+                    .charsToString();
+            for (String regex : regexes) {
+                Pattern pattern = Pattern.compile(regex);
+                List<String> expected = pattern.splitAsStream(input).collect(Collectors.toList());
+                int maxLength = PatternSpliterator.maxLength(pattern);
+                assertTrue(regex, maxLength > 0);
+                checkSpliterator(regex + "/" + input, expected, () -> new PatternSpliterator(input, pattern,
+                        maxLength));
+            }
+        }));
+    }
+
+    @Test
+    public void testSplit() {
+        withRandom(r -> repeat(5, n -> {
+            StringBuilder input = new StringBuilder(IntStreamEx.of(r, n * 2000, 0, 4).elements(new int[] { ',', ' ',
+                    'a', 'b' }).charsToString());
+            for (String regex : new String[] { " ?, ?", "ab", ",", "\\s+", "(?i)A" }) {
+                List<String> expected = Pattern.compile(regex).splitAsStream(input).collect(Collectors.toList());
+                streamEx(() -> StreamEx.split(input, regex), s -> assertEquals(regex, expected, s.get().toList()));
+                streamEx(() -> StreamEx.split(input, Pattern.compile(regex)), s -> assertEquals(regex, expected, s
+                        .get().toList()));
+            }
+        }));
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+/**
+ * @author Tagir Valeev
+ */
+public class PublisherSpliteratorTest {
+    // connects the subscription to the spliterator like Flow adapters do
+    private static <T> StreamEx<T> roundTrip(Spliterator<T> source, ExecutorService executor, Runnable closer,
+            int bufferSize) {
+        PublisherSpliterator<T> spliterator = new PublisherSpliterator<>(ps -> {
+            SpliteratorSubscription<T> subscription = new SpliteratorSubscription<>(source, executor, closer,
+                    ps::onNext, ps::onError, ps::onComplete);
+            ps.onSubscribe(subscription::request, subscription::cancel);
+        }, bufferSize);
+        return StreamEx.of(spliterator).onClose(spliterator::close);
+    }
+
+    @Test
+    public void testRoundTrip() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int bufferSize : new int[] { 1, 2, 3, 100, 10000 }) {
+                AtomicInteger closed = new AtomicInteger();
+                List<Integer> expected = IntStreamEx.range(1000).boxed().toList();
+                assertEquals(expected, roundTrip(expected.spliterator(), executor, closed::incrementAndGet,
+                    bufferSize).toList());
+                assertEquals(1, closed.get());
+            }
+            AtomicInteger closed = new AtomicInteger();
+            try (StreamEx<Integer> s = roundTrip(StreamEx.iterate(0, x -> x + 1).spliterator(), executor,
+                closed::incrementAndGet, 10)) {
+                assertEquals(IntStreamEx.range(50).boxed().toList(), s.limit(50).toList());
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+            // cancellation closes the source
+            assertEquals(1, closed.get());
+
+            RuntimeException ex = new IllegalStateException("source failed");
+            ExecutorService executor2 = Executors.newSingleThreadExecutor();
+            try {
+                roundTrip(StreamEx.of(1, 2, 3).peek(x -> {
+                    if (x == 3)
+                        throw ex;
+                }).spliterator(), executor2, () -> {}, 2).toList();
+                fail("Should throw");
+            } catch (IllegalStateException e) {
+                assertSame(ex, e);
+            } finally {
+                executor2.shutdown();
+            }
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSubscription() {
+        List<Object> signals = new ArrayList<>();
+        AtomicInteger closed = new AtomicInteger();
+        SpliteratorSubscription<Integer> subscription = new SpliteratorSubscription<>(IntStreamEx.range(5).boxed()
+                .spliterator(), Runnable::run, closed::incrementAndGet, signals::add, signals::add, () -> signals
+                        .add("complete"));
+        subscription.request(2);
+        assertEquals(StreamEx.of(0, 1).toList(), signals);
+        subscription.request(1);
+        assertEquals(StreamEx.of(0, 1, 2).toList(), signals);
+        subscription.request(10);
+        assertEquals(StreamEx.of(0, 1, 2, 3, 4, "complete").toList(), signals);
+        assertEquals(1, closed.get());
+        subscription.request(1);
+        subscription.cancel();
+        assertEquals(6, signals.size());
+        assertEquals(1, closed.get());
+
+        // unbounded demand with cancellation from onNext
+        List<Integer> received = new ArrayList<>();
+        AtomicReference<SpliteratorSubscription<Integer>> ref = new AtomicReference<>();
+        ref.set(new SpliteratorSubscription<>(StreamEx.iterate(0, x -> x + 1).spliterator(), Runnable::run,
+                closed::incrementAndGet, x -> {
+                    received.add(x);
+                    if (x == 99)
+                        ref.get().cancel();
+                }, Throwable::printStackTrace, () -> fail("Should not complete")));
+        ref.get().request(Long.MAX_VALUE);
+        assertEquals(IntStreamEx.range(100).boxed().toList(), received);
+        assertEquals(2, closed.get());
+
+        // invalid request
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        SpliteratorSubscription<Integer> invalid = new SpliteratorSubscription<>(IntStreamEx.range(5).boxed()
+                .spliterator(), Runnable::run, closed::incrementAndGet, x -> {}, error::set, () -> {});
+        invalid.request(0);
+        assertTrue(error.get() instanceof IllegalArgumentException);
+        assertEquals(3, closed.get());
+    }
+
+    @Test
+    public void testPublisherErrors() {
+        PublisherSpliterator<String> overflow = new PublisherSpliterator<>(ps -> {
+            ps.onSubscribe(n -> {}, () -> {});
+            for (int i = 0; i < 5; i++) {
+                ps.onNext("x");
+            }
+        }, 2);
+        try {
+            StreamEx.of(overflow).toList();
+            fail("Should throw");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        PublisherSpliterator<String> checked = new PublisherSpliterator<>(ps -> {
+            ps.onSubscribe(n -> {}, () -> {});
+            ps.onError(new Exception("checked"));
+        }, 2);
+        try {
+            StreamEx.of(checked).toList();
+            fail("Should throw");
+        } catch (CompletionException e) {
+            assertEquals("checked", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testVersionSpecific() {
+        if (StreamExInternals.VER_SPEC instanceof Java9Specific)
+            return;
+        try {
+            StreamEx.of(1, 2, 3).toPublisher(Runnable::run);
+            fail("Should throw");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            StreamEx.ofPublisher(new Object(), 1);
+            fail("Should throw");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.function.BiPredicate;
+
+import org.junit.Test;
+
+import static one.util.streamex.TestHelpers.*;
+import static org.junit.Assert.*;
+
+/**
+ * @author Tagir Valeev
+ */
+public class RandomAccessCollapseSpliteratorTest {
+    private static <T> RandomAccessCollapseSpliterator<T, List<T>> groupRuns(List<T> input,
+            BiPredicate<? super T, ? super T> mergeable) {
+        return new RandomAccessCollapseSpliterator<>(mergeable, List::subList, new RandomAccessSpliterator<>(input));
+    }
+
+    @Test
+    public void testSpliterator() {
+        List<Integer> input = Arrays.asList(0, 0, 1, 1, 1, 1, 4, 6, 6, 3, 3, 10);
+        checkSpliterator("groupRuns", Arrays.asList(Arrays.asList(0, 0), Arrays.asList(1, 1, 1, 1), Collections
+                .singletonList(4), Arrays.asList(6, 6), Arrays.asList(3, 3), Collections.singletonList(10)),
+            () -> groupRuns(input, Objects::equals));
+        checkSpliterator("single", Collections.singletonList(input), () -> groupRuns(input, (a, b) -> true));
+        checkSpliterator("none", StreamEx.of(input).map(Collections::singletonList).toList(), () -> groupRuns(input,
+            (a, b) -> false));
+        checkSpliterator("empty", Collections.emptyList(), () -> groupRuns(Collections.<Integer> emptyList(),
+            Objects::equals));
+        withRandom(r -> {
+            List<Integer> random = IntStreamEx.of(r, 1000, 0, 20).sorted().boxed().toList();
+            checkSpliterator("random", StreamEx.of(random.spliterator()).groupRuns(Objects::equals).toList(),
+                () -> groupRuns(random, Objects::equals));
+        });
+    }
+
+    @Test
+    public void testArrayRange() {
+        Integer[] input = { 1, 1, 2, 2, 2, 3, 1, 1 };
+        List<List<Integer>> expected = Arrays.asList(Arrays.asList(2, 2, 2), Collections.singletonList(3));
+        checkSpliterator("array", expected, () -> new RandomAccessCollapseSpliterator<Integer, List<Integer>>(
+                Objects::equals, List::subList, new RandomAccessSpliterator<>(input, 2, 6)));
+        assertEquals(expected, StreamEx.of(input, 2, 6).groupRuns(Objects::equals).toList());
+        assertEquals(expected, StreamEx.of(input, 2, 6).parallel().groupRuns(Objects::equals).toList());
+    }
+
+    @Test
+    public void testStreamEx() {
+        withRandom(r -> repeat(10, n -> {
+            List<Integer> input = IntStreamEx.of(r, 10000, 0, 100).sorted().boxed().toCollection(ArrayList::new);
+            List<List<Integer>> expectedRuns = StreamEx.of(input.spliterator()).groupRuns(Objects::equals).toList();
+            List<Integer> expectedCollapse = StreamEx.of(input.spliterator()).collapse(Objects::equals, Integer::sum)
+                    .toList();
+            for (StreamEx<Integer> s : Arrays.asList(StreamEx.of(input), StreamEx.of(input).parallel(), StreamEx.of(
+                input.toArray(new Integer[0])).parallel())) {
+                assertEquals(expectedRuns, s.groupRuns(Objects::equals).toList());
+            }
+            assertEquals(expectedCollapse, StreamEx.of(input).parallel().collapse(Objects::equals, Integer::sum)
+                    .toList());
+            assertEquals(StreamEx.of(input.spliterator()).runLengths().toList(), StreamEx.of(input).parallel()
+                    .runLengths().toList());
+            assertEquals(StreamEx.of(input.spliterator()).intervalMap((a, b) -> b - a < 2, (a, b) -> a + ":" + b)
+                    .toList(), StreamEx.of(input).parallel().intervalMap((a, b) -> b - a < 2, (a, b) -> a + ":" + b)
+                    .toList());
+        }));
+    }
+
+    @Test
+    public void testUsedSource() {
+        // the index range is not used once the source is advanced or split
+        Spliterator<Integer> spliterator = StreamEx.of(Arrays.asList(1, 1, 2, 2, 3, 3, 4, 4)).spliterator();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(spliterator.tryAdvance(x -> {}));
+        }
+        assertEquals(Arrays.asList(2, 3, 4), StreamEx.of(spliterator).collapse(Objects::equals).toList());
+        Spliterator<Integer> suffix = StreamEx.of(Arrays.asList(1, 1, 2, 2, 3, 3, 4, 4)).spliterator();
+        Spliterator<Integer> prefix = suffix.trySplit();
+        assertEquals(Arrays.asList(1, 2), StreamEx.of(prefix).collapse(Objects::equals).toList());
+        assertEquals(Arrays.asList(3, 4), StreamEx.of(suffix).collapse(Objects::equals).toList());
+    }
+
+    @Test
+    public void testLateBinding() {
+        List<Integer> input = new ArrayList<>(Arrays.asList(1, 1, 2));
+        StreamEx<Integer> stream = StreamEx.of(input);
+        input.add(2);
+        input.add(3);
+        assertEquals(Arrays.asList(1, 2, 3), stream.collapse(Objects::equals).toList());
+        assertEquals(5, StreamEx.of(new Random(1).ints(5).boxed().toArray(Integer[]::new)).parallel().collapse(
+            (a, b) -> false).count());
+    }
+}
@@ -17,8 +17,12 @@ package one.util.streamex;
 
 import static one.util.streamex.TestHelpers.*;
 
+import java.nio.CharBuffer;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import one.util.streamex.IntStreamEx;
 import one.util.streamex.LongStreamEx;
@@ -61,6 +65,41 @@ public class RangeBasedSpliteratorTest {
         checkSpliterator("ofChar", list10, () -> new RangeBasedSpliterator.OfChar(0, 10, input));
     }
 
+    @Test
+    public void testOfBitSet() {
+        withRandom(r -> repeat(10, n -> {
+            BitSet bs = new BitSet();
+            r.ints(n * 100, 0, n * 1000).forEach(bs::set);
+            checkSpliterator("ofBitSet", IntStreamEx.of(bs.stream()).boxed().toList(),
+                () -> new RangeBasedSpliterator.OfBitSet(bs));
+        }));
+        checkSpliterator("ofBitSet", Collections.emptyList(), () -> new RangeBasedSpliterator.OfBitSet(new BitSet()));
+    }
+
+    @Test
+    public void testOfCharSequence() {
+        withRandom(r -> repeat(3, n -> {
+            // surrogate pairs of different kinds including one crossing the chunk boundary
+            String str = IntStreamEx.of(r, n * 200, 0, 0x11000).mapToObj(cp -> cp >= 0x10000 ? "\uD83D\uDE00"
+                    : cp >= 0xF000 ? "\uD800" : String.valueOf((char) cp)).joining() + StreamEx.constant("x", 1023)
+                    .joining() + "\uD83D\uDE00";
+            List<CharSequence> sources = Arrays.asList(str, new StringBuilder(str), CharBuffer.wrap(str.toCharArray()),
+                CharBuffer.wrap((" " + str).toCharArray(), 1, str.length()), CharBuffer.wrap(str), new StringBuffer(str));
+            List<Integer> chars = str.chars().boxed().collect(Collectors.toList());
+            List<Integer> codePoints = str.codePoints().boxed().collect(Collectors.toList());
+            for (CharSequence seq : sources) {
+                String name = seq.getClass().getSimpleName();
+                checkSpliterator("ofCharSequence/" + name, chars, () -> new RangeBasedSpliterator.OfCharSequence(seq));
+                checkSpliterator("ofCodePoints/" + name, codePoints, () -> new RangeBasedSpliterator.OfCodePoints(
+                        seq));
+            }
+        }));
+        checkSpliterator("ofCodePoints", Arrays.asList(0x1F600), () -> new RangeBasedSpliterator.OfCodePoints(
+                "\uD83D\uDE00"));
+        checkSpliterator("ofCodePoints", Arrays.asList(0xDE00, 0xD83D), () -> new RangeBasedSpliterator.OfCodePoints(
+                "\uDE00\uD83D"));
+    }
+
     @Test
     public void testOfShort() {
         short[] input = IntStreamEx.range(10).toShortArray();
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import static one.util.streamex.TestHelpers.*;
+
+/**
+ * @author Tagir Valeev
+ */
+public class RunSpliteratorTest {
+    private static Supplier<Spliterator<String>> runs(Supplier<Spliterator.OfInt> source) {
+        return () -> {
+            Spliterator<RunSpliterator.IntRun> spltr = RunSpliterator.collapse(new RunSpliterator.OfInt(source.get(),
+                    (a, b) -> b - a == 1, Integer::sum));
+            return StreamEx.of(spltr).map(run -> run.first + ".." + run.last + ":" + run.count + ":" + run.acc)
+                    .spliterator();
+        };
+    }
+
+    @Test
+    public void testSpliterator() {
+        List<String> expected = Arrays.asList("1..3:3:6", "5..6:2:11", "8..8:1:8");
+        checkSpliterator("int", expected, runs(() -> IntStreamEx.of(1, 2, 3, 5, 6, 8).spliterator()));
+        checkSpliterator("intParallel", expected, runs(() -> IntStreamEx.of(1, 2, 3, 5, 6, 8).parallel().boxed()
+                .mapToInt(Integer::intValue).spliterator()));
+        checkSpliterator("long", IntStreamEx.range(0, 100, 10).mapToObj(i -> i + ".." + (i + 9)).toList(),
+            () -> StreamEx.of(RunSpliterator.collapse(new RunSpliterator.OfLong(LongStreamEx.range(100)
+                    .spliterator(), (a, b) -> b % 10 != 0, Long::sum))).map(run -> run.first + ".." + run.last)
+                    .spliterator());
+        checkSpliterator("double", Arrays.asList(6.0, 4.0), () -> StreamEx.of(RunSpliterator.collapse(
+            new RunSpliterator.OfDouble(DoubleStreamEx.of(1, 2, 3, 4).spliterator(), (a, b) -> a < 3,
+                    Double::sum))).map(run -> run.acc).spliterator());
+    }
+}
@@ -579,4 +579,34 @@ public class StreamExHeadTailTest {
         assertFalse(spltr.tryAdvance(x -> fail("Should not be called")));
         assertEquals(0, spltr.estimateSize());
     }
+
+    @Test
+    public void testParallelTail() {
+        List<Integer> expected = IntStreamEx.range(1, 10000).boxed().toList();
+        // raw tail spliterator is split
+        Spliterator<Integer> tail = StreamEx.of(IntStreamEx.range(10000).boxed().toList()).headTail((h, t) -> t)
+                .spliterator();
+        Spliterator<Integer> prefix = tail.trySplit();
+        assertNotNull(prefix);
+        assertEquals(10000 - 1, prefix.estimateSize() + tail.estimateSize());
+        List<Integer> result = new ArrayList<>();
+        prefix.forEachRemaining(result::add);
+        tail.forEachRemaining(result::add);
+        assertEquals(expected, result);
+
+        List<Integer> input = IntStreamEx.range(10000).boxed().toList();
+        checkSpliterator("headTail", expected, () -> StreamEx.of(input).headTail((h, t) -> t.parallel().map(
+            x -> x + h)).spliterator());
+        checkSpliterator("headTailTSO", expected, () -> StreamEx.of(input).headTail((h, t) -> t.mapFirst(
+            x -> x + h)).spliterator());
+        AtomicInteger heads = new AtomicInteger();
+        assertEquals(IntStreamEx.range(1, 10000).map(x -> x * 2).boxed().toList(), StreamEx.of(input).parallel()
+                .headTail((h, t) -> {
+                    heads.incrementAndGet();
+                    return t.parallel().map(x -> x * 2);
+                }).toList());
+        assertEquals(1, heads.get());
+        assertEquals(expected, StreamEx.of(input).parallel().headTail((h, t) -> t.parallel()).toList());
+        assertEquals(0, StreamEx.<Integer> empty().parallel().headTail((h, t) -> t).count());
+    }
 }
@@ -26,9 +26,13 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
@@ -922,6 +926,73 @@ public class StreamExTest {
                 .mapToLong(x -> x).sum());
     }
 
+    @Test
+    public void testScanRightRandomAccess() {
+        List<Integer> input = IntStreamEx.rangeClosed(1, 5).boxed().toList();
+        Integer[] array = input.toArray(new Integer[0]);
+        List<Integer> expected = asList(15, 14, 12, 9, 5);
+        List<String> expectedSeed = asList("12345", "2345", "345", "45", "5", "");
+        for (Supplier<StreamEx<Integer>> supplier : StreamEx.<Supplier<StreamEx<Integer>>> of(
+            () -> StreamEx.of(input), () -> StreamEx.of(array), () -> StreamEx.of(input).parallel(),
+            () -> StreamEx.ofReversed(StreamEx.ofReversed(input).toList()))) {
+            assertEquals(expected, supplier.get().scanRight(Integer::sum));
+            assertEquals(expectedSeed, supplier.get().scanRight("", (x, acc) -> x + acc));
+            assertEquals(Integer.valueOf(15), supplier.get().foldRight(Integer::sum).get());
+            assertEquals("12345", supplier.get().foldRight("", (x, acc) -> x + acc));
+        }
+        assertEquals(asList(9, 5), StreamEx.of(array, 3, 5).scanRight(Integer::sum));
+        assertEquals(asList(12, 9, 5, 0), StreamEx.of(array, 2, 5).scanRight(0, Integer::sum));
+        assertEquals("54321", StreamEx.ofReversed(array).foldRight("", (x, acc) -> x + acc));
+        assertEquals(asList(15, 10, 6, 3, 1), StreamEx.ofReversed(input).scanRight(Integer::sum));
+        assertFalse(StreamEx.of(new Integer[0]).foldRight(Integer::sum).isPresent());
+        assertEquals(asList("x"), StreamEx.of(new ArrayList<String>()).scanRight("x", String::concat));
+        List<Integer> list = new ArrayList<>(asList(1, 2));
+        StreamEx<Integer> stream = StreamEx.of(list);
+        list.add(3);
+        assertEquals(asList(6, 5, 3), stream.scanRight(Integer::sum));
+        // scanRight result must be mutable
+        List<Integer> result = StreamEx.of(input).scanRight(Integer::sum);
+        result.add(0);
+        assertEquals(6, result.size());
+        // partially consumed or split source
+        Spliterator<Integer> spliterator = StreamEx.of(input).spliterator();
+        assertTrue(spliterator.tryAdvance(x -> {}));
+        assertEquals("2345", StreamEx.of(spliterator).foldRight("", (x, acc) -> x + acc));
+        Spliterator<Integer> suffix = StreamEx.of(1, 2, 3, 4).spliterator();
+        Spliterator<Integer> prefix = suffix.trySplit();
+        assertEquals(asList(7, 4), StreamEx.of(suffix).scanRight(Integer::sum));
+        assertEquals(asList(3, 2), StreamEx.of(prefix).scanRight(Integer::sum));
+        suffix = StreamEx.of(1, 2, 3, 4).spliterator();
+        suffix.trySplit();
+        assertEquals(asList(7, 4), StreamEx.of(suffix).parallel().toSuffixList(Integer::sum));
+    }
+
+    @Test
+    public void testToSuffixList() {
+        streamEx(() -> IntStreamEx.rangeClosed(1, 4).boxed(), supplier -> assertEquals(asList(10, 9, 7, 4), supplier
+                .get().toSuffixList(Integer::sum)));
+        emptyStreamEx(Integer.class, supplier -> assertTrue(supplier.get().toSuffixList(Integer::sum).isEmpty()));
+        withRandom(r -> repeat(10, n -> {
+            List<Integer> input = IntStreamEx.of(r, r.nextInt(30000) + 1, -100, 100).boxed().toList();
+            List<Integer> expected = StreamEx.of(input).scanRight(Integer::sum);
+            Integer[] array = input.toArray(new Integer[0]);
+            assertEquals(expected, StreamEx.of(input).parallel().toSuffixList(Integer::sum));
+            assertEquals(expected, StreamEx.of(array).parallel().toSuffixList(Integer::sum));
+            assertEquals(expected.subList(1, expected.size()), StreamEx.of(input.spliterator()).skip(1).parallel()
+                    .toSuffixList(Integer::sum));
+            List<String> strings = StreamEx.of(input).limit(3000).map(String::valueOf).toList();
+            assertEquals(StreamEx.of(strings).scanRight(String::concat), StreamEx.of(strings).parallel()
+                    .toSuffixList(String::concat));
+            assertEquals(expected, StreamEx.of(array).parallel(new ForkJoinPool(3))
+                    .toSuffixList(Integer::sum));
+            assertEquals(expected, StreamEx.of(input.spliterator()).parallel(new ForkJoinPool(1))
+                    .toSuffixList(Integer::sum));
+        }));
+        List<Integer> result = StreamEx.of(1, 2, 3).parallel().toSuffixList(Integer::sum);
+        result.add(0);
+        assertEquals(asList(6, 5, 3, 0), result);
+    }
+
     @Test
     public void testPermutations() {
         assertEquals("[]", StreamEx.ofPermutations(0).map(Arrays::toString).joining(";"));
@@ -2095,4 +2166,99 @@ public class StreamExTest {
     public void testOfCombinationsNegativeK() {
         StreamEx.ofCombinations(0, -1);
     }
+
+    @Test
+    public void testMapAsync() {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            AtomicInteger inFlight = new AtomicInteger();
+            AtomicInteger maxInFlight = new AtomicInteger();
+            Function<Integer, CompletableFuture<String>> mapper = x -> CompletableFuture.supplyAsync(() -> {
+                int cur = inFlight.incrementAndGet();
+                maxInFlight.accumulateAndGet(cur, Math::max);
+                try {
+                    Thread.sleep((x * 7) % 3);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+                return String.valueOf(x);
+            }, executor);
+            List<String> expected = IntStreamEx.range(200).mapToObj(String::valueOf).toList();
+            streamEx(() -> IntStreamEx.range(200).boxed(), s -> {
+                assertEquals(expected, s.get().mapAsync(mapper, 5).toList());
+                assertEquals(new HashSet<>(expected), s.get().mapAsyncUnordered(mapper, 5).toSet());
+            });
+            assertTrue(maxInFlight.get() <= 5);
+            assertEquals(expected.subList(0, 10), StreamEx.iterate(0, x -> x + 1).mapAsync(mapper, 3).limit(10)
+                    .toList());
+            assertEquals(0, StreamEx.<Integer> empty().mapAsync(mapper, 3).count());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // unordered variant emits in completion order
+        CompletableFuture<String> slow = new CompletableFuture<>();
+        Iterator<String> it = StreamEx.of(slow, CompletableFuture.completedFuture("fast")).mapAsyncUnordered(
+            Function.identity(), 2).iterator();
+        assertEquals("fast", it.next());
+        slow.complete("slow");
+        assertEquals("slow", it.next());
+        assertFalse(it.hasNext());
+
+        // exception is propagated
+        try {
+            StreamEx.of(1, 2, 3).mapAsync(x -> {
+                CompletableFuture<Integer> f = new CompletableFuture<>();
+                if (x == 2)
+                    f.completeExceptionally(new IllegalStateException("failed " + x));
+                else
+                    f.complete(x);
+                return f;
+            }, 2).toList();
+            fail("Should throw");
+        } catch (IllegalStateException e) {
+            assertEquals("failed 2", e.getMessage());
+        }
+
+        // pending futures are cancelled on close
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        try (StreamEx<Integer> s = StreamEx.of(1, 2, 3, 4).mapAsync(x -> {
+            CompletableFuture<Integer> f = x == 1 ? CompletableFuture.completedFuture(x) : new CompletableFuture<>();
+            futures.add(f);
+            return f;
+        }, 3)) {
+            assertEquals(1, (int) s.findFirst().get());
+        }
+        assertEquals(3, futures.size());
+        assertFalse(futures.get(0).isCancelled());
+        assertTrue(futures.get(1).isCancelled());
+        assertTrue(futures.get(2).isCancelled());
+
+        // pending futures are cancelled when the mapper throws
+        futures.clear();
+        try {
+            StreamEx.of(1, 2, 3, 4).mapAsync(x -> {
+                if (x == 3)
+                    throw new IllegalStateException("mapper failed");
+                CompletableFuture<Integer> f = new CompletableFuture<>();
+                futures.add(f);
+                return f;
+            }, 3).toList();
+            fail("Should throw");
+        } catch (IllegalStateException e) {
+            assertEquals("mapper failed", e.getMessage());
+        }
+        assertEquals(2, futures.size());
+        assertTrue(futures.get(0).isCancelled());
+        assertTrue(futures.get(1).isCancelled());
+
+        try {
+            StreamEx.of(1).mapAsync(CompletableFuture::completedFuture, 0);
+            fail("Should throw");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static one.util.streamex.TestHelpers.*;
+import static org.junit.Assert.*;
+
+/**
+ * @author Tagir Valeev
+ */
+public class TakeDropTest {
+    @Test
+    public void testSpliterator() {
+        List<Integer> input = IntStreamEx.range(100).boxed().toList();
+        checkSpliterator("take", IntStreamEx.range(50).boxed().toList(), () -> new TakeDrop.TDOfRef<>(input
+                .spliterator(), false, false, x -> x < 50));
+        checkSpliterator("takeInclusive", IntStreamEx.range(51).boxed().toList(), () -> new TakeDrop.TDOfRef<>(
+                input.spliterator(), false, true, x -> x < 50));
+        checkSpliterator("drop", IntStreamEx.range(50, 100).boxed().toList(), () -> new TakeDrop.TDOfRef<>(input
+                .spliterator(), true, false, x -> x < 50));
+        checkSpliterator("dropAll", new ArrayList<>(), () -> new TakeDrop.TDOfRef<>(input.spliterator(), true,
+                false, x -> true));
+        checkSpliterator("takeInt", IntStreamEx.range(50).boxed().toList(), () -> new TakeDrop.TDOfInt(IntStreamEx
+                .range(100).spliterator(), false, false, x -> x < 50));
+        checkSpliterator("dropLong", LongStreamEx.range(50, 100).boxed().toList(), () -> new TakeDrop.TDOfLong(
+                LongStreamEx.range(100).spliterator(), true, false, x -> x < 50));
+        checkSpliterator("takeInclusiveDouble", Arrays.asList(0.0, 1.0, 2.0), () -> new TakeDrop.TDOfDouble(
+                DoubleStreamEx.of(0, 1, 2, 3, 4).spliterator(), false, true, x -> x < 2));
+    }
+
+    @Test
+    public void testBulkDrop() {
+        AtomicInteger tested = new AtomicInteger();
+        Spliterator<Integer> spltr = new TakeDrop.TDOfRef<>(IntStreamEx.range(1000).boxed().toList().spliterator(),
+                true, false, x -> {
+                    tested.incrementAndGet();
+                    return x < 10;
+                });
+        List<Integer> result = new ArrayList<>();
+        spltr.forEachRemaining(result::add);
+        assertEquals(IntStreamEx.range(10, 1000).boxed().toList(), result);
+        // predicate is not called after the first mismatch
+        assertEquals(11, tested.get());
+    }
+
+    @Test
+    public void testNestedCancel() {
+        // short-circuiting collector cancels the traversal inside the takeWhile
+        streamEx(() -> IntStreamEx.range(1000).boxed(), s -> {
+            assertEquals(Arrays.asList(0, 1, 2), s.get().takeWhile(x -> x < 500).collect(MoreCollectors.head(3)));
+            assertEquals(Arrays.asList(0, 1, 2), s.get().takeWhileInclusive(x -> x < 2).collect(MoreCollectors
+                    .head(5)));
+            assertEquals(Arrays.asList(0, 1), s.get().takeWhileInclusive(x -> x < 2).collect(MoreCollectors.head(2)));
+        });
+        assertEquals(1000, IntStreamEx.range(1000).boxed().parallel().unordered().takeWhile(x -> x < 2000).count());
+        assertEquals(0, IntStreamEx.range(1000).boxed().parallel().unordered().takeWhile(x -> x < 0).count());
+        assertEquals(1000, IntStreamEx.range(1000).boxed().parallel().unordered().takeWhileInclusive(x -> x < 2000)
+                .count());
+        assertEquals(1000, IntStreamEx.range(1000).boxed().parallel().unordered().dropWhile(x -> x < 0).count());
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2015, 2017 StreamEx contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.streamex;
+
+import static one.util.streamex.TestHelpers.*;
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+import org.junit.Test;
+
+/**
+ * @author Tagir Valeev
+ */
+public class WindowSpliteratorTest {
+    private static <T> List<List<T>> windows(List<T> input, int size, int step) {
+        List<List<T>> result = new ArrayList<>();
+        for (int i = 0; i + size <= input.size(); i += step) {
+            result.add(input.subList(i, i + size));
+        }
+        return result;
+    }
+
+    @Test
+    public void testSpliterator() {
+        withRandom(r -> repeat(10, n -> {
+            List<Integer> input = IntStreamEx.of(r, r.nextInt(n * 20), 0, 100).boxed().toList();
+            for (int size : new int[] { 1, 2, 3, 7, 20 }) {
+                for (int step : new int[] { 1, 2, 5, 30 }) {
+                    List<List<Integer>> expected = windows(input, size, step);
+                    checkSpliterator(size + "/" + step, expected, () -> new WindowSpliterator.OfRef<>(input
+                            .spliterator(), size, step));
+                }
+                int sz = size;
+                checkSpliterator("unsized/" + size, windows(input, size, 1), () -> new WindowSpliterator.OfRef<>(
+                        Spliterators.spliteratorUnknownSize(input.iterator(), Spliterator.ORDERED), sz, 1));
+                List<Integer> sums = StreamEx.of(windows(input, size, 1)).map(w -> IntStreamEx.of(w).sum()).toList();
+                List<Integer> mins = StreamEx.of(windows(input, size, 1)).map(w -> IntStreamEx.of(w).min()
+                        .getAsInt()).toList();
+                List<Integer> maxs = StreamEx.of(windows(input, size, 1)).map(w -> IntStreamEx.of(w).max()
+                        .getAsInt()).toList();
+                checkSpliterator("sum/" + size, sums, () -> new WindowSpliterator.Ints(IntStreamEx.of(input)
+                        .spliterator(), sz, WindowSpliterator.SUM));
+                checkSpliterator("min/" + size, mins, () -> new WindowSpliterator.Ints(IntStreamEx.of(input)
+                        .spliterator(), sz, WindowSpliterator.MIN));
+                checkSpliterator("max/" + size, maxs, () -> new WindowSpliterator.Ints(IntStreamEx.of(input)
+                        .spliterator(), sz, WindowSpliterator.MAX));
+                checkSpliterator("longMax/" + size, StreamEx.of(maxs).map(Integer::longValue).toList(),
+                    () -> new WindowSpliterator.Longs(IntStreamEx.of(input).asLongStream().spliterator(), sz, WindowSpliterator.MAX));
+                checkSpliterator("doubleMin/" + size, StreamEx.of(mins).map(Integer::doubleValue).toList(),
+                    () -> new WindowSpliterator.Doubles(IntStreamEx.of(input).asDoubleStream().spliterator(), sz,
+                            WindowSpliterator.MIN));
+                checkSpliterator("doubleSum/" + size, StreamEx.of(sums).map(Integer::doubleValue).toList(),
+                    () -> new WindowSpliterator.Doubles(IntStreamEx.of(input).asDoubleStream().spliterator(), sz,
+                            WindowSpliterator.SUM));
+                checkSpliterator("longAverage/" + size, StreamEx.of(sums).map(s -> (double) s / sz).toList(),
+                    () -> new WindowSpliterator.LongAverages(IntStreamEx.of(input).asLongStream().spliterator(), sz));
+            }
+        }));
+    }
+
+    @Test
+    public void testWindowed() {
+        List<Integer> input = IntStreamEx.range(1000).boxed().toList();
+        streamEx(input::stream, s -> {
+            assertEquals(windows(input, 10, 3), s.get().windowed(10, 3).toList());
+            assertEquals(windows(input, 5, 1), s.get().windowed(5).toList());
+            assertEquals(windows(input, 1, 7), s.get().windowed(1, 7).toList());
+            assertEquals(Collections.emptyList(), s.get().windowed(1001).toList());
+        });
+        assertEquals(Collections.singletonList(input), StreamEx.of(input).windowed(1000).toList());
+        assertEquals(333, StreamEx.of(input).windowed(4, 3).count());
+        assertEquals(Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("c", "d")), StreamEx.of("a", "b", "c", "d",
+            "e").windowed(2, 2).toList());
+
+        List<Integer> window = StreamEx.of(input).windowed(10).skip(500).findFirst().get();
+        assertEquals(IntStreamEx.range(500, 510).boxed().toList(), window);
+        assertArrayEquals(IntStreamEx.range(500, 510).boxed().toArray(), window.toArray());
+        try {
+            window.set(0, 1);
+            fail("Should be immutable");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            window.get(10);
+            fail("Should throw");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+        try {
+            StreamEx.of(input).windowed(0);
+            fail("Should throw");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            StreamEx.of(input).windowed(1, 0);
+            fail("Should throw");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testPrimitive() {
+        withRandom(r -> {
+            int[] input = IntStreamEx.of(r, 10000, -1000, 1000).toArray();
+            int[] sums = StreamEx.ofSubLists(IntStreamEx.of(input).boxed().toList(), 100, 1).filter(l -> l
+                    .size() == 100).mapToInt(l -> IntStreamEx.of(l).sum()).toArray();
+            int[] mins = IntStreamEx.range(input.length - 99).map(i -> IntStreamEx.of(input, i, i + 100).min()
+                    .getAsInt()).toArray();
+            int[] maxs = IntStreamEx.range(input.length - 99).map(i -> IntStreamEx.of(input, i, i + 100).max()
+                    .getAsInt()).toArray();
+            double[] avgs = IntStreamEx.of(sums).asDoubleStream().map(x -> x / 100).toArray();
+            for (IntStreamEx s : new IntStreamEx[] { IntStreamEx.of(input), IntStreamEx.of(input).parallel() }) {
+                assertArrayEquals(sums, s.windowedSum(100).toArray());
+            }
+            assertArrayEquals(mins, IntStreamEx.of(input).parallel().windowedMin(100).toArray());
+            assertArrayEquals(maxs, IntStreamEx.of(input).windowedMax(100).toArray());
+            assertArrayEquals(maxs, IntStreamEx.of(input).parallel().windowedMax(100).toArray());
+            assertArrayEquals(avgs, IntStreamEx.of(input).parallel().windowedAverage(100).toArray(), 1e-9);
+            assertArrayEquals(IntStreamEx.of(sums).asLongStream().toArray(), IntStreamEx.of(input).asLongStream().parallel()
+                    .windowedSum(100).toArray());
+            assertArrayEquals(IntStreamEx.of(mins).asLongStream().toArray(), IntStreamEx.of(input).asLongStream().parallel()
+                    .windowedMin(100).toArray());
+            assertArrayEquals(IntStreamEx.of(maxs).asLongStream().toArray(), IntStreamEx.of(input).asLongStream()
+                    .windowedMax(100).toArray());
+            assertArrayEquals(avgs, IntStreamEx.of(input).asLongStream().parallel().windowedAverage(100).toArray(), 1e-9);
+            assertArrayEquals(IntStreamEx.of(maxs).asDoubleStream().toArray(), IntStreamEx.of(input).asDoubleStream().parallel()
+                    .windowedMax(100).toArray(), 0.0);
+            assertArrayEquals(avgs, IntStreamEx.of(input).asDoubleStream().parallel().windowedAverage(100).toArray(), 1e-9);
+            assertArrayEquals(IntStreamEx.of(sums).asDoubleStream().toArray(), IntStreamEx.of(input).asDoubleStream()
+                    .windowedSum(100).toArray(), 1e-9);
+        });
+        assertArrayEquals(new int[] { 3, 5, 7 }, IntStreamEx.of(1, 2, 3, 4).windowedSum(2).toArray());
+        assertArrayEquals(new int[] { 1, 1, 1, 2 }, IntStreamEx.of(3, 5, 1, 4, 2, 6).windowedMin(3).toArray());
+        assertArrayEquals(new int[] { 5, 5, 4, 6 }, IntStreamEx.of(3, 5, 1, 4, 2, 6).windowedMax(3).toArray());
+        assertEquals(0, IntStreamEx.of(1, 2).windowedSum(3).count());
+        // overflow is not an issue
+        assertArrayEquals(new double[] { Integer.MAX_VALUE, Integer.MAX_VALUE }, IntStreamEx.constant(
+            Integer.MAX_VALUE, 4).windowedAverage(3).toArray(), 0.0);
+        double avg = new BigInteger(String.valueOf(Long.MAX_VALUE)).multiply(BigInteger.valueOf(3)).subtract(
+            BigInteger.ONE).divide(BigInteger.valueOf(3)).doubleValue();
+        assertArrayEquals(new double[] { Long.MAX_VALUE, avg }, LongStreamEx.of(Long.MAX_VALUE, Long.MAX_VALUE,
+            Long.MAX_VALUE, Long.MAX_VALUE - 1).windowedAverage(3).toArray(), 0.0);
+        assertArrayEquals(new double[] { Long.MIN_VALUE, Long.MIN_VALUE }, LongStreamEx.constant(Long.MIN_VALUE, 4)
+                .windowedAverage(3).toArray(), 0.0);
+        // no accumulated rounding errors
+        assertArrayEquals(new double[] { 1e20, -1e20, -1e20, 2, 2 }, DoubleStreamEx.of(1e20, 1, -1e20, 1, 1, 1)
+                .windowedSum(2).toArray(), 0.0);
+        assertArrayEquals(new double[] { 3, 3, 3 }, DoubleStreamEx.of(1e20, -1e20, 1, 1, 1, 1, 1)
+                .windowedSum(3).skip(2).toArray(), 0.0);
+        // NaN handling is the same as in Math.min/Math.max
+        assertArrayEquals(new double[] { Double.NaN, Double.NaN, 1 }, DoubleStreamEx.of(2, Double.NaN, 1, 3)
+                .windowedMin(2).toArray(), 0.0);
+        assertArrayEquals(new double[] { Double.NaN, Double.NaN, 3 }, DoubleStreamEx.of(2, Double.NaN, 1, 3)
+                .windowedMax(2).toArray(), 0.0);
+    }
+}